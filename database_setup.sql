@@ -5,6 +5,9 @@
 CREATE DATABASE lims_db;
 
 -- Connect to lims_db database and run the following:
+-- The application applies the same schema itself through the versioned migrations in
+-- src/database/Migrations.java and records them in schema_migrations; a schema change
+-- goes into a new migration there as well as into this script.
 
 -- Users table
 CREATE TABLE IF NOT EXISTS users (
@@ -95,6 +98,16 @@ CREATE TABLE IF NOT EXISTS software_requests (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Feedback table
+CREATE TABLE IF NOT EXISTS feedback (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    feedback TEXT NOT NULL,
+    status VARCHAR(50) DEFAULT 'Pending',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- User access control table
 CREATE TABLE IF NOT EXISTS user_access (
     id SERIAL PRIMARY KEY,
@@ -145,13 +158,250 @@ INSERT INTO user_access (user_id, name, role, department, access_level, status)
 ('U004', 'Mike Technician', 'Lab Technician', 'IT', 'Limited', 'Active'),
 ('U005', 'Sarah Professor', 'Teacher', 'Software Engineering', 'Limited', 'Active');
 
+-- Near-duplicate complaints: flagged rows point at the earliest report, merged reports bump its count
+ALTER TABLE complaints ADD COLUMN IF NOT EXISTS duplicate_of INT REFERENCES complaints(id) ON DELETE SET NULL;
+ALTER TABLE complaints ADD COLUMN IF NOT EXISTS duplicate_count INT NOT NULL DEFAULT 0;
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_computers_lab_id ON computers(lab_id);
 CREATE INDEX IF NOT EXISTS idx_computers_status ON computers(status);
 CREATE INDEX IF NOT EXISTS idx_complaints_status ON complaints(status);
+-- Triage queue: unassigned open complaints by urgency, then age (serves FOR UPDATE SKIP LOCKED claims)
+CREATE INDEX IF NOT EXISTS idx_complaints_triage ON complaints (
+    (CASE urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END) DESC,
+    created_at
+) WHERE status IN ('Open', 'Pending') AND (assigned_to IS NULL OR assigned_to = '') AND duplicate_of IS NULL;
+CREATE INDEX IF NOT EXISTS idx_complaints_open_originals ON complaints(computer_id, created_at)
+    WHERE status IN ('Open', 'Pending', 'In Progress') AND duplicate_of IS NULL;
+-- License seats: installations counts seats in use, license_limit caps them (NULL = unlimited)
+ALTER TABLE software ADD COLUMN IF NOT EXISTS license_limit INT CHECK (license_limit IS NULL OR license_limit >= 0);
+CREATE INDEX IF NOT EXISTS idx_software_name ON software (LOWER(software_name));
+CREATE INDEX IF NOT EXISTS idx_software_seat_pools ON software (id) WHERE license_limit IS NOT NULL;
 CREATE INDEX IF NOT EXISTS idx_reservations_date ON lab_reservations(reservation_date);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_user_access_status ON user_access(status);
 
+-- Full-text search: generated tsvector columns with GIN indexes
+ALTER TABLE complaints ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(description, ''))) STORED;
+ALTER TABLE feedback ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(feedback, ''))) STORED;
+ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(justification, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_complaints_search ON complaints USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_feedback_search ON feedback USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_software_requests_search ON software_requests USING GIN (search_vector);
+
+-- Session invalidation: tell running clients whose access changed so they rebuild that user's session
+CREATE OR REPLACE FUNCTION notify_user_access_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('user_access_changed', COALESCE(NEW.user_id, OLD.user_id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+DROP TRIGGER IF EXISTS trg_user_access_changed ON user_access;
+CREATE TRIGGER trg_user_access_changed AFTER INSERT OR UPDATE OR DELETE ON user_access
+    FOR EACH ROW EXECUTE FUNCTION notify_user_access_changed();
+
+-- Monthly range partitions for the request tables (see database.PartitionMaintainer)
+CREATE OR REPLACE FUNCTION insertable_columns(rel REGCLASS) RETURNS TEXT AS $$
+    SELECT string_agg(quote_ident(attname), ', ' ORDER BY attnum) FROM pg_attribute
+    WHERE attrelid = rel AND attnum > 0 AND NOT attisdropped AND attgenerated = ''
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, months INT) RETURNS INT AS $$
+DECLARE
+    default_name TEXT := parent || '_default';
+    key_column TEXT;
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    stray_rows BOOLEAN;
+    created INT := 0;
+BEGIN
+    SELECT a.attname INTO key_column FROM pg_partitioned_table p
+        JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0]
+        WHERE p.partrelid = parent::regclass;
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := (date_trunc('month', first_month) + make_interval(months => i))::date;
+        month_end := (month_start + INTERVAL '1 month')::date;
+        partition_name := parent || '_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+        stray_rows := false;
+        IF to_regclass(default_name) IS NOT NULL THEN
+            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                default_name, key_column, month_start, key_column, month_end) INTO stray_rows;
+        END IF;
+        IF stray_rows THEN
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);
+        END IF;
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent, month_start, month_end);
+        IF stray_rows THEN
+            EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I WHERE %I >= %L AND %I < %L',
+                parent, insertable_columns(parent::regclass), insertable_columns(parent::regclass),
+                default_name, key_column, month_start, key_column, month_end);
+            EXECUTE format('DELETE FROM %I WHERE %I >= %L AND %I < %L',
+                default_name, key_column, month_start, key_column, month_end);
+            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);
+        END IF;
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION partition_by_month(parent TEXT, key_column TEXT) RETURNS VOID AS $$
+DECLARE
+    old_name TEXT := parent || '_unpartitioned';
+    id_sequence TEXT := pg_get_serial_sequence(parent, 'id');
+    first_month DATE;
+    last_month DATE;
+    fk RECORD;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = parent::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+    -- A foreign key to a partitioned table must include the partition key
+    FOR fk IN SELECT conname, conrelid::regclass AS child FROM pg_constraint
+            WHERE contype = 'f' AND confrelid = parent::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.child, fk.conname);
+    END LOOP;
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS %I', parent, parent || '_pkey');
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, old_name);
+    IF id_sequence IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY NONE', id_sequence);
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED,'
+        ' UNIQUE (id, %I)) PARTITION BY RANGE (%I)', parent, old_name, key_column, key_column);
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+    EXECUTE format('SELECT min(%I)::date, max(%I)::date FROM %I', key_column, key_column, old_name)
+        INTO first_month, last_month;
+    first_month := date_trunc('month', LEAST(COALESCE(first_month, CURRENT_DATE), CURRENT_DATE));
+    last_month := date_trunc('month', GREATEST(COALESCE(last_month, CURRENT_DATE), CURRENT_DATE + INTERVAL '3 months'));
+    PERFORM create_monthly_partitions(parent, first_month,
+        ((EXTRACT(YEAR FROM last_month) - EXTRACT(YEAR FROM first_month)) * 12
+            + EXTRACT(MONTH FROM last_month) - EXTRACT(MONTH FROM first_month))::int + 1);
+    EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I', parent,
+        insertable_columns(old_name::regclass), insertable_columns(old_name::regclass), old_name);
+    EXECUTE format('DROP TABLE %I', old_name);
+    IF id_sequence IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY %I.id', id_sequence, parent);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT partition_by_month('complaints', 'created_at');
+SELECT partition_by_month('feedback', 'created_at');
+SELECT partition_by_month('software_requests', 'created_at');
+SELECT partition_by_month('lab_reservations', 'reservation_date');
+
+-- Indexes on a partitioned table are created on every partition, present and future
+CREATE INDEX IF NOT EXISTS idx_complaints_status ON complaints(status);
+CREATE INDEX IF NOT EXISTS idx_complaints_created_at ON complaints(created_at);
+CREATE INDEX IF NOT EXISTS idx_complaints_triage ON complaints (
+    (CASE urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END) DESC,
+    created_at
+) WHERE status IN ('Open', 'Pending') AND (assigned_to IS NULL OR assigned_to = '') AND duplicate_of IS NULL;
+CREATE INDEX IF NOT EXISTS idx_complaints_open_originals ON complaints(computer_id, created_at)
+    WHERE status IN ('Open', 'Pending', 'In Progress') AND duplicate_of IS NULL;
+CREATE INDEX IF NOT EXISTS idx_complaints_duplicate_of ON complaints(duplicate_of) WHERE duplicate_of IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_complaints_search ON complaints USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_feedback_created_at ON feedback(created_at);
+CREATE INDEX IF NOT EXISTS idx_feedback_search ON feedback USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_software_requests_created_at ON software_requests(created_at);
+CREATE INDEX IF NOT EXISTS idx_software_requests_search ON software_requests USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_reservations_date ON lab_reservations(reservation_date);
+
+-- Replaces the duplicate_of foreign key's ON DELETE SET NULL; rows moved by the
+-- RetentionService keep their duplicates linked to the archived original
+CREATE OR REPLACE FUNCTION clear_complaint_duplicate_of() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('lims.retention', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    UPDATE complaints SET duplicate_of = NULL WHERE duplicate_of = OLD.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+DROP TRIGGER IF EXISTS trg_complaints_clear_duplicate_of ON complaints;
+CREATE TRIGGER trg_complaints_clear_duplicate_of AFTER DELETE ON complaints
+    FOR EACH ROW EXECUTE FUNCTION clear_complaint_duplicate_of();
+
+-- Archive tables: rows moved out by service.RetentionService, and monthly partitions
+-- detached by database.PartitionMaintainer as child tables
+CREATE SCHEMA IF NOT EXISTS archive;
+CREATE TABLE IF NOT EXISTS archive.complaints (LIKE complaints INCLUDING GENERATED);
+CREATE TABLE IF NOT EXISTS archive.feedback (LIKE feedback INCLUDING GENERATED);
+CREATE TABLE IF NOT EXISTS archive.software_requests (LIKE software_requests INCLUDING GENERATED);
+CREATE TABLE IF NOT EXISTS archive.lab_reservations (LIKE lab_reservations INCLUDING GENERATED);
+CREATE INDEX IF NOT EXISTS idx_archive_complaints_created_at ON archive.complaints(created_at);
+CREATE INDEX IF NOT EXISTS idx_archive_feedback_created_at ON archive.feedback(created_at);
+CREATE INDEX IF NOT EXISTS idx_archive_software_requests_created_at ON archive.software_requests(created_at);
+CREATE INDEX IF NOT EXISTS idx_archive_reservations_date ON archive.lab_reservations(reservation_date);
+
+-- Status change times, on which the RetentionService ages finished rows
+ALTER TABLE complaints ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE feedback ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE lab_reservations ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE archive.complaints ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE archive.feedback ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+ALTER TABLE archive.lab_reservations ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP;
+UPDATE complaints SET status_changed_at = resolved_at WHERE resolved_at IS NOT NULL AND status_changed_at IS NULL;
+-- BEFORE row triggers on partitioned tables need PostgreSQL 13
+CREATE OR REPLACE FUNCTION touch_status_changed_at() RETURNS trigger AS $$
+BEGIN
+    IF NEW.status IS DISTINCT FROM OLD.status THEN
+        NEW.status_changed_at := CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+DROP TRIGGER IF EXISTS trg_complaints_status_changed_at ON complaints;
+CREATE TRIGGER trg_complaints_status_changed_at BEFORE UPDATE OF status ON complaints
+    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at();
+DROP TRIGGER IF EXISTS trg_feedback_status_changed_at ON feedback;
+CREATE TRIGGER trg_feedback_status_changed_at BEFORE UPDATE OF status ON feedback
+    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at();
+DROP TRIGGER IF EXISTS trg_software_requests_status_changed_at ON software_requests;
+CREATE TRIGGER trg_software_requests_status_changed_at BEFORE UPDATE OF status ON software_requests
+    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at();
+DROP TRIGGER IF EXISTS trg_lab_reservations_status_changed_at ON lab_reservations;
+CREATE TRIGGER trg_lab_reservations_status_changed_at BEFORE UPDATE OF status ON lab_reservations
+    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at();
+
+-- License seats held by approved requests: batch approval takes them, the DeploymentPlanner
+-- claims them per install and gives back any it did not use
+ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS seat_software_id INTEGER;
+ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS seats_held INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS seat_software_id INTEGER;
+ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS seats_held INTEGER NOT NULL DEFAULT 0;
+CREATE OR REPLACE FUNCTION release_held_seats() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.seats_held > 0 THEN
+            UPDATE software SET installations = GREATEST(0, installations - OLD.seats_held) WHERE id = OLD.seat_software_id;
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF NEW.status IS DISTINCT FROM OLD.status AND OLD.seats_held > 0 THEN
+        IF NEW.status <> 'Completed' THEN
+            UPDATE software SET installations = GREATEST(0, installations - OLD.seats_held) WHERE id = OLD.seat_software_id;
+        END IF;
+        NEW.seats_held := 0;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+DROP TRIGGER IF EXISTS trg_software_requests_release_seats ON software_requests;
+CREATE TRIGGER trg_software_requests_release_seats BEFORE UPDATE OF status ON software_requests
+    FOR EACH ROW EXECUTE FUNCTION release_held_seats();
+DROP TRIGGER IF EXISTS trg_software_requests_release_seats_on_delete ON software_requests;
+CREATE TRIGGER trg_software_requests_release_seats_on_delete AFTER DELETE ON software_requests
+    FOR EACH ROW EXECUTE FUNCTION release_held_seats();
+
 -- Display success message
 SELECT 'LIMS Database setup completed successfully!' as message;
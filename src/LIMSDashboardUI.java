@@ -10,8 +10,14 @@ import model.*;
 import java.util.List;
 
 import ui.DialogComponents;
+import ui.PerformanceConsolePanel;
+import ui.PanelCache;
+import ui.StartupOrchestrator;
+import utils.DatabaseDropdownPopulator;
 import controller.*;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
@@ -30,16 +36,39 @@ public class LIMSDashboardUI extends JFrame {
     private static SoftwareRequestController softwareRequestController;
     private static ReportController reportController;
 
+    /** Navigation items in display order, with the permission needed to open each */
+    private static final Map<String, Permission> NAV_ITEMS = new LinkedHashMap<>();
+    static {
+        NAV_ITEMS.put("Lab Schedule", Permission.MANAGE_RESERVATIONS);
+        NAV_ITEMS.put("Computer Inventory", Permission.MANAGE_COMPUTERS);
+        NAV_ITEMS.put("Software Management", Permission.MANAGE_SOFTWARE);
+        NAV_ITEMS.put("Report Management", Permission.VIEW_REPORTS);
+        NAV_ITEMS.put("Laboratory Usage Reports", Permission.VIEW_REPORTS);
+        NAV_ITEMS.put("Software Inventory", Permission.MANAGE_SOFTWARE);
+        NAV_ITEMS.put("Laboratory Management", Permission.MANAGE_COMPUTERS);
+        NAV_ITEMS.put("Complaint Tracking", Permission.MANAGE_COMPLAINTS);
+        NAV_ITEMS.put("Installation Requests", Permission.APPROVE_SOFTWARE_REQUESTS);
+        NAV_ITEMS.put("User Access Control", Permission.MANAGE_USERS);
+        NAV_ITEMS.put("Inventory Reports", Permission.VIEW_REPORTS);
+        NAV_ITEMS.put("Search Records", Permission.VIEW_REPORTS);
+        NAV_ITEMS.put("Slow Queries", Permission.VIEW_PERFORMANCE);
+        NAV_ITEMS.put("Performance Console", Permission.VIEW_PERFORMANCE);
+    }
+
     private static JPanel rightPanel;
     private static JPanel dynamicContentPanel;
+    private static PanelCache panelCache;
 
-    public LIMSDashboardUI(LIMSService service, String username) {
+    /**
+     * @param stats Statistics for the summary boxes, loaded during start-up
+     */
+    public LIMSDashboardUI(LIMSService service, String username, Map<String, String> stats) {
         limsService = service;
         currentUsername = username;
         
         // Initialize controllers
         computerController = new ComputerController(limsService.getComputerService());
-        complaintController = new ComplaintController(limsService.getComplaintService());
+        complaintController = new ComplaintController(limsService.getComplaintService(), limsService.getComplaintTriageService());
         softwareRequestController = new SoftwareRequestController(limsService.getSoftwareRequestService());
         feedbackController = new FeedbackController(limsService.getFeedbackService());
         labReservationController = new LabReservationController(limsService.getLabReservationService());
@@ -53,6 +82,7 @@ public class LIMSDashboardUI extends JFrame {
         DialogComponents.initialize(limsService, username);
 
         // Create main frame
+        panelCache = new PanelCache("Admin dashboard panels", 8);
         mainFrame = new JFrame("LIMS Admin Dashboard");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         mainFrame.setSize(1200, 800);
@@ -66,12 +96,11 @@ public class LIMSDashboardUI extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Create content panel
-        JPanel contentPanel = createContentPanel();
+        JPanel contentPanel = createContentPanel(stats);
         mainPanel.add(contentPanel, BorderLayout.CENTER);
 
         // Add main panel to frame
         mainFrame.add(mainPanel);
-        mainFrame.setVisible(true);
 
         // Start clock
         startClock();
@@ -120,7 +149,7 @@ public class LIMSDashboardUI extends JFrame {
         return headerPanel;
     }
 
-    private static JPanel createContentPanel() {
+    private static JPanel createContentPanel(Map<String, String> stats) {
         JPanel contentPanel = new JPanel(new BorderLayout());
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
@@ -129,7 +158,7 @@ public class LIMSDashboardUI extends JFrame {
         contentPanel.add(leftPanel, BorderLayout.WEST);
 
         // Create right panel for content
-        JPanel rightPanel = createRightPanel();
+        JPanel rightPanel = createRightPanel(stats);
         contentPanel.add(rightPanel, BorderLayout.CENTER);
 
         return contentPanel;
@@ -142,23 +171,12 @@ public class LIMSDashboardUI extends JFrame {
         navPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 20));
         navPanel.setBackground(new Color(245, 245, 245)); // Light gray background
 
-        // Add navigation buttons
-        String[] navItems = {
-            "Lab Schedule",
-            "Computer Inventory",
-            "Software Management",
-            "Report Management",
-            "Laboratory Usage Reports",
-            "Software Inventory",
-            "Laboratory Management",
-            "Complaint Tracking",
-            "Installation Requests",
-            "User Access Control",
-            "Inventory Reports"
-        };
-
-        for (String item : navItems) {
-            JButton button = createStyledButton(item);
+        // Add a navigation button for each section the logged-in user may open
+        for (Map.Entry<String, Permission> item : NAV_ITEMS.entrySet()) {
+            if (!limsService.hasPermission(item.getValue())) {
+                continue;
+            }
+            JButton button = createStyledButton(item.getKey());
             navPanel.add(button);
             navPanel.add(Box.createVerticalStrut(10));
         }
@@ -192,7 +210,7 @@ public class LIMSDashboardUI extends JFrame {
         return button;
     }
 
-    private static JPanel createRightPanel() {
+    private static JPanel createRightPanel(Map<String, String> stats) {
         rightPanel = new JPanel(new BorderLayout());
         rightPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         rightPanel.setBackground(Color.WHITE);
@@ -211,8 +229,6 @@ public class LIMSDashboardUI extends JFrame {
         statsPanel.setBackground(Color.WHITE);
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
-        // Get real statistics from database
-        Map<String, String> stats = StatisticsService.getAdminStatistics();
         statsPanel.add(createStatBox("Active Labs", stats.get("Active Labs"), new Color(52, 152, 219)));
         statsPanel.add(createStatBox("Total Computers", stats.get("Total Computers"), new Color(46, 204, 113)));
         statsPanel.add(createStatBox("Software Requests", stats.get("Software Requests"), new Color(155, 89, 182)));
@@ -250,9 +266,23 @@ public class LIMSDashboardUI extends JFrame {
 
     private static void handleNavigation(String item) {
         System.out.println("\n🔄 Dashboard.handleNavigation called for: " + item);
+        Permission required = NAV_ITEMS.get(item);
+        if (required != null && !limsService.hasPermission(required)) {
+            System.out.println("⛔ " + currentUsername + " may not open " + item);
+            return;
+        }
+        // A panel built earlier is shown as it was, without rebuilding it or reloading its data
+        JPanel cached = panelCache.get(item);
+        if (cached != null) {
+            System.out.println("♻️ Showing cached panel for: " + item);
+            panelCache.show(dynamicContentPanel, cached);
+            return;
+        }
+
         System.out.println("📤 Removing all components from dynamicContentPanel...");
 
         // Clear content immediately for responsive UI
+        panelCache.hideCurrent();
         dynamicContentPanel.removeAll();
 
         // Show loading indicator
@@ -269,9 +299,7 @@ public class LIMSDashboardUI extends JFrame {
             protected JPanel doInBackground() throws Exception {
                 publish("🏗️ Creating panel for: " + item);
 
-                // Ensure database connections are ready
                 publish("📊 Loading data for " + item + "...");
-                Thread.sleep(100); // Brief pause for data loading
 
                 JPanel panel = null;
                 switch (item) {
@@ -319,6 +347,18 @@ public class LIMSDashboardUI extends JFrame {
                         publish("📋 Loading inventory reports...");
                         panel = DialogComponents.getInventoryReportPanel();
                         break;
+                    case "Search Records":
+                        publish("🔍 Loading record search...");
+                        panel = DialogComponents.getSearchPanel();
+                        break;
+                    case "Slow Queries":
+                        publish("🐢 Loading slow query report...");
+                        panel = DialogComponents.getSlowQueryReportPanel();
+                        break;
+                    case "Performance Console":
+                        publish("📈 Loading performance console...");
+                        panel = new PerformanceConsolePanel();
+                        break;
                     default:
                         System.out.println("⚠️ Unknown navigation item: " + item);
                         break;
@@ -326,7 +366,6 @@ public class LIMSDashboardUI extends JFrame {
 
                 if (panel != null) {
                     publish("✅ Data loaded successfully for " + item);
-                    Thread.sleep(200); // Allow data to settle
                 }
 
                 return panel;
@@ -356,23 +395,18 @@ public class LIMSDashboardUI extends JFrame {
                 try {
                     JPanel panel = get();
 
-                    // Clear loading indicator
-                    dynamicContentPanel.removeAll();
-
                     if (panel != null) {
                         System.out.println("✅ Panel created successfully for: " + item);
                         System.out.println("📦 Panel components: " + panel.getComponentCount());
 
-                        System.out.println("➕ Adding panel to dynamicContentPanel...");
-                        dynamicContentPanel.add(panel, BorderLayout.CENTER);
-
-                        System.out.println("🔄 Calling revalidate() and repaint()...");
-                        dynamicContentPanel.revalidate();
-                        dynamicContentPanel.repaint();
+                        System.out.println("➕ Caching and showing panel in dynamicContentPanel...");
+                        panelCache.put(item, panel);
+                        panelCache.show(dynamicContentPanel, panel);
 
                         System.out.println("✅ Panel navigation completed for: " + item);
                     } else {
                         System.out.println("❌ Panel is null for: " + item);
+                        dynamicContentPanel.removeAll();
                         JLabel errorLabel = new JLabel("❌ Failed to load " + item, SwingConstants.CENTER);
                         errorLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
                         errorLabel.setForeground(Color.RED);
@@ -494,6 +528,7 @@ public class LIMSDashboardUI extends JFrame {
             );
 
             if (result == JOptionPane.YES_OPTION) {
+                limsService.signOut();
                 profileDialog.dispose();
                 mainFrame.dispose();
                 // Return to login screen
@@ -563,24 +598,19 @@ public class LIMSDashboardUI extends JFrame {
                 JFrame loadingFrame = createLoadingFrame();
                 loadingFrame.setVisible(true);
 
-                // Create dashboard in background with proper data loading
-                SwingWorker<LIMSDashboardUI, String> worker = new SwingWorker<LIMSDashboardUI, String>() {
+                // Load statistics and reference data side by side; other panels load on first view
+                StartupOrchestrator startup = new StartupOrchestrator("Admin dashboard");
+                SwingWorker<Map<String, String>, String> worker = new SwingWorker<Map<String, String>, String>() {
                     @Override
-                    protected LIMSDashboardUI doInBackground() throws Exception {
-                        publish("🔧 Initializing services and controllers...");
-                        Thread.sleep(200); // Allow UI to settle
-
-                        publish("📊 Pre-loading database connections...");
-                        // Pre-warm database connections and verify data availability
-                        preloadDatabaseData();
+                    protected Map<String, String> doInBackground() {
+                        publish("📊 Loading statistics and reference data...");
+                        CompletableFuture<Map<String, String>> stats =
+                            startup.submit("Load statistics", StatisticsService::getAdminStatistics);
+                        startup.submit("Load reference data", DatabaseDropdownPopulator::preloadReferenceData);
+                        startup.awaitAll();
 
                         publish("🏗️ Creating dashboard components...");
-                        LIMSDashboardUI dashboard = new LIMSDashboardUI(service, username);
-
-                        publish("✅ Dashboard ready!");
-                        Thread.sleep(300); // Brief pause to show completion
-
-                        return dashboard;
+                        return StartupOrchestrator.resultOf(stats, java.util.Collections.emptyMap());
                     }
 
                     @Override
@@ -595,24 +625,24 @@ public class LIMSDashboardUI extends JFrame {
                     @Override
                     protected void done() {
                         try {
-                            LIMSDashboardUI dashboard = get();
+                            Map<String, String> stats = get();
+                            startup.measure("Build dashboard", () -> new LIMSDashboardUI(service, username, stats));
 
-                            // Ensure all data is loaded before showing dashboard
-                            SwingUtilities.invokeLater(() -> {
-                                loadingFrame.dispose();
-
-                                System.out.println("🖥️ Making dashboard visible with loaded data...");
-                                mainFrame.setVisible(true);
-                                LIMSNavigator.setCurrentFrame(mainFrame);
+                            loadingFrame.dispose();
+                            System.out.println("🖥️ Making dashboard visible with loaded data...");
+                            mainFrame.setVisible(true);
+                            LIMSNavigator.setCurrentFrame(mainFrame);
+                            startup.mark("Dashboard visible");
 
-                                // Trigger initial data refresh for all components
-                                refreshAllDashboardData();
+                            // Trigger initial data refresh for all components
+                            refreshAllDashboardData();
 
-                                System.out.println("✅ Admin Dashboard initialized successfully with data!");
-                                System.out.println("📋 Ready for navigation - data should be visible immediately");
-                            });
+                            System.out.println("✅ Admin Dashboard initialized successfully with data!");
+                            System.out.println("📋 Ready for navigation - data should be visible immediately");
+                            startup.finish();
 
                         } catch (Exception e) {
+                            startup.finish();
                             loadingFrame.dispose();
                             System.err.println("❌ Error creating dashboard: " + e.getMessage());
                             e.printStackTrace();
@@ -663,34 +693,6 @@ public class LIMSDashboardUI extends JFrame {
         return loadingFrame;
     }
 
-    private static void preloadDatabaseData() {
-        try {
-            System.out.println("🔄 Pre-loading database connections and data...");
-
-            // Test database connectivity
-            LIMSService service = LIMSService.getInstance();
-
-            // Pre-warm table models to ensure data is available
-            System.out.println("📊 Pre-loading complaint data...");
-            ui.DatabaseTableModel.getComplaintTableModel();
-
-            System.out.println("💻 Pre-loading computer data...");
-            ui.DatabaseTableModel.getComputerTableModel();
-
-            System.out.println("🔬 Pre-loading lab data...");
-            ui.DatabaseTableModel.getLabTableModel();
-
-            System.out.println("📋 Pre-loading software request data...");
-            ui.DatabaseTableModel.getSoftwareRequestTableModel();
-
-            System.out.println("✅ Database data pre-loaded successfully!");
-
-        } catch (Exception e) {
-            System.err.println("⚠️ Warning: Could not pre-load all data: " + e.getMessage());
-            // Continue anyway - data will load on demand
-        }
-    }
-
     private static void updateLoadingMessage(JFrame loadingFrame, String message) {
         SwingUtilities.invokeLater(() -> {
             Component[] components = loadingFrame.getContentPane().getComponents();
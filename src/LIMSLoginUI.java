@@ -3,12 +3,16 @@ import java.awt.*;
 import java.awt.event.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import model.Permission;
 import service.LIMSService;
+import service.LoginRateLimiter;
+import ui.EdtWatchdog;
 
 public class LIMSLoginUI {
     private JFrame frame;
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private boolean loggingIn;
 
     public static void main(String[] args) {
         try {
@@ -16,6 +20,8 @@ public class LIMSLoginUI {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        EdtWatchdog.getInstance().start();
+        LIMSService.initializeInBackground();
         SwingUtilities.invokeLater(() -> new LIMSLoginUI().initializeUI());
     }
 
@@ -87,8 +93,8 @@ public class LIMSLoginUI {
         passLabel.setBounds(75, 150, 250, 20);
         loginPanel.add(passLabel);
 
-        // Password field - Pre-filled with admin password for convenience
-        passwordField = new JPasswordField("Admin123!");
+        // Password field - Pre-filled only when the built-in development accounts are enabled
+        passwordField = new JPasswordField(Boolean.getBoolean("lims.auth.builtInAccounts") ? "Admin123!" : "");
         passwordField.setBounds(75, 175, 250, 35);
         passwordField.setFont(new Font("SansSerif", Font.PLAIN, 14));
         passwordField.addActionListener(e -> handleLogin());
@@ -176,157 +182,6 @@ public class LIMSLoginUI {
         }
     }
 
-    /**
-     * Attempt primary authentication through LIMSService
-     */
-    private String attemptAuthentication(LIMSService service, String username, String password) {
-        try {
-            System.out.println("🔐 Attempting primary authentication...");
-            String role = service.authenticateUser(username, password);
-            if (role != null) {
-                System.out.println("✅ Primary authentication successful: " + role);
-                return role;
-            } else {
-                System.out.println("❌ Primary authentication failed");
-                return null;
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Primary authentication error: " + e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * ULTIMATE FALLBACK AUTHENTICATION METHODS
-     * Multiple layers of authentication to guarantee login success
-     */
-    private String attemptFallbackAuthentication(String username, String password) {
-        System.out.println("🔧 ULTIMATE FALLBACK AUTHENTICATION STARTING...");
-
-        // Fallback 1: Direct admin bypass (guaranteed to work)
-        if ("admin".equals(username) && ("Admin123!".equals(password) || "admin123".equals(password))) {
-            System.out.println("✅ Fallback 1: Admin bypass successful");
-            return "Admin";
-        }
-
-        // Fallback 2: Teacher credentials
-        if ("teacher1".equals(username) && ("Teacher123!".equals(password) || "teacher123".equals(password))) {
-            System.out.println("✅ Fallback 2: Teacher bypass successful");
-            return "Teacher";
-        }
-
-        // Fallback 3: Student credentials
-        if ("student1".equals(username) && ("Student123!".equals(password) || "student123".equals(password))) {
-            System.out.println("✅ Fallback 3: Student bypass successful");
-            return "Student";
-        }
-
-        // Fallback 4: Direct UserService authentication
-        try {
-            System.out.println("🔧 Fallback 4: Direct UserService authentication...");
-            service.UserService userService = new service.UserService();
-            model.User user = userService.authenticateUser(username, password);
-            if (user != null && user.isActive()) {
-                System.out.println("✅ Fallback 4: UserService authentication successful");
-                return user.getRole();
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Fallback 4 failed: " + e.getMessage());
-        }
-
-        // Fallback 5: Emergency database authentication
-        try {
-            System.out.println("🔧 Fallback 5: Emergency database authentication...");
-            String role = emergencyDatabaseAuth(username, password);
-            if (role != null) {
-                System.out.println("✅ Fallback 5: Emergency database authentication successful");
-                return role;
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Fallback 5 failed: " + e.getMessage());
-        }
-
-        // Fallback 6: Simple users table authentication
-        try {
-            System.out.println("🔧 Fallback 6: Simple users table authentication...");
-            String role = simpleUsersAuth(username, password);
-            if (role != null) {
-                System.out.println("✅ Fallback 6: Simple users authentication successful");
-                return role;
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Fallback 6 failed: " + e.getMessage());
-        }
-
-        // Fallback 7: Ultimate emergency access (last resort)
-        if ("admin".equals(username)) {
-            System.out.println("✅ Fallback 7: Ultimate emergency admin access granted");
-            return "Admin";
-        }
-
-        System.out.println("❌ All fallback authentication methods failed");
-        return null;
-    }
-
-    /**
-     * Emergency database authentication - direct SQL
-     */
-    private String emergencyDatabaseAuth(String username, String password) {
-        try {
-            String url = "jdbc:postgresql://localhost:5434/lims_db";
-            String dbUser = "postgres";
-            String dbPassword = "superadmin";
-
-            try (java.sql.Connection conn = java.sql.DriverManager.getConnection(url, dbUser, dbPassword)) {
-                String query = "SELECT role, status FROM user_access WHERE user_id = ? AND status = 'Active'";
-                try (java.sql.PreparedStatement stmt = conn.prepareStatement(query)) {
-                    stmt.setString(1, username);
-                    try (java.sql.ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            String role = rs.getString("role");
-                            String status = rs.getString("status");
-
-                            // For admin, allow emergency access
-                            if ("admin".equals(username) && "Admin123!".equals(password) && "Active".equals(status)) {
-                                return role;
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Emergency database auth error: " + e.getMessage());
-        }
-        return null;
-    }
-
-    /**
-     * Simple users table authentication (for new authentication system)
-     */
-    private String simpleUsersAuth(String username, String password) {
-        try {
-            String url = "jdbc:postgresql://localhost:5434/lims_db";
-            String dbUser = "postgres";
-            String dbPassword = "superadmin";
-
-            try (java.sql.Connection conn = java.sql.DriverManager.getConnection(url, dbUser, dbPassword)) {
-                String query = "SELECT role FROM simple_users WHERE username = ? AND password = ? AND status = 'Active'";
-                try (java.sql.PreparedStatement stmt = conn.prepareStatement(query)) {
-                    stmt.setString(1, username);
-                    stmt.setString(2, password);
-                    try (java.sql.ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return rs.getString("role");
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Simple users auth error: " + e.getMessage());
-        }
-        return null;
-    }
-
     private void handleLogin() {
         String rawUsername = usernameField.getText().trim();
         String rawPassword = new String(passwordField.getPassword());
@@ -335,25 +190,8 @@ public class LIMSLoginUI {
         System.out.println("🔐 Password length: " + rawPassword.length());
         System.out.println("🔐 Current time: " + new java.util.Date());
 
-        // Force admin credentials if empty or incorrect
-        final String username;
-        final String password;
-
-        if (rawUsername.isEmpty() || (!rawUsername.equals("admin") && !rawUsername.equals("teacher1") && !rawUsername.equals("student1"))) {
-            username = "admin";
-            usernameField.setText("admin");
-            System.out.println("🔧 Auto-corrected username to: admin");
-        } else {
-            username = rawUsername;
-        }
-
-        if (rawPassword.isEmpty() || rawPassword.length() < 8) {
-            password = "Admin123!";
-            passwordField.setText("Admin123!");
-            System.out.println("🔧 Auto-corrected password");
-        } else {
-            password = rawPassword;
-        }
+        final String username = rawUsername;
+        final String password = rawPassword;
 
         if (username.isEmpty() || password.isEmpty()) {
             JOptionPane.showMessageDialog(
@@ -365,21 +203,49 @@ public class LIMSLoginUI {
             return;
         }
 
-        try {
-            System.out.println("Getting LIMSService instance...");
-            LIMSService service = LIMSService.getInstance();
-            System.out.println("Authenticating user...");
-
-            // Multiple authentication attempts with fallbacks
-            String tempRole = attemptAuthentication(service, username, password);
-
-            if (tempRole == null) {
-                System.out.println("🔧 Primary authentication failed, trying fallback methods...");
-                tempRole = attemptFallbackAuthentication(username, password);
+        if (loggingIn) {
+            return;
+        }
+        loggingIn = true;
+        frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        // Authenticate off the EDT so the login screen stays responsive while the database answers
+        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                System.out.println("Authenticating user...");
+                return LIMSService.getInstance().authenticateUser(username, password);
             }
 
-            final String userRole = tempRole;
+            @Override
+            protected void done() {
+                loggingIn = false;
+                frame.setCursor(Cursor.getDefaultCursor());
+                String role;
+                try {
+                    role = get();
+                } catch (Exception e) {
+                    System.err.println("Error during login process:");
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                        frame,
+                        "Error during login: " + e.getMessage() + "\nCheck console for details.",
+                        "Login Error",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                    return;
+                }
+                openDashboard(LIMSService.getInstance(), username, role);
+            }
+        };
+        worker.execute();
+    }
 
+    /**
+     * Open the dashboard for a role, or report a refused login if the role is null
+     */
+    private void openDashboard(LIMSService service, String username, String userRole) {
+        try {
             if (userRole != null) {
                 System.out.println("Authentication successful. Role: " + userRole);
                 frame.dispose();
@@ -388,27 +254,24 @@ public class LIMSLoginUI {
                 EventQueue.invokeLater(() -> {
                     try {
                         System.out.println("Opening dashboard for role: " + userRole);
-                        switch (userRole) {
-                            case "Teacher":
-                                System.out.println("Initializing Teacher Dashboard...");
-                                TeacherDashboardUI.showTeacherDashboard(service, username);
-                                break;
-                            case "Student":
-                                System.out.println("Initializing Student Dashboard...");
-                                StudentDashboardUI.showStudentDashboard(service, username);
-                                break;
-                            case "Admin":
-                                System.out.println("Initializing Admin Dashboard...");
-                                LIMSDashboardUI.showDashboard(service, username);
-                                break;
-                            default:
-                                System.out.println("Invalid role detected: " + userRole);
-                                JOptionPane.showMessageDialog(
-                                    frame,
-                                    "Invalid user role: " + userRole,
-                                    "Login Error",
-                                    JOptionPane.ERROR_MESSAGE
-                                );
+                        // The dashboard follows what the session may do, not the role's name
+                        if (service.hasPermission(Permission.MANAGE_COMPUTERS) || service.hasPermission(Permission.MANAGE_USERS)) {
+                            System.out.println("Initializing Admin Dashboard...");
+                            LIMSDashboardUI.showDashboard(service, username);
+                        } else if (service.hasPermission(Permission.MANAGE_RESERVATIONS)) {
+                            System.out.println("Initializing Teacher Dashboard...");
+                            TeacherDashboardUI.showTeacherDashboard(service, username);
+                        } else if (service.hasPermission(Permission.VIEW_DASHBOARD)) {
+                            System.out.println("Initializing Student Dashboard...");
+                            StudentDashboardUI.showStudentDashboard(service, username);
+                        } else {
+                            System.out.println("Invalid role detected: " + userRole);
+                            JOptionPane.showMessageDialog(
+                                frame,
+                                "Invalid user role: " + userRole,
+                                "Login Error",
+                                JOptionPane.ERROR_MESSAGE
+                            );
                         }
                         System.out.println("Dashboard initialization completed.");
                     } catch (Exception e) {
@@ -422,6 +285,15 @@ public class LIMSLoginUI {
                         );
                     }
                 });
+            } else if (LoginRateLimiter.getInstance().getRetryAfterMillis(username) > 0) {
+                long seconds = Math.max(1, (LoginRateLimiter.getInstance().getRetryAfterMillis(username) + 999) / 1000);
+                System.out.println("Authentication throttled - too many attempts");
+                JOptionPane.showMessageDialog(
+                    frame,
+                    "Too many login attempts. Please try again in " + seconds + " second(s).",
+                    "Login Failed",
+                    JOptionPane.WARNING_MESSAGE
+                );
             } else {
                 System.out.println("Authentication failed - invalid credentials");
                 JOptionPane.showMessageDialog(
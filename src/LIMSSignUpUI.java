@@ -4,8 +4,7 @@ import java.awt.event.MouseAdapter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.sql.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import utils.PasswordManager;
 import java.util.regex.Pattern;
 
 public class LIMSSignUpUI {
@@ -419,23 +418,9 @@ public class LIMSSignUpUI {
     }
 
     /**
-     * Hash password using SHA-256
+     * Hash password with the same scheme the login checks against
      */
     private static String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = md.digest(password.getBytes());
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashedBytes) {
-                sb.append(String.format("%02x", b));
-            }
-
-            return sb.toString();
-
-        } catch (NoSuchAlgorithmException e) {
-            System.err.println("Error hashing password: " + e.getMessage());
-            return password; // Fallback to plain text (not recommended for production)
-        }
+        return PasswordManager.getInstance().hash(password);
     }
 }
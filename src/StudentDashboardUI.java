@@ -10,8 +10,12 @@ import service.StatisticsService;
 import model.*;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import controller.*;
 import ui.DialogComponents;
+import ui.PanelCache;
+import ui.StartupOrchestrator;
+import utils.DatabaseDropdownPopulator;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
@@ -26,13 +30,17 @@ public class StudentDashboardUI extends JFrame {
     private FeedbackController feedbackController;
     private JPanel rightPanel;
     private JPanel dynamicContentPanel;
+    private final PanelCache panelCache = new PanelCache("Student dashboard panels", 6);
 
-    public StudentDashboardUI(LIMSService service, String username) {
+    /**
+     * @param stats Statistics for the summary boxes, loaded during start-up
+     */
+    public StudentDashboardUI(LIMSService service, String username, Map<String, String> stats) {
         limsService = service;
         currentUsername = username;
         
         // Initialize controllers
-        complaintController = new ComplaintController(limsService.getComplaintService());
+        complaintController = new ComplaintController(limsService.getComplaintService(), limsService.getComplaintTriageService());
         softwareRequestController = new SoftwareRequestController(limsService.getSoftwareRequestService());
         feedbackController = new FeedbackController(limsService.getFeedbackService());
 
@@ -54,7 +62,7 @@ public class StudentDashboardUI extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Create content panel
-        JPanel contentPanel = createContentPanel();
+        JPanel contentPanel = createContentPanel(stats);
         mainPanel.add(contentPanel, BorderLayout.CENTER);
 
         // Add main panel to frame
@@ -107,7 +115,7 @@ public class StudentDashboardUI extends JFrame {
         return headerPanel;
     }
 
-    private JPanel createContentPanel() {
+    private JPanel createContentPanel(Map<String, String> stats) {
         JPanel contentPanel = new JPanel(new BorderLayout());
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         contentPanel.setBackground(new Color(245, 245, 245));
@@ -117,7 +125,7 @@ public class StudentDashboardUI extends JFrame {
         contentPanel.add(leftPanel, BorderLayout.WEST);
 
         // Create right panel for content
-        JPanel rightPanel = createRightPanel();
+        JPanel rightPanel = createRightPanel(stats);
         contentPanel.add(rightPanel, BorderLayout.CENTER);
 
         return contentPanel;
@@ -174,7 +182,7 @@ public class StudentDashboardUI extends JFrame {
         return button;
     }
 
-    private JPanel createRightPanel() {
+    private JPanel createRightPanel(Map<String, String> stats) {
         rightPanel = new JPanel(new BorderLayout());
         rightPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         rightPanel.setBackground(Color.WHITE);
@@ -196,8 +204,6 @@ public class StudentDashboardUI extends JFrame {
         statsPanel.setBackground(Color.WHITE);
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
-        // Get real statistics from database
-        Map<String, String> stats = StatisticsService.getStudentStatistics(currentUsername);
         statsPanel.add(createStatBox("My Complaints", stats.get("My Complaints"), new Color(52, 152, 219)));
         statsPanel.add(createStatBox("Software Requests", stats.get("Software Requests"), new Color(46, 204, 113)));
         statsPanel.add(createStatBox("Available Labs", stats.get("Available Labs"), new Color(155, 89, 182)));
@@ -235,9 +241,18 @@ public class StudentDashboardUI extends JFrame {
 
     private void handleNavigation(String item) {
         System.out.println("\n🔄 StudentDashboard.handleNavigation called for: " + item);
+        // A panel built earlier is shown as it was, without rebuilding it or reloading its data
+        JPanel cached = panelCache.get(item);
+        if (cached != null) {
+            System.out.println("♻️ Showing cached panel for: " + item);
+            panelCache.show(dynamicContentPanel, cached);
+            return;
+        }
+
         System.out.println("📤 Removing all components from dynamicContentPanel...");
 
         // Clear content immediately for responsive UI
+        panelCache.hideCurrent();
         dynamicContentPanel.removeAll();
 
         // Show loading indicator
@@ -256,7 +271,6 @@ public class StudentDashboardUI extends JFrame {
 
                 // Ensure data is ready for student panels
                 publish("📊 Loading data for " + item + "...");
-                Thread.sleep(100); // Brief pause for data loading
 
                 JPanel panel = null;
                 switch (item) {
@@ -287,7 +301,6 @@ public class StudentDashboardUI extends JFrame {
 
                 if (panel != null) {
                     publish("✅ Data loaded successfully for " + item);
-                    Thread.sleep(200); // Allow data to settle
                 }
 
                 return panel;
@@ -316,23 +329,18 @@ public class StudentDashboardUI extends JFrame {
                 try {
                     JPanel panel = get();
 
-                    // Clear loading indicator
-                    dynamicContentPanel.removeAll();
-
                     if (panel != null) {
                         System.out.println("✅ Panel created successfully for: " + item);
                         System.out.println("📦 Panel components: " + panel.getComponentCount());
 
-                        System.out.println("➕ Adding panel to dynamicContentPanel...");
-                        dynamicContentPanel.add(panel, BorderLayout.CENTER);
-
-                        System.out.println("🔄 Calling revalidate() and repaint()...");
-                        dynamicContentPanel.revalidate();
-                        dynamicContentPanel.repaint();
+                        System.out.println("➕ Caching and showing panel in dynamicContentPanel...");
+                        panelCache.put(item, panel);
+                        panelCache.show(dynamicContentPanel, panel);
 
                         System.out.println("✅ Panel navigation completed for: " + item);
                     } else {
                         System.out.println("❌ Panel is null for: " + item);
+                        dynamicContentPanel.removeAll();
                         JLabel errorLabel = new JLabel("❌ Failed to load " + item, SwingConstants.CENTER);
                         errorLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
                         errorLabel.setForeground(Color.RED);
@@ -443,6 +451,7 @@ public class StudentDashboardUI extends JFrame {
             );
 
             if (result == JOptionPane.YES_OPTION) {
+                limsService.signOut();
                 profileDialog.dispose();
                 mainFrame.dispose();
                 // Return to login screen
@@ -512,23 +521,19 @@ public class StudentDashboardUI extends JFrame {
                 JFrame loadingFrame = createLoadingFrame();
                 loadingFrame.setVisible(true);
 
-                // Create dashboard in background with proper data loading
-                SwingWorker<StudentDashboardUI, String> worker = new SwingWorker<StudentDashboardUI, String>() {
+                // Load statistics and reference data side by side; other panels load on first view
+                StartupOrchestrator startup = new StartupOrchestrator("Student dashboard");
+                SwingWorker<Map<String, String>, String> worker = new SwingWorker<Map<String, String>, String>() {
                     @Override
-                    protected StudentDashboardUI doInBackground() throws Exception {
-                        publish("🔧 Initializing student services...");
-                        Thread.sleep(200); // Allow UI to settle
-
-                        publish("📊 Pre-loading student data...");
-                        preloadStudentData();
+                    protected Map<String, String> doInBackground() {
+                        publish("📊 Loading student statistics and reference data...");
+                        CompletableFuture<Map<String, String>> stats =
+                            startup.submit("Load statistics", () -> StatisticsService.getStudentStatistics(username));
+                        startup.submit("Load reference data", DatabaseDropdownPopulator::preloadReferenceData);
+                        startup.awaitAll();
 
                         publish("🏗️ Creating student dashboard...");
-                        StudentDashboardUI dashboard = new StudentDashboardUI(service, username);
-
-                        publish("✅ Student dashboard ready!");
-                        Thread.sleep(300); // Brief pause to show completion
-
-                        return dashboard;
+                        return StartupOrchestrator.resultOf(stats, java.util.Collections.emptyMap());
                     }
 
                     @Override
@@ -542,23 +547,26 @@ public class StudentDashboardUI extends JFrame {
                     @Override
                     protected void done() {
                         try {
-                            StudentDashboardUI dashboard = get();
+                            Map<String, String> stats = get();
+                            StudentDashboardUI dashboard = startup.measure("Build dashboard",
+                                () -> new StudentDashboardUI(service, username, stats));
 
-                            SwingUtilities.invokeLater(() -> {
-                                loadingFrame.dispose();
+                            loadingFrame.dispose();
 
-                                System.out.println("🖥️ Making student dashboard visible with loaded data...");
-                                dashboard.mainFrame.setVisible(true);
-                                LIMSNavigator.setCurrentFrame(dashboard.mainFrame);
+                            System.out.println("🖥️ Making student dashboard visible with loaded data...");
+                            dashboard.mainFrame.setVisible(true);
+                            LIMSNavigator.setCurrentFrame(dashboard.mainFrame);
+                            startup.mark("Dashboard visible");
 
-                                // Refresh student-specific data
-                                refreshStudentData();
+                            // Refresh student-specific data
+                            refreshStudentData();
 
-                                System.out.println("✅ Student Dashboard initialized successfully with data!");
-                                System.out.println("📋 Ready for navigation - data should be visible immediately");
-                            });
+                            System.out.println("✅ Student Dashboard initialized successfully with data!");
+                            System.out.println("📋 Ready for navigation - data should be visible immediately");
+                            startup.finish();
 
                         } catch (Exception e) {
+                            startup.finish();
                             loadingFrame.dispose();
                             System.err.println("❌ Error creating dashboard: " + e.getMessage());
                             e.printStackTrace();
@@ -609,27 +617,6 @@ public class StudentDashboardUI extends JFrame {
         return loadingFrame;
     }
 
-    private static void preloadStudentData() {
-        try {
-            System.out.println("🔄 Pre-loading student-specific data...");
-
-            // Pre-warm student-relevant table models
-            System.out.println("📊 Pre-loading complaint data...");
-            ui.DatabaseTableModel.getComplaintTableModel();
-
-            System.out.println("📋 Pre-loading software request data...");
-            ui.DatabaseTableModel.getSoftwareRequestTableModel();
-
-            System.out.println("🔬 Pre-loading lab schedule data...");
-            ui.DatabaseTableModel.getLabTableModel();
-
-            System.out.println("✅ Student data pre-loaded successfully!");
-
-        } catch (Exception e) {
-            System.err.println("⚠️ Warning: Could not pre-load all student data: " + e.getMessage());
-        }
-    }
-
     private static void updateLoadingMessage(JFrame loadingFrame, String message) {
         SwingUtilities.invokeLater(() -> {
             Component[] components = loadingFrame.getContentPane().getComponents();
@@ -10,8 +10,12 @@ import service.StatisticsService;
 import model.*;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import controller.*;
 import ui.DialogComponents;
+import ui.PanelCache;
+import ui.StartupOrchestrator;
+import utils.DatabaseDropdownPopulator;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
@@ -27,8 +31,12 @@ public class TeacherDashboardUI extends JFrame {
 
     private JPanel rightPanel;
     private JPanel dynamicContentPanel;
+    private final PanelCache panelCache = new PanelCache("Teacher dashboard panels", 6);
 
-    public TeacherDashboardUI(LIMSService service, String username) {
+    /**
+     * @param stats Statistics for the summary boxes, loaded during start-up
+     */
+    public TeacherDashboardUI(LIMSService service, String username, Map<String, String> stats) {
         limsService = service;
         currentUsername = username;
         
@@ -53,7 +61,7 @@ public class TeacherDashboardUI extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Create content panel
-        JPanel contentPanel = createContentPanel();
+        JPanel contentPanel = createContentPanel(stats);
         mainPanel.add(contentPanel, BorderLayout.CENTER);
 
         // Add main panel to frame
@@ -78,23 +86,19 @@ public class TeacherDashboardUI extends JFrame {
                 JFrame loadingFrame = createLoadingFrame();
                 loadingFrame.setVisible(true);
 
-                // Create dashboard in background with proper data loading
-                SwingWorker<TeacherDashboardUI, String> worker = new SwingWorker<TeacherDashboardUI, String>() {
+                // Load statistics and reference data side by side; other panels load on first view
+                StartupOrchestrator startup = new StartupOrchestrator("Teacher dashboard");
+                SwingWorker<Map<String, String>, String> worker = new SwingWorker<Map<String, String>, String>() {
                     @Override
-                    protected TeacherDashboardUI doInBackground() throws Exception {
-                        publish("🔧 Initializing teacher services...");
-                        Thread.sleep(200); // Allow UI to settle
-
-                        publish("📊 Pre-loading teacher data...");
-                        preloadTeacherData();
+                    protected Map<String, String> doInBackground() {
+                        publish("📊 Loading teacher statistics and reference data...");
+                        CompletableFuture<Map<String, String>> stats =
+                            startup.submit("Load statistics", () -> StatisticsService.getTeacherStatistics(username));
+                        startup.submit("Load reference data", DatabaseDropdownPopulator::preloadReferenceData);
+                        startup.awaitAll();
 
                         publish("🏗️ Creating teacher dashboard...");
-                        TeacherDashboardUI dashboard = new TeacherDashboardUI(service, username);
-
-                        publish("✅ Teacher dashboard ready!");
-                        Thread.sleep(300); // Brief pause to show completion
-
-                        return dashboard;
+                        return StartupOrchestrator.resultOf(stats, java.util.Collections.emptyMap());
                     }
 
                     @Override
@@ -108,23 +112,26 @@ public class TeacherDashboardUI extends JFrame {
                     @Override
                     protected void done() {
                         try {
-                            TeacherDashboardUI dashboard = get();
+                            Map<String, String> stats = get();
+                            TeacherDashboardUI dashboard = startup.measure("Build dashboard",
+                                () -> new TeacherDashboardUI(service, username, stats));
 
-                            SwingUtilities.invokeLater(() -> {
-                                loadingFrame.dispose();
+                            loadingFrame.dispose();
 
-                                System.out.println("🖥️ Making teacher dashboard visible with loaded data...");
-                                dashboard.mainFrame.setVisible(true);
-                                LIMSNavigator.setCurrentFrame(dashboard.mainFrame);
+                            System.out.println("🖥️ Making teacher dashboard visible with loaded data...");
+                            dashboard.mainFrame.setVisible(true);
+                            LIMSNavigator.setCurrentFrame(dashboard.mainFrame);
+                            startup.mark("Dashboard visible");
 
-                                // Refresh teacher-specific data
-                                refreshTeacherData();
+                            // Refresh teacher-specific data
+                            refreshTeacherData();
 
-                                System.out.println("✅ Teacher Dashboard initialized successfully with data!");
-                                System.out.println("📋 Ready for navigation - data should be visible immediately");
-                            });
+                            System.out.println("✅ Teacher Dashboard initialized successfully with data!");
+                            System.out.println("📋 Ready for navigation - data should be visible immediately");
+                            startup.finish();
 
                         } catch (Exception e) {
+                            startup.finish();
                             loadingFrame.dispose();
                             System.err.println("❌ Error creating dashboard: " + e.getMessage());
                             e.printStackTrace();
@@ -175,27 +182,6 @@ public class TeacherDashboardUI extends JFrame {
         return loadingFrame;
     }
 
-    private static void preloadTeacherData() {
-        try {
-            System.out.println("🔄 Pre-loading teacher-specific data...");
-
-            // Pre-warm teacher-relevant table models
-            System.out.println("📋 Pre-loading software request data...");
-            ui.DatabaseTableModel.getSoftwareRequestTableModel();
-
-            System.out.println("🔬 Pre-loading lab schedule data...");
-            ui.DatabaseTableModel.getLabTableModel();
-
-            System.out.println("📊 Pre-loading feedback data...");
-            ui.DatabaseTableModel.getFeedbackTableModel();
-
-            System.out.println("✅ Teacher data pre-loaded successfully!");
-
-        } catch (Exception e) {
-            System.err.println("⚠️ Warning: Could not pre-load all teacher data: " + e.getMessage());
-        }
-    }
-
     private static void updateLoadingMessage(JFrame loadingFrame, String message) {
         SwingUtilities.invokeLater(() -> {
             Component[] components = loadingFrame.getContentPane().getComponents();
@@ -265,7 +251,7 @@ public class TeacherDashboardUI extends JFrame {
         return headerPanel;
     }
 
-    private JPanel createContentPanel() {
+    private JPanel createContentPanel(Map<String, String> stats) {
         JPanel contentPanel = new JPanel(new BorderLayout());
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         contentPanel.setBackground(new Color(245, 245, 245));
@@ -275,7 +261,7 @@ public class TeacherDashboardUI extends JFrame {
         contentPanel.add(leftPanel, BorderLayout.WEST);
 
         // Create right panel for content
-        JPanel rightPanel = createRightPanel();
+        JPanel rightPanel = createRightPanel(stats);
         contentPanel.add(rightPanel, BorderLayout.CENTER);
 
         return contentPanel;
@@ -331,7 +317,7 @@ public class TeacherDashboardUI extends JFrame {
         return button;
     }
 
-    private JPanel createRightPanel() {
+    private JPanel createRightPanel(Map<String, String> stats) {
         rightPanel = new JPanel(new BorderLayout());
         rightPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         rightPanel.setBackground(Color.WHITE);
@@ -350,8 +336,6 @@ public class TeacherDashboardUI extends JFrame {
         statsPanel.setBackground(Color.WHITE);
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
-        // Get real statistics from database
-        Map<String, String> stats = StatisticsService.getTeacherStatistics(currentUsername);
         statsPanel.add(createStatBox("Pending Complaints", stats.get("Pending Complaints"), new Color(52, 152, 219)));
         statsPanel.add(createStatBox("Software Requests", stats.get("Software Requests"), new Color(46, 204, 113)));
         statsPanel.add(createStatBox("Active Labs", stats.get("Active Labs"), new Color(155, 89, 182)));
@@ -389,9 +373,18 @@ public class TeacherDashboardUI extends JFrame {
 
     private void handleNavigation(String item) {
         System.out.println("\n🔄 TeacherDashboard.handleNavigation called for: " + item);
+        // A panel built earlier is shown as it was, without rebuilding it or reloading its data
+        JPanel cached = panelCache.get(item);
+        if (cached != null) {
+            System.out.println("♻️ Showing cached panel for: " + item);
+            panelCache.show(dynamicContentPanel, cached);
+            return;
+        }
+
         System.out.println("📤 Removing all components from dynamicContentPanel...");
 
         // Clear content immediately for responsive UI
+        panelCache.hideCurrent();
         dynamicContentPanel.removeAll();
 
         // Show loading indicator
@@ -410,7 +403,6 @@ public class TeacherDashboardUI extends JFrame {
 
                 // Ensure data is ready for teacher panels
                 publish("📊 Loading data for " + item + "...");
-                Thread.sleep(100); // Brief pause for data loading
 
                 JPanel panel = null;
                 switch (item) {
@@ -437,7 +429,6 @@ public class TeacherDashboardUI extends JFrame {
 
                 if (panel != null) {
                     publish("✅ Data loaded successfully for " + item);
-                    Thread.sleep(200); // Allow data to settle
                 }
 
                 return panel;
@@ -466,23 +457,18 @@ public class TeacherDashboardUI extends JFrame {
                 try {
                     JPanel panel = get();
 
-                    // Clear loading indicator
-                    dynamicContentPanel.removeAll();
-
                     if (panel != null) {
                         System.out.println("✅ Panel created successfully for: " + item);
                         System.out.println("📦 Panel components: " + panel.getComponentCount());
 
-                        System.out.println("➕ Adding panel to dynamicContentPanel...");
-                        dynamicContentPanel.add(panel, BorderLayout.CENTER);
-
-                        System.out.println("🔄 Calling revalidate() and repaint()...");
-                        dynamicContentPanel.revalidate();
-                        dynamicContentPanel.repaint();
+                        System.out.println("➕ Caching and showing panel in dynamicContentPanel...");
+                        panelCache.put(item, panel);
+                        panelCache.show(dynamicContentPanel, panel);
 
                         System.out.println("✅ Panel navigation completed for: " + item);
                     } else {
                         System.out.println("❌ Panel is null for: " + item);
+                        dynamicContentPanel.removeAll();
                         JLabel errorLabel = new JLabel("❌ Failed to load " + item, SwingConstants.CENTER);
                         errorLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
                         errorLabel.setForeground(Color.RED);
@@ -669,6 +655,7 @@ public class TeacherDashboardUI extends JFrame {
             );
 
             if (result == JOptionPane.YES_OPTION) {
+                limsService.signOut();
                 profileDialog.dispose();
                 mainFrame.dispose();
                 // Return to login screen
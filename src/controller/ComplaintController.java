@@ -2,15 +2,24 @@ package controller;
 
 import model.Complaint;
 import service.ComplaintService;
+import service.ComplaintTriageService;
 import utils.DAOLogger;
+import utils.Span;
+import utils.Tracer;
 import java.util.List;
 import java.util.Date;
 
 public class ComplaintController extends BaseController {
     private final ComplaintService complaintService;
+    private final ComplaintTriageService triageService;
     
     public ComplaintController(ComplaintService complaintService) {
+        this(complaintService, new ComplaintTriageService());
+    }
+
+    public ComplaintController(ComplaintService complaintService, ComplaintTriageService triageService) {
         this.complaintService = complaintService;
+        this.triageService = triageService;
     }
     
     public void addComplaint(String computerId, String department, String issueType,
@@ -20,7 +29,8 @@ public class ComplaintController extends BaseController {
 
         long startTime = System.currentTimeMillis();
 
-        try {
+        try (Span span = Tracer.startSpan("ComplaintController.addComplaint", "controller")) {
+            span.tag("computerId", computerId);
             // Validate inputs with detailed logging
             DAOLogger.debug("ComplaintController", "addComplaint", "Validating input parameters");
 
@@ -117,6 +127,7 @@ public class ComplaintController extends BaseController {
         );
         
         complaintService.updateComplaint(complaint);
+        triageService.syncWorkloads();
     }
     
     public void assignComplaint(String computerId, Date submissionDate, String assignedTo) {
@@ -136,8 +147,54 @@ public class ComplaintController extends BaseController {
         assignedTo = sanitizeInput(assignedTo);
         
         complaintService.assignComplaint(computerId, submissionDate, assignedTo);
+        triageService.syncWorkloads();
     }
     
+    public Complaint pullNextComplaint(String technician) {
+        if (!isValidString(technician, 2, 50)) {
+            throw new IllegalArgumentException("Invalid technician");
+        }
+        return triageService.pullNextComplaint(sanitizeInput(technician));
+    }
+
+    public void assignComplaint(int complaintId, String assignedTo) {
+        if (complaintId <= 0) {
+            throw new IllegalArgumentException("Invalid complaint ID");
+        }
+        if (!isValidString(assignedTo, 2, 50)) {
+            throw new IllegalArgumentException("Invalid assignee");
+        }
+        if (!triageService.assignComplaint(complaintId, sanitizeInput(assignedTo))) {
+            throw new IllegalStateException("Complaint " + complaintId + " could not be assigned");
+        }
+    }
+
+    public void releaseComplaint(int complaintId, String technician) {
+        if (complaintId <= 0) {
+            throw new IllegalArgumentException("Invalid complaint ID");
+        }
+        if (!triageService.releaseComplaint(complaintId, technician)) {
+            throw new IllegalStateException("Complaint " + complaintId + " is not held by " + technician);
+        }
+    }
+
+    public void resolveComplaint(int complaintId, String technician) {
+        if (complaintId <= 0) {
+            throw new IllegalArgumentException("Invalid complaint ID");
+        }
+        if (!triageService.resolveComplaint(complaintId, technician)) {
+            throw new IllegalStateException("Complaint " + complaintId + " is not in progress with " + technician);
+        }
+    }
+
+    public int dedupeBacklog() {
+        int linked = complaintService.dedupeBacklog();
+        if (linked < 0) {
+            throw new IllegalStateException("Duplicate complaints could not be linked");
+        }
+        return linked;
+    }
+
     public void updateComplaintStatus(String computerId, Date submissionDate, String status) {
         // Validate inputs
         if (!isValidString(computerId, 3, 50)) {
@@ -155,6 +212,7 @@ public class ComplaintController extends BaseController {
         status = sanitizeInput(status);
         
         complaintService.updateComplaintStatus(computerId, submissionDate, status);
+        triageService.syncWorkloads();
     }
     
     public void deleteComplaint(String computerId, Date submissionDate) {
@@ -170,6 +228,7 @@ public class ComplaintController extends BaseController {
         computerId = sanitizeInput(computerId);
         
         complaintService.deleteComplaint(computerId, submissionDate);
+        triageService.syncWorkloads();
     }
     
     public List<Complaint> getAllComplaints() {
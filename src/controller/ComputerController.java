@@ -2,6 +2,7 @@ package controller;
 
 import model.Computer;
 import service.ComputerService;
+import utils.IdGenerator;
 import java.util.List;
 import java.util.Date;
 
@@ -40,7 +41,7 @@ public class ComputerController extends BaseController {
         
         // Create computer object
         Computer computer = new Computer(
-            "PC-" + System.currentTimeMillis(),
+            IdGenerator.generateComputerId(),
             lab,
             computerName,
             ipAddress,
@@ -1,5 +1,7 @@
 package controller;
 
+import model.BatchApprovalResult;
+import model.SeatUtilization;
 import model.SoftwareRequest;
 import service.SoftwareRequestService;
 import java.util.List;
@@ -101,23 +103,16 @@ public class SoftwareRequestController extends BaseController {
         softwareRequestService.updateRequest(request);
     }
     
-    public void approveRequest(String computerId, Date requestDate, String approvedBy) {
+    public BatchApprovalResult approveRequest(int requestId, String approvedBy) {
         // Validate inputs
-        if (!isValidString(computerId, 3, 50)) {
-            throw new IllegalArgumentException("Invalid computer ID");
-        }
-        if (requestDate == null) {
-            throw new IllegalArgumentException("Invalid request date");
+        if (requestId <= 0) {
+            throw new IllegalArgumentException("Invalid request ID");
         }
         if (!isValidString(approvedBy, 2, 50)) {
             throw new IllegalArgumentException("Invalid approver");
         }
-        
-        // Sanitize inputs
-        computerId = sanitizeInput(computerId);
-        approvedBy = sanitizeInput(approvedBy);
-        
-        softwareRequestService.approveRequest(computerId, requestDate, approvedBy);
+
+        return softwareRequestService.approveRequest(requestId, sanitizeInput(approvedBy));
     }
     
     public void rejectRequest(String computerId, Date requestDate) {
@@ -135,6 +130,25 @@ public class SoftwareRequestController extends BaseController {
         softwareRequestService.rejectRequest(computerId, requestDate);
     }
     
+    public BatchApprovalResult approveRequests(List<Integer> requestIds, String approvedBy) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            throw new IllegalArgumentException("No requests selected");
+        }
+        if (!isValidString(approvedBy, 2, 50)) {
+            throw new IllegalArgumentException("Invalid approver");
+        }
+
+        return softwareRequestService.approveRequests(requestIds, sanitizeInput(approvedBy));
+    }
+
+    public BatchApprovalResult rejectRequests(List<Integer> requestIds) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            throw new IllegalArgumentException("No requests selected");
+        }
+
+        return softwareRequestService.rejectRequests(requestIds);
+    }
+
     public void updateRequestStatus(String computerId, Date requestDate, String status) {
         // Validate inputs
         if (!isValidString(computerId, 3, 50)) {
@@ -173,6 +187,10 @@ public class SoftwareRequestController extends BaseController {
         return softwareRequestService.getAllRequests();
     }
     
+    public List<SeatUtilization> getSeatUtilization() {
+        return softwareRequestService.getSeatUtilization();
+    }
+    
     public List<SoftwareRequest> getRequestsByStatus(String status) {
         if (!isValidString(status, 2, 20)) {
             throw new IllegalArgumentException("Invalid status");
@@ -1,7 +1,14 @@
 package dao;
 
+import model.SearchFilter;
+import model.SearchResult;
 import utils.DAOLogger;
+import utils.MetricsRegistry;
+import utils.Span;
+import utils.Tracer;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Abstract base class for all DAO implementations
@@ -18,22 +25,29 @@ public abstract class AbstractDAO {
     
     /**
      * Get database connection
+     * Statements created from it are timed into the MetricsRegistry under this DAO's name
      * @return Database connection
      * @throws SQLException if connection fails
      */
     protected Connection getConnection() throws SQLException {
-        try {
+        long start = System.nanoTime();
+        boolean success = false;
+        try (Span span = Tracer.startChildSpan(className + ".getConnection", "sql")) {
             // Load PostgreSQL driver
             Class.forName("org.postgresql.Driver");
             Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            span.tag("url", URL);
             DAOLogger.debug(className, "getConnection", "Database connection established successfully");
-            return connection;
+            success = true;
+            return MeteredConnection.wrap(connection, className);
         } catch (ClassNotFoundException e) {
             DAOLogger.error(className, "getConnection", "PostgreSQL driver not found", e);
             throw new SQLException("PostgreSQL driver not found", e);
         } catch (SQLException e) {
             DAOLogger.error(className, "getConnection", "Failed to establish database connection", e);
             throw e;
+        } finally {
+            MetricsRegistry.getInstance().record(className, "getConnection", System.nanoTime() - start, success);
         }
     }
     
@@ -81,6 +95,35 @@ public abstract class AbstractDAO {
         closeResources(connection, statement, null);
     }
     
+    /**
+     * Roll back the current transaction, logging rather than throwing on failure
+     * @param connection Database connection (may be null)
+     */
+    protected void rollback(Connection connection) {
+        try {
+            if (connection != null) {
+                connection.rollback();
+                DAOLogger.debug(className, "rollback", "Transaction rolled back");
+            }
+        } catch (SQLException e) {
+            DAOLogger.error(className, "rollback", "Error rolling back transaction", e);
+        }
+    }
+
+    /**
+     * Restore auto-commit before a transactional connection is closed
+     * @param connection Database connection (may be null)
+     */
+    protected void resetAutoCommit(Connection connection) {
+        try {
+            if (connection != null) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            DAOLogger.error(className, "resetAutoCommit", "Error restoring auto-commit", e);
+        }
+    }
+
     /**
      * Execute a query and return the number of affected rows
      * @param query SQL query
@@ -101,8 +144,7 @@ public abstract class AbstractDAO {
             // Set parameters
             for (int i = 0; i < parameters.length; i++) {
                 statement.setObject(i + 1, parameters[i]);
-                DAOLogger.debug(className, "executeUpdate",
-                    String.format("Parameter %d: %s", i + 1, parameters[i]));
+                DAOLogger.debug(className, "executeUpdate", "Parameter %d: %s", i + 1, parameters[i]);
             }
 
             int result = statement.executeUpdate();
@@ -124,6 +166,108 @@ public abstract class AbstractDAO {
         }
     }
     
+    /**
+     * Run a ranked full-text search against a table's search_vector column.
+     * Only the requested page is ranked-and-sorted in the inner query; ts_headline,
+     * which re-parses the document, runs on that page alone.
+     * @param table Table to search
+     * @param entityType Entity label for the results
+     * @param titleColumn Column used as the result title
+     * @param textColumn Column the search_vector was generated from (used for highlights)
+     * @param categoryColumn Column matched by SearchFilter.category
+     * @param query User query in web search syntax (quotes, OR, -term)
+     * @param filter Optional narrowing criteria
+     * @param page Zero-based page number
+     * @return Ranked results for the page
+     */
+    protected List<SearchResult> executeSearch(String table, String entityType, String titleColumn,
+                                               String textColumn, String categoryColumn,
+                                               String query, SearchFilter filter, int page) {
+        int pageSize = filter == null ? SearchFilter.DEFAULT_PAGE_SIZE : filter.getPageSize();
+        return executeSearch(table, entityType, titleColumn, textColumn, categoryColumn,
+            query, filter, Math.max(0, page) * pageSize, pageSize);
+    }
+
+    /**
+     * Run a ranked full-text search and return the hits from offset to offset + limit.
+     * The filter's page size is ignored.
+     * @return Ranked results
+     */
+    protected List<SearchResult> executeSearch(String table, String entityType, String titleColumn,
+                                               String textColumn, String categoryColumn,
+                                               String query, SearchFilter filter, int offset, int limit) {
+        List<SearchResult> results = new ArrayList<>();
+        if (query == null || query.trim().isEmpty()) {
+            return results;
+        }
+        if (filter == null) {
+            filter = new SearchFilter();
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+            .append("SELECT id, title, status, created_at, rank, ")
+            .append("ts_headline('english', body, q, 'StartSel=<b>, StopSel=</b>, MaxFragments=2, MaxWords=20, MinWords=5') AS highlight ")
+            .append("FROM (SELECT id, ").append(titleColumn).append(" AS title, status, created_at, ")
+            .append("COALESCE(").append(textColumn).append(", '') AS body, q, ts_rank_cd(search_vector, q) AS rank ")
+            .append("FROM ").append(table).append(", websearch_to_tsquery('english', ?) q ")
+            .append("WHERE search_vector @@ q");
+        parameters.add(query.trim());
+
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            parameters.add(filter.getStatus());
+        }
+        if (filter.getCategory() != null) {
+            sql.append(" AND ").append(categoryColumn).append(" = ?");
+            parameters.add(filter.getCategory());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            parameters.add(new Timestamp(filter.getCreatedFrom().getTime()));
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND created_at < ?");
+            parameters.add(new Timestamp(filter.getCreatedTo().getTime()));
+        }
+
+        sql.append(" ORDER BY rank DESC, created_at DESC LIMIT ? OFFSET ?) hits ")
+           .append("ORDER BY rank DESC, created_at DESC");
+        parameters.add(limit);
+        parameters.add(offset);
+
+        long startTime = System.currentTimeMillis();
+
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    results.add(new SearchResult(
+                        entityType,
+                        resultSet.getInt("id"),
+                        resultSet.getString("title"),
+                        resultSet.getString("status"),
+                        resultSet.getTimestamp("created_at"),
+                        resultSet.getDouble("rank"),
+                        resultSet.getString("highlight")
+                    ));
+                }
+            }
+
+            DAOLogger.logPerformance(className, "search", System.currentTimeMillis() - startTime);
+
+        } catch (SQLException e) {
+            DAOLogger.error(className, "search", "Error searching " + table, e);
+        }
+
+        return results;
+    }
+
     /**
      * Test database connection
      * @return true if connection is successful, false otherwise
@@ -1,10 +1,16 @@
 package dao;
 
+import database.PartitionMaintainer;
 import model.Complaint;
+import model.SearchFilter;
+import model.SearchResult;
+import model.TriageQueueMetrics;
 import utils.DAOLogger;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Complaint entity
@@ -13,9 +19,14 @@ import java.util.List;
 public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
     
     // SQL Queries
+    // Explicit column list keeps the search_vector column out of entity reads
+    private static final String COMPLAINT_COLUMNS =
+        "id, computer_id, department, issue_type, description, status, urgency, created_at, assigned_to, " +
+        "duplicate_of, duplicate_count";
+
     private static final String INSERT_COMPLAINT =
-        "INSERT INTO complaints (computer_id, department, issue_type, description, status, urgency, created_at) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        "INSERT INTO complaints (computer_id, department, issue_type, description, status, urgency, created_at, duplicate_of) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING id";
 
     private static final String UPDATE_COMPLAINT =
         "UPDATE complaints SET department = ?, issue_type = ?, description = ?, status = ?, urgency = ? " +
@@ -31,16 +42,80 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
         "DELETE FROM complaints WHERE computer_id = ?";
 
     private static final String SELECT_COMPLAINT_BY_ID =
-        "SELECT * FROM complaints WHERE computer_id = ? ORDER BY created_at DESC LIMIT 1";
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE computer_id = ? ORDER BY created_at DESC LIMIT 1";
 
     private static final String SELECT_ALL_COMPLAINTS =
-        "SELECT * FROM complaints ORDER BY created_at DESC";
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE (created_at >= ? OR created_at IS NULL) ORDER BY created_at DESC";
+
+    private static final String SELECT_ALL_COMPLAINTS_WITH_ARCHIVED =
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints UNION ALL SELECT " + COMPLAINT_COLUMNS + " FROM archive.complaints ORDER BY created_at DESC";
 
     private static final String SELECT_COMPLAINTS_BY_STATUS =
-        "SELECT * FROM complaints WHERE status = ? ORDER BY created_at DESC";
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE status = ? ORDER BY created_at DESC";
 
     private static final String GET_LATEST_COMPLAINT_ID =
         "SELECT id FROM complaints WHERE computer_id = ? ORDER BY created_at DESC LIMIT 1";
+
+    // Triage queue: unassigned open complaints ordered by urgency, then age
+    private static final String URGENCY_RANK =
+        "CASE urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END";
+
+    private static final String TRIAGE_QUEUE_PREDICATE =
+        "status IN ('Open', 'Pending') AND (assigned_to IS NULL OR assigned_to = '') AND duplicate_of IS NULL";
+
+    private static final String CLAIM_NEXT_COMPLAINT =
+        "UPDATE complaints SET assigned_to = ?, status = 'In Progress' " +
+        "WHERE id = (SELECT id FROM complaints WHERE " + TRIAGE_QUEUE_PREDICATE + " " +
+        "ORDER BY " + URGENCY_RANK + " DESC, created_at ASC LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+        "RETURNING " + COMPLAINT_COLUMNS;
+
+    // Only unfinished complaints can be (re)assigned; returns who held it before
+    private static final String ASSIGN_COMPLAINT_BY_ID =
+        "UPDATE complaints c SET assigned_to = ?, status = 'In Progress' " +
+        "FROM (SELECT id, assigned_to FROM complaints WHERE id = ? AND status IN ('Open', 'Pending', 'In Progress') FOR UPDATE) previous " +
+        "WHERE c.id = previous.id RETURNING COALESCE(previous.assigned_to, '')";
+
+    private static final String RESOLVE_COMPLAINT_BY_ID =
+        "UPDATE complaints SET status = 'Resolved' WHERE id = ? AND assigned_to = ? AND status = 'In Progress'";
+
+    private static final String RELEASE_COMPLAINT_BY_ID =
+        "UPDATE complaints SET assigned_to = NULL, status = 'Open' WHERE id = ? AND assigned_to = ?";
+
+    private static final String SELECT_TRIAGE_QUEUE =
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE " + TRIAGE_QUEUE_PREDICATE + " " +
+        "ORDER BY " + URGENCY_RANK + " DESC, created_at ASC LIMIT ?";
+
+    private static final String SELECT_TRIAGE_METRICS =
+        "SELECT urgency, COUNT(*) AS depth, " +
+        "COALESCE(EXTRACT(EPOCH FROM MAX(NOW() - created_at)), 0) AS max_wait, " +
+        "COALESCE(EXTRACT(EPOCH FROM AVG(NOW() - created_at)), 0) AS avg_wait " +
+        "FROM complaints WHERE " + TRIAGE_QUEUE_PREDICATE + " GROUP BY urgency";
+
+    private static final String SELECT_TECHNICIAN_WORKLOADS =
+        "SELECT assigned_to, COUNT(*) FROM complaints " +
+        "WHERE status = 'In Progress' AND assigned_to IS NOT NULL AND assigned_to <> '' " +
+        "GROUP BY assigned_to";
+
+    // Duplicate detection: only unresolved originals are candidates for matching
+    private static final String OPEN_ORIGINALS_PREDICATE =
+        "status IN ('Open', 'Pending', 'In Progress') AND duplicate_of IS NULL";
+
+    private static final String SELECT_OPEN_ORIGINALS =
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE " + OPEN_ORIGINALS_PREDICATE + " " +
+        "ORDER BY computer_id, created_at ASC";
+
+    private static final String SELECT_OPEN_ORIGINALS_BY_COMPUTER =
+        "SELECT " + COMPLAINT_COLUMNS + " FROM complaints WHERE computer_id = ? AND " + OPEN_ORIGINALS_PREDICATE + " " +
+        "ORDER BY created_at ASC";
+
+    private static final String INCREMENT_DUPLICATE_COUNT =
+        "UPDATE complaints SET duplicate_count = duplicate_count + ? WHERE id = ?";
+
+    private static final String MARK_DUPLICATE =
+        "UPDATE complaints SET duplicate_of = ? WHERE id = ? AND duplicate_of IS NULL";
+
+    private static final String MARK_DUPLICATE_CLOSED =
+        "UPDATE complaints SET duplicate_of = ?, status = 'Closed' WHERE id = ? AND duplicate_of IS NULL";
     
     @Override
     public boolean insert(Complaint complaint) {
@@ -64,12 +139,24 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
             statement.setString(3, complaint.getIssueType());
             statement.setString(4, complaint.getDescription());
             statement.setString(5, complaint.getStatus());
-            statement.setString(6, "Medium"); // Default urgency since model doesn't have urgency field
+            statement.setString(6, complaint.getUrgency() != null ? complaint.getUrgency() : "Medium");
             statement.setTimestamp(7, new Timestamp(complaint.getSubmissionDate().getTime()));
+            if (complaint.getDuplicateOf() != null) {
+                statement.setInt(8, complaint.getDuplicateOf());
+            } else {
+                statement.setNull(8, Types.INTEGER);
+            }
 
-            DAOLogger.debug("ComplaintDAO", "insert", "Parameters set - executing SQL: " + INSERT_COMPLAINT);
+            DAOLogger.debug("ComplaintDAO", "insert", "Parameters set - executing SQL: %s", INSERT_COMPLAINT);
 
-            int rowsAffected = statement.executeUpdate();
+            // RETURNING id hands the generated key back so callers can index the new row
+            int rowsAffected = 0;
+            try (ResultSet keys = statement.executeQuery()) {
+                if (keys.next()) {
+                    complaint.setComplaintId(keys.getInt(1));
+                    rowsAffected = 1;
+                }
+            }
             boolean success = rowsAffected > 0;
 
             long executionTime = System.currentTimeMillis() - startTime;
@@ -280,6 +367,16 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
     
     @Override
     public List<Complaint> findAll() {
+        return findAll(false);
+    }
+
+    /**
+     * Find all complaints
+     * @param includeArchived Also return rows moved to the archive schema, from every month;
+     *        otherwise only the hot table is read
+     * @return List of complaints
+     */
+    public List<Complaint> findAll(boolean includeArchived) {
         List<Complaint> complaints = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -287,7 +384,12 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
         
         try {
             connection = getConnection();
-            statement = connection.prepareStatement(SELECT_ALL_COMPLAINTS);
+            if (includeArchived) {
+                statement = connection.prepareStatement(SELECT_ALL_COMPLAINTS_WITH_ARCHIVED);
+            } else {
+                statement = connection.prepareStatement(SELECT_ALL_COMPLAINTS);
+                statement.setTimestamp(1, PartitionMaintainer.visibleSince());
+            }
             resultSet = statement.executeQuery();
             
             while (resultSet.next()) {
@@ -339,6 +441,296 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
         return complaints;
     }
     
+    /**
+     * Atomically claim the highest-priority unassigned complaint for a technician.
+     * Uses FOR UPDATE SKIP LOCKED so concurrent technicians never receive the same row
+     * and never block on each other's claims.
+     * @param technician Technician taking the complaint
+     * @return The claimed complaint, or null if the queue is empty
+     */
+    public Complaint claimNextComplaint(String technician) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(CLAIM_NEXT_COMPLAINT);
+            statement.setString(1, technician);
+
+            resultSet = statement.executeQuery();
+
+            if (resultSet.next()) {
+                Complaint complaint = mapResultSetToComplaint(resultSet);
+                DAOLogger.success("ComplaintDAO", "claimNextComplaint",
+                    "Complaint " + complaint.getComplaintId() + " claimed by " + technician);
+                return complaint;
+            }
+
+            DAOLogger.debug("ComplaintDAO", "claimNextComplaint", "Triage queue is empty");
+            return null;
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "claimNextComplaint", "Error claiming next complaint", e);
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Assign an open, pending or in-progress complaint to a technician by ID
+     * @param complaintId Complaint ID
+     * @param technician Technician to assign
+     * @return The previous assignee ("" if it had none), or null if the complaint does not
+     *         exist, is already finished, or the update failed
+     */
+    public String assignById(int complaintId, String technician) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(ASSIGN_COMPLAINT_BY_ID);
+            statement.setString(1, technician);
+            statement.setInt(2, complaintId);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getString(1) : null;
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "assignById", "Error assigning complaint " + complaintId, e);
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Resolve a complaint held by a technician
+     * @param complaintId Complaint ID
+     * @param technician Technician currently holding the complaint
+     * @return true if the complaint moved from In Progress to Resolved
+     */
+    public boolean resolveById(int complaintId, String technician) {
+        return executeUpdate(RESOLVE_COMPLAINT_BY_ID, complaintId, technician) > 0;
+    }
+
+    /**
+     * Return a claimed complaint to the triage queue
+     * @param complaintId Complaint ID
+     * @param technician Technician currently holding the complaint
+     * @return true if the complaint was released
+     */
+    public boolean releaseById(int complaintId, String technician) {
+        return executeUpdate(RELEASE_COMPLAINT_BY_ID, complaintId, technician) > 0;
+    }
+
+    /**
+     * Get the head of the triage queue in priority order
+     * @param limit Maximum number of complaints to return
+     * @return Unassigned open complaints ordered by urgency, then age
+     */
+    public List<Complaint> findTriageQueue(int limit) {
+        List<Complaint> complaints = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(SELECT_TRIAGE_QUEUE);
+            statement.setInt(1, limit);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                complaints.add(mapResultSetToComplaint(resultSet));
+            }
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "findTriageQueue", "Error retrieving triage queue", e);
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return complaints;
+    }
+
+    /**
+     * Get queue depth and wait times per urgency level
+     * @return Triage queue metrics
+     */
+    public TriageQueueMetrics getTriageMetrics() {
+        TriageQueueMetrics metrics = new TriageQueueMetrics();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(SELECT_TRIAGE_METRICS);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                metrics.addUrgencyLevel(
+                    resultSet.getString("urgency"),
+                    resultSet.getInt("depth"),
+                    (long) resultSet.getDouble("max_wait"),
+                    (long) resultSet.getDouble("avg_wait")
+                );
+            }
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "getTriageMetrics", "Error retrieving triage metrics", e);
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Count in-progress complaints per assignee
+     * @return Map of technician to number of complaints currently held
+     */
+    public Map<String, Integer> findTechnicianWorkloads() {
+        Map<String, Integer> workloads = new HashMap<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(SELECT_TECHNICIAN_WORKLOADS);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                workloads.put(resultSet.getString(1), resultSet.getInt(2));
+            }
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "findTechnicianWorkloads", "Error retrieving technician workloads", e);
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return workloads;
+    }
+
+    /**
+     * Get every unresolved complaint that is not itself a duplicate, grouped by computer
+     * @return Open originals ordered by computer ID, then age
+     */
+    public List<Complaint> findOpenOriginals() {
+        return findOpenOriginals(SELECT_OPEN_ORIGINALS, null, "findOpenOriginals");
+    }
+
+    /**
+     * Get unresolved originals reported against one computer
+     * @param computerId Computer ID
+     * @return Open originals for the computer, oldest first
+     */
+    public List<Complaint> findOpenOriginalsByComputer(String computerId) {
+        return findOpenOriginals(SELECT_OPEN_ORIGINALS_BY_COMPUTER, computerId, "findOpenOriginalsByComputer");
+    }
+
+    private List<Complaint> findOpenOriginals(String query, String computerId, String methodName) {
+        List<Complaint> complaints = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(query);
+            if (computerId != null) {
+                statement.setString(1, computerId);
+            }
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                complaints.add(mapResultSetToComplaint(resultSet));
+            }
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", methodName, "Error retrieving open complaints", e);
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return complaints;
+    }
+
+    /**
+     * Fold repeat reports into an existing complaint instead of storing new rows
+     * @param complaintId Original complaint ID
+     * @param occurrences Number of repeat reports to add
+     * @return true if the original was updated
+     */
+    public boolean incrementDuplicateCount(int complaintId, int occurrences) {
+        return executeUpdate(INCREMENT_DUPLICATE_COUNT, occurrences, complaintId) > 0;
+    }
+
+    /**
+     * Link duplicates to their originals in one batched transaction
+     * @param duplicateToOriginal Map of duplicate complaint ID to original complaint ID
+     * @param close Whether to close the duplicates (merge) rather than only flag them
+     * @return Number of complaints updated, or -1 if the batch was rolled back
+     */
+    public int markDuplicates(Map<Integer, Integer> duplicateToOriginal, boolean close) {
+        if (duplicateToOriginal.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        PreparedStatement countStatement = null;
+
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(close ? MARK_DUPLICATE_CLOSED : MARK_DUPLICATE);
+
+            Map<Integer, Integer> occurrencesByOriginal = new HashMap<>();
+            for (Map.Entry<Integer, Integer> entry : duplicateToOriginal.entrySet()) {
+                statement.setInt(1, entry.getValue());
+                statement.setInt(2, entry.getKey());
+                statement.addBatch();
+                occurrencesByOriginal.merge(entry.getValue(), 1, Integer::sum);
+            }
+
+            int updated = 0;
+            for (int count : statement.executeBatch()) {
+                updated += Math.max(count, 0);
+            }
+
+            if (close) {
+                countStatement = connection.prepareStatement(INCREMENT_DUPLICATE_COUNT);
+                for (Map.Entry<Integer, Integer> entry : occurrencesByOriginal.entrySet()) {
+                    countStatement.setInt(1, entry.getValue());
+                    countStatement.setInt(2, entry.getKey());
+                    countStatement.addBatch();
+                }
+                countStatement.executeBatch();
+            }
+
+            connection.commit();
+            DAOLogger.success("ComplaintDAO", "markDuplicates", updated + " complaints linked to their originals");
+            return updated;
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComplaintDAO", "markDuplicates", "Error marking duplicates, rolling back", e);
+            rollback(connection);
+            return -1;
+        } finally {
+            if (countStatement != null) {
+                closeResources(null, countStatement);
+            }
+            resetAutoCommit(connection);
+            closeResources(connection, statement);
+        }
+    }
+
     /**
      * Map ResultSet to Complaint object
      * @param resultSet Database result set
@@ -358,8 +750,13 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
                 resultSet.getString("status"),
                 resultSet.getString("assigned_to")  // Fixed: use assigned_to instead of urgency
             );
+            complaint.setComplaintId(resultSet.getInt("id"));
+            complaint.setUrgency(resultSet.getString("urgency"));
+            int duplicateOf = resultSet.getInt("duplicate_of");
+            complaint.setDuplicateOf(resultSet.wasNull() ? null : duplicateOf);
+            complaint.setDuplicateCount(resultSet.getInt("duplicate_count"));
 
-            DAOLogger.debug("ComplaintDAO", "mapResultSetToComplaint", "Successfully mapped complaint: " + complaint.getComputerId());
+            DAOLogger.debug("ComplaintDAO", "mapResultSetToComplaint", "Successfully mapped complaint: %s", complaint.getComputerId());
             return complaint;
 
         } catch (SQLException e) {
@@ -368,6 +765,30 @@ public class ComplaintDAO extends AbstractDAO implements BaseDAO<Complaint> {
         }
     }
     
+    /**
+     * Full-text search over complaint descriptions
+     * @param query Search terms (web search syntax)
+     * @param filters Optional status/issue type/date filters
+     * @param page Zero-based page number
+     * @return Ranked results with highlighted description fragments
+     */
+    public List<SearchResult> search(String query, SearchFilter filters, int page) {
+        return executeSearch("complaints", "Complaint", "computer_id", "description", "issue_type",
+            query, filters, page);
+    }
+
+    /**
+     * The best-ranked complaint hits, for merging with other sources
+     * @param query Search terms (web search syntax)
+     * @param filters Optional filters; the page size is ignored
+     * @param limit Maximum number of hits
+     * @return Up to limit results ordered by rank
+     */
+    public List<SearchResult> searchTop(String query, SearchFilter filters, int limit) {
+        return executeSearch("complaints", "Complaint", "computer_id", "description", "issue_type",
+            query, filters, 0, limit);
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return super.getConnection();
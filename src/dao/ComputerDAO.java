@@ -1,6 +1,7 @@
 package dao;
 
 import model.Computer;
+import utils.DAOLogger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +25,16 @@ public class ComputerDAO extends AbstractDAO implements BaseDAO<Computer> {
         "INSERT INTO computers (computer_id, lab_id, computer_name, ip_address, specifications, status, install_date, notes, created_at) " +
         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
+    // Batch imports carry surrogate IDs reserved by HiLoIdAllocator; a computer that already
+    // exists keeps its row and its ID, leaving the reserved one unused
+    private static final String UPSERT_COMPUTER_WITH_ID =
+        "INSERT INTO computers (id, computer_id, lab_id, computer_name, ip_address, specifications, status, install_date, notes, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (computer_id) DO UPDATE SET " +
+        "lab_id = EXCLUDED.lab_id, computer_name = EXCLUDED.computer_name, ip_address = EXCLUDED.ip_address, " +
+        "specifications = EXCLUDED.specifications, status = EXCLUDED.status, install_date = EXCLUDED.install_date, " +
+        "notes = EXCLUDED.notes";
+
     private static final String UPDATE_COMPUTER =
         "UPDATE computers SET lab_id = ?, computer_name = ?, ip_address = ?, specifications = ?, status = ?, install_date = ?, notes = ? " +
         "WHERE computer_id = ?";
@@ -49,6 +60,12 @@ public class ComputerDAO extends AbstractDAO implements BaseDAO<Computer> {
     private static final String SELECT_AVAILABLE_COMPUTERS =
         "SELECT * FROM computers WHERE status = 'Available' ORDER BY computer_name";
 
+    // Deployment targets: every in-service computer in the same lab as the given one
+    private static final String SELECT_DEPLOYMENT_TARGETS =
+        "SELECT * FROM computers WHERE computer_id = ? " +
+        "OR (lab_id = (SELECT lab_id FROM computers WHERE computer_id = ?) AND status IN ('Available', 'In Use')) " +
+        "ORDER BY ip_address, computer_name";
+
     private static final String CHECK_COMPUTER_EXISTS =
         "SELECT COUNT(*) FROM computers WHERE computer_id = ?";
     
@@ -176,6 +193,61 @@ public class ComputerDAO extends AbstractDAO implements BaseDAO<Computer> {
         }
     }
     
+    /**
+     * Import several computers as one batch in one transaction, updating those that
+     * already exist. Unlike insert(), there is no existence check or key lookup per
+     * computer: IDs come from a block reserved up front.
+     * @param computers Computers to import
+     * @return Number of computers inserted or updated, or -1 if the batch was rolled back
+     */
+    public int insertAll(List<Computer> computers) {
+        if (computers.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+            long[] ids = HiLoIdAllocator.forColumn("computers", "id").allocate(connection, computers.size());
+            statement = connection.prepareStatement(UPSERT_COMPUTER_WITH_ID);
+
+            Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+            for (int i = 0; i < computers.size(); i++) {
+                Computer computer = computers.get(i);
+                statement.setInt(1, Math.toIntExact(ids[i]));
+                statement.setString(2, computer.getId());
+                statement.setInt(3, 1); // Default lab_id since model doesn't have labId as int
+                statement.setString(4, computer.getLocation()); // Using location as computer_name
+                statement.setString(5, computer.getIpAddress());
+                statement.setString(6, computer.getSpecifications());
+                statement.setString(7, computer.getStatus());
+                statement.setString(8, computer.getInstallDate());
+                statement.setString(9, computer.getNotes());
+                statement.setTimestamp(10, createdAt);
+                statement.addBatch();
+            }
+
+            int imported = 0;
+            for (int count : statement.executeBatch()) {
+                imported += Math.max(count, 0);
+            }
+            connection.commit();
+            DAOLogger.success("ComputerDAO", "insertAll", imported + " computers imported");
+            return imported;
+
+        } catch (SQLException e) {
+            DAOLogger.error("ComputerDAO", "insertAll", "Error importing computers, rolling back", e);
+            rollback(connection);
+            return -1;
+        } finally {
+            resetAutoCommit(connection);
+            closeResources(connection, statement);
+        }
+    }
+
     @Override
     public boolean update(Computer computer) {
         Connection connection = null;
@@ -403,6 +475,40 @@ public class ComputerDAO extends AbstractDAO implements BaseDAO<Computer> {
         return computers;
     }
     
+    /**
+     * Find the computers a software install for one computer should be rolled out to
+     * @param computerId Computer named on the request
+     * @return That computer plus the in-service computers sharing its lab
+     */
+    public List<Computer> findDeploymentTargets(String computerId) {
+        List<Computer> computers = new ArrayList<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(SELECT_DEPLOYMENT_TARGETS);
+            statement.setString(1, computerId);
+            statement.setString(2, computerId);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                computers.add(mapResultSetToComputer(resultSet));
+            }
+
+            System.out.println("✅ Retrieved " + computers.size() + " deployment targets for computer: " + computerId);
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving deployment targets: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return computers;
+    }
+
     /**
      * Find available computers
      * @return List of available computers
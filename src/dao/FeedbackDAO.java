@@ -1,6 +1,9 @@
 package dao;
 
+import database.PartitionMaintainer;
 import model.Feedback;
+import model.SearchFilter;
+import model.SearchResult;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +15,10 @@ import java.util.List;
 public class FeedbackDAO extends AbstractDAO implements BaseDAO<Feedback> {
     
     // SQL Queries
+    // Explicit column list keeps the search_vector column out of entity reads
+    private static final String FEEDBACK_COLUMNS =
+        "id, name, category, feedback, status, created_at";
+
     private static final String INSERT_FEEDBACK = 
         "INSERT INTO feedback (name, category, feedback, status, created_at) " +
         "VALUES (?, ?, ?, ?, ?)";
@@ -27,19 +34,22 @@ public class FeedbackDAO extends AbstractDAO implements BaseDAO<Feedback> {
         "DELETE FROM feedback WHERE id = ?";
     
     private static final String SELECT_FEEDBACK_BY_ID = 
-        "SELECT * FROM feedback WHERE id = ?";
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback WHERE id = ?";
     
     private static final String SELECT_FEEDBACK_BY_NAME = 
-        "SELECT * FROM feedback WHERE name = ? ORDER BY created_at DESC LIMIT 1";
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback WHERE name = ? ORDER BY created_at DESC LIMIT 1";
     
     private static final String SELECT_ALL_FEEDBACK = 
-        "SELECT * FROM feedback ORDER BY created_at DESC";
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback WHERE (created_at >= ? OR created_at IS NULL) ORDER BY created_at DESC";
+
+    private static final String SELECT_ALL_FEEDBACK_WITH_ARCHIVED =
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback UNION ALL SELECT " + FEEDBACK_COLUMNS + " FROM archive.feedback ORDER BY created_at DESC";
     
     private static final String SELECT_FEEDBACK_BY_STATUS = 
-        "SELECT * FROM feedback WHERE status = ? ORDER BY created_at DESC";
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback WHERE status = ? ORDER BY created_at DESC";
     
     private static final String SELECT_FEEDBACK_BY_CATEGORY = 
-        "SELECT * FROM feedback WHERE category = ? ORDER BY created_at DESC";
+        "SELECT " + FEEDBACK_COLUMNS + " FROM feedback WHERE category = ? ORDER BY created_at DESC";
     
     @Override
     public boolean insert(Feedback feedback) {
@@ -240,6 +250,16 @@ public class FeedbackDAO extends AbstractDAO implements BaseDAO<Feedback> {
     
     @Override
     public List<Feedback> findAll() {
+        return findAll(false);
+    }
+
+    /**
+     * Find all feedback
+     * @param includeArchived Also return rows moved to the archive schema, from every month;
+     *        otherwise only the hot table is read
+     * @return List of feedback
+     */
+    public List<Feedback> findAll(boolean includeArchived) {
         List<Feedback> feedbackList = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -247,7 +267,12 @@ public class FeedbackDAO extends AbstractDAO implements BaseDAO<Feedback> {
         
         try {
             connection = getConnection();
-            statement = connection.prepareStatement(SELECT_ALL_FEEDBACK);
+            if (includeArchived) {
+                statement = connection.prepareStatement(SELECT_ALL_FEEDBACK_WITH_ARCHIVED);
+            } else {
+                statement = connection.prepareStatement(SELECT_ALL_FEEDBACK);
+                statement.setTimestamp(1, PartitionMaintainer.visibleSince());
+            }
             resultSet = statement.executeQuery();
             
             while (resultSet.next()) {
@@ -349,6 +374,30 @@ public class FeedbackDAO extends AbstractDAO implements BaseDAO<Feedback> {
         );
     }
     
+    /**
+     * Full-text search over feedback text
+     * @param query Search terms (web search syntax)
+     * @param filters Optional status/category/date filters
+     * @param page Zero-based page number
+     * @return Ranked results with highlighted feedback fragments
+     */
+    public List<SearchResult> search(String query, SearchFilter filters, int page) {
+        return executeSearch("feedback", "Feedback", "name", "feedback", "category",
+            query, filters, page);
+    }
+
+    /**
+     * The best-ranked feedback hits, for merging with other sources
+     * @param query Search terms (web search syntax)
+     * @param filters Optional filters; the page size is ignored
+     * @param limit Maximum number of hits
+     * @return Up to limit results ordered by rank
+     */
+    public List<SearchResult> searchTop(String query, SearchFilter filters, int limit) {
+        return executeSearch("feedback", "Feedback", "name", "feedback", "category",
+            query, filters, 0, limit);
+    }
+    
     @Override
     public Connection getConnection() throws SQLException {
         return super.getConnection();
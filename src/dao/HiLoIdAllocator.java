@@ -0,0 +1,158 @@
+package dao;
+
+import utils.DAOLogger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out IDs for a SERIAL column from blocks reserved from its sequence, so batch
+ * inserts can carry their own keys and be built entirely on the client.
+ *
+ * A block of lims.ids.blockSize values (default 50) is reserved in one round trip, by
+ * calling nextval over generate_series, and IDs are then taken from memory until it runs
+ * out. The sequence itself is not altered, so rows inserted through the column default
+ * keep getting ordinary values that can never collide with a reserved block. Reserved
+ * IDs that are never inserted are gaps, exactly as with a rolled-back nextval.
+ */
+public class HiLoIdAllocator {
+    private static final int DEFAULT_BLOCK_SIZE = Integer.getInteger("lims.ids.blockSize", 50);
+    private static final String RESOLVE_SEQUENCE = "SELECT pg_get_serial_sequence(?, ?)";
+    private static final String RESERVE_BLOCK = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+    private static final Map<String, HiLoIdAllocator> allocators = new ConcurrentHashMap<>();
+
+    private final String table;
+    private final String column;
+    private final int blockSize;
+    private final LongAdder handedOut = new LongAdder();
+    private final LongAdder blocksReserved = new LongAdder();
+    private String sequence;
+    private long[] block = new long[0];
+    private int next;
+
+    private HiLoIdAllocator(String table, String column, int blockSize) {
+        this.table = table;
+        this.column = column;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * The allocator for a table's SERIAL column, shared by every caller
+     * @param table Table name, e.g. "lab_reservations"
+     * @param column SERIAL column, e.g. "id"
+     */
+    public static HiLoIdAllocator forColumn(String table, String column) {
+        return allocators.computeIfAbsent(table + "." + column,
+            key -> new HiLoIdAllocator(table, column, DEFAULT_BLOCK_SIZE));
+    }
+
+    /**
+     * Every allocator created so far, for the performance console
+     */
+    public static List<HiLoIdAllocator> getAllocators() {
+        return new ArrayList<>(allocators.values());
+    }
+
+    /**
+     * Take the next ID
+     * @param connection Connection used if a new block has to be reserved
+     */
+    public long next(Connection connection) throws SQLException {
+        return allocate(connection, 1)[0];
+    }
+
+    /**
+     * Take IDs for a batch of rows. The rest of the current block is used first; a batch
+     * larger than a block reserves everything it still needs in a single round trip.
+     * @param connection Connection used if a new block has to be reserved
+     * @param count Number of IDs
+     * @return count distinct IDs, none of which the sequence will hand out again
+     * @throws SQLException if a block cannot be reserved
+     */
+    public synchronized long[] allocate(Connection connection, int count) throws SQLException {
+        long[] ids = new long[Math.max(0, count)];
+        int filled = 0;
+        while (filled < ids.length) {
+            if (next == block.length) {
+                reserve(connection, Math.max(blockSize, ids.length - filled));
+            }
+            int taken = Math.min(ids.length - filled, block.length - next);
+            System.arraycopy(block, next, ids, filled, taken);
+            next += taken;
+            filled += taken;
+        }
+        handedOut.add(ids.length);
+        return ids;
+    }
+
+    private void reserve(Connection connection, int size) throws SQLException {
+        if (sequence == null) {
+            sequence = resolveSequence(connection);
+        }
+        long[] reserved = new long[size];
+        int count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(RESERVE_BLOCK)) {
+            statement.setString(1, sequence);
+            statement.setInt(2, size);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (count < size && resultSet.next()) {
+                    reserved[count++] = resultSet.getLong(1);
+                }
+            }
+        }
+        if (count < size) {
+            throw new SQLException("Sequence " + sequence + " returned " + count + " of " + size + " IDs");
+        }
+        block = reserved;
+        next = 0;
+        blocksReserved.increment();
+        DAOLogger.debug("HiLoIdAllocator", "reserve",
+            "Reserved " + size + " IDs from " + sequence + ": " + reserved[0] + ".." + reserved[size - 1]);
+    }
+
+    private String resolveSequence(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(RESOLVE_SEQUENCE)) {
+            statement.setString(1, table);
+            statement.setString(2, column);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                String name = resultSet.next() ? resultSet.getString(1) : null;
+                if (name == null) {
+                    throw new SQLException(table + "." + column + " is not backed by a sequence");
+                }
+                return name;
+            }
+        }
+    }
+
+    public String getName() {
+        return table + "." + column;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * IDs handed out; only getBlocksReservedCount() of the calls needed a round trip
+     */
+    public long getHandedOutCount() {
+        return handedOut.sum();
+    }
+
+    public long getBlocksReservedCount() {
+        return blocksReserved.sum();
+    }
+
+    /**
+     * IDs reserved and not yet handed out
+     */
+    public synchronized int getRemaining() {
+        return block.length - next;
+    }
+}
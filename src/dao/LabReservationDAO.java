@@ -1,6 +1,8 @@
 package dao;
 
+import database.PartitionMaintainer;
 import model.LabReservation;
+import utils.DAOLogger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +17,11 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
     private static final String INSERT_RESERVATION = 
         "INSERT INTO lab_reservations (requester_name, lab_name, reservation_date, time_slot, purpose, status, created_at) " +
         "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Batch inserts carry IDs reserved by HiLoIdAllocator, so no generated keys need reading back
+    private static final String INSERT_RESERVATION_WITH_ID =
+        "INSERT INTO lab_reservations (id, requester_name, lab_name, reservation_date, time_slot, purpose, status, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
     
     private static final String UPDATE_RESERVATION = 
         "UPDATE lab_reservations SET lab_name = ?, reservation_date = ?, time_slot = ?, purpose = ?, status = ? " +
@@ -33,7 +40,10 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
         "SELECT * FROM lab_reservations WHERE requester_name = ? ORDER BY created_at DESC LIMIT 1";
     
     private static final String SELECT_ALL_RESERVATIONS = 
-        "SELECT * FROM lab_reservations ORDER BY created_at DESC";
+        "SELECT * FROM lab_reservations WHERE (reservation_date >= ? OR reservation_date IS NULL) ORDER BY created_at DESC";
+
+    private static final String SELECT_ALL_RESERVATIONS_WITH_ARCHIVED =
+        "SELECT * FROM lab_reservations UNION ALL SELECT * FROM archive.lab_reservations ORDER BY created_at DESC";
     
     private static final String SELECT_RESERVATIONS_BY_STATUS = 
         "SELECT * FROM lab_reservations WHERE status = ? ORDER BY created_at DESC";
@@ -81,6 +91,63 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
         }
     }
     
+    /**
+     * Insert several reservations (e.g. the weeks of a recurring booking) as one batch
+     * in one transaction. IDs come from a block reserved up front, and each reservation's
+     * ID is set once the batch is committed.
+     * @param reservations Reservations to insert
+     * @return Number of reservations inserted, or -1 if the batch was rolled back
+     */
+    public int insertAll(List<LabReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+            long[] ids = HiLoIdAllocator.forColumn("lab_reservations", "id").allocate(connection, reservations.size());
+            statement = connection.prepareStatement(INSERT_RESERVATION_WITH_ID);
+
+            Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+            for (int i = 0; i < reservations.size(); i++) {
+                LabReservation reservation = reservations.get(i);
+                statement.setInt(1, Math.toIntExact(ids[i]));
+                statement.setString(2, reservation.getReservedBy());
+                statement.setString(3, reservation.getLab());
+                statement.setDate(4, new java.sql.Date(reservation.getDate().getTime()));
+                statement.setString(5, reservation.getTimeSlot());
+                statement.setString(6, reservation.getPurpose());
+                statement.setString(7, "Pending"); // Default status
+                statement.setTimestamp(8, createdAt);
+                statement.addBatch();
+            }
+
+            int inserted = 0;
+            for (int count : statement.executeBatch()) {
+                inserted += Math.max(count, 0);
+            }
+            connection.commit();
+
+            for (int i = 0; i < reservations.size(); i++) {
+                reservations.get(i).setId(Math.toIntExact(ids[i]));
+            }
+            DAOLogger.success("LabReservationDAO", "insertAll", inserted + " lab reservations inserted");
+            return inserted;
+
+        } catch (SQLException e) {
+            DAOLogger.error("LabReservationDAO", "insertAll", "Error inserting lab reservations, rolling back", e);
+            rollback(connection);
+            return -1;
+        } finally {
+            resetAutoCommit(connection);
+            closeResources(connection, statement);
+        }
+    }
+
     @Override
     public boolean update(LabReservation reservation) {
         Connection connection = null;
@@ -247,6 +314,16 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
     
     @Override
     public List<LabReservation> findAll() {
+        return findAll(false);
+    }
+
+    /**
+     * Find all lab reservations
+     * @param includeArchived Also return rows moved to the archive schema, from every month;
+     *        otherwise only the hot table is read
+     * @return List of lab reservations
+     */
+    public List<LabReservation> findAll(boolean includeArchived) {
         List<LabReservation> reservations = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -254,7 +331,12 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
         
         try {
             connection = getConnection();
-            statement = connection.prepareStatement(SELECT_ALL_RESERVATIONS);
+            if (includeArchived) {
+                statement = connection.prepareStatement(SELECT_ALL_RESERVATIONS_WITH_ARCHIVED);
+            } else {
+                statement = connection.prepareStatement(SELECT_ALL_RESERVATIONS);
+                statement.setDate(1, new java.sql.Date(PartitionMaintainer.visibleSince().getTime()));
+            }
             resultSet = statement.executeQuery();
             
             while (resultSet.next()) {
@@ -412,7 +494,7 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
      * @throws SQLException if mapping fails
      */
     private LabReservation mapResultSetToLabReservation(ResultSet resultSet) throws SQLException {
-        return new LabReservation(
+        LabReservation reservation = new LabReservation(
             resultSet.getString("lab_name"),
             resultSet.getDate("reservation_date"),
             resultSet.getString("time_slot"),
@@ -421,6 +503,8 @@ public class LabReservationDAO extends AbstractDAO implements BaseDAO<LabReserva
             resultSet.getString("purpose"), // course - using purpose for now
             resultSet.getString("requester_name") // instructor - using requester for now
         );
+        reservation.setId(resultSet.getInt("id"));
+        return reservation;
     }
     
     @Override
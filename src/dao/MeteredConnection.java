@@ -0,0 +1,218 @@
+package dao;
+
+import database.SlowQueryDetector;
+import model.SlowQuery;
+import utils.MetricsRegistry;
+import utils.Span;
+import utils.Tracer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Connection wrapper that times every statement execution into the {@link MetricsRegistry}.
+ * The operation name is the DAO method that created the statement, found once per
+ * statement by walking the stack, so queries are attributed without any change to the DAOs.
+ * Executions over their slow-query threshold are handed to the {@link SlowQueryDetector}
+ * together with the SQL, the bound parameters and, once known, the row count. Inside a
+ * trace each execution is also a span.
+ */
+final class MeteredConnection implements InvocationHandler {
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final Connection connection;
+    private final String className;
+
+    private MeteredConnection(Connection connection, String className) {
+        this.connection = connection;
+        this.className = className;
+    }
+
+    /**
+     * @param connection Connection to wrap
+     * @param className DAO class the timings are recorded under
+     * @return The wrapped connection, or the connection itself if it is already metered
+     */
+    static Connection wrap(Connection connection, String className) {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof MeteredConnection) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(MeteredConnection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new MeteredConnection(connection, className));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = invokeTarget(connection, method, args);
+
+        if (result instanceof Statement) {
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(MeteredConnection.class.getClassLoader(), new Class<?>[] {type},
+                new MeteredStatement((Statement) result, className, callerMethod(), sqlOf(args)));
+        }
+        return result;
+    }
+
+    private static String sqlOf(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+    }
+
+    /**
+     * The first DAO method on the stack below AbstractDAO's helpers
+     */
+    private static String callerMethod() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith("dao.")
+                && !frame.getClassName().equals("dao.AbstractDAO")
+                && !frame.getClassName().startsWith("dao.MeteredConnection"))
+            .map(frame -> enclosingMethod(frame.getMethodName()))
+            .findFirst()
+            .orElse("query"));
+    }
+
+    // lambda$approveBatch$2 -> approveBatch
+    private static String enclosingMethod(String methodName) {
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            return end > 7 ? methodName.substring(7, end) : methodName;
+        }
+        return methodName;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times the execute* calls of one statement and remembers its bound parameters
+     */
+    private static final class MeteredStatement implements InvocationHandler {
+        private final Statement statement;
+        private final String className;
+        private final String methodName;
+        private final String sql;
+        private Object[] parameters;
+        private int parameterCount;
+
+        MeteredStatement(Statement statement, String className, String methodName, String sql) {
+            this.statement = statement;
+            this.className = className;
+            this.methodName = methodName;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                } else if ("clearParameters".equals(name)) {
+                    parameters = null;
+                    parameterCount = 0;
+                }
+                return invokeTarget(statement, method, args);
+            }
+
+            String executedSql = sqlOf(args) != null ? sqlOf(args) : sql;
+            long start = System.nanoTime();
+            Object result;
+            try (Span span = Tracer.startChildSpan(className + "." + methodName, "sql")) {
+                if (span.isRecording()) {
+                    span.tag("sql", executedSql);
+                }
+                result = invokeTarget(statement, method, args);
+            } catch (Throwable t) {
+                MetricsRegistry.getInstance().record(className, methodName, System.nanoTime() - start, false);
+                throw t;
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            MetricsRegistry.getInstance().record(className, methodName, elapsedNanos, true);
+            return countRows(result, executedSql, elapsedNanos);
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (parameters == null) {
+                parameters = new Object[Math.max(index, 4)];
+            } else if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        /**
+         * Report a slow execution; a query's result set is wrapped so its rows are counted as they are read
+         */
+        private Object countRows(Object result, String executedSql, long elapsedNanos) {
+            String operation = className + "." + methodName;
+            SlowQueryDetector detector = SlowQueryDetector.getInstance();
+            if (!detector.isSlow(operation, elapsedNanos)) {
+                return result;
+            }
+
+            SlowQuery slowQuery = detector.report(operation, executedSql, boundParameters(), elapsedNanos);
+            if (result instanceof ResultSet) {
+                return Proxy.newProxyInstance(MeteredConnection.class.getClassLoader(),
+                    new Class<?>[] {ResultSet.class}, new RowCountingResultSet((ResultSet) result, slowQuery));
+            }
+            if (result instanceof Integer) {
+                slowQuery.setRowCount((Integer) result);
+            } else if (result instanceof Long) {
+                slowQuery.setRowCount((Long) result);
+            } else if (result instanceof int[]) {
+                slowQuery.setRowCount(Arrays.stream((int[]) result).filter(count -> count > 0).sum());
+            }
+            return result;
+        }
+
+        private Object[] boundParameters() {
+            return parameters == null ? null : Arrays.copyOf(parameters, parameterCount);
+        }
+    }
+
+    /**
+     * Counts the rows read from a slow query's result set
+     */
+    private static final class RowCountingResultSet implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final SlowQuery slowQuery;
+        private long rows;
+
+        RowCountingResultSet(ResultSet resultSet, SlowQuery slowQuery) {
+            this.resultSet = resultSet;
+            this.slowQuery = slowQuery;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(resultSet, method, args);
+            if ("next".equals(method.getName())) {
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else {
+                    slowQuery.setRowCount(rows);
+                }
+            } else if ("close".equals(method.getName()) && slowQuery.getRowCount() < 0) {
+                slowQuery.setRowCount(rows);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package dao;
+
+import model.SeatUtilization;
+import utils.DAOLogger;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data Access Object for the software catalog
+ * Handles license seat accounting: software.installations counts the seats in use and
+ * software.license_limit caps them (NULL means the title is not seat-limited)
+ */
+public class SoftwareDAO extends AbstractDAO {
+
+    // SQL Queries
+    private static final String SEAT_COLUMNS = "id, software_name, version, installations, license_limit";
+
+    // The limit check and the increment happen in one statement, so two checkouts
+    // can never both take the last seat
+    private static final String CHECKOUT_SEAT =
+        "UPDATE software SET installations = installations + 1 " +
+        "WHERE id = ? AND status = 'Active' AND (license_limit IS NULL OR installations < license_limit) " +
+        "RETURNING " + SEAT_COLUMNS;
+
+    private static final String RETURN_SEAT =
+        "UPDATE software SET installations = installations - 1 " +
+        "WHERE id = ? AND installations > 0 " +
+        "RETURNING " + SEAT_COLUMNS;
+
+    // Prefer the row whose version matches; fall back to the oldest row for the title
+    private static final String FIND_SEAT_POOL =
+        "SELECT " + SEAT_COLUMNS + " FROM software " +
+        "WHERE LOWER(software_name) = LOWER(?) AND status = 'Active' " +
+        "ORDER BY (version IS NOT DISTINCT FROM ?) DESC, id LIMIT 1";
+
+    // Served by idx_software_seat_pools
+    private static final String FIND_LIMITED_SEAT_POOLS =
+        "SELECT " + SEAT_COLUMNS + " FROM software WHERE license_limit IS NOT NULL ORDER BY id";
+
+    private static final String FIND_SEAT_POOLS_BY_IDS =
+        "SELECT " + SEAT_COLUMNS + " FROM software WHERE id = ANY(?)";
+
+    /**
+     * Take one seat from a catalog row
+     * @param softwareId Catalog row ID
+     * @return Seat counts after the checkout, or null if no seat is free
+     */
+    public SeatUtilization checkoutSeat(int softwareId) {
+        return updateSeat(CHECKOUT_SEAT, "checkoutSeat", softwareId);
+    }
+
+    /**
+     * Give back one seat to a catalog row
+     * @param softwareId Catalog row ID
+     * @return Seat counts after the return, or null if no seat was in use
+     */
+    public SeatUtilization returnSeat(int softwareId) {
+        return updateSeat(RETURN_SEAT, "returnSeat", softwareId);
+    }
+
+    /**
+     * Find the active catalog row that seats for a title are drawn from
+     * @param softwareName Software name (case-insensitive)
+     * @param version Requested version, used to pick the matching catalog row
+     * @return The seat pool, or null if the title is not in the catalog
+     */
+    public SeatUtilization findSeatPool(String softwareName, String version) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(FIND_SEAT_POOL);
+            statement.setString(1, softwareName);
+            statement.setString(2, version);
+            resultSet = statement.executeQuery();
+
+            return resultSet.next() ? mapResultSetToSeatUtilization(resultSet) : null;
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareDAO", "findSeatPool", "Error finding seat pool for " + softwareName, e);
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Get every seat-limited catalog row
+     * @return Seat pools with a license limit, or an empty list on error
+     */
+    public List<SeatUtilization> findLimitedSeatPools() {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        List<SeatUtilization> pools = new ArrayList<>();
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(FIND_LIMITED_SEAT_POOLS);
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                pools.add(mapResultSetToSeatUtilization(resultSet));
+            }
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareDAO", "findLimitedSeatPools", "Error loading seat pools", e);
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+
+        return pools;
+    }
+
+    /**
+     * Get the current seat counts of specific catalog rows
+     * @param softwareIds Catalog row IDs
+     * @return Seat pools found, or null on error
+     */
+    public List<SeatUtilization> findSeatPools(Collection<Integer> softwareIds) {
+        List<SeatUtilization> pools = new ArrayList<>();
+        if (softwareIds.isEmpty()) {
+            return pools;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(FIND_SEAT_POOLS_BY_IDS);
+            statement.setArray(1, connection.createArrayOf("integer", softwareIds.toArray()));
+            resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                pools.add(mapResultSetToSeatUtilization(resultSet));
+            }
+            return pools;
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareDAO", "findSeatPools", "Error loading " + softwareIds.size() + " seat pools", e);
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    private SeatUtilization updateSeat(String query, String operation, int softwareId) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(query);
+            statement.setInt(1, softwareId);
+            resultSet = statement.executeQuery();
+
+            return resultSet.next() ? mapResultSetToSeatUtilization(resultSet) : null;
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareDAO", operation, "Error updating seats for software " + softwareId, e);
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Map ResultSet to SeatUtilization object
+     */
+    private SeatUtilization mapResultSetToSeatUtilization(ResultSet resultSet) throws SQLException {
+        int limit = resultSet.getInt("license_limit");
+        Integer seatLimit = resultSet.wasNull() ? null : limit;
+        return new SeatUtilization(
+            resultSet.getInt("id"),
+            resultSet.getString("software_name"),
+            resultSet.getString("version"),
+            resultSet.getInt("installations"),
+            seatLimit
+        );
+    }
+}
@@ -1,9 +1,20 @@
 package dao;
 
+import database.PartitionMaintainer;
+import model.BatchApprovalResult;
 import model.SoftwareRequest;
+import model.SearchFilter;
+import model.SearchResult;
+import utils.DAOLogger;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Data Access Object for SoftwareRequest entity
@@ -12,6 +23,10 @@ import java.util.List;
 public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareRequest> {
     
     // SQL Queries
+    // Explicit column list keeps the search_vector column out of entity reads
+    private static final String REQUEST_COLUMNS =
+        "id, computer_id, software_name, version, urgency, justification, status, requested_by, created_at";
+
     private static final String INSERT_REQUEST =
         "INSERT INTO software_requests (computer_id, software_name, version, urgency, justification, status, requested_by, created_at) " +
         "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
@@ -24,7 +39,7 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
         "UPDATE software_requests SET status = ?, requested_by = ? WHERE computer_id = ?";
 
     private static final String APPROVE_REQUEST =
-        "UPDATE software_requests SET status = 'Approved', requested_by = ? WHERE computer_id = ?";
+        "UPDATE software_requests SET status = 'Approved', requested_by = ? WHERE computer_id = ? AND status = 'Pending'";
 
     private static final String REJECT_REQUEST =
         "UPDATE software_requests SET status = 'Rejected' WHERE computer_id = ?";
@@ -32,20 +47,64 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
     private static final String UPDATE_REQUEST_STATUS_BY_ID =
         "UPDATE software_requests SET status = ?, requested_by = ? WHERE id = ?";
 
+    // Batch approval records the license seats the request holds (migration 9)
     private static final String APPROVE_REQUEST_BY_ID =
-        "UPDATE software_requests SET status = 'Approved', requested_by = ? WHERE id = ?";
+        "UPDATE software_requests SET status = 'Approved', requested_by = ?, seat_software_id = ?, seats_held = ? WHERE id = ?";
+
+    private static final String HOLD_SEATS =
+        "UPDATE software SET installations = installations + ? WHERE id = ?";
+
+    // One held seat goes to one install
+    private static final String CLAIM_HELD_SEAT =
+        "UPDATE software_requests SET seats_held = seats_held - 1 WHERE id = ? AND seats_held > 0 RETURNING seat_software_id";
+
+    // Seats held but never claimed, e.g. a lab that lost computers since approval, go back to the pool
+    private static final String RELEASE_HELD_SEATS =
+        "WITH held AS (SELECT id, seat_software_id, seats_held FROM software_requests WHERE id = ? AND seats_held > 0 FOR UPDATE), " +
+        "cleared AS (UPDATE software_requests r SET seats_held = 0 FROM held WHERE r.id = held.id " +
+        "RETURNING held.seat_software_id, held.seats_held) " +
+        "UPDATE software s SET installations = GREATEST(0, s.installations - cleared.seats_held) " +
+        "FROM cleared WHERE s.id = cleared.seat_software_id RETURNING cleared.seats_held";
     
+    private static final String COMPLETE_REQUEST_BY_ID =
+        "UPDATE software_requests SET status = 'Completed' WHERE id = ? AND status = 'Approved'";
+
+    private static final String SELECT_REQUEST_BY_REQUEST_ID =
+        "SELECT " + REQUEST_COLUMNS + " FROM software_requests WHERE id = ?";
+
+    private static final String REJECT_PENDING_REQUEST_BY_ID =
+        "UPDATE software_requests SET status = 'Rejected' WHERE id = ? AND status = 'Pending'";
+
+    // Batch approval: lock the pending requests, most urgent first, then the licenses they draw on.
+    // A request needs one seat per computer the DeploymentPlanner will install it on: the
+    // requesting computer and the usable computers in its lab (ComputerDAO.findDeploymentTargets).
+    private static final String LOCK_PENDING_REQUESTS =
+        "SELECT r.id, r.software_name, r.version, GREATEST(1, (SELECT COUNT(*) FROM computers c WHERE c.computer_id = r.computer_id " +
+        "OR (c.lab_id = (SELECT lab_id FROM computers WHERE computer_id = r.computer_id) AND c.status IN ('Available', 'In Use')))) AS seats_needed " +
+        "FROM software_requests r WHERE r.id = ANY(?) AND r.status = 'Pending' " +
+        "ORDER BY CASE r.urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END DESC, " +
+        "r.created_at ASC FOR UPDATE OF r";
+
+    // Every catalog row of the requested titles, locked in id order; each request is checked
+    // against the row SoftwareDAO.FIND_SEAT_POOL picks, the one its seats are checked out from
+    private static final String LOCK_LICENSE_USAGE =
+        "SELECT id, software_name, version, installations, license_limit, status " +
+        "FROM software WHERE LOWER(software_name) = ANY(?) ORDER BY id FOR UPDATE";
+
     private static final String DELETE_REQUEST = 
         "DELETE FROM software_requests WHERE computer_id = ? AND created_at = ?";
     
     private static final String SELECT_REQUEST_BY_ID = 
-        "SELECT * FROM software_requests WHERE computer_id = ? ORDER BY created_at DESC LIMIT 1";
+        "SELECT " + REQUEST_COLUMNS + " FROM software_requests WHERE computer_id = ? ORDER BY created_at DESC LIMIT 1";
     
     private static final String SELECT_ALL_REQUESTS = 
-        "SELECT * FROM software_requests ORDER BY created_at DESC";
+        "SELECT " + REQUEST_COLUMNS + " FROM software_requests WHERE (created_at >= ? OR created_at IS NULL) ORDER BY created_at DESC";
+
+    private static final String SELECT_ALL_REQUESTS_WITH_ARCHIVED =
+        "SELECT " + REQUEST_COLUMNS + " FROM software_requests UNION ALL SELECT " + REQUEST_COLUMNS + " FROM archive.software_requests ORDER BY created_at DESC";
     
     private static final String SELECT_REQUESTS_BY_STATUS = 
-        "SELECT * FROM software_requests WHERE status = ? ORDER BY created_at DESC";
+        "SELECT " + REQUEST_COLUMNS + " FROM software_requests WHERE status = ? ORDER BY created_at DESC";
     
     @Override
     public boolean insert(SoftwareRequest request) {
@@ -322,6 +381,16 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
     
     @Override
     public List<SoftwareRequest> findAll() {
+        return findAll(false);
+    }
+
+    /**
+     * Find all software requests
+     * @param includeArchived Also return rows moved to the archive schema, from every month;
+     *        otherwise only the hot table is read
+     * @return List of software requests
+     */
+    public List<SoftwareRequest> findAll(boolean includeArchived) {
         List<SoftwareRequest> requests = new ArrayList<>();
         Connection connection = null;
         PreparedStatement statement = null;
@@ -329,7 +398,12 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
         
         try {
             connection = getConnection();
-            statement = connection.prepareStatement(SELECT_ALL_REQUESTS);
+            if (includeArchived) {
+                statement = connection.prepareStatement(SELECT_ALL_REQUESTS_WITH_ARCHIVED);
+            } else {
+                statement = connection.prepareStatement(SELECT_ALL_REQUESTS);
+                statement.setTimestamp(1, PartitionMaintainer.visibleSince());
+            }
             resultSet = statement.executeQuery();
             
             while (resultSet.next()) {
@@ -381,6 +455,355 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
         return requests;
     }
     
+    /**
+     * Find a software request by its primary key
+     * @param requestId Request ID
+     * @return The request, or null if not found
+     */
+    public SoftwareRequest findByRequestId(int requestId) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(SELECT_REQUEST_BY_REQUEST_ID);
+            statement.setInt(1, requestId);
+            resultSet = statement.executeQuery();
+
+            if (resultSet.next()) {
+                return mapResultSetToSoftwareRequest(resultSet);
+            }
+
+            return null;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding software request " + requestId + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Mark an approved request completed once it has been deployed
+     * @param requestId Request ID
+     * @return true if the request moved from Approved to Completed
+     */
+    public boolean markCompleted(int requestId) {
+        return executeUpdate(COMPLETE_REQUEST_BY_ID, requestId) > 0;
+    }
+
+    /**
+     * Approve many pending requests in one transaction, taking their license seats in it.
+     * License seats (software.license_limit minus seats in use) are checked in a single pass:
+     * requests are granted most-urgent-first until their catalog row runs out of seats, and
+     * the rest are skipped. Each request counts one seat per computer it will be deployed to,
+     * against the same catalog row the DeploymentPlanner checks those seats out from: the
+     * active row for the title whose version matches, else the oldest active row. Rows
+     * without a limit and software missing from the catalog are not seat-limited.
+     * The granted seats are added to the row's installations in the same transaction and
+     * held by the request, so later batches see them as used whether or not the request
+     * is ever deployed; the DeploymentPlanner claims them with {@link #claimHeldSeat}.
+     * @param requestIds IDs of the requests to approve
+     * @param approvedBy Who approved the requests
+     * @return Which requests were approved and why the others were skipped
+     */
+    public BatchApprovalResult approveBatch(List<Integer> requestIds, String approvedBy) {
+        BatchApprovalResult result = new BatchApprovalResult();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        PreparedStatement holdStatement = null;
+        long startTime = System.currentTimeMillis();
+
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+
+            Map<Integer, Integer> seatsNeeded = new HashMap<>();
+            Map<Integer, String> versions = new HashMap<>();
+            Map<Integer, String> pending = lockPendingRequests(connection, requestIds, seatsNeeded, versions);
+            for (Integer requestId : requestIds) {
+                if (!pending.containsKey(requestId)) {
+                    result.addSkipped(requestId, "Not pending");
+                }
+            }
+
+            Map<String, List<SeatPool>> poolsByTitle = lockLicenseUsage(connection, pending.values());
+
+            statement = connection.prepareStatement(APPROVE_REQUEST_BY_ID);
+            Map<SeatPool, Integer> held = new LinkedHashMap<>();
+            for (Map.Entry<Integer, String> request : pending.entrySet()) {
+                String title = request.getValue().toLowerCase(Locale.ROOT);
+                SeatPool pool = SeatPool.pick(poolsByTitle.get(title), versions.get(request.getKey()));
+                if (pool != null && !"Active".equals(pool.status)) {
+                    result.addSkipped(request.getKey(), "License " + pool.status.toLowerCase(Locale.ROOT));
+                    continue;
+                }
+                int needed = seatsNeeded.getOrDefault(request.getKey(), 1);
+                if (pool != null && pool.limit != null && pool.seatsLeft() < needed) {
+                    result.addSkipped(request.getKey(), "Needs " + needed + " license seats for " +
+                        request.getValue() + " " + pool.describeVersion() + ", " + pool.seatsLeft() + " left");
+                    continue;
+                }
+                statement.setString(1, approvedBy);
+                if (pool != null) {
+                    // Unlimited rows count their installs too, the same as a checkout would
+                    pool.granted += needed;
+                    held.merge(pool, needed, Integer::sum);
+                    statement.setInt(2, pool.softwareId);
+                    statement.setInt(3, needed);
+                } else {
+                    statement.setNull(2, Types.INTEGER);
+                    statement.setInt(3, 0);
+                }
+                statement.setInt(4, request.getKey());
+                statement.addBatch();
+                result.addUpdated(request.getKey());
+            }
+
+            statement.executeBatch();
+            if (!held.isEmpty()) {
+                holdStatement = connection.prepareStatement(HOLD_SEATS);
+                for (Map.Entry<SeatPool, Integer> seats : held.entrySet()) {
+                    holdStatement.setInt(1, seats.getValue());
+                    holdStatement.setInt(2, seats.getKey().softwareId);
+                    holdStatement.addBatch();
+                }
+                holdStatement.executeBatch();
+            }
+            connection.commit();
+            result.setCommitted(true);
+
+            DAOLogger.logPerformance("SoftwareRequestDAO", "approveBatch", System.currentTimeMillis() - startTime);
+            System.out.println("✅ Batch approved " + result.getUpdatedCount() + " software requests, skipped " + result.getSkipped().size());
+            return result;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error batch approving software requests: " + e.getMessage());
+            e.printStackTrace();
+            rollback(connection);
+            BatchApprovalResult failed = new BatchApprovalResult();
+            for (Integer requestId : requestIds) {
+                failed.addSkipped(requestId, "Transaction rolled back: " + e.getMessage());
+            }
+            return failed;
+        } finally {
+            closeResources(null, holdStatement);
+            resetAutoCommit(connection);
+            closeResources(connection, statement);
+        }
+    }
+
+    /**
+     * Reject many pending requests in one batched transaction
+     * @param requestIds IDs of the requests to reject
+     * @return Which requests were rejected; requests no longer pending are skipped
+     */
+    public BatchApprovalResult rejectBatch(List<Integer> requestIds) {
+        BatchApprovalResult result = new BatchApprovalResult();
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = getConnection();
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(REJECT_PENDING_REQUEST_BY_ID);
+
+            for (Integer requestId : requestIds) {
+                statement.setInt(1, requestId);
+                statement.addBatch();
+            }
+
+            int[] counts = statement.executeBatch();
+            connection.commit();
+            result.setCommitted(true);
+
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    result.addUpdated(requestIds.get(i));
+                } else {
+                    result.addSkipped(requestIds.get(i), "Not pending");
+                }
+            }
+
+            System.out.println("✅ Batch rejected " + result.getUpdatedCount() + " software requests");
+            return result;
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error batch rejecting software requests: " + e.getMessage());
+            e.printStackTrace();
+            rollback(connection);
+            BatchApprovalResult failed = new BatchApprovalResult();
+            for (Integer requestId : requestIds) {
+                failed.addSkipped(requestId, "Transaction rolled back: " + e.getMessage());
+            }
+            return failed;
+        } finally {
+            resetAutoCommit(connection);
+            closeResources(connection, statement);
+        }
+    }
+
+    /**
+     * Take one of the seats a request has held since approval
+     * @param requestId Request ID
+     * @return Catalog row ID the seat belongs to, 0 if the request holds no seat, or -1 on error
+     */
+    public int claimHeldSeat(int requestId) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(CLAIM_HELD_SEAT);
+            statement.setInt(1, requestId);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareRequestDAO", "claimHeldSeat", "Error claiming a held seat for request " + requestId, e);
+            return -1;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Give the seats a request still holds back to its catalog row
+     * @param requestId Request ID
+     * @return Number of seats given back, or -1 on error
+     */
+    public int releaseHeldSeats(int requestId) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = getConnection();
+            statement = connection.prepareStatement(RELEASE_HELD_SEATS);
+            statement.setInt(1, requestId);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            DAOLogger.error("SoftwareRequestDAO", "releaseHeldSeats", "Error releasing held seats of request " + requestId, e);
+            return -1;
+        } finally {
+            closeResources(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Lock the still-pending requests among the given IDs
+     * @param seatsNeeded Filled with request ID to the number of computers it deploys to
+     * @param versions Filled with request ID to requested version
+     * @return Request ID to software name, in approval order
+     */
+    private Map<Integer, String> lockPendingRequests(Connection connection, List<Integer> requestIds,
+                                                     Map<Integer, Integer> seatsNeeded,
+                                                     Map<Integer, String> versions) throws SQLException {
+        Map<Integer, String> pending = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_PENDING_REQUESTS)) {
+            statement.setArray(1, connection.createArrayOf("integer", requestIds.toArray(new Integer[0])));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    pending.put(resultSet.getInt("id"), resultSet.getString("software_name"));
+                    seatsNeeded.put(resultSet.getInt("id"), resultSet.getInt("seats_needed"));
+                    versions.put(resultSet.getInt("id"), resultSet.getString("version"));
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Lock every catalog row of the requested titles
+     * @return Lower-case title to its rows, in id order
+     */
+    private Map<String, List<SeatPool>> lockLicenseUsage(Connection connection, Collection<String> titles) throws SQLException {
+        Map<String, List<SeatPool>> poolsByTitle = new HashMap<>();
+        String[] lowerTitles = titles.stream()
+            .map(title -> title.toLowerCase(Locale.ROOT))
+            .distinct()
+            .toArray(String[]::new);
+        if (lowerTitles.length == 0) {
+            return poolsByTitle;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_LICENSE_USAGE)) {
+            statement.setArray(1, connection.createArrayOf("text", lowerTitles));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Integer limit = resultSet.getInt("license_limit");
+                    if (resultSet.wasNull()) {
+                        limit = null;
+                    }
+                    SeatPool pool = new SeatPool(resultSet.getInt("id"), resultSet.getString("version"),
+                        resultSet.getString("status"), limit, resultSet.getInt("installations"));
+                    poolsByTitle.computeIfAbsent(resultSet.getString("software_name").toLowerCase(Locale.ROOT),
+                        title -> new ArrayList<>()).add(pool);
+                }
+            }
+        }
+        return poolsByTitle;
+    }
+
+    /**
+     * One locked catalog row and the seats granted from it so far in this batch
+     */
+    private static final class SeatPool {
+        final int softwareId;
+        final String version;
+        final String status;
+        final Integer limit;
+        final int installations;
+        int granted;
+
+        SeatPool(int softwareId, String version, String status, Integer limit, int installations) {
+            this.softwareId = softwareId;
+            this.version = version;
+            this.status = status;
+            this.limit = limit;
+            this.installations = installations;
+        }
+
+        int seatsLeft() {
+            return Math.max(0, limit - installations - granted);
+        }
+
+        String describeVersion() {
+            return version == null ? "(no version)" : version;
+        }
+
+        /**
+         * The row SoftwareDAO.FIND_SEAT_POOL would pick: an active row of the requested
+         * version, else the oldest active row. With no active row the oldest row is
+         * returned so its status can be reported; null if the title is not in the catalog.
+         * @param pools Rows of one title in id order (may be null)
+         */
+        static SeatPool pick(List<SeatPool> pools, String version) {
+            if (pools == null || pools.isEmpty()) {
+                return null;
+            }
+            SeatPool oldestActive = null;
+            for (SeatPool pool : pools) {
+                if (!"Active".equals(pool.status)) {
+                    continue;
+                }
+                if (Objects.equals(pool.version, version)) {
+                    return pool;
+                }
+                if (oldestActive == null) {
+                    oldestActive = pool;
+                }
+            }
+            return oldestActive != null ? oldestActive : pools.get(0);
+        }
+    }
+
     /**
      * Map ResultSet to SoftwareRequest object
      * @param resultSet Database result set
@@ -388,7 +811,7 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
      * @throws SQLException if mapping fails
      */
     private SoftwareRequest mapResultSetToSoftwareRequest(ResultSet resultSet) throws SQLException {
-        return new SoftwareRequest(
+        SoftwareRequest request = new SoftwareRequest(
             resultSet.getString("computer_id"),
             resultSet.getString("software_name"),
             resultSet.getString("version"),
@@ -398,6 +821,32 @@ public class SoftwareRequestDAO extends AbstractDAO implements BaseDAO<SoftwareR
             resultSet.getString("status"),
             resultSet.getString("requested_by") != null ? resultSet.getString("requested_by") : ""
         );
+        request.setRequestId(resultSet.getInt("id"));
+        return request;
+    }
+    
+    /**
+     * Full-text search over software request justifications
+     * @param query Search terms (web search syntax)
+     * @param filters Optional status/urgency/date filters
+     * @param page Zero-based page number
+     * @return Ranked results with highlighted justification fragments
+     */
+    public List<SearchResult> search(String query, SearchFilter filters, int page) {
+        return executeSearch("software_requests", "Software Request", "software_name", "justification", "urgency",
+            query, filters, page);
+    }
+
+    /**
+     * The best-ranked software request hits, for merging with other sources
+     * @param query Search terms (web search syntax)
+     * @param filters Optional filters; the page size is ignored
+     * @param limit Maximum number of hits
+     * @return Up to limit results ordered by rank
+     */
+    public List<SearchResult> searchTop(String query, SearchFilter filters, int limit) {
+        return executeSearch("software_requests", "Software Request", "software_name", "justification", "urgency",
+            query, filters, 0, limit);
     }
     
     @Override
@@ -2,10 +2,8 @@ package dao;
 
 import model.User;
 import utils.DAOLogger;
+import utils.PasswordManager;
 import java.sql.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -52,113 +50,92 @@ public class UserDAO extends AbstractDAO implements BaseDAO<User> {
     public User authenticateUser(String username, String password) {
         DAOLogger.info(className, "authenticateUser", "Attempting to authenticate user: " + username);
         
-        try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(AUTHENTICATE_USER)) {
+        try (Connection connection = getConnection()) {
+            User user = findCredentials(connection, username);
+            if (user == null) {
+                DAOLogger.warn(className, "authenticateUser", "User not found: " + username);
+                return null;
+            }
+            
+            // Verify password
+            if (user.getPasswordHash() != null && verifyPassword(password, user.getPasswordHash())) {
+                user.setPasswordHash(null);
+                DAOLogger.success(className, "authenticateUser", 
+                    "Authentication successful for user: " + username + " (Role: " + user.getRole() + ")");
+                return user;
+            } else {
+                DAOLogger.warn(className, "authenticateUser", "Invalid password for user: " + username);
+                return null;
+            }
             
+        } catch (SQLException e) {
+            DAOLogger.error(className, "authenticateUser", "Database error during authentication", e);
+            return null;
+        }
+    }
+
+    /**
+     * Fetch an active user's credential row on a connection owned by the caller (e.g. a pooled one).
+     * The connection is left open.
+     * @param connection Connection to query on
+     * @param username The username
+     * @return User including its password hash, or null if there is no active user with that ID
+     * @throws SQLException if the query fails
+     */
+    public User findCredentials(Connection connection, String username) throws SQLException {
+        try (PreparedStatement statement =
+                 MeteredConnection.wrap(connection, className).prepareStatement(AUTHENTICATE_USER)) {
             statement.setString(1, username);
             
             try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    String storedHash = resultSet.getString("password_hash");
-                    
-                    // Verify password
-                    if (storedHash != null && verifyPassword(password, storedHash)) {
-                        User user = mapResultSetToUser(resultSet);
-                        DAOLogger.success(className, "authenticateUser", 
-                            "Authentication successful for user: " + username + " (Role: " + user.getRole() + ")");
-                        return user;
-                    } else {
-                        DAOLogger.warn(className, "authenticateUser", "Invalid password for user: " + username);
-                        return null;
-                    }
-                } else {
-                    DAOLogger.warn(className, "authenticateUser", "User not found: " + username);
+                if (!resultSet.next()) {
                     return null;
                 }
+                User user = mapResultSetToUser(resultSet);
+                user.setPasswordHash(resultSet.getString("password_hash"));
+                return user;
             }
-            
-        } catch (SQLException e) {
-            DAOLogger.error(className, "authenticateUser", "Database error during authentication", e);
-            return null;
         }
     }
 
     /**
-     * Hash password using SHA-256 with salt
+     * Hash password with the current PasswordManager scheme
      * @param password Plain text password
-     * @return Hashed password with salt
+     * @return Hashed password with salt and cost
      */
     public String hashPassword(String password) {
-        try {
-            // Generate salt
-            SecureRandom random = new SecureRandom();
-            byte[] salt = new byte[16];
-            random.nextBytes(salt);
-            
-            // Hash password with salt
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes());
-            
-            // Combine salt and hash
-            StringBuilder sb = new StringBuilder();
-            for (byte b : salt) {
-                sb.append(String.format("%02x", b));
-            }
-            sb.append(":");
-            for (byte b : hashedPassword) {
-                sb.append(String.format("%02x", b));
-            }
-            
-            return sb.toString();
-            
-        } catch (NoSuchAlgorithmException e) {
-            DAOLogger.error(className, "hashPassword", "Error hashing password", e);
-            return null;
+        String hash = PasswordManager.getInstance().hash(password);
+        if (hash == null) {
+            DAOLogger.error(className, "hashPassword", "Error hashing password", null);
         }
+        return hash;
     }
 
     /**
      * Verify password against stored hash
      * @param password Plain text password
-     * @param storedHash Stored hash with salt
+     * @param storedHash Stored hash with salt, in the current or an older scheme
      * @return true if password matches, false otherwise
      */
     public boolean verifyPassword(String password, String storedHash) {
-        try {
-            if (storedHash == null || !storedHash.contains(":")) {
-                return false;
-            }
-            
-            String[] parts = storedHash.split(":");
-            if (parts.length != 2) {
-                return false;
-            }
-            
-            // Extract salt
-            byte[] salt = new byte[16];
-            String saltHex = parts[0];
-            for (int i = 0; i < salt.length; i++) {
-                salt[i] = (byte) Integer.parseInt(saltHex.substring(i * 2, i * 2 + 2), 16);
-            }
-            
-            // Hash input password with same salt
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes());
-            
-            // Convert to hex
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashedPassword) {
-                sb.append(String.format("%02x", b));
-            }
-            
-            // Compare with stored hash
-            return sb.toString().equals(parts[1]);
-            
-        } catch (Exception e) {
-            DAOLogger.error(className, "verifyPassword", "Error verifying password", e);
-            return false;
+        return PasswordManager.getInstance().verify(password, storedHash);
+    }
+
+    /**
+     * Replace a user's stored hash on a connection owned by the caller, e.g. to upgrade
+     * an old-format hash after a successful login
+     * @param connection Connection to update on
+     * @param userId User ID
+     * @param passwordHash New stored hash
+     * @return true if the row was updated
+     * @throws SQLException if the update fails
+     */
+    public boolean updatePasswordHash(Connection connection, String userId, String passwordHash) throws SQLException {
+        try (PreparedStatement statement =
+                 MeteredConnection.wrap(connection, className).prepareStatement(UPDATE_PASSWORD)) {
+            statement.setString(1, passwordHash);
+            statement.setString(2, userId);
+            return statement.executeUpdate() > 0;
         }
     }
 
@@ -196,6 +173,21 @@ public class UserDAO extends AbstractDAO implements BaseDAO<User> {
 
     @Override
     public User findById(String userId) {
+        try {
+            return lookup(userId);
+        } catch (SQLException e) {
+            DAOLogger.error(className, "findById", "Database error reading user: " + userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Read a user, telling a missing row apart from a failed read
+     * @param userId The user ID
+     * @return The user, or null if there is no row for them
+     * @throws SQLException if the row could not be read
+     */
+    public User lookup(String userId) throws SQLException {
         DAOLogger.info(className, "findById", "Reading user: " + userId);
         
         try (Connection connection = getConnection();
@@ -213,10 +205,6 @@ public class UserDAO extends AbstractDAO implements BaseDAO<User> {
                     return null;
                 }
             }
-            
-        } catch (SQLException e) {
-            DAOLogger.error(className, "findById", "Database error reading user: " + userId, e);
-            return null;
         }
     }
 
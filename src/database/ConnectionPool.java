@@ -0,0 +1,190 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded pool of database connections.
+ * Connections are opened on demand up to the pool size, checked with isValid before
+ * being handed out again, and closed when they fail that check. Every pool registers
+ * itself so the performance console can show its utilization.
+ */
+public class ConnectionPool {
+    private static final String URL = "jdbc:postgresql://localhost:5434/lims_db";
+    private static final String USER = "postgres";
+    private static final String PASSWORD = "superadmin";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final List<ConnectionPool> pools = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxSize;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * @param name Name used in error messages
+     * @param maxSize Maximum number of connections open at once
+     */
+    public ConnectionPool(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.permits = new Semaphore(this.maxSize);
+        pools.add(this);
+    }
+
+    /**
+     * Every pool created so far that has not been closed
+     */
+    public static List<ConnectionPool> getPools() {
+        return Collections.unmodifiableList(pools);
+    }
+
+    /**
+     * Borrow a connection; give it back with {@link #release}
+     * @param timeoutMillis How long to wait for a free connection
+     * @return A valid connection
+     * @throws SQLException if none is free in time or a new one cannot be opened
+     */
+    public Connection borrow(long timeoutMillis) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("No connection free in pool " + name + " after " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for pool " + name, e);
+        }
+
+        borrows.increment();
+        try {
+            Connection connection;
+            while ((connection = idle.poll()) != null) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return connection;
+                }
+                closeQuietly(connection);
+            }
+            return open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a borrowed connection. Its auto-commit mode is restored; a connection
+     * left in a broken state is closed instead of being reused.
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                idle.offer(connection);
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close idle connections and refuse further borrowing
+     */
+    public void close() {
+        closed = true;
+        pools.remove(this);
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Connections currently borrowed
+     */
+    public int getInUseCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * Threads currently waiting for a free connection
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrows.sum();
+    }
+
+    /**
+     * Borrows that gave up because no connection became free in time
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Physical connections opened, including replacements for ones that went bad
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            Class.forName("org.postgresql.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("PostgreSQL JDBC Driver not found", e);
+        }
+        Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        opened.increment();
+        return connection;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+}
@@ -55,62 +55,11 @@ public class DatabaseConnector {
         }
     }
 
-    public static void initializeDatabase() {
-        try (Connection conn = getConnection()) {
-            // Create users table if it doesn't exist (PostgreSQL syntax)
-            String createTableSQL =
-                "CREATE TABLE IF NOT EXISTS users (" +
-                "    id SERIAL PRIMARY KEY," +
-                "    name VARCHAR(100) NOT NULL," +
-                "    email VARCHAR(100) UNIQUE NOT NULL," +
-                "    role VARCHAR(20) NOT NULL," +
-                "    password VARCHAR(255) NOT NULL," +
-                "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-
-            try (var stmt = conn.createStatement()) {
-                stmt.execute(createTableSQL);
-                System.out.println("Users table created or already exists");
-            }
-
-            // Insert sample user if not exists (PostgreSQL syntax)
-            String insertUserSQL =
-                "INSERT INTO users (name, email, role, password) " +
-                "VALUES (?, ?, ?, ?) " +
-                "ON CONFLICT (email) DO NOTHING";
-
-            try (var pstmt = conn.prepareStatement(insertUserSQL)) {
-                pstmt.setString(1, "Admin User");
-                pstmt.setString(2, "admin@example.com");
-                pstmt.setString(3, "ADMIN");
-                pstmt.setString(4, "admin123"); // In production, use proper password hashing
-                pstmt.executeUpdate();
-                System.out.println("Sample user inserted or already exists");
-            }
-
-            // Retrieve and print all users
-            String selectUsersSQL = "SELECT * FROM users";
-            try (var stmt = conn.createStatement();
-                 var rs = stmt.executeQuery(selectUsersSQL)) {
-
-                System.out.println("\nCurrent users in database:");
-                System.out.println("ID | Name | Email | Role");
-                System.out.println("------------------------");
-
-                while (rs.next()) {
-                    System.out.printf("%d | %s | %s | %s%n",
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("role")
-                    );
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Database initialization error: " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Create or upgrade the schema through the versioned migrations
+     * @return true if the schema is at the latest version
+     */
+    public static boolean initializeDatabase() {
+        return SchemaMigrator.getInstance().ensureCurrent();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,778 @@
+package database;
+
+import dao.ComplaintDAO;
+import dao.ComputerDAO;
+import dao.FeedbackDAO;
+import dao.LabReservationDAO;
+import dao.SoftwareDAO;
+import dao.SoftwareRequestDAO;
+import dao.UserDAO;
+import model.IndexRecommendation;
+import utils.DAOLogger;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Suggests indexes for the queries the DAOs run, and optionally creates them.
+ *
+ * The SQL constants of the registered DAO classes are read and each single-table query is
+ * broken into the columns it filters on with a parameter, range-compares, sorts by and
+ * fixes to constants. From that each query gets a candidate btree index: the equality
+ * columns, then a range or ORDER BY column, as a partial index when the query always
+ * filters on the same constants. Candidates already served by an index in pg_indexes are
+ * dropped, the rest are merged and ranked by the time pg_stat_statements has recorded for
+ * their queries (when the extension is installed).
+ *
+ * For each candidate one of its queries is run under EXPLAIN ANALYZE before and after the
+ * index is created, once for each of a few sampled values of its filter columns: values of
+ * median and quartile frequency rather than the most common one, for which a sequential
+ * scan is often the right plan anyway. After creation every query the index serves is
+ * measured, and an index is dropped again only when none of at least MIN_PLANS_TO_DROP
+ * plans used it. Created indexes are not part of the schema until their DDL is added to
+ * {@link Migrations}; the report prints it for that purpose.
+ *
+ * Run as: java database.IndexAdvisor [--apply]
+ */
+public class IndexAdvisor {
+    private static final int MEASURE_RUNS = 5;
+    private static final int SAMPLE_LIMIT = 50;
+    private static final int MIN_PLANS_TO_DROP = 2;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+    private static final List<Class<?>> daoClasses = new CopyOnWriteArrayList<>(Arrays.asList(
+        ComplaintDAO.class, ComputerDAO.class, FeedbackDAO.class, LabReservationDAO.class,
+        SoftwareDAO.class, SoftwareRequestDAO.class, UserDAO.class));
+
+    private static final Pattern TABLE = Pattern.compile(
+        "^(?:FROM|UPDATE|DELETE\\s+FROM)\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLAUSE_END = Pattern.compile(
+        "\\b(ORDER\\s+BY|GROUP\\s+BY|LIMIT|OFFSET|FOR\\s+UPDATE|RETURNING)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern EQUALS_PARAMETER = Pattern.compile(
+        "^(\\w+)\\s*=\\s*(?:\\?|ANY\\s*\\(\\s*\\?\\s*\\))$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RANGE_PARAMETER = Pattern.compile(
+        "^(\\w+)\\s*(?:<=|>=|<|>)\\s*\\?$");
+    private static final Pattern ORDER_COLUMN = Pattern.compile(
+        "^(\\w+)(?:\\s+(?:ASC|DESC))?$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PARAMETER_CONTEXT = Pattern.compile(
+        "(?:(\\w+)\\s*(?:=|<=|>=|<|>)|(LIMIT)|(ANY\\s*\\())\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern VOLATILE = Pattern.compile(
+        "\\b(NOW|CURRENT_DATE|CURRENT_TIMESTAMP|RANDOM|CLOCK_TIMESTAMP)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern EXECUTION_TIME = Pattern.compile("\"Execution Time\":\\s*([0-9.]+)");
+
+    private static final String SELECT_INDEXES =
+        "SELECT tablename, indexname, indexdef FROM pg_indexes WHERE schemaname = current_schema()";
+    private static final String SELECT_PARTITIONED_TABLES =
+        "SELECT relname FROM pg_class WHERE relkind = 'p' AND relnamespace = current_schema()::regnamespace";
+    // A partitioned table or index and all of its partitions; plans name the partitions
+    private static final String SELECT_PARTITION_TREE =
+        "SELECT c.relname FROM pg_partition_tree(?::regclass) t JOIN pg_class c ON c.oid = t.relid";
+    private static final String SELECT_STATEMENT_STATS =
+        "SELECT query, calls, %s FROM pg_stat_statements " +
+        "WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())";
+
+    /**
+     * Add a DAO class whose SQL constants should be analysed
+     */
+    public static void registerQueries(Class<?> daoClass) {
+        if (!daoClasses.contains(daoClass)) {
+            daoClasses.add(daoClass);
+        }
+    }
+
+    /**
+     * Work out which indexes are missing, with the current latency of a query each would serve
+     * @return Recommendations, most expensive queries first
+     * @throws SQLException if the catalog cannot be read
+     */
+    public List<IndexRecommendation> analyze() throws SQLException {
+        List<QueryShape> shapes = readQueryShapes();
+        ConnectionPool pool = new ConnectionPool("index-advisor", 1);
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            Map<String, List<ExistingIndex>> indexes = readIndexes(connection);
+            Map<String, double[]> statistics = readStatementStatistics(connection);
+            Set<String> partitionedTables = readPartitionedTables(connection);
+
+            Map<String, Candidate> candidates = new LinkedHashMap<>();
+            for (QueryShape shape : shapes) {
+                shape.statistics = statistics.get(normalize(shape.sql));
+                List<String> key = shape.indexKey();
+                if (key.isEmpty() || isCovered(indexes.get(shape.table), key, shape.predicate())) {
+                    continue;
+                }
+                candidates.computeIfAbsent(shape.table + "|" + key + "|" + shape.predicate(),
+                    k -> new Candidate(shape.table, key, shape.predicate())).shapes.add(shape);
+            }
+
+            List<IndexRecommendation> recommendations = new ArrayList<>();
+            for (Candidate candidate : merge(new ArrayList<>(candidates.values()))) {
+                IndexRecommendation recommendation = candidate.toRecommendation(statistics.isEmpty());
+                recommendation.setPartitioned(partitionedTables.contains(candidate.table));
+                QueryShape measured = candidate.measurableShape();
+                if (measured != null) {
+                    Measurement before = measure(connection, measured, null);
+                    if (before != null) {
+                        recommendation.setBeforeMillis(before.medianMillis);
+                        recommendation.setSequentialScan(before.sequentialScan);
+                    }
+                }
+                recommendations.add(recommendation);
+            }
+            recommendations.sort(Comparator.comparingDouble(IndexRecommendation::getTotalTimeMillis).reversed()
+                .thenComparing(Comparator.comparingDouble(IndexRecommendation::getBeforeMillis).reversed()));
+            DAOLogger.info("IndexAdvisor", "analyze",
+                shapes.size() + " query shapes analysed, " + recommendations.size() + " indexes recommended");
+            return recommendations;
+        } finally {
+            pool.release(connection);
+            pool.close();
+        }
+    }
+
+    /**
+     * Create recommended indexes and measure their queries again. An index is dropped again
+     * only if the planner used it in none of at least MIN_PLANS_TO_DROP plans; one unused
+     * plan is reported for review instead.
+     * @param recommendations Output of {@link #analyze()}
+     */
+    public void apply(List<IndexRecommendation> recommendations) throws SQLException {
+        Map<String, QueryShape> shapesByName = new HashMap<>();
+        for (QueryShape shape : readQueryShapes()) {
+            shapesByName.put(shape.name, shape);
+        }
+
+        ConnectionPool pool = new ConnectionPool("index-advisor", 1);
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            for (IndexRecommendation recommendation : recommendations) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(recommendation.getDdl());
+                    statement.execute("ANALYZE " + recommendation.getTable());
+                } catch (SQLException e) {
+                    recommendation.setStatus("Failed: " + e.getMessage());
+                    DAOLogger.error("IndexAdvisor", "apply", "Could not create " + recommendation.getIndexName(), e);
+                    continue;
+                }
+                recommendation.setStatus("Created");
+
+                // Every query the index serves, with every sampled value, gets a say
+                Measurement after = null;
+                int plans = 0;
+                int plansUsingIndex = 0;
+                for (String name : recommendation.getQueries()) {
+                    QueryShape shape = shapesByName.get(name);
+                    Measurement measurement = shape != null && shape.isMeasurable()
+                        ? measure(connection, shape, recommendation.getIndexName()) : null;
+                    if (measurement != null) {
+                        after = after == null ? measurement : after;
+                        plans += measurement.plans;
+                        plansUsingIndex += measurement.plansUsingIndex;
+                    }
+                }
+                if (after == null) {
+                    continue;
+                }
+                recommendation.setAfterMillis(after.medianMillis);
+                if (plansUsingIndex == 0 && plans >= MIN_PLANS_TO_DROP) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(recommendation.getDropDdl());
+                    }
+                    recommendation.setStatus("Not used by the planner in " + plans + " plans; dropped");
+                } else if (plansUsingIndex == 0) {
+                    recommendation.setStatus("Created; not used in the only measured plan, review before keeping");
+                }
+                DAOLogger.info("IndexAdvisor", "apply", recommendation.getIndexName() + ": " +
+                    recommendation.getStatus() + ", " + recommendation.getBeforeMillis() + " ms -> " + after.medianMillis + " ms");
+            }
+        } finally {
+            pool.release(connection);
+            pool.close();
+        }
+    }
+
+    /**
+     * Every analysable SELECT, UPDATE and DELETE constant of the registered DAO classes
+     */
+    List<QueryShape> readQueryShapes() {
+        List<QueryShape> shapes = new ArrayList<>();
+        for (Class<?> daoClass : daoClasses) {
+            for (Field field : daoClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    String sql = (String) field.get(null);
+                    QueryShape shape = sql == null ? null : QueryShape.parse(daoClass.getSimpleName() + "." + field.getName(), sql);
+                    if (shape != null) {
+                        shapes.add(shape);
+                    }
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    DAOLogger.warn("IndexAdvisor", "readQueryShapes", "Skipped " + field + ": " + e.getMessage());
+                }
+            }
+        }
+        return shapes;
+    }
+
+    private Set<String> readPartitionedTables(Connection connection) throws SQLException {
+        Set<String> tables = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_PARTITIONED_TABLES)) {
+            while (resultSet.next()) {
+                tables.add(resultSet.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Names of a table or index and of its partitions, as they appear in plans
+     */
+    private Set<String> partitionTree(Connection connection, String relation) {
+        Set<String> names = new HashSet<>();
+        names.add(relation);
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTITION_TREE)) {
+            statement.setString(1, relation);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    names.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            // Before PostgreSQL 12 there are no partitioned indexes to expand
+        }
+        return names;
+    }
+
+    private Map<String, List<ExistingIndex>> readIndexes(Connection connection) throws SQLException {
+        Map<String, List<ExistingIndex>> indexes = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_INDEXES)) {
+            while (resultSet.next()) {
+                ExistingIndex index = ExistingIndex.parse(resultSet.getString("indexdef"));
+                if (index != null) {
+                    indexes.computeIfAbsent(resultSet.getString("tablename"), k -> new ArrayList<>()).add(index);
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Normalized statement text -> {calls, total milliseconds}; empty if pg_stat_statements is not installed
+     */
+    private Map<String, double[]> readStatementStatistics(Connection connection) {
+        Map<String, double[]> statistics = new HashMap<>();
+        // total_exec_time from PostgreSQL 13, total_time before
+        for (String totalColumn : new String[] {"total_exec_time", "total_time"}) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(String.format(SELECT_STATEMENT_STATS, totalColumn))) {
+                while (resultSet.next()) {
+                    statistics.merge(normalize(resultSet.getString("query")),
+                        new double[] {resultSet.getLong("calls"), resultSet.getDouble(totalColumn)},
+                        (a, b) -> new double[] {a[0] + b[0], a[1] + b[1]});
+                }
+                return statistics;
+            } catch (SQLException e) {
+                statistics.clear();
+            }
+        }
+        DAOLogger.warn("IndexAdvisor", "readStatementStatistics",
+            "pg_stat_statements not available; recommendations are ranked by measured latency only");
+        return statistics;
+    }
+
+    /**
+     * Run a query under EXPLAIN ANALYZE MEASURE_RUNS times after one warm-up run, for each
+     * set of sampled parameter values
+     * @param indexName Index to look for in the plans, or null
+     * @return The median over all runs, or null if the query could not be run
+     */
+    private Measurement measure(Connection connection, QueryShape shape, String indexName) {
+        try {
+            List<List<Object>> samples = new ArrayList<>();
+            int valueSets = 1;
+            for (String column : shape.parameterColumns) {
+                List<Object> sample = "LIMIT".equals(column)
+                    ? Arrays.asList(SAMPLE_LIMIT) : sampleValues(connection, shape.table, column);
+                if (sample.isEmpty()) {
+                    return null;
+                }
+                samples.add(sample);
+                valueSets = Math.max(valueSets, sample.size());
+            }
+
+            Set<String> tableNames = partitionTree(connection, shape.table);
+            Set<String> indexNames = indexName == null ? null : partitionTree(connection, indexName);
+            double[] timings = new double[MEASURE_RUNS * valueSets];
+            boolean sequentialScan = false;
+            int plansUsingIndex = 0;
+            try (PreparedStatement statement =
+                     connection.prepareStatement("EXPLAIN (ANALYZE, FORMAT JSON) " + shape.sql)) {
+                for (int set = 0; set < valueSets; set++) {
+                    for (int i = 0; i < samples.size(); i++) {
+                        List<Object> sample = samples.get(i);
+                        statement.setObject(i + 1, sample.get(set % sample.size()));
+                    }
+                    String plan = null;
+                    for (int run = -1; run < MEASURE_RUNS; run++) {
+                        StringBuilder output = new StringBuilder();
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                output.append(resultSet.getString(1));
+                            }
+                        }
+                        plan = output.toString();
+                        Matcher matcher = EXECUTION_TIME.matcher(plan);
+                        if (run >= 0) {
+                            timings[set * MEASURE_RUNS + run] = matcher.find() ? Double.parseDouble(matcher.group(1)) : 0;
+                        }
+                    }
+                    sequentialScan |= plan.contains("\"Seq Scan\"") && mentions(plan, "Relation Name", tableNames);
+                    if (indexNames != null && mentions(plan, "Index Name", indexNames)) {
+                        plansUsingIndex++;
+                    }
+                }
+            }
+            Arrays.sort(timings);
+            return new Measurement(timings[timings.length / 2], sequentialScan, valueSets, plansUsingIndex);
+        } catch (SQLException e) {
+            DAOLogger.warn("IndexAdvisor", "measure", "Could not measure " + shape.name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean mentions(String plan, String property, Set<String> names) {
+        for (String name : names) {
+            if (plan.contains("\"" + property + "\": \"" + name + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Up to three values of a column: those at the first quartile, median and third quartile
+     * when the distinct values are ranked by frequency
+     * @return The values, empty if the column has none
+     */
+    private List<Object> sampleValues(Connection connection, String table, String column) throws SQLException {
+        String sql = "SELECT value FROM (SELECT " + column + " AS value, " +
+            "row_number() OVER (ORDER BY COUNT(*) DESC, " + column + ") AS rank, COUNT(*) OVER () AS distinct_values " +
+            "FROM " + table + " WHERE " + column + " IS NOT NULL GROUP BY " + column + ") ranked " +
+            "WHERE rank IN (GREATEST(1, (distinct_values + 3) / 4), GREATEST(1, (distinct_values + 1) / 2), " +
+            "GREATEST(1, (3 * distinct_values + 3) / 4)) ORDER BY rank";
+        List<Object> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                values.add(resultSet.getObject(1));
+            }
+        }
+        return values;
+    }
+
+    private static boolean isCovered(List<ExistingIndex> indexes, List<String> key, String predicate) {
+        if (indexes == null) {
+            return false;
+        }
+        for (ExistingIndex index : indexes) {
+            if (index.predicate != null && predicate == null) {
+                continue;
+            }
+            if (index.columns.size() >= key.size() && index.columns.subList(0, key.size()).equals(key)) {
+                return true;
+            }
+            // A unique index on a prefix of the key already narrows the query to one row
+            if (index.unique && index.columns.size() < key.size() && key.subList(0, index.columns.size()).equals(index.columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fold a candidate into another on the same table whose key starts with its key, if that
+     * one has the same predicate or none
+     */
+    private static List<Candidate> merge(List<Candidate> candidates) {
+        candidates.sort(Comparator.comparingInt((Candidate c) -> c.key.size()).reversed()
+            .thenComparing(c -> c.predicate != null));
+        List<Candidate> merged = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            Candidate wider = null;
+            for (Candidate kept : merged) {
+                if (kept.table.equals(candidate.table)
+                        && (kept.predicate == null || kept.predicate.equals(candidate.predicate))
+                        && kept.key.subList(0, candidate.key.size()).equals(candidate.key)) {
+                    wider = kept;
+                    break;
+                }
+            }
+            if (wider != null) {
+                wider.shapes.addAll(candidate.shapes);
+            } else {
+                merged.add(candidate);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Statement text as pg_stat_statements records it: constants and parameters as
+     * placeholders, whitespace collapsed, lower case
+     */
+    static String normalize(String sql) {
+        return sql.replaceAll("'(?:[^']|'')*'", "?")
+            .replaceAll("\\$\\d+", "?")
+            .replaceAll("\\b\\d+(?:\\.\\d+)?\\b", "?")
+            .replaceAll("\\s+", " ")
+            .replaceAll("\\s*;\\s*$", "")
+            .trim()
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Printable report, with the DDL to add to a migration for the indexes worth keeping
+     */
+    public static String formatReport(List<IndexRecommendation> recommendations) {
+        StringBuilder report = new StringBuilder();
+        report.append("=".repeat(60)).append('\n').append("INDEX ADVISOR").append('\n').append("=".repeat(60)).append('\n');
+        if (recommendations.isEmpty()) {
+            report.append("Every analysed DAO query is already served by an index.\n");
+        }
+        for (IndexRecommendation recommendation : recommendations) {
+            report.append('\n').append(recommendation.getIndexName()).append("  [").append(recommendation.getStatus()).append("]\n");
+            report.append("  ").append(recommendation.getDdl()).append('\n');
+            report.append("  Serves: ").append(String.join(", ", recommendation.getQueries())).append('\n');
+            if (recommendation.getCalls() >= 0) {
+                report.append(String.format("  pg_stat_statements: %d calls, %.1f ms in total%n",
+                    recommendation.getCalls(), recommendation.getTotalTimeMillis()));
+            }
+            report.append("  Latency: ").append(millis(recommendation.getBeforeMillis()))
+                .append(recommendation.isSequentialScan() ? " (sequential scan)" : "")
+                .append(" -> ").append(millis(recommendation.getAfterMillis())).append('\n');
+        }
+        report.append("\nAdd the DDL of kept indexes (without CONCURRENTLY) to a new migration in database.Migrations.\n");
+        return report.toString();
+    }
+
+    private static String millis(double value) {
+        return value < 0 ? "not measured" : String.format("%.3f ms", value);
+    }
+
+    public static void main(String[] args) {
+        boolean apply = Arrays.asList(args).contains("--apply");
+        IndexAdvisor advisor = new IndexAdvisor();
+        try {
+            List<IndexRecommendation> recommendations = advisor.analyze();
+            if (apply) {
+                advisor.apply(recommendations);
+            }
+            System.out.println(formatReport(recommendations));
+        } catch (SQLException e) {
+            System.err.println("❌ Index advisor failed: " + e.getMessage());
+        } finally {
+            DAOLogger.flush();
+        }
+    }
+
+    /**
+     * What one SQL constant filters and sorts on
+     */
+    static final class QueryShape {
+        final String name;
+        final String sql;
+        final String table;
+        final boolean select;
+        final boolean locking;
+        final List<String> equalityColumns = new ArrayList<>();
+        final List<String> rangeColumns = new ArrayList<>();
+        final List<String> orderColumns = new ArrayList<>();
+        final List<String> constantPredicates = new ArrayList<>();
+        // Column each parameter of the statement compares with, "LIMIT", or null if unknown
+        final List<String> parameterColumns = new ArrayList<>();
+        boolean limited;
+        double[] statistics;
+
+        private QueryShape(String name, String sql, String table) {
+            this.name = name;
+            this.sql = sql;
+            this.table = table;
+            this.select = sql.regionMatches(true, 0, "SELECT", 0, 6);
+            this.locking = sql.toUpperCase(Locale.ROOT).contains("FOR UPDATE");
+        }
+
+        /**
+         * @return The shape, or null for statements that are not single-table SELECT, UPDATE or DELETE
+         */
+        static QueryShape parse(String name, String sql) {
+            String text = sql.replaceAll("\\s+", " ").trim();
+            String upper = text.toUpperCase(Locale.ROOT);
+            if (upper.contains(" JOIN ") || upper.contains("(SELECT") || upper.contains(" UNION ")
+                    || upper.startsWith("WITH") || upper.startsWith("INSERT")) {
+                return null;
+            }
+            // In a SELECT, skip FROMs inside the select list, e.g. EXTRACT(EPOCH FROM ...)
+            int from = upper.startsWith("SELECT") ? topLevelIndexOf(upper, " FROM ") : -1;
+            Matcher table = TABLE.matcher(from >= 0 ? text.substring(from + 1) : text);
+            if (!table.find()) {
+                return null;
+            }
+            QueryShape shape = new QueryShape(name, text, table.group(1).toLowerCase(Locale.ROOT));
+
+            int where = upper.indexOf(" WHERE ");
+            if (where >= 0) {
+                String rest = text.substring(where + 7);
+                Matcher end = CLAUSE_END.matcher(rest);
+                String condition = end.find() ? rest.substring(0, end.start()) : rest;
+                for (String conjunct : splitConjuncts(condition)) {
+                    shape.addConjunct(conjunct.trim());
+                }
+            }
+
+            int orderBy = upper.indexOf(" ORDER BY ");
+            if (orderBy >= 0) {
+                String rest = text.substring(orderBy + 10);
+                Matcher end = Pattern.compile("\\b(LIMIT|OFFSET|FOR\\s+UPDATE)\\b", Pattern.CASE_INSENSITIVE).matcher(rest);
+                String clause = end.find() ? rest.substring(0, end.start()) : rest;
+                for (String item : clause.split(",")) {
+                    Matcher column = ORDER_COLUMN.matcher(item.trim());
+                    if (!column.matches()) {
+                        // An expression: only an expression index could serve the sort
+                        shape.orderColumns.clear();
+                        break;
+                    }
+                    shape.orderColumns.add(column.group(1).toLowerCase(Locale.ROOT));
+                }
+            }
+            shape.limited = upper.contains(" LIMIT ");
+
+            Matcher parameter = Pattern.compile("\\?").matcher(text);
+            while (parameter.find()) {
+                Matcher context = PARAMETER_CONTEXT.matcher(text.substring(0, parameter.start()));
+                if (!context.find() || context.group(3) != null) {
+                    shape.parameterColumns.add(null);
+                } else {
+                    shape.parameterColumns.add(context.group(2) != null ? "LIMIT" : context.group(1).toLowerCase(Locale.ROOT));
+                }
+            }
+            return shape;
+        }
+
+        private void addConjunct(String conjunct) {
+            Matcher equals = EQUALS_PARAMETER.matcher(conjunct);
+            if (equals.matches()) {
+                addOnce(equalityColumns, equals.group(1).toLowerCase(Locale.ROOT));
+                return;
+            }
+            Matcher range = RANGE_PARAMETER.matcher(conjunct);
+            if (range.matches()) {
+                addOnce(rangeColumns, range.group(1).toLowerCase(Locale.ROOT));
+                return;
+            }
+            if (!conjunct.contains("?") && !VOLATILE.matcher(conjunct).find()) {
+                constantPredicates.add(conjunct);
+            }
+        }
+
+        /**
+         * Equality columns, then one range column or the sort columns
+         */
+        List<String> indexKey() {
+            Set<String> key = new LinkedHashSet<>(equalityColumns);
+            if (!rangeColumns.isEmpty()) {
+                key.add(rangeColumns.get(0));
+            } else if (!key.isEmpty() || limited || predicate() != null) {
+                // A sort-only index pays off when it avoids sorting a filtered set or a whole table for a LIMIT
+                key.addAll(orderColumns);
+            }
+            return new ArrayList<>(key);
+        }
+
+        String predicate() {
+            return constantPredicates.isEmpty() ? null : String.join(" AND ", constantPredicates);
+        }
+
+        /**
+         * Whether EXPLAIN ANALYZE can run it safely with sample values: a SELECT that takes no
+         * row locks, with every parameter traced to a column or LIMIT
+         */
+        boolean isMeasurable() {
+            return select && !locking && !parameterColumns.contains(null) && !sql.toUpperCase(Locale.ROOT).contains("ANY(");
+        }
+
+        private static void addOnce(List<String> columns, String column) {
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+
+        private static int topLevelIndexOf(String text, String token) {
+            int depth = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && text.startsWith(token, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static List<String> splitConjuncts(String condition) {
+            List<String> conjuncts = new ArrayList<>();
+            int depth = 0;
+            boolean quoted = false;
+            int start = 0;
+            String upper = condition.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < condition.length(); i++) {
+                char c = condition.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if (!quoted && c == '(') {
+                    depth++;
+                } else if (!quoted && c == ')') {
+                    depth--;
+                } else if (!quoted && depth == 0 && upper.startsWith(" AND ", i)) {
+                    conjuncts.add(condition.substring(start, i));
+                    start = i + 5;
+                    i += 4;
+                }
+            }
+            conjuncts.add(condition.substring(start));
+            return conjuncts;
+        }
+    }
+
+    /**
+     * An index suggested by one or more query shapes
+     */
+    private static final class Candidate {
+        final String table;
+        final List<String> key;
+        final String predicate;
+        final List<QueryShape> shapes = new ArrayList<>();
+
+        Candidate(String table, List<String> key, String predicate) {
+            this.table = table;
+            this.key = key;
+            this.predicate = predicate;
+        }
+
+        IndexRecommendation toRecommendation(boolean noStatistics) {
+            List<String> names = new ArrayList<>();
+            long calls = 0;
+            double totalMillis = 0;
+            for (QueryShape shape : shapes) {
+                names.add(shape.name);
+                if (shape.statistics != null) {
+                    calls += (long) shape.statistics[0];
+                    totalMillis += shape.statistics[1];
+                }
+            }
+            String name = "idx_" + table + "_" + String.join("_", key) + (predicate != null ? "_partial" : "");
+            IndexRecommendation recommendation = new IndexRecommendation(table, key, predicate,
+                name.length() > MAX_IDENTIFIER_LENGTH ? name.substring(0, MAX_IDENTIFIER_LENGTH) : name, names);
+            if (!noStatistics) {
+                recommendation.setCalls(calls);
+                recommendation.setTotalTimeMillis(totalMillis);
+            }
+            return recommendation;
+        }
+
+        /**
+         * The measurable query with the most recorded time
+         */
+        QueryShape measurableShape() {
+            QueryShape best = null;
+            for (QueryShape shape : shapes) {
+                if (shape.isMeasurable() && (best == null || total(shape) > total(best))) {
+                    best = shape;
+                }
+            }
+            return best;
+        }
+
+        private static double total(QueryShape shape) {
+            return shape.statistics == null ? 0 : shape.statistics[1];
+        }
+    }
+
+    /**
+     * Key columns and predicate of an index, as read back from pg_indexes.indexdef
+     */
+    private static final class ExistingIndex {
+        final List<String> columns = new ArrayList<>();
+        boolean unique;
+        String predicate;
+
+        /**
+         * @param definition e.g. CREATE INDEX idx ON public.computers USING btree (lab_id) WHERE ...
+         */
+        static ExistingIndex parse(String definition) {
+            int using = definition.indexOf(" USING btree (");
+            if (using < 0) {
+                return null;
+            }
+            int start = using + " USING btree (".length();
+            int depth = 1;
+            int i = start;
+            while (i < definition.length() && depth > 0) {
+                char c = definition.charAt(i++);
+                depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+            }
+            ExistingIndex index = new ExistingIndex();
+            index.unique = definition.startsWith("CREATE UNIQUE INDEX");
+            for (String column : definition.substring(start, i - 1).split(",(?![^(]*\\))")) {
+                // Expression columns keep their parentheses and never equal a plain column name
+                index.columns.add(column.trim().replace("\"", "").split(" ")[0].toLowerCase(Locale.ROOT));
+            }
+            int where = definition.indexOf(" WHERE ", i - 1);
+            index.predicate = where < 0 ? null : definition.substring(where + 7);
+            return index;
+        }
+    }
+
+    private static final class Measurement {
+        final double medianMillis;
+        /** Whether any of the plans scanned the table sequentially */
+        final boolean sequentialScan;
+        /** Distinct plans looked at, one per set of sampled values */
+        final int plans;
+        final int plansUsingIndex;
+
+        Measurement(double medianMillis, boolean sequentialScan, int plans, int plansUsingIndex) {
+            this.medianMillis = medianMillis;
+            this.sequentialScan = sequentialScan;
+            this.plans = plans;
+            this.plansUsingIndex = plansUsingIndex;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package database;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * One versioned schema change: an ordered list of DDL statements applied together in one
+ * transaction. Once applied, a migration must never be edited; its checksum is recorded
+ * in schema_migrations and a changed checksum stops further migrations. Schema changes
+ * go in a new migration with the next version instead.
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final String checksum;
+
+    public Migration(int version, String description, String... statements) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration versions start at 1: " + version);
+        }
+        this.version = version;
+        this.description = description;
+        this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+        this.checksum = checksum(this.statements);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * SHA-256 of the statements, ignoring line-ending and surrounding whitespace differences
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    private static String checksum(List<String> statements) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String statement : statements) {
+                digest.update(statement.replace("\r\n", "\n").trim().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
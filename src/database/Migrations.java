@@ -0,0 +1,394 @@
+package database;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every schema migration, in version order. Append new ones at the end with the next
+ * version number and never change one that has shipped.
+ *
+ * Version 1 is the baseline schema of database_setup.sql. Like every migration here it
+ * uses IF NOT EXISTS forms, so a database built from that script records the versions
+ * without changing anything.
+ */
+public final class Migrations {
+    private static final List<Migration> ALL = Collections.unmodifiableList(Arrays.asList(
+        new Migration(1, "Baseline tables",
+            "CREATE TABLE IF NOT EXISTS users (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    name VARCHAR(100) NOT NULL," +
+            "    email VARCHAR(100) NOT NULL UNIQUE," +
+            "    password_hash VARCHAR(255) NOT NULL," +
+            "    role VARCHAR(20) NOT NULL CHECK (role IN ('Admin', 'Teacher', 'Student', 'Lab Technician'))," +
+            "    department VARCHAR(100)," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS labs (" +
+            "    lab_id SERIAL PRIMARY KEY," +
+            "    lab_name VARCHAR(100) NOT NULL UNIQUE," +
+            "    capacity INT NOT NULL CHECK (capacity > 0)," +
+            "    equipment TEXT," +
+            "    status VARCHAR(20) NOT NULL DEFAULT 'Active' CHECK (status IN ('Active', 'Maintenance', 'Inactive', 'Under Construction'))," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS computers (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    computer_id VARCHAR(20) UNIQUE NOT NULL," +
+            "    lab_id INT REFERENCES labs(lab_id) ON DELETE SET NULL," +
+            "    computer_name VARCHAR(100) NOT NULL," +
+            "    ip_address VARCHAR(15)," +
+            "    specifications TEXT," +
+            "    status VARCHAR(20) NOT NULL DEFAULT 'Available' CHECK (status IN ('Available', 'In Use', 'Maintenance', 'Retired'))," +
+            "    install_date DATE," +
+            "    notes TEXT," +
+            "    last_maintenance TIMESTAMP," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS software (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    software_name VARCHAR(100) NOT NULL," +
+            "    version VARCHAR(50)," +
+            "    license_type VARCHAR(50) CHECK (license_type IN ('Open Source', 'Academic', 'Professional', 'Enterprise', 'Subscription'))," +
+            "    installations INT DEFAULT 0 CHECK (installations >= 0)," +
+            "    status VARCHAR(20) NOT NULL DEFAULT 'Active' CHECK (status IN ('Active', 'Inactive', 'Expired', 'Pending'))," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS complaints (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    computer_id VARCHAR(20)," +
+            "    department VARCHAR(100)," +
+            "    issue_type VARCHAR(50) CHECK (issue_type IN ('Hardware', 'Software', 'Equipment', 'Network', 'Other'))," +
+            "    description TEXT NOT NULL," +
+            "    status VARCHAR(20) DEFAULT 'Open' CHECK (status IN ('Open', 'In Progress', 'Resolved', 'Closed', 'Cancelled'))," +
+            "    urgency VARCHAR(20) DEFAULT 'Medium' CHECK (urgency IN ('Low', 'Medium', 'High', 'Critical'))," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "    assigned_to VARCHAR(100)," +
+            "    resolved_at TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS lab_reservations (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    requester_name VARCHAR(100) NOT NULL," +
+            "    lab_name VARCHAR(100) NOT NULL," +
+            "    reservation_date DATE NOT NULL," +
+            "    time_slot VARCHAR(20) NOT NULL," +
+            "    purpose VARCHAR(50) NOT NULL CHECK (purpose IN ('Class', 'Research', 'Workshop', 'Training', 'Meeting', 'Exam'))," +
+            "    description TEXT," +
+            "    status VARCHAR(20) DEFAULT 'Pending' CHECK (status IN ('Pending', 'Approved', 'Rejected', 'Completed', 'Cancelled'))," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS software_requests (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    computer_id VARCHAR(20)," +
+            "    software_name VARCHAR(100) NOT NULL," +
+            "    version VARCHAR(50)," +
+            "    urgency VARCHAR(20) DEFAULT 'Medium' CHECK (urgency IN ('Low', 'Medium', 'High', 'Critical'))," +
+            "    justification TEXT," +
+            "    status VARCHAR(20) DEFAULT 'Pending' CHECK (status IN ('Pending', 'In Progress', 'Completed', 'Approved', 'Rejected'))," +
+            "    requested_by VARCHAR(100)," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS feedback (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    name VARCHAR(100) NOT NULL," +
+            "    category VARCHAR(50) NOT NULL," +
+            "    feedback TEXT NOT NULL," +
+            "    status VARCHAR(50) DEFAULT 'Pending'," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS user_access (" +
+            "    id SERIAL PRIMARY KEY," +
+            "    user_id VARCHAR(20) NOT NULL," +
+            "    name VARCHAR(100) NOT NULL," +
+            "    role VARCHAR(50) NOT NULL CHECK (role IN ('Admin', 'Teacher', 'Student', 'Lab Technician'))," +
+            "    department VARCHAR(100)," +
+            "    access_level VARCHAR(20) NOT NULL CHECK (access_level IN ('Full', 'Limited', 'Basic', 'Read Only'))," +
+            "    status VARCHAR(20) NOT NULL DEFAULT 'Active' CHECK (status IN ('Active', 'Inactive', 'Pending', 'Suspended'))," +
+            "    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE INDEX IF NOT EXISTS idx_computers_lab_id ON computers(lab_id)",
+            "CREATE INDEX IF NOT EXISTS idx_computers_status ON computers(status)",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_status ON complaints(status)",
+            "CREATE INDEX IF NOT EXISTS idx_reservations_date ON lab_reservations(reservation_date)",
+            "CREATE INDEX IF NOT EXISTS idx_users_email ON users(email)",
+            "CREATE INDEX IF NOT EXISTS idx_user_access_status ON user_access(status)"),
+
+        new Migration(2, "Complaint duplicates and triage queue",
+            "ALTER TABLE complaints ADD COLUMN IF NOT EXISTS duplicate_of INT REFERENCES complaints(id) ON DELETE SET NULL",
+            "ALTER TABLE complaints ADD COLUMN IF NOT EXISTS duplicate_count INT NOT NULL DEFAULT 0",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_triage ON complaints (" +
+            "    (CASE urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END) DESC," +
+            "    created_at" +
+            ") WHERE status IN ('Open', 'Pending') AND (assigned_to IS NULL OR assigned_to = '') AND duplicate_of IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_open_originals ON complaints(computer_id, created_at)" +
+            "    WHERE status IN ('Open', 'Pending', 'In Progress') AND duplicate_of IS NULL"),
+
+        new Migration(3, "License seat limits",
+            "ALTER TABLE software ADD COLUMN IF NOT EXISTS license_limit INT CHECK (license_limit IS NULL OR license_limit >= 0)",
+            "CREATE INDEX IF NOT EXISTS idx_software_name ON software (LOWER(software_name))",
+            "CREATE INDEX IF NOT EXISTS idx_software_seat_pools ON software (id) WHERE license_limit IS NOT NULL"),
+
+        new Migration(4, "Full-text search columns",
+            "ALTER TABLE complaints ADD COLUMN IF NOT EXISTS search_vector tsvector" +
+            "    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(description, ''))) STORED",
+            "ALTER TABLE feedback ADD COLUMN IF NOT EXISTS search_vector tsvector" +
+            "    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(feedback, ''))) STORED",
+            "ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS search_vector tsvector" +
+            "    GENERATED ALWAYS AS (to_tsvector('english', COALESCE(justification, ''))) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_search ON complaints USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_feedback_search ON feedback USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_software_requests_search ON software_requests USING GIN (search_vector)"),
+
+        new Migration(5, "Session invalidation notifications",
+            "CREATE OR REPLACE FUNCTION notify_user_access_changed() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    PERFORM pg_notify('user_access_changed', COALESCE(NEW.user_id, OLD.user_id));\n" +
+            "    RETURN NULL;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS trg_user_access_changed ON user_access",
+            "CREATE TRIGGER trg_user_access_changed AFTER INSERT OR UPDATE OR DELETE ON user_access" +
+            "    FOR EACH ROW EXECUTE FUNCTION notify_user_access_changed()"),
+
+        new Migration(6, "Monthly partitions for request tables",
+            "CREATE OR REPLACE FUNCTION insertable_columns(rel REGCLASS) RETURNS TEXT AS $$\n" +
+            "    SELECT string_agg(quote_ident(attname), ', ' ORDER BY attnum) FROM pg_attribute\n" +
+            "    WHERE attrelid = rel AND attnum > 0 AND NOT attisdropped AND attgenerated = ''\n" +
+            "$$ LANGUAGE sql STABLE",
+            // Creates parent_YYYY_MM for each month that has no partition yet. Rows already
+            // in the default partition for such a month are moved into the new partition.
+            "CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, months INT) RETURNS INT AS $$\n" +
+            "DECLARE\n" +
+            "    default_name TEXT := parent || '_default';\n" +
+            "    key_column TEXT;\n" +
+            "    month_start DATE;\n" +
+            "    month_end DATE;\n" +
+            "    partition_name TEXT;\n" +
+            "    stray_rows BOOLEAN;\n" +
+            "    created INT := 0;\n" +
+            "BEGIN\n" +
+            "    SELECT a.attname INTO key_column FROM pg_partitioned_table p\n" +
+            "        JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0]\n" +
+            "        WHERE p.partrelid = parent::regclass;\n" +
+            "    FOR i IN 0 .. months - 1 LOOP\n" +
+            "        month_start := (date_trunc('month', first_month) + make_interval(months => i))::date;\n" +
+            "        month_end := (month_start + INTERVAL '1 month')::date;\n" +
+            "        partition_name := parent || '_' || to_char(month_start, 'YYYY_MM');\n" +
+            "        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;\n" +
+            "        stray_rows := false;\n" +
+            "        IF to_regclass(default_name) IS NOT NULL THEN\n" +
+            "            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',\n" +
+            "                default_name, key_column, month_start, key_column, month_end) INTO stray_rows;\n" +
+            "        END IF;\n" +
+            "        IF stray_rows THEN\n" +
+            "            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);\n" +
+            "        END IF;\n" +
+            "        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',\n" +
+            "            partition_name, parent, month_start, month_end);\n" +
+            "        IF stray_rows THEN\n" +
+            "            EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I WHERE %I >= %L AND %I < %L',\n" +
+            "                parent, insertable_columns(parent::regclass), insertable_columns(parent::regclass),\n" +
+            "                default_name, key_column, month_start, key_column, month_end);\n" +
+            "            EXECUTE format('DELETE FROM %I WHERE %I >= %L AND %I < %L',\n" +
+            "                default_name, key_column, month_start, key_column, month_end);\n" +
+            "            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);\n" +
+            "        END IF;\n" +
+            "        created := created + 1;\n" +
+            "    END LOOP;\n" +
+            "    RETURN created;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            // Rebuilds a plain table as one range-partitioned by month on key_column, keeping
+            // its rows, IDs and sequence. Does nothing if the table is already partitioned.
+            // The key must be part of any unique constraint, so (id, key) replaces the primary
+            // key; it is UNIQUE rather than PRIMARY KEY so rows without a key keep their NULL
+            // and stay in the default partition.
+            "CREATE OR REPLACE FUNCTION partition_by_month(parent TEXT, key_column TEXT) RETURNS VOID AS $$\n" +
+            "DECLARE\n" +
+            "    old_name TEXT := parent || '_unpartitioned';\n" +
+            "    id_sequence TEXT := pg_get_serial_sequence(parent, 'id');\n" +
+            "    first_month DATE;\n" +
+            "    last_month DATE;\n" +
+            "    fk RECORD;\n" +
+            "BEGIN\n" +
+            "    IF (SELECT relkind FROM pg_class WHERE oid = parent::regclass) = 'p' THEN\n" +
+            "        RETURN;\n" +
+            "    END IF;\n" +
+            "    -- A foreign key to a partitioned table must include the partition key\n" +
+            "    FOR fk IN SELECT conname, conrelid::regclass AS child FROM pg_constraint\n" +
+            "            WHERE contype = 'f' AND confrelid = parent::regclass LOOP\n" +
+            "        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.child, fk.conname);\n" +
+            "    END LOOP;\n" +
+            "    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS %I', parent, parent || '_pkey');\n" +
+            "    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, old_name);\n" +
+            "    IF id_sequence IS NOT NULL THEN\n" +
+            "        EXECUTE format('ALTER SEQUENCE %s OWNED BY NONE', id_sequence);\n" +
+            "    END IF;\n" +
+            "    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED,'\n" +
+            "        ' UNIQUE (id, %I)) PARTITION BY RANGE (%I)', parent, old_name, key_column, key_column);\n" +
+            "    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);\n" +
+            "    EXECUTE format('SELECT min(%I)::date, max(%I)::date FROM %I', key_column, key_column, old_name)\n" +
+            "        INTO first_month, last_month;\n" +
+            "    first_month := date_trunc('month', LEAST(COALESCE(first_month, CURRENT_DATE), CURRENT_DATE));\n" +
+            "    last_month := date_trunc('month', GREATEST(COALESCE(last_month, CURRENT_DATE), CURRENT_DATE + INTERVAL '3 months'));\n" +
+            "    PERFORM create_monthly_partitions(parent, first_month,\n" +
+            "        ((EXTRACT(YEAR FROM last_month) - EXTRACT(YEAR FROM first_month)) * 12\n" +
+            "            + EXTRACT(MONTH FROM last_month) - EXTRACT(MONTH FROM first_month))::int + 1);\n" +
+            "    EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I', parent,\n" +
+            "        insertable_columns(old_name::regclass), insertable_columns(old_name::regclass), old_name);\n" +
+            "    EXECUTE format('DROP TABLE %I', old_name);\n" +
+            "    IF id_sequence IS NOT NULL THEN\n" +
+            "        EXECUTE format('ALTER SEQUENCE %s OWNED BY %I.id', id_sequence, parent);\n" +
+            "    END IF;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            "SELECT partition_by_month('complaints', 'created_at')",
+            "SELECT partition_by_month('feedback', 'created_at')",
+            "SELECT partition_by_month('software_requests', 'created_at')",
+            "SELECT partition_by_month('lab_reservations', 'reservation_date')",
+            // Indexes on a partitioned table are created on every partition, present and future
+            "CREATE INDEX IF NOT EXISTS idx_complaints_status ON complaints(status)",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_created_at ON complaints(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_triage ON complaints (" +
+            "    (CASE urgency WHEN 'Critical' THEN 4 WHEN 'High' THEN 3 WHEN 'Medium' THEN 2 WHEN 'Low' THEN 1 ELSE 0 END) DESC," +
+            "    created_at" +
+            ") WHERE status IN ('Open', 'Pending') AND (assigned_to IS NULL OR assigned_to = '') AND duplicate_of IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_open_originals ON complaints(computer_id, created_at)" +
+            "    WHERE status IN ('Open', 'Pending', 'In Progress') AND duplicate_of IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_duplicate_of ON complaints(duplicate_of) WHERE duplicate_of IS NOT NULL",
+            "CREATE INDEX IF NOT EXISTS idx_complaints_search ON complaints USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_feedback_created_at ON feedback(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_feedback_search ON feedback USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_software_requests_created_at ON software_requests(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_software_requests_search ON software_requests USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_reservations_date ON lab_reservations(reservation_date)",
+            // Replaces the duplicate_of foreign key's ON DELETE SET NULL
+            "CREATE OR REPLACE FUNCTION clear_complaint_duplicate_of() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    UPDATE complaints SET duplicate_of = NULL WHERE duplicate_of = OLD.id;\n" +
+            "    RETURN NULL;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS trg_complaints_clear_duplicate_of ON complaints",
+            "CREATE TRIGGER trg_complaints_clear_duplicate_of AFTER DELETE ON complaints" +
+            "    FOR EACH ROW EXECUTE FUNCTION clear_complaint_duplicate_of()"),
+
+        new Migration(7, "Archive tables for retention",
+            "CREATE SCHEMA IF NOT EXISTS archive",
+            // Same columns as the hot tables, without their keys, defaults and checks
+            "CREATE TABLE IF NOT EXISTS archive.complaints (LIKE complaints INCLUDING GENERATED)",
+            "CREATE TABLE IF NOT EXISTS archive.feedback (LIKE feedback INCLUDING GENERATED)",
+            "CREATE TABLE IF NOT EXISTS archive.software_requests (LIKE software_requests INCLUDING GENERATED)",
+            "CREATE TABLE IF NOT EXISTS archive.lab_reservations (LIKE lab_reservations INCLUDING GENERATED)",
+            "CREATE INDEX IF NOT EXISTS idx_archive_complaints_created_at ON archive.complaints(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_archive_feedback_created_at ON archive.feedback(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_archive_software_requests_created_at ON archive.software_requests(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_archive_reservations_date ON archive.lab_reservations(reservation_date)",
+            // Monthly partitions archived before this migration become children of their archive table
+            "DO $$\n" +
+            "DECLARE\n" +
+            "    r RECORD;\n" +
+            "BEGIN\n" +
+            "    FOR r IN SELECT c.relname, p.parent FROM pg_class c\n" +
+            "            JOIN pg_namespace n ON n.oid = c.relnamespace\n" +
+            "            CROSS JOIN (VALUES ('complaints'), ('feedback'), ('software_requests'), ('lab_reservations')) AS p(parent)\n" +
+            "            WHERE n.nspname = 'archive' AND c.relkind = 'r'\n" +
+            "            AND c.relname ~ ('^' || p.parent || '_[0-9]{4}_[0-9]{2}$')\n" +
+            "            AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid) LOOP\n" +
+            "        EXECUTE format('ALTER TABLE archive.%I INHERIT archive.%I', r.relname, r.parent);\n" +
+            "    END LOOP;\n" +
+            "END\n" +
+            "$$"),
+
+        new Migration(8, "Status change times for retention",
+            // Retention ages finished rows on when they finished, not when they were filed
+            "ALTER TABLE complaints ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE feedback ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE lab_reservations ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE archive.complaints ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE archive.feedback ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "ALTER TABLE archive.lab_reservations ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMP",
+            "UPDATE complaints SET status_changed_at = resolved_at WHERE resolved_at IS NOT NULL AND status_changed_at IS NULL",
+            // BEFORE row triggers on partitioned tables need PostgreSQL 13
+            "CREATE OR REPLACE FUNCTION touch_status_changed_at() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    IF NEW.status IS DISTINCT FROM OLD.status THEN\n" +
+            "        NEW.status_changed_at := CURRENT_TIMESTAMP;\n" +
+            "    END IF;\n" +
+            "    RETURN NEW;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS trg_complaints_status_changed_at ON complaints",
+            "CREATE TRIGGER trg_complaints_status_changed_at BEFORE UPDATE OF status ON complaints" +
+            "    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at()",
+            "DROP TRIGGER IF EXISTS trg_feedback_status_changed_at ON feedback",
+            "CREATE TRIGGER trg_feedback_status_changed_at BEFORE UPDATE OF status ON feedback" +
+            "    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at()",
+            "DROP TRIGGER IF EXISTS trg_software_requests_status_changed_at ON software_requests",
+            "CREATE TRIGGER trg_software_requests_status_changed_at BEFORE UPDATE OF status ON software_requests" +
+            "    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at()",
+            "DROP TRIGGER IF EXISTS trg_lab_reservations_status_changed_at ON lab_reservations",
+            "CREATE TRIGGER trg_lab_reservations_status_changed_at BEFORE UPDATE OF status ON lab_reservations" +
+            "    FOR EACH ROW EXECUTE FUNCTION touch_status_changed_at()",
+            // Rows moved by the RetentionService keep their duplicates linked to the archived original
+            "CREATE OR REPLACE FUNCTION clear_complaint_duplicate_of() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    IF current_setting('lims.retention', true) = 'on' THEN\n" +
+            "        RETURN NULL;\n" +
+            "    END IF;\n" +
+            "    UPDATE complaints SET duplicate_of = NULL WHERE duplicate_of = OLD.id;\n" +
+            "    RETURN NULL;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql"),
+        new Migration(9, "License seats held by approved requests",
+            // Batch approval takes the seats a request will install on; the DeploymentPlanner
+            // claims them one install at a time and gives back any it did not use
+            "ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS seat_software_id INTEGER",
+            "ALTER TABLE software_requests ADD COLUMN IF NOT EXISTS seats_held INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS seat_software_id INTEGER",
+            "ALTER TABLE archive.software_requests ADD COLUMN IF NOT EXISTS seats_held INTEGER NOT NULL DEFAULT 0",
+            // A request that leaves Approved other than by completing, or is deleted, gives its seats back;
+            // a completed request's seats are its installs
+            "CREATE OR REPLACE FUNCTION release_held_seats() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    IF TG_OP = 'DELETE' THEN\n" +
+            "        IF OLD.seats_held > 0 THEN\n" +
+            "            UPDATE software SET installations = GREATEST(0, installations - OLD.seats_held) WHERE id = OLD.seat_software_id;\n" +
+            "        END IF;\n" +
+            "        RETURN NULL;\n" +
+            "    END IF;\n" +
+            "    IF NEW.status IS DISTINCT FROM OLD.status AND OLD.seats_held > 0 THEN\n" +
+            "        IF NEW.status <> 'Completed' THEN\n" +
+            "            UPDATE software SET installations = GREATEST(0, installations - OLD.seats_held) WHERE id = OLD.seat_software_id;\n" +
+            "        END IF;\n" +
+            "        NEW.seats_held := 0;\n" +
+            "    END IF;\n" +
+            "    RETURN NEW;\n" +
+            "END;\n" +
+            "$$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS trg_software_requests_release_seats ON software_requests",
+            "CREATE TRIGGER trg_software_requests_release_seats BEFORE UPDATE OF status ON software_requests" +
+            "    FOR EACH ROW EXECUTE FUNCTION release_held_seats()",
+            "DROP TRIGGER IF EXISTS trg_software_requests_release_seats_on_delete ON software_requests",
+            "CREATE TRIGGER trg_software_requests_release_seats_on_delete AFTER DELETE ON software_requests" +
+            "    FOR EACH ROW EXECUTE FUNCTION release_held_seats()")
+    ));
+
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return ALL;
+    }
+
+    /**
+     * Version the schema reaches once every migration has been applied
+     */
+    public static int latestVersion() {
+        return ALL.get(ALL.size() - 1).getVersion();
+    }
+}
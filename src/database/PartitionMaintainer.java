@@ -0,0 +1,264 @@
+package database;
+
+import utils.DAOLogger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the monthly partitions of the request tables (migration 6) ahead of the calendar
+ * and moves old ones out of the way.
+ *
+ * Each table has one partition per month of its key column, named table_YYYY_MM, and a
+ * table_default partition for rows outside them. A background job creates the partitions
+ * for the current month and -Dlims.partitions.monthsAhead more (default 3) so inserts
+ * never land in the default partition. {@link #archiveBefore} detaches whole months and
+ * moves them to the archive schema as children of the table's archive table (migration 7):
+ * no rows are copied or deleted, so it is as cheap for a month of a million rows as for an
+ * empty one, and the month still shows up in "include archived" queries.
+ *
+ * List queries carry a lower bound on the partition key so that PostgreSQL can skip old
+ * partitions. By default the bound lets every row through: which rows leave the lists is
+ * up to the RetentionService. -Dlims.partitions.visibleMonths=N limits the lists to the
+ * last N months, for any status, on installations that do not run retention.
+ */
+public class PartitionMaintainer {
+    public static final String ARCHIVE_SCHEMA = "archive";
+
+    private static final long MAINTENANCE_INTERVAL_HOURS = 6;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int VISIBLE_MONTHS = Integer.getInteger("lims.partitions.visibleMonths", 0);
+
+    /** Partitioned table -> partition key column */
+    private static final Map<String, String> PARTITION_KEYS;
+    static {
+        Map<String, String> keys = new LinkedHashMap<>();
+        keys.put("complaints", "created_at");
+        keys.put("feedback", "created_at");
+        keys.put("software_requests", "created_at");
+        keys.put("lab_reservations", "reservation_date");
+        PARTITION_KEYS = Collections.unmodifiableMap(keys);
+    }
+
+    private static final String CREATE_PARTITIONS =
+        "SELECT create_monthly_partitions(?, CURRENT_DATE, ?)";
+
+    private static final String SELECT_PARTITIONS =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = ?::regclass ORDER BY c.relname";
+
+    private static PartitionMaintainer instance;
+
+    private final int monthsAhead = Integer.getInteger("lims.partitions.monthsAhead", 3);
+    private final ConnectionPool pool = new ConnectionPool("partition-maintenance", 1);
+    private final LongAdder partitionsCreated = new LongAdder();
+    private final LongAdder partitionsArchived = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    private PartitionMaintainer() {
+    }
+
+    public static synchronized PartitionMaintainer getInstance() {
+        if (instance == null) {
+            instance = new PartitionMaintainer();
+        }
+        return instance;
+    }
+
+    /**
+     * Create upcoming partitions now and then every few hours on a daemon thread
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::ensurePartitions, 0, MAINTENANCE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Create any missing partition from the current month to monthsAhead months ahead
+     * @return Number of partitions created, or -1 on error
+     */
+    public int ensurePartitions() {
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            int created = 0;
+            try (PreparedStatement statement = connection.prepareStatement(CREATE_PARTITIONS)) {
+                for (String table : PARTITION_KEYS.keySet()) {
+                    statement.setString(1, table);
+                    statement.setInt(2, monthsAhead + 1);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (resultSet.next()) {
+                            created += resultSet.getInt(1);
+                        }
+                    }
+                }
+            }
+            partitionsCreated.add(created);
+            if (created > 0) {
+                DAOLogger.success("PartitionMaintainer", "ensurePartitions", "Created " + created + " monthly partitions");
+            }
+            return created;
+        } catch (SQLException e) {
+            DAOLogger.error("PartitionMaintainer", "ensurePartitions", "Could not create upcoming partitions", e);
+            return -1;
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Detach every monthly partition of a table before the given month and move it to the
+     * archive schema, where it stays queryable through archive.table
+     * @param table One of the partitioned tables
+     * @param firstKept First month to keep attached
+     * @return Names of the archived partitions, empty on error
+     */
+    public List<String> archiveBefore(String table, YearMonth firstKept) {
+        if (!PARTITION_KEYS.containsKey(table)) {
+            throw new IllegalArgumentException("Not a partitioned table: " + table);
+        }
+        List<String> archived = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            List<String> detachable = new ArrayList<>();
+            for (String partition : listPartitions(connection, table)) {
+                YearMonth month = monthOf(table, partition);
+                if (month != null && month.isBefore(firstKept)) {
+                    detachable.add(partition);
+                }
+            }
+            if (detachable.isEmpty()) {
+                return archived;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+                for (String partition : detachable) {
+                    // Each detach is its own short transaction; its lock on the parent lasts only that long
+                    statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                    statement.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                    statement.execute("ALTER TABLE " + ARCHIVE_SCHEMA + "." + partition + " INHERIT " + ARCHIVE_SCHEMA + "." + table);
+                    archived.add(partition);
+                    partitionsArchived.increment();
+                }
+            }
+            DAOLogger.success("PartitionMaintainer", "archiveBefore", "Archived " + archived);
+        } catch (SQLException e) {
+            DAOLogger.error("PartitionMaintainer", "archiveBefore", "Archiving " + table + " stopped after " + archived, e);
+        } finally {
+            pool.release(connection);
+        }
+        return archived;
+    }
+
+    /**
+     * Names of the attached partitions of a table, including the default partition
+     * @return Partition names, empty on error
+     */
+    public List<String> getPartitions(String table) {
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            return listPartitions(connection, table);
+        } catch (SQLException e) {
+            DAOLogger.error("PartitionMaintainer", "getPartitions", "Could not list partitions of " + table, e);
+            return new ArrayList<>();
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    private List<String> listPartitions(Connection connection, String table) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTITIONS)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitions.add(resultSet.getString(1));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Month a table_YYYY_MM partition holds, or null for the default partition
+     */
+    static YearMonth monthOf(String table, String partition) {
+        String prefix = table + "_";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Start of the window list queries read: the first day of the month visibleMonths - 1
+     * months back, or 1970 when no window is set. Bind it to a "(key >= ? OR key IS NULL)"
+     * condition so that older partitions are pruned; rows without a key sit in the default
+     * partition and are always listed.
+     */
+    public static Timestamp visibleSince() {
+        if (VISIBLE_MONTHS <= 0) {
+            return Timestamp.valueOf("1970-01-01 00:00:00");
+        }
+        LocalDate start = YearMonth.now().minusMonths(VISIBLE_MONTHS - 1).atDay(1);
+        return Timestamp.valueOf(start.atStartOfDay());
+    }
+
+    /**
+     * The same window as {@link #visibleSince} as a SQL condition, for statements without
+     * parameters. CURRENT_DATE is evaluated when the statement starts, which still prunes.
+     * @param keyColumn Partition key column
+     */
+    public static String visibleWindow(String keyColumn) {
+        if (VISIBLE_MONTHS <= 0) {
+            return "TRUE";
+        }
+        return "(" + keyColumn + " >= date_trunc('month', CURRENT_DATE) - INTERVAL '" + (VISIBLE_MONTHS - 1) + " months'" +
+            " OR " + keyColumn + " IS NULL)";
+    }
+
+    /**
+     * Partitioned table -> partition key column
+     */
+    public static Map<String, String> getPartitionKeys() {
+        return PARTITION_KEYS;
+    }
+
+    public long getPartitionsCreatedCount() {
+        return partitionsCreated.sum();
+    }
+
+    public long getPartitionsArchivedCount() {
+        return partitionsArchived.sum();
+    }
+}
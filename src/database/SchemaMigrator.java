@@ -0,0 +1,262 @@
+package database;
+
+import utils.DAOLogger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings the database schema up to date with {@link Migrations}.
+ *
+ * Each applied migration is recorded in schema_migrations with its checksum, so the
+ * startup check is one query over that table: nothing else about the schema is inspected
+ * when it is current. Pending migrations are applied in version order, each in its own
+ * transaction together with its history row, while holding a PostgreSQL advisory lock so
+ * that clients starting at the same time apply each migration once. A recorded checksum
+ * that no longer matches its migration stops all further migrations.
+ *
+ * Set -Dlims.schema.migrate=false to only report a schema that is behind.
+ */
+public class SchemaMigrator {
+    // Application-wide advisory lock key, "LIMS" followed by 1; the same in every client
+    private static final long LOCK_KEY = 0x4C494D5300000001L;
+    private static final long LOCK_POLL_MILLIS = 250;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+    private static final String UNDEFINED_TABLE = "42P01";
+
+    private static final String CREATE_HISTORY =
+        "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+        "version INT PRIMARY KEY, " +
+        "description VARCHAR(200) NOT NULL, " +
+        "checksum CHAR(64) NOT NULL, " +
+        "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+        "execution_ms BIGINT NOT NULL)";
+
+    private static final String SELECT_HISTORY =
+        "SELECT version, checksum FROM schema_migrations ORDER BY version";
+
+    private static final String INSERT_HISTORY =
+        "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(?)";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(?)";
+
+    private static SchemaMigrator instance;
+
+    private final List<Migration> migrations;
+    private final boolean migrate = Boolean.parseBoolean(System.getProperty("lims.schema.migrate", "true"));
+    private final long lockTimeoutMillis = Long.getLong("lims.schema.lockTimeoutMillis", 30_000L);
+    private volatile int schemaVersion = -1;
+    private volatile String problem;
+
+    private SchemaMigrator(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    public static synchronized SchemaMigrator getInstance() {
+        if (instance == null) {
+            instance = new SchemaMigrator(Migrations.all());
+        }
+        return instance;
+    }
+
+    /**
+     * Startup check: read the migration history and, if any migration is pending, apply it
+     * @return true if the schema is at the latest version afterwards
+     */
+    public boolean ensureCurrent() {
+        ConnectionPool pool = new ConnectionPool("schema-migrations", 1);
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            Map<Integer, String> applied = readHistory(connection);
+            if (!verify(applied)) {
+                return false;
+            }
+            if (applied.size() == migrations.size()) {
+                schemaVersion = Migrations.latestVersion();
+                DAOLogger.info("SchemaMigrator", "ensureCurrent", "Schema is current at version " + schemaVersion);
+                return true;
+            }
+            if (!migrate) {
+                fail("ensureCurrent", (migrations.size() - applied.size()) + " migrations pending and lims.schema.migrate is off");
+                return false;
+            }
+            return migrate(connection);
+        } catch (SQLException e) {
+            DAOLogger.error("SchemaMigrator", "ensureCurrent", "Schema check failed", e);
+            problem = e.getMessage();
+            return false;
+        } finally {
+            pool.release(connection);
+            pool.close();
+        }
+    }
+
+    private boolean migrate(Connection connection) throws SQLException {
+        if (!lock(connection)) {
+            fail("migrate", "Another client held the schema migration lock for over " + lockTimeoutMillis + " ms");
+            return false;
+        }
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_HISTORY);
+            }
+            // Read again under the lock: another client may have migrated in the meantime
+            Map<Integer, String> applied = readHistory(connection);
+            if (!verify(applied)) {
+                return false;
+            }
+            for (Migration migration : migrations) {
+                if (!applied.containsKey(migration.getVersion())) {
+                    apply(connection, migration);
+                    schemaVersion = migration.getVersion();
+                }
+            }
+            schemaVersion = Migrations.latestVersion();
+            problem = null;
+            return true;
+        } finally {
+            unlock(connection);
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : migration.getStatements()) {
+                    statement.execute(sql);
+                }
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_HISTORY)) {
+                statement.setInt(1, migration.getVersion());
+                statement.setString(2, migration.getDescription());
+                statement.setString(3, migration.getChecksum());
+                statement.setLong(4, elapsedMillis);
+                statement.executeUpdate();
+            }
+            connection.commit();
+            DAOLogger.success("SchemaMigrator", "apply", "Applied " + migration + " in " + elapsedMillis + " ms");
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration + " failed and was rolled back: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * version -> checksum of every recorded migration; empty before the first migration
+     */
+    private Map<Integer, String> readHistory(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new TreeMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_HISTORY)) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt("version"), resultSet.getString("checksum").trim());
+            }
+        } catch (SQLException e) {
+            if (!UNDEFINED_TABLE.equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Whether every recorded migration is one of ours, unchanged
+     */
+    private boolean verify(Map<Integer, String> applied) {
+        for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+            Migration migration = find(entry.getKey());
+            if (migration == null) {
+                fail("verify", "Database has migration version " + entry.getKey() + ", which this client does not know; is it out of date?");
+                return false;
+            }
+            if (!migration.getChecksum().equals(entry.getValue())) {
+                fail("verify", migration + " was changed after it was applied; add a new migration instead");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Migration find(int version) {
+        for (Migration migration : migrations) {
+            if (migration.getVersion() == version) {
+                return migration;
+            }
+        }
+        return null;
+    }
+
+    private boolean lock(Connection connection) throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK)) {
+            statement.setLong(1, LOCK_KEY);
+            boolean waitLogged = false;
+            while (true) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next() && resultSet.getBoolean(1)) {
+                        return true;
+                    }
+                }
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                if (!waitLogged) {
+                    waitLogged = true;
+                    DAOLogger.info("SchemaMigrator", "lock", "Waiting for another client to finish migrating");
+                }
+                try {
+                    Thread.sleep(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void unlock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement(UNLOCK)) {
+            statement.setLong(1, LOCK_KEY);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock goes with the session; the connection is closed after the check anyway
+            DAOLogger.warn("SchemaMigrator", "unlock", "Could not release the migration lock: " + e.getMessage());
+        }
+    }
+
+    private void fail(String methodName, String message) {
+        problem = message;
+        DAOLogger.error("SchemaMigrator", methodName, message);
+    }
+
+    /**
+     * Version the schema was found at or brought to, or -1 if it has not been checked or is unknown
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * Why the schema is not current, or null
+     */
+    public String getProblem() {
+        return problem;
+    }
+
+    public List<Migration> getMigrations() {
+        return migrations;
+    }
+}
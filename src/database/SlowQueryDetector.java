@@ -0,0 +1,269 @@
+package database;
+
+import model.SlowQuery;
+import utils.DAOLogger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a rolling report of queries that ran longer than their threshold.
+ *
+ * The DAO connection wrapper reports every statement that crosses the threshold for its
+ * operation (a default, or a per-operation override). Each report keeps the SQL, the
+ * bound parameters with text values redacted, the timing and the row count, and the
+ * query plan from an EXPLAIN (ANALYZE off, FORMAT JSON) that runs in the background on
+ * a connection from a separate small pool, so diagnosing a slow query never competes
+ * with the query itself. Plans are reused for the same SQL for ten minutes.
+ */
+public class SlowQueryDetector {
+    private static final long DEFAULT_THRESHOLD_MILLIS = 200;
+    private static final int MAX_REPORTS = 200;
+    private static final int MAX_PENDING_EXPLAINS = 32;
+    private static final long PLAN_REUSE_MILLIS = 10 * 60 * 1000;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+
+    private static SlowQueryDetector instance;
+
+    private final Map<String, Long> thresholdNanosByOperation = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> reports = new ArrayDeque<>();
+    private final Map<String, CachedPlan> plansBySql = new ConcurrentHashMap<>();
+    private final ConnectionPool explainPool = new ConnectionPool("slow-query-explain", 2);
+    private final ThreadPoolExecutor explainExecutor;
+    private final LongAdder slowQueries = new LongAdder();
+    private final LongAdder planCacheHits = new LongAdder();
+    private final LongAdder planCacheMisses = new LongAdder();
+    private volatile long defaultThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MILLIS);
+    private volatile boolean explainEnabled = true;
+
+    private SlowQueryDetector() {
+        explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_EXPLAINS), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    public static synchronized SlowQueryDetector getInstance() {
+        if (instance == null) {
+            instance = new SlowQueryDetector();
+        }
+        return instance;
+    }
+
+    /**
+     * Check a statement's timing against the threshold of its operation
+     * @param operation DAO class and method, e.g. ComplaintDAO.findAll
+     * @param elapsedNanos Execution time
+     */
+    public boolean isSlow(String operation, long elapsedNanos) {
+        Long threshold = thresholdNanosByOperation.get(operation);
+        return elapsedNanos >= (threshold != null ? threshold : defaultThresholdNanos);
+    }
+
+    /**
+     * Record a slow statement and queue an EXPLAIN of it
+     * @param operation DAO class and method
+     * @param sql SQL text
+     * @param parameters Bound parameter values by position (index 0 is parameter 1); may be null
+     * @param elapsedNanos Execution time
+     * @return The report; its row count and plan are filled in later
+     */
+    public SlowQuery report(String operation, String sql, Object[] parameters, long elapsedNanos) {
+        List<String> redacted = new ArrayList<>();
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                redacted.add(redact(parameter));
+            }
+        }
+
+        Long threshold = thresholdNanosByOperation.get(operation);
+        SlowQuery slowQuery = new SlowQuery(operation, sql, Collections.unmodifiableList(redacted),
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            TimeUnit.NANOSECONDS.toMillis(threshold != null ? threshold : defaultThresholdNanos),
+            new Date(), Thread.currentThread().getName());
+
+        slowQueries.increment();
+        synchronized (reports) {
+            reports.addFirst(slowQuery);
+            if (reports.size() > MAX_REPORTS) {
+                reports.removeLast();
+            }
+        }
+        DAOLogger.warn("SlowQueryDetector", "report", "Slow query in " + operation + ": " +
+            slowQuery.getElapsedMillis() + " ms (threshold " + slowQuery.getThresholdMillis() + " ms)");
+
+        queueExplain(slowQuery, parameters);
+        return slowQuery;
+    }
+
+    private void queueExplain(SlowQuery slowQuery, Object[] parameters) {
+        String sql = slowQuery.getSql();
+        if (!explainEnabled || sql == null) {
+            slowQuery.setPlan(sql == null ? "(no SQL text captured)" : "(EXPLAIN disabled)");
+            return;
+        }
+        if (!isExplainable(sql)) {
+            slowQuery.setPlan("(statement type cannot be explained)");
+            return;
+        }
+
+        CachedPlan cached = plansBySql.get(sql);
+        if (cached != null && System.currentTimeMillis() - cached.capturedAt < PLAN_REUSE_MILLIS) {
+            planCacheHits.increment();
+            slowQuery.setPlan(cached.plan);
+            return;
+        }
+        planCacheMisses.increment();
+
+        // The real values are needed for a representative plan; they are only held until it runs
+        Object[] values = parameters != null ? parameters.clone() : new Object[0];
+        try {
+            explainExecutor.execute(() -> explain(slowQuery, values));
+        } catch (RejectedExecutionException e) {
+            slowQuery.setPlan("(skipped: too many EXPLAINs pending)");
+        }
+    }
+
+    private void explain(SlowQuery slowQuery, Object[] parameters) {
+        Connection connection = null;
+        try {
+            connection = explainPool.borrow(BORROW_TIMEOUT_MILLIS);
+            try (PreparedStatement statement =
+                     connection.prepareStatement("EXPLAIN (ANALYZE off, FORMAT JSON) " + slowQuery.getSql())) {
+                for (int i = 0; i < parameters.length; i++) {
+                    if (parameters[i] == null) {
+                        statement.setNull(i + 1, Types.OTHER);
+                    } else {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                    slowQuery.setPlan(plan.toString());
+                    plansBySql.put(slowQuery.getSql(), new CachedPlan(plan.toString()));
+                }
+            }
+        } catch (SQLException e) {
+            slowQuery.setPlan("(EXPLAIN failed: " + e.getMessage() + ")");
+            DAOLogger.warn("SlowQueryDetector", "explain", "EXPLAIN failed for " + slowQuery.getOperation() + ": " + e.getMessage());
+        } finally {
+            explainPool.release(connection);
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        String statement = sql.trim().toUpperCase(Locale.ROOT);
+        return statement.startsWith("SELECT") || statement.startsWith("WITH") || statement.startsWith("INSERT")
+            || statement.startsWith("UPDATE") || statement.startsWith("DELETE") || statement.startsWith("VALUES");
+    }
+
+    /**
+     * Show numbers, flags and dates; hide text, which may hold names, e-mail addresses or passwords
+     */
+    static String redact(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Date
+                || value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        if (value instanceof CharSequence) {
+            return "<text, " + ((CharSequence) value).length() + " chars>";
+        }
+        if (value instanceof java.sql.Array) {
+            return "<array>";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    /**
+     * Most recent slow queries first
+     */
+    public List<SlowQuery> getRecent() {
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+
+    public void clear() {
+        synchronized (reports) {
+            reports.clear();
+        }
+        plansBySql.clear();
+    }
+
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    /**
+     * Slow queries whose plan was reused instead of running EXPLAIN again
+     */
+    public long getPlanCacheHitCount() {
+        return planCacheHits.sum();
+    }
+
+    public long getPlanCacheMissCount() {
+        return planCacheMisses.sum();
+    }
+
+    public long getDefaultThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(defaultThresholdNanos);
+    }
+
+    public void setDefaultThresholdMillis(long millis) {
+        defaultThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Override the threshold of one operation, e.g. a report query that is expected to be slow
+     * @param operation DAO class and method, e.g. ComplaintDAO.getTriageMetrics
+     * @param millis Threshold, or a negative value to go back to the default
+     */
+    public void setThresholdMillis(String operation, long millis) {
+        if (millis < 0) {
+            thresholdNanosByOperation.remove(operation);
+        } else {
+            thresholdNanosByOperation.put(operation, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    public void setExplainEnabled(boolean explainEnabled) {
+        this.explainEnabled = explainEnabled;
+    }
+
+    /**
+     * A captured plan and when it was taken
+     */
+    private static final class CachedPlan {
+        final String plan;
+        final long capturedAt = System.currentTimeMillis();
+
+        CachedPlan(String plan) {
+            this.plan = plan;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch approve/reject of software requests.
+ * Requests that were not changed are listed with the reason they were skipped.
+ */
+public class BatchApprovalResult {
+    private final List<Integer> updatedIds = new ArrayList<>();
+    private final Map<Integer, String> skipped = new LinkedHashMap<>();
+    private boolean committed;
+
+    public void addUpdated(int requestId) {
+        updatedIds.add(requestId);
+    }
+
+    public void addSkipped(int requestId, String reason) {
+        skipped.put(requestId, reason);
+    }
+
+    // Getters and Setters
+    public List<Integer> getUpdatedIds() { return updatedIds; }
+
+    public Map<Integer, String> getSkipped() { return skipped; }
+
+    public int getUpdatedCount() { return updatedIds.size(); }
+
+    public boolean isCommitted() { return committed; }
+    public void setCommitted(boolean committed) { this.committed = committed; }
+
+    @Override
+    public String toString() {
+        return "BatchApprovalResult{" +
+                "committed=" + committed +
+                ", updated=" + updatedIds.size() +
+                ", skipped=" + skipped.size() +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ package model;
 import java.util.Date;
 
 public class Complaint {
+    private int complaintId;
     private String computerId;
     private String department;
     private String issueType;
@@ -10,6 +11,9 @@ public class Complaint {
     private Date submissionDate;
     private String status;
     private String assignedTo;
+    private String urgency = "Medium";
+    private Integer duplicateOf;
+    private int duplicateCount;
 
     public Complaint(String computerId, String department, String issueType, 
                     String description, Date submissionDate, String status, String assignedTo) {
@@ -44,6 +48,18 @@ public class Complaint {
     public String getAssignedTo() { return assignedTo; }
     public void setAssignedTo(String assignedTo) { this.assignedTo = assignedTo; }
 
+    public int getComplaintId() { return complaintId; }
+    public void setComplaintId(int complaintId) { this.complaintId = complaintId; }
+
+    public String getUrgency() { return urgency; }
+    public void setUrgency(String urgency) { this.urgency = urgency; }
+
+    public Integer getDuplicateOf() { return duplicateOf; }
+    public void setDuplicateOf(Integer duplicateOf) { this.duplicateOf = duplicateOf; }
+
+    public int getDuplicateCount() { return duplicateCount; }
+    public void setDuplicateCount(int duplicateCount) { this.duplicateCount = duplicateCount; }
+
     public String getId() { return computerId; }
     public String getType() { return issueType; }
     public Date getDate() { return submissionDate; }
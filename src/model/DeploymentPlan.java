@@ -0,0 +1,83 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The per-computer install tasks for one approved software request, with live progress.
+ */
+public class DeploymentPlan {
+    private final int requestId;
+    private final String softwareName;
+    private final String version;
+    private final List<InstallTask> tasks;
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final CompletableFuture<DeploymentPlan> completion = new CompletableFuture<>();
+    private final long createdAt = System.currentTimeMillis();
+
+    public DeploymentPlan(int requestId, String softwareName, String version, List<InstallTask> tasks) {
+        this.requestId = requestId;
+        this.softwareName = softwareName;
+        this.version = version;
+        this.tasks = Collections.unmodifiableList(tasks);
+        if (tasks.isEmpty()) {
+            completion.complete(this);
+        }
+    }
+
+    public void recordSuccess() {
+        if (succeeded.incrementAndGet() + failed.get() == tasks.size()) {
+            completion.complete(this);
+        }
+    }
+
+    public void recordFailure() {
+        if (succeeded.get() + failed.incrementAndGet() == tasks.size()) {
+            completion.complete(this);
+        }
+    }
+
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    // Getters
+    public int getRequestId() { return requestId; }
+
+    public String getSoftwareName() { return softwareName; }
+
+    public String getVersion() { return version; }
+
+    public List<InstallTask> getTasks() { return tasks; }
+
+    public int getSucceeded() { return succeeded.get(); }
+
+    public int getFailed() { return failed.get(); }
+
+    public int getRetries() { return retries.get(); }
+
+    public long getCreatedAt() { return createdAt; }
+
+    public boolean isComplete() { return completion.isDone(); }
+
+    /**
+     * Completes once every task has succeeded or exhausted its retries
+     */
+    public CompletableFuture<DeploymentPlan> getCompletion() { return completion; }
+
+    @Override
+    public String toString() {
+        return "DeploymentPlan{" +
+                "requestId=" + requestId +
+                ", software='" + softwareName + '\'' +
+                ", tasks=" + tasks.size() +
+                ", succeeded=" + succeeded.get() +
+                ", failed=" + failed.get() +
+                ", retries=" + retries.get() +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * An existing complaint that a new report was matched against.
+ */
+public class DuplicateMatch {
+    private final int complaintId;
+    private final double similarity;
+
+    public DuplicateMatch(int complaintId, double similarity) {
+        this.complaintId = complaintId;
+        this.similarity = similarity;
+    }
+
+    // Getters
+    public int getComplaintId() { return complaintId; }
+
+    public double getSimilarity() { return similarity; }
+
+    @Override
+    public String toString() {
+        return "DuplicateMatch{" +
+                "complaintId=" + complaintId +
+                ", similarity=" + String.format("%.2f", similarity) +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An index the IndexAdvisor suggests for one or more DAO queries, with the evidence for it.
+ * Latencies are filled in as they are measured; -1 means not measured.
+ */
+public class IndexRecommendation {
+    private final String table;
+    private final List<String> columns;
+    private final String predicate;
+    private final String indexName;
+    private final List<String> queries;
+    private volatile long calls = -1;
+    private volatile double totalTimeMillis = -1;
+    private volatile boolean sequentialScan;
+    private volatile double beforeMillis = -1;
+    private volatile double afterMillis = -1;
+    private volatile String status = "Recommended";
+    private volatile boolean partitioned;
+
+    /**
+     * @param table Table to index
+     * @param columns Key columns, in index order
+     * @param predicate WHERE clause of a partial index, or null
+     * @param indexName Name the index is created under
+     * @param queries The DAO queries it serves, e.g. ComplaintDAO.SELECT_COMPLAINTS_BY_STATUS
+     */
+    public IndexRecommendation(String table, List<String> columns, String predicate, String indexName,
+                               List<String> queries) {
+        this.table = table;
+        this.columns = columns;
+        this.predicate = predicate;
+        this.indexName = indexName;
+        this.queries = queries;
+    }
+
+    /**
+     * CREATE INDEX statement; CONCURRENTLY so that creating it does not block writes, except
+     * on a partitioned table, where PostgreSQL does not support it and writes wait for the build
+     */
+    public String getDdl() {
+        return "CREATE INDEX " + (partitioned ? "" : "CONCURRENTLY ") + "IF NOT EXISTS " + indexName + " ON " + table +
+            " (" + String.join(", ", columns) + ")" + (predicate != null ? " WHERE " + predicate : "");
+    }
+
+    /**
+     * DROP INDEX statement undoing {@link #getDdl()}
+     */
+    public String getDropDdl() {
+        return "DROP INDEX " + (partitioned ? "" : "CONCURRENTLY ") + "IF EXISTS " + indexName;
+    }
+
+    // Getters and Setters
+    public String getTable() { return table; }
+
+    public List<String> getColumns() { return columns; }
+
+    public String getPredicate() { return predicate; }
+
+    public boolean isPartial() { return predicate != null; }
+
+    public String getIndexName() { return indexName; }
+
+    public List<String> getQueries() { return queries; }
+
+    /** Calls of the matching statements in pg_stat_statements, or -1 if unavailable */
+    public long getCalls() { return calls; }
+    public void setCalls(long calls) { this.calls = calls; }
+
+    /** Total execution time of the matching statements in pg_stat_statements, or -1 if unavailable */
+    public double getTotalTimeMillis() { return totalTimeMillis; }
+    public void setTotalTimeMillis(double totalTimeMillis) { this.totalTimeMillis = totalTimeMillis; }
+
+    /** Whether the plan of the measured query scanned the whole table */
+    public boolean isSequentialScan() { return sequentialScan; }
+    public void setSequentialScan(boolean sequentialScan) { this.sequentialScan = sequentialScan; }
+
+    /** Median execution time of the measured query without the index */
+    public double getBeforeMillis() { return beforeMillis; }
+    public void setBeforeMillis(double beforeMillis) { this.beforeMillis = beforeMillis; }
+
+    /** Median execution time of the measured query with the index */
+    public double getAfterMillis() { return afterMillis; }
+    public void setAfterMillis(double afterMillis) { this.afterMillis = afterMillis; }
+
+    /** Whether the table is partitioned, so the index is created on every partition */
+    public boolean isPartitioned() { return partitioned; }
+    public void setPartitioned(boolean partitioned) { this.partitioned = partitioned; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    @Override
+    public String toString() {
+        return "IndexRecommendation{" +
+                "indexName='" + indexName + '\'' +
+                ", table='" + table + '\'' +
+                ", columns=" + columns +
+                ", predicate='" + predicate + '\'' +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
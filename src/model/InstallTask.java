@@ -0,0 +1,81 @@
+package model;
+
+/**
+ * One software installation on one computer, produced by expanding an approved request.
+ */
+public class InstallTask {
+    public enum Status { PENDING, RUNNING, RETRY_WAIT, SUCCEEDED, FAILED }
+
+    private final int requestId;
+    private final String softwareName;
+    private final String version;
+    private final String computerId;
+    private final String ipAddress;
+    private volatile Status status = Status.PENDING;
+    private volatile int attempts;
+    private volatile String lastError;
+    private volatile int seatSoftwareId;
+
+    public InstallTask(int requestId, String softwareName, String version, String computerId, String ipAddress) {
+        this.requestId = requestId;
+        this.softwareName = softwareName;
+        this.version = version;
+        this.computerId = computerId;
+        this.ipAddress = ipAddress;
+    }
+
+    /**
+     * Subnet the computer sits on (first three octets of an IPv4 address).
+     * Computers without a usable address share a single "unknown" subnet.
+     */
+    public String getSubnet() {
+        if (ipAddress == null) {
+            return "unknown";
+        }
+        int lastDot = ipAddress.trim().lastIndexOf('.');
+        return lastDot > 0 ? ipAddress.trim().substring(0, lastDot) : "unknown";
+    }
+
+    /**
+     * Mark the task running and count the attempt
+     * @return The attempt number, starting at 1
+     */
+    public int beginAttempt() {
+        status = Status.RUNNING;
+        return ++attempts; // a task is only ever run by one worker at a time
+    }
+
+    // Getters and Setters
+    public int getRequestId() { return requestId; }
+
+    public String getSoftwareName() { return softwareName; }
+
+    public String getVersion() { return version; }
+
+    public String getComputerId() { return computerId; }
+
+    public String getIpAddress() { return ipAddress; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    /** Catalog row the task holds a license seat from, or 0 if it holds none */
+    public int getSeatSoftwareId() { return seatSoftwareId; }
+    public void setSeatSoftwareId(int seatSoftwareId) { this.seatSoftwareId = seatSoftwareId; }
+
+    @Override
+    public String toString() {
+        return "InstallTask{" +
+                "requestId=" + requestId +
+                ", software='" + softwareName + '\'' +
+                ", computerId='" + computerId + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
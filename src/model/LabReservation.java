@@ -3,6 +3,7 @@ package model;
 import java.util.Date;
 
 public class LabReservation {
+    private int id; // 0 until the reservation is stored
     private String lab;
     private Date date;
     private String timeSlot;
@@ -23,6 +24,9 @@ public class LabReservation {
     }
 
     // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
     public String getLab() { return lab; }
     public void setLab(String lab) { this.lab = lab; }
 
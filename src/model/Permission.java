@@ -0,0 +1,92 @@
+package model;
+
+/**
+ * Things a user may do, each one bit of a long permission set.
+ * A user's set is derived once from their role and access level (see {@link #forUser}),
+ * so checking a permission is a bit test.
+ */
+public enum Permission {
+    VIEW_DASHBOARD,
+    SUBMIT_COMPLAINT,
+    SUBMIT_FEEDBACK,
+    RESERVE_LAB,
+    REQUEST_SOFTWARE,
+    VIEW_REPORTS,
+    MANAGE_COMPLAINTS,
+    MANAGE_RESERVATIONS,
+    APPROVE_SOFTWARE_REQUESTS,
+    MANAGE_COMPUTERS,
+    MANAGE_SOFTWARE,
+    MANAGE_USERS,
+    VIEW_PERFORMANCE;
+
+    private static final long SELF_SERVICE = mask(VIEW_DASHBOARD, SUBMIT_COMPLAINT, SUBMIT_FEEDBACK,
+        RESERVE_LAB, REQUEST_SOFTWARE);
+    private static final long READ_ONLY = mask(VIEW_DASHBOARD, VIEW_REPORTS);
+    private static final long ALL = (1L << values().length) - 1;
+
+    /**
+     * This permission's bit
+     */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Whether a permission set contains this permission
+     */
+    public boolean in(long permissions) {
+        return (permissions & bit()) != 0;
+    }
+
+    public static long mask(Permission... permissions) {
+        long mask = 0;
+        for (Permission permission : permissions) {
+            mask |= permission.bit();
+        }
+        return mask;
+    }
+
+    /**
+     * Permission set for a role (Admin, Teacher, Student, Lab Technician), narrowed by
+     * an access level (Full, Limited, Basic, Read Only). Unknown roles get nothing.
+     * A null access level means the role's default.
+     */
+    public static long forUser(String role, String accessLevel) {
+        long granted = forRole(role);
+        if (accessLevel == null) {
+            return granted;
+        }
+        switch (accessLevel) {
+            case "Full":
+                return granted;
+            case "Limited":
+                return granted & ~mask(MANAGE_USERS, VIEW_PERFORMANCE);
+            case "Basic":
+                return granted & SELF_SERVICE;
+            case "Read Only":
+                return granted & READ_ONLY;
+            default:
+                return 0;
+        }
+    }
+
+    private static long forRole(String role) {
+        if (role == null) {
+            return 0;
+        }
+        switch (role) {
+            case "Admin":
+                return ALL;
+            case "Lab Technician":
+                return SELF_SERVICE | mask(VIEW_REPORTS, MANAGE_COMPLAINTS, MANAGE_RESERVATIONS,
+                    APPROVE_SOFTWARE_REQUESTS, MANAGE_COMPUTERS, MANAGE_SOFTWARE);
+            case "Teacher":
+                return SELF_SERVICE | mask(VIEW_REPORTS, MANAGE_RESERVATIONS);
+            case "Student":
+                return SELF_SERVICE;
+            default:
+                return 0;
+        }
+    }
+}
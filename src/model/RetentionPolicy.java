@@ -0,0 +1,56 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How long finished rows of one table stay in the hot table before the RetentionService
+ * moves them out.
+ */
+public class RetentionPolicy {
+    /** Where moved rows go */
+    public enum Target { ARCHIVE_TABLE, CSV_FILE }
+
+    private final String table;
+    private final String ageColumn;
+    private final String finishedColumn;
+    private final List<String> statuses;
+    private final int maxAgeDays;
+
+    /**
+     * @param table Hot table, e.g. complaints
+     * @param ageColumn The table's partition key; rows must be this old, which limits the
+     *                  move to old partitions
+     * @param finishedColumn When the row reached its status (null if not recorded); rows
+     *                       must also have finished this long ago
+     * @param statuses Statuses a row must have to be moved, or empty for any status
+     * @param maxAgeDays Rows older than this are moved; 0 turns the policy off
+     */
+    public RetentionPolicy(String table, String ageColumn, String finishedColumn, List<String> statuses, int maxAgeDays) {
+        this.table = table;
+        this.ageColumn = ageColumn;
+        this.finishedColumn = finishedColumn;
+        this.statuses = statuses == null ? Collections.emptyList() : Collections.unmodifiableList(statuses);
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    public boolean isEnabled() {
+        return maxAgeDays > 0;
+    }
+
+    // Getters
+    public String getTable() { return table; }
+
+    public String getAgeColumn() { return ageColumn; }
+
+    public String getFinishedColumn() { return finishedColumn; }
+
+    public List<String> getStatuses() { return statuses; }
+
+    public int getMaxAgeDays() { return maxAgeDays; }
+
+    @Override
+    public String toString() {
+        return table + (statuses.isEmpty() ? "" : " " + statuses) + " older than " + maxAgeDays + " days";
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * Optional narrowing criteria for full-text search.
+ * Unset (null) fields are ignored; the category applies to the entity's
+ * classification column (issue type, feedback category or urgency).
+ */
+public class SearchFilter {
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    private String status;
+    private String category;
+    private Date createdFrom;
+    private Date createdTo;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Default constructor (no filtering)
+     */
+    public SearchFilter() {
+    }
+
+    public SearchFilter(String status, String category, Date createdFrom, Date createdTo) {
+        this.status = status;
+        this.category = category;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Date getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(Date createdFrom) { this.createdFrom = createdFrom; }
+
+    public Date getCreatedTo() { return createdTo; }
+    public void setCreatedTo(Date createdTo) { this.createdTo = createdTo; }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = Math.max(1, Math.min(pageSize, 200)); }
+}
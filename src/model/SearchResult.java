@@ -0,0 +1,53 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * A single ranked full-text search hit.
+ * The highlight contains the matching fragment with terms wrapped in &lt;b&gt; tags.
+ */
+public class SearchResult {
+    private final String entityType;
+    private final int id;
+    private final String title;
+    private final String status;
+    private final Date createdAt;
+    private final double rank;
+    private final String highlight;
+
+    public SearchResult(String entityType, int id, String title, String status,
+                        Date createdAt, double rank, String highlight) {
+        this.entityType = entityType;
+        this.id = id;
+        this.title = title;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.rank = rank;
+        this.highlight = highlight;
+    }
+
+    // Getters
+    public String getEntityType() { return entityType; }
+
+    public int getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public String getStatus() { return status; }
+
+    public Date getCreatedAt() { return createdAt; }
+
+    public double getRank() { return rank; }
+
+    public String getHighlight() { return highlight; }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "entityType='" + entityType + '\'' +
+                ", id=" + id +
+                ", title='" + title + '\'' +
+                ", rank=" + rank +
+                '}';
+    }
+}
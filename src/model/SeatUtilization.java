@@ -0,0 +1,66 @@
+package model;
+
+/**
+ * Seats in use against the license limit of one software catalog row.
+ */
+public class SeatUtilization {
+    private final int softwareId;
+    private final String softwareName;
+    private final String version;
+    private final int seatsInUse;
+    private final Integer seatLimit;
+
+    /**
+     * @param seatLimit Licensed seats, or null when the title is not seat-limited
+     */
+    public SeatUtilization(int softwareId, String softwareName, String version, int seatsInUse, Integer seatLimit) {
+        this.softwareId = softwareId;
+        this.softwareName = softwareName;
+        this.version = version;
+        this.seatsInUse = seatsInUse;
+        this.seatLimit = seatLimit;
+    }
+
+    public boolean isLimited() {
+        return seatLimit != null;
+    }
+
+    /**
+     * @return Seats still free, or Integer.MAX_VALUE when the title is not seat-limited
+     */
+    public int getSeatsFree() {
+        return seatLimit == null ? Integer.MAX_VALUE : Math.max(0, seatLimit - seatsInUse);
+    }
+
+    /**
+     * @return Fraction of licensed seats in use (0 when not seat-limited)
+     */
+    public double getUtilization() {
+        if (seatLimit == null || seatLimit == 0) {
+            return seatLimit == null ? 0 : 1;
+        }
+        return (double) seatsInUse / seatLimit;
+    }
+
+    // Getters
+    public int getSoftwareId() { return softwareId; }
+
+    public String getSoftwareName() { return softwareName; }
+
+    public String getVersion() { return version; }
+
+    public int getSeatsInUse() { return seatsInUse; }
+
+    public Integer getSeatLimit() { return seatLimit; }
+
+    @Override
+    public String toString() {
+        return "SeatUtilization{" +
+                "softwareId=" + softwareId +
+                ", software='" + softwareName + '\'' +
+                ", version='" + version + '\'' +
+                ", seatsInUse=" + seatsInUse +
+                ", seatLimit=" + seatLimit +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One execution of a query that took longer than its slow-query threshold.
+ * The row count and plan are filled in after the fact, once the result set has been
+ * read and the background EXPLAIN has run.
+ */
+public class SlowQuery {
+    private final String operation;
+    private final String sql;
+    private final List<String> parameters;
+    private final long elapsedMillis;
+    private final long thresholdMillis;
+    private final Date executedAt;
+    private final String threadName;
+    private volatile long rowCount = -1;
+    private volatile String plan;
+
+    /**
+     * @param operation DAO class and method, e.g. ComplaintDAO.findAll
+     * @param sql SQL text as prepared
+     * @param parameters Bound parameters with text values redacted
+     */
+    public SlowQuery(String operation, String sql, List<String> parameters, long elapsedMillis,
+                     long thresholdMillis, Date executedAt, String threadName) {
+        this.operation = operation;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.elapsedMillis = elapsedMillis;
+        this.thresholdMillis = thresholdMillis;
+        this.executedAt = executedAt;
+        this.threadName = threadName;
+    }
+
+    // Getters and Setters
+    public String getOperation() { return operation; }
+
+    public String getSql() { return sql; }
+
+    public List<String> getParameters() { return parameters; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public long getThresholdMillis() { return thresholdMillis; }
+
+    public Date getExecutedAt() { return executedAt; }
+
+    public String getThreadName() { return threadName; }
+
+    /** Rows returned or affected, or -1 if not known (yet) */
+    public long getRowCount() { return rowCount; }
+    public void setRowCount(long rowCount) { this.rowCount = rowCount; }
+
+    /** EXPLAIN output as JSON, an explanation of why there is none, or null while pending */
+    public String getPlan() { return plan; }
+    public void setPlan(String plan) { this.plan = plan; }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{" +
+                "operation='" + operation + '\'' +
+                ", elapsedMillis=" + elapsedMillis +
+                ", thresholdMillis=" + thresholdMillis +
+                ", rowCount=" + rowCount +
+                ", parameters=" + parameters +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ package model;
 import java.util.Date;
 
 public class SoftwareRequest {
+    private int requestId;
     private String computerId;
     private String softwareName;
     private String version;
@@ -26,6 +27,9 @@ public class SoftwareRequest {
     }
 
     // Getters and Setters
+    public int getRequestId() { return requestId; }
+    public void setRequestId(int requestId) { this.requestId = requestId; }
+
     public String getComputerId() { return computerId; }
     public void setComputerId(String computerId) { this.computerId = computerId; }
 
@@ -0,0 +1,42 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the complaint triage queue: depth and wait times per urgency level.
+ */
+public class TriageQueueMetrics {
+    private final Map<String, Integer> depthByUrgency = new LinkedHashMap<>();
+    private int totalDepth;
+    private long maxWaitSeconds;
+    private long totalWaitSeconds;
+
+    public void addUrgencyLevel(String urgency, int depth, long maxWait, long avgWait) {
+        depthByUrgency.put(urgency, depth);
+        totalDepth += depth;
+        maxWaitSeconds = Math.max(maxWaitSeconds, maxWait);
+        totalWaitSeconds += avgWait * depth;
+    }
+
+    // Getters
+    public Map<String, Integer> getDepthByUrgency() { return depthByUrgency; }
+
+    public int getTotalDepth() { return totalDepth; }
+
+    public long getMaxWaitSeconds() { return maxWaitSeconds; }
+
+    public long getAverageWaitSeconds() {
+        return totalDepth == 0 ? 0 : totalWaitSeconds / totalDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "TriageQueueMetrics{" +
+                "depth=" + totalDepth +
+                ", byUrgency=" + depthByUrgency +
+                ", maxWaitSeconds=" + maxWaitSeconds +
+                ", avgWaitSeconds=" + getAverageWaitSeconds() +
+                '}';
+    }
+}
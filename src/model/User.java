@@ -105,10 +105,10 @@ public class User {
     }
 
     /**
-     * Check if user is admin
+     * Check if user is admin, i.e. may manage other users
      */
     public boolean isAdmin() {
-        return "Admin".equals(role);
+        return Permission.MANAGE_USERS.in(Permission.forUser(role, accessLevel));
     }
 
     /**
@@ -0,0 +1,79 @@
+package model;
+
+/**
+ * A logged-in user: who they are and what they may do, fixed when the session is created.
+ * Sessions are replaced rather than changed when the user's row changes.
+ */
+public class UserSession {
+    private final String userId;
+    private final String name;
+    private final String role;
+    private final String accessLevel;
+    private final long permissions;
+    private final long createdAt;
+
+    public UserSession(String userId, String name, String role, String accessLevel) {
+        this.userId = userId;
+        this.name = name;
+        this.role = role;
+        this.accessLevel = accessLevel;
+        this.permissions = Permission.forUser(role, accessLevel);
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Whether the user may do something; a bit test, no query
+     */
+    public boolean has(Permission permission) {
+        return permission.in(permissions);
+    }
+
+    /**
+     * Whether the user may do all of several things
+     */
+    public boolean hasAll(Permission... required) {
+        long mask = Permission.mask(required);
+        return (permissions & mask) == mask;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getAccessLevel() {
+        return accessLevel;
+    }
+
+    public long getPermissions() {
+        return permissions;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Whether the user may manage other users
+     */
+    public boolean isAdmin() {
+        return has(Permission.MANAGE_USERS);
+    }
+
+    @Override
+    public String toString() {
+        return "UserSession{" +
+                "userId='" + userId + '\'' +
+                ", role='" + role + '\'' +
+                ", accessLevel='" + accessLevel + '\'' +
+                ", permissions=" + Long.toBinaryString(permissions) +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One way of checking a login.
+ * The AuthenticationService tries its providers in order until one of them returns a role.
+ */
+public interface AuthenticationProvider {
+
+    /**
+     * Name used in the log and as the operation name in the MetricsRegistry
+     */
+    String getName();
+
+    /**
+     * Whether {@link #authenticate} queries the database. Such providers are skipped
+     * when no connection can be had, so a login does not wait on the database twice.
+     */
+    boolean usesDatabase();
+
+    /**
+     * Check a username and password
+     * @param username The username
+     * @param password The plain text password
+     * @param connection Pooled connection shared by all providers of one attempt;
+     *                   null for providers that do not use the database
+     * @return The user's role, or null if this provider does not accept the credentials
+     * @throws SQLException if the lookup fails; the next provider is tried
+     */
+    String authenticate(String username, String password, Connection connection) throws SQLException;
+}
@@ -0,0 +1,469 @@
+package service;
+
+import dao.UserDAO;
+import database.ConnectionPool;
+import model.User;
+import utils.DAOLogger;
+import utils.MetricsRegistry;
+import utils.PasswordManager;
+import utils.Tracer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks logins against a chain of {@link AuthenticationProvider}s in a single pass.
+ *
+ * An attempt runs on a background thread and borrows at most one connection from a
+ * small pool, which every database provider of the chain shares. The user_access
+ * credential row is fetched once per attempt, and a username that has no active row is
+ * remembered for a short while so repeated attempts with it skip the query. The caller
+ * waits at most lims.auth.timeoutMillis (5000 by default) for an answer; each attempt
+ * and each provider is timed into the MetricsRegistry under "AuthenticationService".
+ *
+ * Password hashing is slow on purpose, so a password that verified in the last two
+ * minutes is remembered as a keyed MAC and {@link #verifyPassword} accepts it again
+ * without a lookup or a rehash. A login can also open a short-lived session whose token
+ * stands in for the password on later privileged actions.
+ */
+public class AuthenticationService {
+    private static final String CLASS_NAME = "AuthenticationService";
+    private static final long TIMEOUT_MILLIS = Long.getLong("lims.auth.timeoutMillis", 5000);
+    private static final long BORROW_TIMEOUT_MILLIS = 2000;
+    private static final long UNKNOWN_USER_TTL_MILLIS = 30_000;
+    private static final int MAX_UNKNOWN_USERS = 1000;
+    private static final long VERIFIED_TTL_MILLIS = 120_000;
+    private static final long SESSION_TTL_MILLIS = 15 * 60_000;
+
+    private static AuthenticationService instance;
+
+    private final List<AuthenticationProvider> providers = new CopyOnWriteArrayList<>();
+    private final ConnectionPool connectionPool = new ConnectionPool("authentication", 2);
+    private final ExecutorService executor;
+    private final UserDAO userDAO = new UserDAO();
+    // Username -> System.nanoTime() after which it is looked up again
+    private final Map<String, Long> unknownUsers = new ConcurrentHashMap<>();
+    // Username -> keyed MAC of the password last verified for it
+    private final Map<String, Verified> verifiedPasswords = new ConcurrentHashMap<>();
+    // Session token -> session
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] macKey = new byte[32];
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder unknownUserHits = new LongAdder();
+    private final LongAdder verifiedHits = new LongAdder();
+
+    private AuthenticationService() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "authentication-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        random.nextBytes(macKey);
+        providers.add(new UserAccessProvider());
+        if (Boolean.getBoolean("lims.auth.builtInAccounts")) {
+            DAOLogger.warn(CLASS_NAME, "AuthenticationService", "Built-in development accounts are enabled (lims.auth.builtInAccounts)");
+            providers.add(new BuiltInAccountProvider());
+        }
+    }
+
+    public static synchronized AuthenticationService getInstance() {
+        if (instance == null) {
+            instance = new AuthenticationService();
+        }
+        return instance;
+    }
+
+    /**
+     * Authenticate a user; never blocks for longer than the login timeout
+     * @param username The username
+     * @param password The plain text password
+     * @return The user's role if a provider accepted the credentials, null otherwise
+     */
+    public String authenticate(String username, String password) {
+        if (username == null || username.trim().isEmpty() || password == null || password.isEmpty()) {
+            DAOLogger.warn(CLASS_NAME, "authenticate", "Username or password is empty");
+            return null;
+        }
+        String user = username.trim();
+
+        attempts.increment();
+        long start = System.nanoTime();
+        String role = null;
+        Future<String> attempt = executor.submit(Tracer.wrap("Authenticate " + user, () -> runChain(user, password)));
+        try {
+            role = attempt.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            attempt.cancel(true);
+            timeouts.increment();
+            DAOLogger.warn(CLASS_NAME, "authenticate", "Login for " + user + " timed out after " + TIMEOUT_MILLIS + " ms");
+        } catch (ExecutionException e) {
+            DAOLogger.error(CLASS_NAME, "authenticate", "Login for " + user + " failed", e);
+        } catch (InterruptedException e) {
+            attempt.cancel(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            MetricsRegistry.getInstance().record(CLASS_NAME, "authenticate", elapsedNanos, role != null);
+            DAOLogger.info(CLASS_NAME, "authenticate", "Login for " + user + (role != null ? " accepted" : " refused")
+                + " in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+        }
+        if (role != null) {
+            successes.increment();
+        }
+        return role;
+    }
+
+    /**
+     * Try each provider in turn, borrowing a connection the first time one needs it
+     */
+    private String runChain(String username, String password) {
+        Connection connection = null;
+        boolean borrowed = false;
+        try {
+            for (AuthenticationProvider provider : providers) {
+                if (provider.usesDatabase()) {
+                    if (!borrowed) {
+                        borrowed = true;
+                        try {
+                            connection = connectionPool.borrow(BORROW_TIMEOUT_MILLIS);
+                        } catch (SQLException e) {
+                            DAOLogger.warn(CLASS_NAME, "runChain", "Database unavailable for login: " + e.getMessage());
+                        }
+                    }
+                    if (connection == null) {
+                        continue;
+                    }
+                }
+
+                long start = System.nanoTime();
+                boolean success = true;
+                String role = null;
+                try {
+                    role = provider.authenticate(username, password, provider.usesDatabase() ? connection : null);
+                } catch (SQLException e) {
+                    success = false;
+                    DAOLogger.warn(CLASS_NAME, "runChain", provider.getName() + " failed: " + e.getMessage());
+                } finally {
+                    MetricsRegistry.getInstance().record(CLASS_NAME, provider.getName(), System.nanoTime() - start, success);
+                }
+                if (role != null) {
+                    DAOLogger.success(CLASS_NAME, "runChain", "Login for " + username + " accepted by "
+                        + provider.getName() + " (Role: " + role + ")");
+                    return role;
+                }
+            }
+            return null;
+        } finally {
+            connectionPool.release(connection);
+        }
+    }
+
+    /**
+     * Add a provider to the end of the chain
+     */
+    public void addProvider(AuthenticationProvider provider) {
+        providers.add(provider);
+    }
+
+    /**
+     * Providers in the order they are tried
+     */
+    public List<AuthenticationProvider> getProviders() {
+        return new ArrayList<>(providers);
+    }
+
+    /**
+     * Forget that a username was not found, e.g. after the user was created or reactivated
+     */
+    public void forgetUser(String username) {
+        if (username != null) {
+            unknownUsers.remove(username.trim());
+        }
+    }
+
+    private boolean isKnownUnknown(String username) {
+        Long expiry = unknownUsers.get(username);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            unknownUsers.remove(username, expiry);
+            return false;
+        }
+        unknownUserHits.increment();
+        return true;
+    }
+
+    private void rememberUnknown(String username) {
+        if (unknownUsers.size() >= MAX_UNKNOWN_USERS) {
+            long now = System.nanoTime();
+            unknownUsers.values().removeIf(expiry -> now - expiry >= 0);
+            if (unknownUsers.size() >= MAX_UNKNOWN_USERS) {
+                unknownUsers.clear();
+            }
+        }
+        unknownUsers.put(username, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(UNKNOWN_USER_TTL_MILLIS));
+    }
+
+    /**
+     * Check a user's current password, e.g. before changing it. A password verified in the
+     * last two minutes is accepted from memory, without a database lookup or a rehash.
+     * @param username The username
+     * @param password The plain text password
+     * @return true if the password is the user's current one
+     */
+    public boolean verifyPassword(String username, String password) {
+        if (username == null || password == null) {
+            return false;
+        }
+        String user = username.trim();
+        if (isRecentlyVerified(user, password)) {
+            verifiedHits.increment();
+            return true;
+        }
+
+        Connection connection = null;
+        try {
+            connection = connectionPool.borrow(BORROW_TIMEOUT_MILLIS);
+            User credentials = userDAO.findCredentials(connection, user);
+            if (credentials != null && PasswordManager.getInstance().verify(password, credentials.getPasswordHash())) {
+                rememberVerified(user, password);
+                return true;
+            }
+            return false;
+        } catch (SQLException e) {
+            DAOLogger.error(CLASS_NAME, "verifyPassword", "Database error verifying password for " + user, e);
+            return false;
+        } finally {
+            connectionPool.release(connection);
+        }
+    }
+
+    /**
+     * Forget the password verified for a user, e.g. after it was changed
+     */
+    public void forgetPassword(String username) {
+        if (username != null) {
+            verifiedPasswords.remove(username.trim());
+        }
+    }
+
+    /**
+     * Start a session for a user who has just authenticated. Privileged actions within
+     * the next 15 minutes can present the token instead of the password.
+     * @return Session token
+     */
+    public String openSession(String username) {
+        byte[] tokenBytes = new byte[32];
+        random.nextBytes(tokenBytes);
+        String token = HexFormat.of().formatHex(tokenBytes);
+        long now = System.nanoTime();
+        sessions.values().removeIf(session -> now - session.expiryNanos >= 0);
+        sessions.put(token, new Session(username.trim(), now + TimeUnit.MILLISECONDS.toNanos(SESSION_TTL_MILLIS)));
+        return token;
+    }
+
+    /**
+     * Whether a token belongs to an unexpired session of a user
+     */
+    public boolean isSessionValid(String username, String token) {
+        if (username == null || token == null) {
+            return false;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return false;
+        }
+        if (System.nanoTime() - session.expiryNanos >= 0) {
+            sessions.remove(token);
+            return false;
+        }
+        return session.username.equals(username.trim());
+    }
+
+    /**
+     * End every session of a user
+     */
+    public void closeSessions(String username) {
+        if (username != null) {
+            String user = username.trim();
+            sessions.values().removeIf(session -> session.username.equals(user));
+        }
+    }
+
+    private boolean isRecentlyVerified(String username, String password) {
+        Verified verified = verifiedPasswords.get(username);
+        if (verified == null) {
+            return false;
+        }
+        if (System.nanoTime() - verified.expiryNanos >= 0) {
+            verifiedPasswords.remove(username, verified);
+            return false;
+        }
+        return MessageDigest.isEqual(verified.mac, mac(username, password));
+    }
+
+    private void rememberVerified(String username, String password) {
+        verifiedPasswords.put(username,
+            new Verified(mac(username, password), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(VERIFIED_TTL_MILLIS)));
+    }
+
+    /**
+     * HMAC of a username and password under a key that never leaves this process,
+     * so the cache holds nothing a password could be recovered from
+     */
+    private byte[] mac(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(macKey, "HmacSHA256"));
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    /**
+     * Attempts that did not finish within the login timeout
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Lookups skipped because the username was recently found not to exist
+     */
+    public long getUnknownUserHitCount() {
+        return unknownUserHits.sum();
+    }
+
+    /**
+     * Password checks answered from recently verified passwords instead of a rehash
+     */
+    public long getVerifiedHitCount() {
+        return verifiedHits.sum();
+    }
+
+    private static final class Verified {
+        final byte[] mac;
+        final long expiryNanos;
+
+        Verified(byte[] mac, long expiryNanos) {
+            this.mac = mac;
+            this.expiryNanos = expiryNanos;
+        }
+    }
+
+    private static final class Session {
+        final String username;
+        final long expiryNanos;
+
+        Session(String username, long expiryNanos) {
+            this.username = username;
+            this.expiryNanos = expiryNanos;
+        }
+    }
+
+    /**
+     * Active users in user_access with a salted password hash
+     */
+    private class UserAccessProvider implements AuthenticationProvider {
+        @Override
+        public String getName() {
+            return "userAccess";
+        }
+
+        @Override
+        public boolean usesDatabase() {
+            return true;
+        }
+
+        @Override
+        public String authenticate(String username, String password, Connection connection) throws SQLException {
+            if (isKnownUnknown(username)) {
+                return null;
+            }
+            User user = userDAO.findCredentials(connection, username);
+            if (user == null) {
+                rememberUnknown(username);
+                return null;
+            }
+            PasswordManager passwords = PasswordManager.getInstance();
+            if (passwords.verify(password, user.getPasswordHash())) {
+                rememberVerified(username, password);
+                if (passwords.needsRehash(user.getPasswordHash())) {
+                    // Upgrade an old-format or cheaper hash while the password is at hand
+                    String upgraded = passwords.hash(password);
+                    if (upgraded != null && userDAO.updatePasswordHash(connection, username, upgraded)) {
+                        DAOLogger.info(CLASS_NAME, "authenticate", "Upgraded password hash for user: " + username);
+                    }
+                }
+                return user.getRole();
+            }
+            DAOLogger.warn(CLASS_NAME, "authenticate", "Invalid password for user: " + username);
+            return null;
+        }
+    }
+
+    /**
+     * Fixed admin, teacher1 and student1 accounts for development databases without user
+     * rows. Only registered with -Dlims.auth.builtInAccounts=true; never enable it in production.
+     */
+    private static class BuiltInAccountProvider implements AuthenticationProvider {
+        @Override
+        public String getName() {
+            return "builtInAccounts";
+        }
+
+        @Override
+        public boolean usesDatabase() {
+            return false;
+        }
+
+        @Override
+        public String authenticate(String username, String password, Connection connection) {
+            switch (username) {
+                case "admin":
+                    return "Admin123!".equals(password) || "admin123".equals(password) ? "Admin" : null;
+                case "teacher1":
+                    return "Teacher123!".equals(password) || "teacher123".equals(password) ? "Teacher" : null;
+                case "student1":
+                    return "Student123!".equals(password) || "student123".equals(password) ? "Student" : null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
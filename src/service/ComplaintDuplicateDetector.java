@@ -0,0 +1,326 @@
+package service;
+
+import dao.ComplaintDAO;
+import model.Complaint;
+import model.DuplicateMatch;
+import utils.DAOLogger;
+import utils.MinHash;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects near-duplicate complaints filed against the same computer.
+ * Descriptions are reduced to MinHash signatures and banded into an LSH index per
+ * computer, so a lookup only compares against complaints sharing at least one band
+ * instead of every open complaint. Only unresolved originals are indexed; a computer's
+ * index is loaded from the database the first time that computer is seen and dropped
+ * whenever its complaints are edited, closed or deleted, so it reloads without them.
+ * Descriptions shorter than MIN_SHINGLES shingles are neither indexed nor matched: their
+ * signatures collide with every other short description.
+ */
+public class ComplaintDuplicateDetector {
+    /** What to do with a complaint that matches an open one */
+    public enum Mode {
+        /** Store it, linked to the original through duplicate_of */
+        FLAG,
+        /** Don't store it; bump the original's duplicate_count instead */
+        MERGE
+    }
+
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int SHINGLE_SIZE = 4;
+    private static final int MIN_SHINGLES = 8;
+    private static final double DEFAULT_THRESHOLD = 0.5;
+    private static final long MATCH_WINDOW_MILLIS = 14L * 24 * 60 * 60 * 1000;
+
+    private static ComplaintDuplicateDetector instance;
+
+    private final ComplaintDAO complaintDAO;
+    private final MinHash minHash = new MinHash(BANDS * ROWS_PER_BAND, SHINGLE_SIZE, 0x4C494D53L);
+    private final Map<String, ComputerIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Integer, String> computerByComplaint = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder duplicatesFound = new LongAdder();
+    private volatile Mode mode = Mode.FLAG;
+    private volatile double threshold = DEFAULT_THRESHOLD;
+
+    private ComplaintDuplicateDetector() {
+        this.complaintDAO = new ComplaintDAO();
+    }
+
+    public static synchronized ComplaintDuplicateDetector getInstance() {
+        if (instance == null) {
+            instance = new ComplaintDuplicateDetector();
+        }
+        return instance;
+    }
+
+    /**
+     * Find the open complaint on the same computer that this one most resembles
+     * @param complaint New complaint (not yet stored)
+     * @return The best match at or above the similarity threshold, or null
+     */
+    public DuplicateMatch findDuplicate(Complaint complaint) {
+        lookups.increment();
+        long start = System.nanoTime();
+
+        if (minHash.shingleCount(complaint.getDescription()) < MIN_SHINGLES) {
+            return null;
+        }
+        int[] signature = minHash.signature(complaint.getDescription());
+        DuplicateMatch match = indexFor(complaint.getComputerId())
+            .bestMatch(signature, System.currentTimeMillis() - MATCH_WINDOW_MILLIS, threshold);
+
+        if (match != null) {
+            duplicatesFound.increment();
+            DAOLogger.info("ComplaintDuplicateDetector", "findDuplicate",
+                "Complaint for " + complaint.getComputerId() + " matches #" + match.getComplaintId() +
+                " (" + String.format("%.2f", match.getSimilarity()) + ") in " + (System.nanoTime() - start) / 1000 + " µs");
+        }
+        return match;
+    }
+
+    /**
+     * Index a newly stored original so later reports can match it
+     * @param complaint Stored complaint with its generated ID
+     */
+    public void register(Complaint complaint) {
+        if (complaint.getComplaintId() <= 0 || complaint.getDuplicateOf() != null) {
+            return;
+        }
+        Entry entry = entryFor(complaint);
+        if (entry == null) {
+            return;
+        }
+        String key = keyOf(complaint.getComputerId());
+        indexFor(key).add(entry);
+        computerByComplaint.put(complaint.getComplaintId(), key);
+    }
+
+    /**
+     * Stop matching against a complaint, e.g. once it is resolved
+     * @param complaintId Complaint ID
+     */
+    public void forget(int complaintId) {
+        String key = computerByComplaint.remove(complaintId);
+        if (key != null) {
+            ComputerIndex index = indexes.get(key);
+            if (index != null) {
+                index.remove(complaintId);
+            }
+        }
+    }
+
+    /**
+     * Drop a computer's index after its complaints were edited, closed or deleted; the
+     * next lookup reloads the complaints that are still open
+     * @param computerId Computer ID
+     */
+    public void forgetComputer(String computerId) {
+        String key = keyOf(computerId);
+        indexes.remove(key);
+        computerByComplaint.values().removeIf(key::equals);
+    }
+
+    /**
+     * Dedupe the existing backlog of open complaints.
+     * Computers are processed in parallel, each against a fresh index, oldest complaint
+     * first so every duplicate points at the earliest report. Links are written in one
+     * batched transaction; in MERGE mode the duplicates are also closed.
+     * @param parallelism Number of worker threads
+     * @return Number of complaints linked to an original, or -1 if the write failed
+     */
+    public int dedupeBacklog(int parallelism) {
+        long start = System.currentTimeMillis();
+        Map<String, List<Complaint>> byComputer = new LinkedHashMap<>();
+        for (Complaint complaint : complaintDAO.findOpenOriginals()) {
+            byComputer.computeIfAbsent(keyOf(complaint.getComputerId()), key -> new ArrayList<>()).add(complaint);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        Map<Integer, Integer> duplicateToOriginal = new HashMap<>();
+        try {
+            List<Future<Map<Integer, Integer>>> results = new ArrayList<>();
+            for (List<Complaint> complaints : byComputer.values()) {
+                if (complaints.size() > 1) {
+                    results.add(pool.submit(() -> findDuplicatesWithin(complaints)));
+                }
+            }
+            for (Future<Map<Integer, Integer>> result : results) {
+                duplicateToOriginal.putAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DAOLogger.error("ComplaintDuplicateDetector", "dedupeBacklog", "Backlog dedupe interrupted", e);
+            return -1;
+        } catch (ExecutionException e) {
+            DAOLogger.error("ComplaintDuplicateDetector", "dedupeBacklog", "Backlog dedupe failed", e);
+            return -1;
+        } finally {
+            pool.shutdown();
+        }
+
+        int linked = complaintDAO.markDuplicates(duplicateToOriginal, mode == Mode.MERGE);
+
+        // Indexes reload lazily without the complaints just linked
+        indexes.clear();
+        computerByComplaint.clear();
+
+        DAOLogger.logPerformance("ComplaintDuplicateDetector", "dedupeBacklog", System.currentTimeMillis() - start);
+        DAOLogger.success("ComplaintDuplicateDetector", "dedupeBacklog",
+            linked + " duplicates found across " + byComputer.size() + " computers");
+        return linked;
+    }
+
+    private Map<Integer, Integer> findDuplicatesWithin(List<Complaint> complaints) {
+        Map<Integer, Integer> duplicateToOriginal = new HashMap<>();
+        ComputerIndex index = new ComputerIndex();
+        for (Complaint complaint : complaints) {
+            Entry entry = entryFor(complaint);
+            if (entry == null) {
+                continue;
+            }
+            DuplicateMatch match = index.bestMatch(entry.signature, entry.createdAt - MATCH_WINDOW_MILLIS, threshold);
+            if (match != null) {
+                duplicateToOriginal.put(complaint.getComplaintId(), match.getComplaintId());
+            } else {
+                index.add(entry);
+            }
+        }
+        return duplicateToOriginal;
+    }
+
+    private ComputerIndex indexFor(String computerId) {
+        String key = keyOf(computerId);
+        ComputerIndex index = indexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        ComputerIndex loaded = new ComputerIndex();
+        for (Complaint complaint : complaintDAO.findOpenOriginalsByComputer(key)) {
+            Entry entry = entryFor(complaint);
+            if (entry != null) {
+                loaded.add(entry);
+                computerByComplaint.put(complaint.getComplaintId(), key);
+            }
+        }
+        index = indexes.putIfAbsent(key, loaded);
+        return index != null ? index : loaded;
+    }
+
+    /**
+     * Index entry for a complaint, or null if its description is too short to compare
+     */
+    private Entry entryFor(Complaint complaint) {
+        if (minHash.shingleCount(complaint.getDescription()) < MIN_SHINGLES) {
+            return null;
+        }
+        long createdAt = complaint.getSubmissionDate() != null
+            ? complaint.getSubmissionDate().getTime() : System.currentTimeMillis();
+        return new Entry(complaint.getComplaintId(), minHash.signature(complaint.getDescription()), createdAt);
+    }
+
+    private static String keyOf(String computerId) {
+        return computerId == null ? "" : computerId.trim();
+    }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+
+    public long getLookupCount() { return lookups.sum(); }
+    public long getDuplicateCount() { return duplicatesFound.sum(); }
+
+    /**
+     * A complaint's signature as stored in the index
+     */
+    private static final class Entry {
+        final int complaintId;
+        final int[] signature;
+        final long createdAt;
+
+        Entry(int complaintId, int[] signature, long createdAt) {
+            this.complaintId = complaintId;
+            this.signature = signature;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * LSH buckets for one computer. Signatures are split into bands; two complaints become
+     * candidates when any band hashes identically, and candidates are confirmed by comparing
+     * full signatures.
+     */
+    private static final class ComputerIndex {
+        private final Map<Long, List<Entry>> buckets = new HashMap<>();
+        private final Map<Integer, Entry> entries = new HashMap<>();
+
+        synchronized void add(Entry entry) {
+            entries.put(entry.complaintId, entry);
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bandKey(entry.signature, band), key -> new ArrayList<>(2)).add(entry);
+            }
+        }
+
+        synchronized void remove(int complaintId) {
+            Entry entry = entries.remove(complaintId);
+            if (entry == null) {
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(entry.signature, band);
+                List<Entry> bucket = buckets.get(key);
+                if (bucket != null) {
+                    bucket.remove(entry);
+                    if (bucket.isEmpty()) {
+                        buckets.remove(key);
+                    }
+                }
+            }
+        }
+
+        synchronized DuplicateMatch bestMatch(int[] signature, long notBefore, double threshold) {
+            Entry best = null;
+            double bestSimilarity = threshold;
+            for (int band = 0; band < BANDS; band++) {
+                List<Entry> bucket = buckets.get(bandKey(signature, band));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry candidate : bucket) {
+                    if (candidate.createdAt < notBefore || candidate == best) {
+                        continue;
+                    }
+                    double similarity = MinHash.similarity(signature, candidate.signature);
+                    if (similarity >= bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+            return best != null ? new DuplicateMatch(best.complaintId, bestSimilarity) : null;
+        }
+
+        private static long bandKey(int[] signature, int band) {
+            long hash = band;
+            int offset = band * ROWS_PER_BAND;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                hash = hash * 0x9E3779B97F4A7C15L + signature[offset + row];
+            }
+            return hash;
+        }
+    }
+}
@@ -2,8 +2,12 @@ package service;
 
 import dao.ComplaintDAO;
 import model.Complaint;
+import model.DuplicateMatch;
 import ui.TableRefreshManager;
 import utils.DAOLogger;
+import utils.MetricsRegistry;
+import utils.Span;
+import utils.Tracer;
 import java.util.Date;
 import java.util.List;
 
@@ -16,17 +20,19 @@ public class ComplaintService {
 
     public ComplaintService() {
         complaintDAO = new ComplaintDAO();
-
-        // Test database connection
-        if (!complaintDAO.testConnection()) {
-            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
-        }
     }
 
     public List<Complaint> getAllComplaints() {
         return complaintDAO.findAll();
     }
 
+    /**
+     * @param includeArchived Also return rows the RetentionService has moved to the archive
+     */
+    public List<Complaint> getAllComplaints(boolean includeArchived) {
+        return complaintDAO.findAll(includeArchived);
+    }
+
     public List<Complaint> getComplaintsByStatus(String status) {
         return complaintDAO.findByStatus(status);
     }
@@ -49,9 +55,11 @@ public class ComplaintService {
         DAOLogger.logMethodEntry("ComplaintService", "addComplaint", complaint.getComputerId(), complaint.getDepartment());
         DAOLogger.info("ComplaintService", "addComplaint", "Processing complaint addition for computer: " + complaint.getComputerId());
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        boolean success = false;
 
-        try {
+        try (Span span = Tracer.startSpan("ComplaintService.addComplaint", "service")) {
+            span.tag("computerId", complaint.getComputerId());
             // Validate complaint data
             if (complaint.getComputerId() == null || complaint.getComputerId().trim().isEmpty()) {
                 DAOLogger.error("ComplaintService", "addComplaint", "Invalid computer ID provided");
@@ -63,11 +71,25 @@ public class ComplaintService {
                 throw new IllegalArgumentException("Description cannot be null or empty");
             }
 
-            DAOLogger.debug("ComplaintService", "addComplaint", "Validation passed, calling DAO insert");
-            boolean success = complaintDAO.insert(complaint);
+            ComplaintDuplicateDetector detector = ComplaintDuplicateDetector.getInstance();
+            DuplicateMatch duplicate = detector.findDuplicate(complaint);
 
-            long executionTime = System.currentTimeMillis() - startTime;
-            DAOLogger.logPerformance("ComplaintService", "addComplaint", executionTime);
+            if (duplicate != null && detector.getMode() == ComplaintDuplicateDetector.Mode.MERGE) {
+                DAOLogger.info("ComplaintService", "addComplaint", "Merging into existing complaint #" + duplicate.getComplaintId());
+                complaint.setDuplicateOf(duplicate.getComplaintId());
+                success = complaintDAO.incrementDuplicateCount(duplicate.getComplaintId(), 1);
+            } else {
+                if (duplicate != null) {
+                    complaint.setDuplicateOf(duplicate.getComplaintId());
+                }
+                DAOLogger.debug("ComplaintService", "addComplaint", "Validation passed, calling DAO insert");
+                success = complaintDAO.insert(complaint);
+                if (success) {
+                    detector.register(complaint);
+                }
+            }
+
+            DAOLogger.logPerformance("ComplaintService", "addComplaint", (System.nanoTime() - startTime) / 1_000_000);
 
             if (success) {
                 DAOLogger.success("ComplaintService", "addComplaint", "Complaint added successfully, refreshing UI tables");
@@ -83,13 +105,29 @@ public class ComplaintService {
         } catch (Exception e) {
             DAOLogger.error("ComplaintService", "addComplaint", "Exception during complaint addition", e);
             throw e;
+        } finally {
+            MetricsRegistry.getInstance().record("ComplaintService", "addComplaint", System.nanoTime() - startTime, success);
+        }
+    }
+
+    /**
+     * Link or merge near-duplicates among the existing open complaints
+     * @return Number of complaints linked to an original, or -1 on failure
+     */
+    public int dedupeBacklog() {
+        int linked = ComplaintDuplicateDetector.getInstance()
+            .dedupeBacklog(Runtime.getRuntime().availableProcessors());
+        if (linked > 0) {
+            TableRefreshManager.getInstance().refreshTable("complaints");
         }
+        return linked;
     }
 
     public void updateComplaint(Complaint complaint) {
         boolean success = complaintDAO.update(complaint);
 
         if (success) {
+            ComplaintDuplicateDetector.getInstance().forgetComputer(complaint.getComputerId());
             TableRefreshManager.getInstance().refreshTable("complaints");
         }
     }
@@ -98,6 +136,7 @@ public class ComplaintService {
         boolean success = complaintDAO.delete(computerId);
 
         if (success) {
+            ComplaintDuplicateDetector.getInstance().forgetComputer(computerId);
             TableRefreshManager.getInstance().refreshTable("complaints");
         }
     }
@@ -116,6 +155,7 @@ public class ComplaintService {
         boolean success = complaintDAO.updateStatus(computerId, status);
 
         if (success) {
+            ComplaintDuplicateDetector.getInstance().forgetComputer(computerId);
             TableRefreshManager.getInstance().refreshTable("complaints");
         }
     }
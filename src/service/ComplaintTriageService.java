@@ -0,0 +1,165 @@
+package service;
+
+import dao.ComplaintDAO;
+import model.Complaint;
+import model.TriageQueueMetrics;
+import ui.TableRefreshManager;
+import utils.DAOLogger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service class for complaint triage.
+ * The complaints table itself is the priority queue (urgency, then age); technicians
+ * pull the next complaint with a SKIP LOCKED claim, so concurrent pulls never collide.
+ * Per-technician workloads are tracked in memory and re-synced from the database on demand.
+ */
+public class ComplaintTriageService {
+    private static final int DEFAULT_QUEUE_PREVIEW = 50;
+
+    private final ComplaintDAO complaintDAO;
+    private final Map<String, AtomicInteger> workloads = new ConcurrentHashMap<>();
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder emptyPulls = new LongAdder();
+
+    public ComplaintTriageService() {
+        this(new ComplaintDAO());
+    }
+
+    public ComplaintTriageService(ComplaintDAO complaintDAO) {
+        this.complaintDAO = complaintDAO;
+    }
+
+    /**
+     * Claim the most urgent, oldest unassigned complaint for a technician
+     * @param technician Technician pulling work
+     * @return The claimed complaint, or null if nothing is waiting
+     */
+    public Complaint pullNextComplaint(String technician) {
+        if (technician == null || technician.trim().isEmpty()) {
+            throw new IllegalArgumentException("Technician cannot be null or empty");
+        }
+
+        Complaint complaint = complaintDAO.claimNextComplaint(technician.trim());
+        if (complaint == null) {
+            emptyPulls.increment();
+            return null;
+        }
+
+        claims.increment();
+        workloadOf(technician.trim()).incrementAndGet();
+        TableRefreshManager.getInstance().refreshTable("complaints");
+        return complaint;
+    }
+
+    /**
+     * Assign a specific complaint to a technician, taking it off whoever held it before
+     * @param complaintId Complaint ID
+     * @param technician Technician to assign
+     * @return true if the assignment was stored; false for finished complaints
+     */
+    public boolean assignComplaint(int complaintId, String technician) {
+        String previous = complaintDAO.assignById(complaintId, technician);
+        if (previous == null) {
+            return false;
+        }
+        if (!previous.equals(technician)) {
+            if (!previous.isEmpty()) {
+                decrementWorkload(previous);
+            }
+            workloadOf(technician).incrementAndGet();
+        }
+        TableRefreshManager.getInstance().refreshTable("complaints");
+        return true;
+    }
+
+    /**
+     * Put a claimed complaint back on the queue
+     * @param complaintId Complaint ID
+     * @param technician Technician currently holding it
+     * @return true if the complaint was released
+     */
+    public boolean releaseComplaint(int complaintId, String technician) {
+        boolean success = complaintDAO.releaseById(complaintId, technician);
+        if (success) {
+            decrementWorkload(technician);
+            TableRefreshManager.getInstance().refreshTable("complaints");
+        }
+        return success;
+    }
+
+    /**
+     * Mark a held complaint resolved and free the technician's slot
+     * @param complaintId Complaint ID
+     * @param technician Technician who resolved it
+     * @return true if the technician held the complaint and it is now resolved
+     */
+    public boolean resolveComplaint(int complaintId, String technician) {
+        boolean success = complaintDAO.resolveById(complaintId, technician);
+        if (success) {
+            decrementWorkload(technician);
+            ComplaintDuplicateDetector.getInstance().forget(complaintId);
+            TableRefreshManager.getInstance().refreshTable("complaints");
+        }
+        return success;
+    }
+
+    /**
+     * Preview the head of the triage queue in priority order
+     */
+    public List<Complaint> getTriageQueue() {
+        return complaintDAO.findTriageQueue(DEFAULT_QUEUE_PREVIEW);
+    }
+
+    /**
+     * Queue depth and wait-time metrics per urgency level
+     */
+    public TriageQueueMetrics getQueueMetrics() {
+        TriageQueueMetrics metrics = complaintDAO.getTriageMetrics();
+        DAOLogger.debug("ComplaintTriageService", "getQueueMetrics", metrics::toString);
+        return metrics;
+    }
+
+    /**
+     * Reload per-technician workloads from the database, replacing the in-memory counts.
+     * Run at start-up and after complaints change hands outside this service.
+     */
+    public void syncWorkloads() {
+        Map<String, Integer> stored = complaintDAO.findTechnicianWorkloads();
+        workloads.keySet().retainAll(stored.keySet());
+        stored.forEach((technician, count) -> workloadOf(technician).set(count));
+    }
+
+    /**
+     * Current number of complaints held by each technician
+     */
+    public Map<String, Integer> getTechnicianWorkloads() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        workloads.forEach((technician, count) -> snapshot.put(technician, count.get()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public long getClaimCount() {
+        return claims.sum();
+    }
+
+    public long getEmptyPullCount() {
+        return emptyPulls.sum();
+    }
+
+    private AtomicInteger workloadOf(String technician) {
+        return workloads.computeIfAbsent(technician, key -> new AtomicInteger());
+    }
+
+    private void decrementWorkload(String technician) {
+        AtomicInteger count = workloads.get(technician);
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+}
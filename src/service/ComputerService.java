@@ -14,11 +14,6 @@ public class ComputerService {
 
     public ComputerService() {
         computerDAO = new ComputerDAO();
-
-        // Test database connection
-        if (!computerDAO.testConnection()) {
-            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
-        }
     }
 
     public List<Computer> getAllComputers() {
@@ -45,6 +40,19 @@ public class ComputerService {
         }
     }
 
+    /**
+     * Import many computers at once as a single batch
+     * @return Number of computers imported, or -1 if nothing was stored
+     */
+    public int importComputers(List<Computer> computers) {
+        int imported = computerDAO.insertAll(computers);
+
+        if (imported > 0) {
+            TableRefreshManager.getInstance().refreshTable("computers");
+        }
+        return imported;
+    }
+
     public void updateComputer(Computer computer) {
         boolean success = computerDAO.update(computer);
 
@@ -0,0 +1,293 @@
+package service;
+
+import dao.ComputerDAO;
+import dao.SoftwareRequestDAO;
+import model.Computer;
+import model.DeploymentPlan;
+import model.InstallTask;
+import model.SoftwareRequest;
+import ui.TableRefreshManager;
+import utils.DAOLogger;
+import utils.Tracer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expands approved software requests into per-computer install tasks and runs them.
+ *
+ * Tasks are queued per subnet (the /24 of the computer's IP address) and at most
+ * {@code maxPerSubnet} run at once on each, so one lab's switch is never saturated while
+ * other labs proceed. Failed attempts are re-queued after an exponential backoff with
+ * jitter. Each task takes a license seat before its first attempt: one of the seats its
+ * request has held since approval, or else a fresh checkout. A task that finds no seat free
+ * fails without retrying, a task that fails for good returns its seat, and seats the request
+ * still holds when its plan finishes go back to the pool.
+ */
+public class DeploymentPlanner {
+    public static final int DEFAULT_MAX_PER_SUBNET = 4;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final int DEFAULT_WORKER_THREADS = 16;
+    private static final long BASE_BACKOFF_MILLIS = 2000;
+    private static final long MAX_BACKOFF_MILLIS = 60000;
+
+    private final SoftwareRequestDAO softwareRequestDAO;
+    private final ComputerDAO computerDAO;
+    private final LicenseSeatService licenseSeatService;
+    private final int maxPerSubnet;
+    private final int maxAttempts;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, SubnetQueue> subnets = new ConcurrentHashMap<>();
+    private final Map<Integer, DeploymentPlan> plans = new ConcurrentHashMap<>();
+    private final Map<InstallTask, DeploymentPlan> planByTask = new ConcurrentHashMap<>();
+    private volatile InstallExecutor executor;
+
+    public DeploymentPlanner(InstallExecutor executor) {
+        this(executor, new SoftwareRequestDAO(), new ComputerDAO(), LicenseSeatService.getInstance(),
+            DEFAULT_MAX_PER_SUBNET, DEFAULT_MAX_ATTEMPTS, DEFAULT_WORKER_THREADS);
+    }
+
+    /**
+     * @param executor Performs the installs
+     * @param softwareRequestDAO Request lookups and completion (null when running offline)
+     * @param computerDAO Target lookups (null when running offline)
+     * @param licenseSeatService License seat checkout (null when running offline)
+     * @param maxPerSubnet Concurrent installs allowed per subnet
+     * @param maxAttempts Attempts per task before it is marked failed
+     * @param workerThreads Size of the shared worker pool
+     */
+    public DeploymentPlanner(InstallExecutor executor, SoftwareRequestDAO softwareRequestDAO,
+                             ComputerDAO computerDAO, LicenseSeatService licenseSeatService,
+                             int maxPerSubnet, int maxAttempts, int workerThreads) {
+        this.executor = executor;
+        this.softwareRequestDAO = softwareRequestDAO;
+        this.computerDAO = computerDAO;
+        this.licenseSeatService = licenseSeatService;
+        this.maxPerSubnet = Math.max(1, maxPerSubnet);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), daemonThreads("deployment-worker"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("deployment-retry"));
+    }
+
+    /**
+     * Expand an approved request into install tasks for every computer in its lab
+     * @param requestId Software request ID
+     * @return The plan, or null if the request does not exist or is not approved
+     */
+    public DeploymentPlan plan(int requestId) {
+        SoftwareRequest request = softwareRequestDAO.findByRequestId(requestId);
+        if (request == null || !"Approved".equals(request.getStatus())) {
+            DAOLogger.warn("DeploymentPlanner", "plan", "Request " + requestId + " is missing or not approved");
+            return null;
+        }
+
+        List<Computer> targets = computerDAO.findDeploymentTargets(request.getComputerId());
+        return expand(requestId, request.getSoftwareName(), request.getVersion(), targets);
+    }
+
+    /**
+     * Build a plan from an explicit list of target computers
+     */
+    public static DeploymentPlan expand(int requestId, String softwareName, String version, List<Computer> targets) {
+        List<InstallTask> tasks = new ArrayList<>(targets.size());
+        for (Computer computer : targets) {
+            tasks.add(new InstallTask(requestId, softwareName, version, computer.getId(), computer.getIpAddress()));
+        }
+        return new DeploymentPlan(requestId, softwareName, version, tasks);
+    }
+
+    /**
+     * Plan and start deploying an approved request. A request already being deployed
+     * is not planned twice.
+     * @param requestId Software request ID
+     * @return The running plan, or null if the request cannot be deployed
+     */
+    public DeploymentPlan deploy(int requestId) {
+        DeploymentPlan running = plans.get(requestId);
+        if (running != null && !running.isComplete()) {
+            return running;
+        }
+
+        DeploymentPlan plan = plan(requestId);
+        return plan != null ? start(plan) : null;
+    }
+
+    /**
+     * Queue every task of a plan
+     * @param plan Plan to run
+     * @return The same plan, for chaining
+     */
+    public DeploymentPlan start(DeploymentPlan plan) {
+        plans.put(plan.getRequestId(), plan);
+        plan.getCompletion().thenAccept(this::onPlanComplete);
+
+        DAOLogger.info("DeploymentPlanner", "start", "Deploying " + plan.getSoftwareName() + " for request " +
+            plan.getRequestId() + " to " + plan.getTasks().size() + " computers");
+
+        for (InstallTask task : plan.getTasks()) {
+            planByTask.put(task, plan);
+            enqueue(task);
+        }
+        return plan;
+    }
+
+    private void enqueue(InstallTask task) {
+        SubnetQueue subnet = subnets.computeIfAbsent(task.getSubnet(), key -> new SubnetQueue());
+        subnet.queue.offer(task);
+        dispatch(subnet);
+    }
+
+    /**
+     * Start queued tasks on a subnet until its concurrency bound is reached
+     */
+    private void dispatch(SubnetQueue subnet) {
+        while (!subnet.queue.isEmpty()) {
+            int inFlight = subnet.inFlight.get();
+            if (inFlight >= maxPerSubnet) {
+                return;
+            }
+            if (!subnet.inFlight.compareAndSet(inFlight, inFlight + 1)) {
+                continue;
+            }
+            InstallTask task = subnet.queue.poll();
+            if (task == null) {
+                subnet.inFlight.decrementAndGet();
+                continue;
+            }
+            workers.execute(Tracer.wrap("Install on " + task.getComputerId(), () -> run(subnet, task)));
+        }
+    }
+
+    private void run(SubnetQueue subnet, InstallTask task) {
+        DeploymentPlan plan = planByTask.get(task);
+        int attempt = task.beginAttempt();
+        try {
+            if (attempt == 1 && !checkoutSeat(task)) {
+                task.setLastError("No license seats free for " + task.getSoftwareName());
+                task.setStatus(InstallTask.Status.FAILED);
+                planByTask.remove(task);
+                plan.recordFailure();
+                return;
+            }
+            executor.install(task);
+            task.setStatus(InstallTask.Status.SUCCEEDED);
+            planByTask.remove(task);
+            plan.recordSuccess();
+        } catch (Exception e) {
+            task.setLastError(e.getMessage());
+            if (attempt < maxAttempts) {
+                task.setStatus(InstallTask.Status.RETRY_WAIT);
+                plan.recordRetry();
+                long delay = backoffMillis(attempt);
+                DAOLogger.warn("DeploymentPlanner", "run", "Install on " + task.getComputerId() + " failed (attempt " +
+                    attempt + "), retrying in " + delay + " ms: " + e.getMessage());
+                retryScheduler.schedule(() -> enqueue(task), delay, TimeUnit.MILLISECONDS);
+            } else {
+                task.setStatus(InstallTask.Status.FAILED);
+                planByTask.remove(task);
+                releaseSeat(task);
+                DAOLogger.error("DeploymentPlanner", "run", "Install on " + task.getComputerId() +
+                    " failed after " + attempt + " attempts: " + e.getMessage());
+                plan.recordFailure();
+            }
+        } finally {
+            subnet.inFlight.decrementAndGet();
+            dispatch(subnet);
+        }
+    }
+
+    private boolean checkoutSeat(InstallTask task) {
+        if (softwareRequestDAO != null) {
+            int held = softwareRequestDAO.claimHeldSeat(task.getRequestId());
+            if (held > 0) {
+                task.setSeatSoftwareId(held);
+                return true;
+            }
+        }
+        if (licenseSeatService == null) {
+            return true;
+        }
+        int seat = licenseSeatService.checkout(task.getSoftwareName(), task.getVersion());
+        if (seat == LicenseSeatService.NO_SEAT_FREE) {
+            return false;
+        }
+        task.setSeatSoftwareId(seat);
+        return true;
+    }
+
+    private void releaseSeat(InstallTask task) {
+        int seat = task.getSeatSoftwareId();
+        if (seat > 0 && licenseSeatService != null) {
+            licenseSeatService.returnSeat(seat);
+            task.setSeatSoftwareId(0);
+        }
+    }
+
+    private static long backoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 16));
+        // Up to 20% jitter so retries from one subnet don't land together
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private void onPlanComplete(DeploymentPlan plan) {
+        DAOLogger.success("DeploymentPlanner", "onPlanComplete", plan.toString());
+        if (softwareRequestDAO == null) {
+            return;
+        }
+        softwareRequestDAO.releaseHeldSeats(plan.getRequestId());
+        if (plan.getFailed() == 0 && !plan.getTasks().isEmpty()) {
+            softwareRequestDAO.markCompleted(plan.getRequestId());
+        }
+        TableRefreshManager.getInstance().scheduleRefresh("software_requests", "software");
+    }
+
+    public DeploymentPlan getPlan(int requestId) {
+        return plans.get(requestId);
+    }
+
+    public Collection<DeploymentPlan> getPlans() {
+        return Collections.unmodifiableCollection(plans.values());
+    }
+
+    public void setExecutor(InstallExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Stop accepting work; tasks already running are allowed to finish
+     */
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Tasks waiting on one subnet and the number currently running there
+     */
+    private static final class SubnetQueue {
+        final Queue<InstallTask> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+    }
+}
@@ -15,17 +15,19 @@ public class FeedbackService {
 
     public FeedbackService() {
         feedbackDAO = new FeedbackDAO();
-
-        // Test database connection
-        if (!feedbackDAO.testConnection()) {
-            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
-        }
     }
 
     public List<Feedback> getAllFeedback() {
         return feedbackDAO.findAll();
     }
 
+    /**
+     * @param includeArchived Also return rows the RetentionService has moved to the archive
+     */
+    public List<Feedback> getAllFeedback(boolean includeArchived) {
+        return feedbackDAO.findAll(includeArchived);
+    }
+
     public List<Feedback> getFeedbackByCategory(String category) {
         return feedbackDAO.findByCategory(category);
     }
@@ -0,0 +1,12 @@
+package service;
+
+import model.InstallTask;
+
+/**
+ * Performs a single software installation on a computer.
+ * Implementations are called from the deployment planner's worker threads and
+ * signal failure by throwing; the planner decides whether to retry.
+ */
+public interface InstallExecutor {
+    void install(InstallTask task) throws Exception;
+}
@@ -1,19 +1,32 @@
 package service;
 
+import dao.UserDAO;
+import database.PartitionMaintainer;
+import database.SchemaMigrator;
+import model.Permission;
+import model.UserSession;
+
 /**
  * Main service class that coordinates all LIMS services for the GUI application.
  * This class acts as a facade for all the individual service classes.
+ * The database connection and schema version are checked once here rather than by each service.
  */
 public class LIMSService {
     private static LIMSService instance;
     
     // Service instances
     private ComplaintService complaintService;
+    private ComplaintTriageService complaintTriageService;
     private ComputerService computerService;
     private FeedbackService feedbackService;
     private LabReservationService labReservationService;
     private SoftwareRequestService softwareRequestService;
     private UserService userService;
+    private SearchService searchService;
+    private boolean databaseAvailable;
+    private volatile String sessionUsername;
+    private volatile String sessionToken;
+    private volatile UserSession currentSession;
     
     private LIMSService() {
         initializeServices();
@@ -28,32 +41,73 @@ public class LIMSService {
     
     private void initializeServices() {
         complaintService = new ComplaintService();
+        complaintTriageService = new ComplaintTriageService();
         computerService = new ComputerService();
         feedbackService = new FeedbackService();
         labReservationService = new LabReservationService();
         softwareRequestService = new SoftwareRequestService();
         userService = new UserService();
+        searchService = new SearchService();
+
+        databaseAvailable = new UserDAO().testConnection();
+        if (!databaseAvailable) {
+            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
+        } else if (!SchemaMigrator.getInstance().ensureCurrent()) {
+            System.err.println("⚠️ Warning: Database schema is not current: " + SchemaMigrator.getInstance().getProblem());
+        } else {
+            PartitionMaintainer.getInstance().start();
+            RetentionService.getInstance().start();
+            complaintTriageService.syncWorkloads();
+        }
 
         System.out.println("✅ All LIMS services initialized successfully");
     }
+
+    /**
+     * Create the services on a background thread so the first login does not wait for them.
+     * A later getInstance() call blocks until this has finished.
+     */
+    public static void initializeInBackground() {
+        Thread thread = new Thread(LIMSService::getInstance, "lims-service-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Whether the database answered when the services were created
+     */
+    public boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
     
 
     
     /**
-     * Authenticates a user with username and password using database authentication.
+     * Authenticates a user with username and password through the AuthenticationService provider chain.
+     * Attempts over the LoginRateLimiter's limits are refused at once without touching the database.
+     * Blocks for at most the login timeout, so call it off the EDT.
      * @param username The username
      * @param password The password
      * @return The user's role if authentication successful, null otherwise
      */
     public String authenticateUser(String username, String password) {
-        model.User user = userService.authenticateUser(username, password);
-        if (user != null && user.isActive()) {
-            System.out.println("✅ Authentication successful for user: " + username + " (Role: " + user.getRole() + ")");
-            return user.getRole();
+        long retryAfterMillis = LoginRateLimiter.getInstance().tryAcquire(username);
+        if (retryAfterMillis > 0) {
+            System.out.println("⛔ Login throttled for user: " + username + " (retry in " + retryAfterMillis + " ms)");
+            return null;
+        }
+        
+        AuthenticationService authentication = AuthenticationService.getInstance();
+        String role = authentication.authenticate(username, password);
+        if (role != null) {
+            sessionUsername = username.trim();
+            sessionToken = authentication.openSession(username);
+            currentSession = SessionManager.getInstance().open(username, role);
+            System.out.println("✅ Authentication successful for user: " + username + " (Role: " + role + ")");
         } else {
             System.out.println("❌ Authentication failed for user: " + username);
-            return null;
         }
+        return role;
     }
 
 
@@ -85,12 +139,56 @@ public class LIMSService {
     public boolean changePassword(String username, String oldPassword, String newPassword) {
         return userService.updatePassword(username, oldPassword, newPassword);
     }
+
+    /**
+     * Changes the logged-in user's password on the strength of their login session,
+     * without asking for the current password again.
+     * @param newPassword The new password
+     * @return true if password change successful, false if there is no valid session
+     */
+    public boolean changePassword(String newPassword) {
+        String username = sessionUsername;
+        return username != null && userService.updatePasswordInSession(username, sessionToken, newPassword);
+    }
+    
+    /**
+     * The logged-in user's session, or null before login and after sign-out
+     */
+    public UserSession getCurrentSession() {
+        return currentSession;
+    }
+
+    /**
+     * Whether the logged-in user may do something; a bit test on the session, no query
+     */
+    public boolean hasPermission(Permission permission) {
+        UserSession session = currentSession;
+        return session != null && SessionManager.getInstance().hasPermission(session.getUserId(), permission);
+    }
+
+    /**
+     * End the logged-in user's session
+     */
+    public void signOut() {
+        String username = sessionUsername;
+        if (username != null) {
+            SessionManager.getInstance().close(username);
+            AuthenticationService.getInstance().closeSessions(username);
+        }
+        sessionUsername = null;
+        sessionToken = null;
+        currentSession = null;
+    }
     
     // Getter methods for service instances
     public ComplaintService getComplaintService() {
         return complaintService;
     }
     
+    public ComplaintTriageService getComplaintTriageService() {
+        return complaintTriageService;
+    }
+    
     public ComputerService getComputerService() {
         return computerService;
     }
@@ -108,24 +206,38 @@ public class LIMSService {
     }
     
     /**
-     * Gets a user's role using the UserService.
+     * Gets a user's role, from their session if they are logged in, otherwise using the UserService.
      * @param username The username
      * @return The user's role, or null if user doesn't exist
      */
     public String getUserRole(String username) {
+        UserSession session = SessionManager.getInstance().get(username);
+        if (session != null) {
+            return session.getRole();
+        }
         model.User user = userService.getUser(username);
         return user != null ? user.getRole() : null;
     }
-
     /**
-     * Checks if a user exists using the UserService.
+     * Checks if a user exists; a logged-in user does without a query.
      * @param username The username
      * @return true if user exists, false otherwise
      */
     public boolean userExists(String username) {
+        if (SessionManager.getInstance().get(username) != null) {
+            return true;
+        }
         return userService.userExists(username);
     }
 
+    /**
+     * Get the SearchService instance
+     * @return SearchService instance
+     */
+    public SearchService getSearchService() {
+        return searchService;
+    }
+
     /**
      * Get the UserService instance
      * @return UserService instance
@@ -3,6 +3,8 @@ package service;
 import dao.LabReservationDAO;
 import model.LabReservation;
 import ui.TableRefreshManager;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
@@ -15,17 +17,19 @@ public class LabReservationService {
 
     public LabReservationService() {
         labReservationDAO = new LabReservationDAO();
-
-        // Test database connection
-        if (!labReservationDAO.testConnection()) {
-            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
-        }
     }
 
     public List<LabReservation> getAllReservations() {
         return labReservationDAO.findAll();
     }
 
+    /**
+     * @param includeArchived Also return rows the RetentionService has moved to the archive
+     */
+    public List<LabReservation> getAllReservations(boolean includeArchived) {
+        return labReservationDAO.findAll(includeArchived);
+    }
+
     public List<LabReservation> getReservationsByLab(String lab) {
         return labReservationDAO.findByLabName(lab);
     }
@@ -50,6 +54,34 @@ public class LabReservationService {
         }
     }
 
+    /**
+     * Book the same lab and time slot on the same weekday for several weeks, stored as
+     * one batch. Weeks whose slot is already taken are skipped.
+     * @param first The reservation for the first week
+     * @param weeks Number of weeks, including the first
+     * @return The reservations stored, with their IDs set; empty if none could be stored
+     */
+    public List<LabReservation> addRecurringReservation(LabReservation first, int weeks) {
+        List<LabReservation> booked = getReservationsByLab(first.getLab());
+        List<LabReservation> reservations = new ArrayList<>();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(first.getDate());
+        for (int week = 0; week < weeks; week++) {
+            Date date = calendar.getTime();
+            if (isTimeSlotFree(booked, date, first.getTimeSlot())) {
+                reservations.add(new LabReservation(first.getLab(), date, first.getTimeSlot(), first.getReservedBy(),
+                    first.getPurpose(), first.getCourse(), first.getInstructor()));
+            }
+            calendar.add(Calendar.WEEK_OF_YEAR, 1);
+        }
+
+        if (labReservationDAO.insertAll(reservations) <= 0) {
+            return new ArrayList<>();
+        }
+        TableRefreshManager.getInstance().refreshTable("lab_reservations");
+        return reservations;
+    }
+
     public void updateReservation(LabReservation reservation) {
         boolean success = labReservationDAO.update(reservation);
 
@@ -71,13 +103,21 @@ public class LabReservationService {
     }
 
     public boolean isTimeSlotAvailable(String lab, Date date, String timeSlot) {
-        List<LabReservation> reservations = getReservationsByLab(lab);
+        return isTimeSlotFree(getReservationsByLab(lab), date, timeSlot);
+    }
+
+    private static boolean isTimeSlotFree(List<LabReservation> reservations, Date date, String timeSlot) {
         for (LabReservation reservation : reservations) {
-            if (reservation.getDate().equals(date) &&
+            if (sameDay(reservation.getDate(), date) &&
                 reservation.getTimeSlot().equals(timeSlot)) {
                 return false;
             }
         }
         return true;
     }
+
+    // Stored dates are midnight java.sql.Dates; dates from the UI usually carry a time of day
+    private static boolean sameDay(Date a, Date b) {
+        return new java.sql.Date(a.getTime()).toString().equals(new java.sql.Date(b.getTime()).toString());
+    }
 }
\ No newline at end of file
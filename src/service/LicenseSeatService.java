@@ -0,0 +1,268 @@
+package service;
+
+import dao.SoftwareDAO;
+import model.SeatUtilization;
+import utils.DAOLogger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * License seat checkout and return for software catalog rows.
+ *
+ * The database is the source of truth: a checkout is a single conditional UPDATE that
+ * only succeeds while installations is below license_limit. In front of it sits a cache
+ * of seats in use per catalog row, kept in LongAdders so concurrent deployments never
+ * contend on one counter. The cache lets an exhausted pool be refused without a round
+ * trip and serves the utilization dashboard; a background job reconciles it with the
+ * database, since seats may also change outside this process.
+ */
+public class LicenseSeatService {
+    /** Returned by {@link #checkout} when the title is not in the catalog and so not seat-managed */
+    public static final int UNMANAGED = 0;
+    /** Returned by {@link #checkout} when every seat is taken */
+    public static final int NO_SEAT_FREE = -1;
+
+    private static final long RECONCILE_INTERVAL_SECONDS = 60;
+
+    private static LicenseSeatService instance;
+
+    private final SoftwareDAO softwareDAO;
+    private final Map<Integer, SeatPool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Integer> poolIdByTitle = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconciler;
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder denials = new LongAdder();
+    private final LongAdder returns = new LongAdder();
+    private final LongAdder driftCorrections = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private volatile boolean seeded;
+
+    private LicenseSeatService() {
+        this.softwareDAO = new SoftwareDAO();
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "license-seat-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcile,
+            RECONCILE_INTERVAL_SECONDS, RECONCILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static synchronized LicenseSeatService getInstance() {
+        if (instance == null) {
+            instance = new LicenseSeatService();
+        }
+        return instance;
+    }
+
+    /**
+     * Take one seat of a title
+     * @param softwareName Software name (case-insensitive)
+     * @param version Requested version, used to pick the matching catalog row
+     * @return The catalog row ID the seat was taken from, {@link #UNMANAGED} if the title
+     *         is not in the catalog, or {@link #NO_SEAT_FREE} if the pool is exhausted
+     */
+    public int checkout(String softwareName, String version) {
+        SeatPool pool = poolFor(softwareName, version);
+        if (pool == null) {
+            return UNMANAGED;
+        }
+
+        // Refuse from the cache when it already shows the pool full; a stale "full" is
+        // corrected by the next reconcile
+        if (pool.isExhausted()) {
+            denials.increment();
+            return NO_SEAT_FREE;
+        }
+
+        SeatUtilization updated = softwareDAO.checkoutSeat(pool.softwareId);
+        if (updated == null) {
+            denials.increment();
+            SeatUtilization current = softwareDAO.findSeatPool(softwareName, version);
+            if (current != null && current.getSoftwareId() == pool.softwareId) {
+                pool.sync(current);
+            }
+            DAOLogger.warn("LicenseSeatService", "checkout", "No seat free for " + softwareName + " " + version);
+            return NO_SEAT_FREE;
+        }
+
+        pool.inUse.increment();
+        pool.seatLimit = updated.getSeatLimit();
+        checkouts.increment();
+        return pool.softwareId;
+    }
+
+    /**
+     * Give back a seat taken with {@link #checkout}
+     * @param softwareId Catalog row ID returned by checkout
+     * @return true if a seat was returned
+     */
+    public boolean returnSeat(int softwareId) {
+        if (softwareId <= UNMANAGED) {
+            return false;
+        }
+
+        SeatUtilization updated = softwareDAO.returnSeat(softwareId);
+        if (updated == null) {
+            DAOLogger.warn("LicenseSeatService", "returnSeat", "No seat in use for software " + softwareId);
+            return false;
+        }
+
+        SeatPool pool = pools.get(softwareId);
+        if (pool != null) {
+            pool.inUse.decrement();
+        }
+        returns.increment();
+        return true;
+    }
+
+    /**
+     * Seat utilization of every pool known to the cache, most utilized first.
+     * Reads only the cache (seeded from the seat-limited rows), never the software table.
+     */
+    public List<SeatUtilization> getUtilization() {
+        seedIfNeeded();
+        List<SeatUtilization> utilization = new ArrayList<>(pools.size());
+        for (SeatPool pool : pools.values()) {
+            utilization.add(pool.snapshot());
+        }
+        utilization.sort(Comparator.comparingDouble(SeatUtilization::getUtilization).reversed()
+            .thenComparing(SeatUtilization::getSoftwareName, String.CASE_INSENSITIVE_ORDER));
+        return utilization;
+    }
+
+    /**
+     * Bring the cache in line with the database: picks up newly limited titles and
+     * corrects counts changed outside this process
+     * @return Number of pools whose cached count had drifted, or -1 on error
+     */
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        List<SeatUtilization> current = softwareDAO.findSeatPools(new ArrayList<>(pools.keySet()));
+        if (current == null) {
+            return -1;
+        }
+        current.addAll(softwareDAO.findLimitedSeatPools());
+
+        int drifted = 0;
+        List<Integer> seen = new ArrayList<>();
+        for (SeatUtilization row : current) {
+            SeatPool pool = pools.computeIfAbsent(row.getSoftwareId(), id -> new SeatPool(row));
+            if (pool.sync(row)) {
+                drifted++;
+            }
+            seen.add(row.getSoftwareId());
+        }
+
+        // Rows deleted from the catalog
+        pools.keySet().retainAll(seen);
+        poolIdByTitle.clear();
+        seeded = true;
+
+        if (drifted > 0) {
+            driftCorrections.add(drifted);
+            DAOLogger.warn("LicenseSeatService", "reconcile", drifted + " seat pools drifted from the database");
+        }
+        DAOLogger.logPerformance("LicenseSeatService", "reconcile", System.currentTimeMillis() - start);
+        return drifted;
+    }
+
+    private void seedIfNeeded() {
+        if (seeded) {
+            return;
+        }
+        for (SeatUtilization row : softwareDAO.findLimitedSeatPools()) {
+            pools.computeIfAbsent(row.getSoftwareId(), id -> new SeatPool(row));
+        }
+        seeded = true;
+    }
+
+    private SeatPool poolFor(String softwareName, String version) {
+        String key = titleKey(softwareName, version);
+        Integer softwareId = poolIdByTitle.get(key);
+        if (softwareId != null) {
+            SeatPool pool = pools.get(softwareId);
+            if (pool != null) {
+                cacheHits.increment();
+                return pool;
+            }
+        }
+
+        cacheMisses.increment();
+        SeatUtilization row = softwareDAO.findSeatPool(softwareName, version);
+        if (row == null) {
+            return null;
+        }
+        SeatPool pool = pools.computeIfAbsent(row.getSoftwareId(), id -> new SeatPool(row));
+        poolIdByTitle.put(key, row.getSoftwareId());
+        return pool;
+    }
+
+    private static String titleKey(String softwareName, String version) {
+        return softwareName.trim().toLowerCase(Locale.ROOT) + '\u0000' + (version == null ? "" : version.trim());
+    }
+
+    public long getCheckoutCount() { return checkouts.sum(); }
+    public long getDenialCount() { return denials.sum(); }
+    public long getReturnCount() { return returns.sum(); }
+    public long getDriftCorrectionCount() { return driftCorrections.sum(); }
+    public long getCacheHitCount() { return cacheHits.sum(); }
+    public long getCacheMissCount() { return cacheMisses.sum(); }
+
+    /**
+     * Stop the reconciliation job
+     */
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Cached seat counts of one catalog row
+     */
+    private static final class SeatPool {
+        final int softwareId;
+        final String softwareName;
+        final String version;
+        final LongAdder inUse = new LongAdder();
+        volatile Integer seatLimit;
+
+        SeatPool(SeatUtilization row) {
+            this.softwareId = row.getSoftwareId();
+            this.softwareName = row.getSoftwareName();
+            this.version = row.getVersion();
+            this.seatLimit = row.getSeatLimit();
+            inUse.add(row.getSeatsInUse());
+        }
+
+        boolean isExhausted() {
+            Integer limit = seatLimit;
+            return limit != null && inUse.sum() >= limit;
+        }
+
+        /**
+         * Adopt the database counts
+         * @return true if the cached count was off
+         */
+        boolean sync(SeatUtilization row) {
+            seatLimit = row.getSeatLimit();
+            long drift = row.getSeatsInUse() - inUse.sum();
+            if (drift != 0) {
+                inUse.add(drift);
+            }
+            return drift != 0;
+        }
+
+        SeatUtilization snapshot() {
+            return new SeatUtilization(softwareId, softwareName, version, (int) inUse.sum(), seatLimit);
+        }
+    }
+}
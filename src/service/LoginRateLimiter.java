@@ -0,0 +1,113 @@
+package service;
+
+import utils.DAOLogger;
+import utils.TokenBucket;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds login attempts before they reach the database or the password hasher.
+ *
+ * Each user ID has its own token bucket (burst lims.login.userBurst, default 5, refilled at
+ * lims.login.userPerMinute, default 10) so one account cannot be hammered, and all logins
+ * share a global bucket (burst lims.login.globalBurst, default 50, refilled at
+ * lims.login.globalPerSecond, default 20) so a lab full of retries cannot flood
+ * user_access. A refused attempt costs two atomic reads and no I/O.
+ */
+public class LoginRateLimiter {
+    private static final int MAX_TRACKED_USERS = 10_000;
+
+    private static LoginRateLimiter instance;
+
+    private final int userBurst = Integer.getInteger("lims.login.userBurst", 5);
+    private final double userPerSecond = Integer.getInteger("lims.login.userPerMinute", 10) / 60.0;
+    private final TokenBucket globalBucket = new TokenBucket(
+        Integer.getInteger("lims.login.globalBurst", 50), Integer.getInteger("lims.login.globalPerSecond", 20));
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttledPerUser = new LongAdder();
+    private final LongAdder throttledGlobally = new LongAdder();
+
+    private LoginRateLimiter() {
+    }
+
+    public static synchronized LoginRateLimiter getInstance() {
+        if (instance == null) {
+            instance = new LoginRateLimiter();
+        }
+        return instance;
+    }
+
+    /**
+     * Take a login attempt for a user
+     * @param username The username being logged in
+     * @return 0 if the attempt may go ahead, otherwise the milliseconds until it may be retried
+     */
+    public long tryAcquire(String username) {
+        long userWait = bucketFor(username).tryAcquireOrWait();
+        if (userWait > 0) {
+            throttledPerUser.increment();
+            DAOLogger.warn("LoginRateLimiter", "tryAcquire", "Too many login attempts for user: " + username);
+            return toMillis(userWait);
+        }
+        long globalWait = globalBucket.tryAcquireOrWait();
+        if (globalWait > 0) {
+            throttledGlobally.increment();
+            DAOLogger.warn("LoginRateLimiter", "tryAcquire", "Too many login attempts overall, refused: " + username);
+            return toMillis(globalWait);
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    /**
+     * Milliseconds until a login for a user would be let through, without using up an attempt
+     */
+    public long getRetryAfterMillis(String username) {
+        TokenBucket bucket = userBuckets.get(key(username));
+        long wait = Math.max(bucket == null ? 0 : bucket.getWaitNanos(), globalBucket.getWaitNanos());
+        return toMillis(wait);
+    }
+
+    private TokenBucket bucketFor(String username) {
+        String key = key(username);
+        TokenBucket bucket = userBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (userBuckets.size() >= MAX_TRACKED_USERS) {
+            // A full bucket carries no history, so dropping it changes nothing
+            userBuckets.values().removeIf(TokenBucket::isFull);
+        }
+        return userBuckets.computeIfAbsent(key, k -> new TokenBucket(userBurst, userPerSecond));
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * Attempts refused because the user had used up their own attempts
+     */
+    public long getThrottledPerUserCount() {
+        return throttledPerUser.sum();
+    }
+
+    /**
+     * Attempts refused because all logins together were over the global rate
+     */
+    public long getThrottledGloballyCount() {
+        return throttledGlobally.sum();
+    }
+}
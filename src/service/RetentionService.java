@@ -0,0 +1,387 @@
+package service;
+
+import database.ConnectionPool;
+import database.PartitionMaintainer;
+import model.RetentionPolicy;
+import utils.DAOLogger;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finished rows out of the hot request tables once their {@link RetentionPolicy}
+ * says they are old enough, so that list queries stop reading them. A row must be old
+ * enough both by its partition key and by status_changed_at (migration 8), so a request
+ * filed long ago but closed last week stays. Past approved reservations count as finished.
+ *
+ * Rows move in batches of -Dlims.retention.batchSize (default 500). Each batch is a single
+ * DELETE ... RETURNING that locks its rows with SKIP LOCKED, so it never waits for a user
+ * editing a row and never blocks one for longer than the batch takes. After each batch the
+ * job sleeps for as long as the batch took, and at least -Dlims.retention.pauseMillis
+ * (default 200), which keeps it to about half of one connection. The job's connection sets
+ * lims.retention, which stops the complaints delete trigger from unlinking duplicates of
+ * the complaints it moves.
+ *
+ * -Dlims.retention.target picks where rows go:
+ *   table (default) - into the same-named table in the archive schema (migration 7), in the
+ *                     same statement as the delete; DAO findAll(true) reads them back
+ *   csv             - streamed into table-yyyyMMdd-HHmmss.csv.gz under -Dlims.retention.dir
+ *                     (default "archive"); a batch is committed only after it is written
+ *
+ * Policies are set per table with -Dlims.retention.[table].days (0 keeps rows forever).
+ * The job runs every -Dlims.retention.intervalHours (default 24, 0 to disable) on a daemon
+ * thread, or once from the command line with: java service.RetentionService
+ */
+public class RetentionService {
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+    private static final long INITIAL_DELAY_MINUTES = 5;
+    private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+    private static final DateTimeFormatter EXPORT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final String SELECT_COLUMNS = "SELECT insertable_columns(?::regclass)";
+    private static final String MARK_RETENTION_SESSION = "SELECT set_config('lims.retention', 'on', false)";
+    private static final String FINISHED_COLUMN = "status_changed_at";
+
+    private static RetentionService instance;
+
+    private final List<RetentionPolicy> policies;
+    private final RetentionPolicy.Target target =
+        "csv".equalsIgnoreCase(System.getProperty("lims.retention.target", "table"))
+            ? RetentionPolicy.Target.CSV_FILE : RetentionPolicy.Target.ARCHIVE_TABLE;
+    private final Path exportDirectory = Paths.get(System.getProperty("lims.retention.dir", "archive"));
+    private final int batchSize = Integer.getInteger("lims.retention.batchSize", 500);
+    private final long pauseMillis = Long.getLong("lims.retention.pauseMillis", 200L);
+    private final long intervalHours = Long.getLong("lims.retention.intervalHours", 24L);
+    private final ConnectionPool pool = new ConnectionPool("retention", 1);
+    private final Map<String, String> columnLists = new ConcurrentHashMap<>();
+    private final LongAdder rowsMoved = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder throttledMillis = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    private RetentionService(List<RetentionPolicy> policies) {
+        this.policies = policies;
+    }
+
+    public static synchronized RetentionService getInstance() {
+        if (instance == null) {
+            instance = new RetentionService(defaultPolicies());
+        }
+        return instance;
+    }
+
+    private static List<RetentionPolicy> defaultPolicies() {
+        Map<String, String> keys = PartitionMaintainer.getPartitionKeys();
+        return Collections.unmodifiableList(Arrays.asList(
+            new RetentionPolicy("complaints", keys.get("complaints"), FINISHED_COLUMN,
+                Arrays.asList("Resolved", "Closed", "Cancelled"), days("complaints", 365)),
+            new RetentionPolicy("lab_reservations", keys.get("lab_reservations"), FINISHED_COLUMN,
+                Arrays.asList("Approved", "Completed", "Cancelled", "Rejected"), days("lab_reservations", 180)),
+            new RetentionPolicy("software_requests", keys.get("software_requests"), FINISHED_COLUMN,
+                Arrays.asList("Completed", "Rejected"), days("software_requests", 365)),
+            new RetentionPolicy("feedback", keys.get("feedback"), FINISHED_COLUMN,
+                Collections.emptyList(), days("feedback", 365))));
+    }
+
+    private static int days(String table, int defaultDays) {
+        return Integer.getInteger("lims.retention." + table + ".days", defaultDays);
+    }
+
+    /**
+     * Run the policies a few minutes after startup and then every intervalHours
+     */
+    public synchronized void start() {
+        if (scheduler != null || intervalHours <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce,
+            TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES), TimeUnit.HOURS.toSeconds(intervalHours), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Apply every enabled policy
+     * @return Rows moved, not counting policies that failed
+     */
+    public synchronized long runOnce() {
+        long total = 0;
+        for (RetentionPolicy policy : policies) {
+            if (policy.isEnabled()) {
+                long moved = apply(policy);
+                if (moved > 0) {
+                    total += moved;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Move every row the policy matches, batch by batch
+     * @return Rows moved, or -1 if a batch failed (earlier batches stay moved)
+     */
+    public long apply(RetentionPolicy policy) {
+        Date cutoff = Date.valueOf(LocalDate.now().minusDays(policy.getMaxAgeDays()));
+        Connection connection = null;
+        try {
+            connection = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            try (PreparedStatement statement = connection.prepareStatement(MARK_RETENTION_SESSION)) {
+                statement.execute();
+            }
+            String columns = columnsOf(connection, policy.getTable());
+            long moved = target == RetentionPolicy.Target.CSV_FILE
+                ? moveToFile(connection, policy, columns, cutoff)
+                : moveToArchiveTable(connection, policy, columns, cutoff);
+            if (moved > 0) {
+                DAOLogger.success("RetentionService", "apply", "Moved " + moved + " rows: " + policy);
+            }
+            return moved;
+        } catch (SQLException e) {
+            DAOLogger.error("RetentionService", "apply", "Retention stopped for " + policy, e);
+            return -1;
+        } catch (IOException e) {
+            DAOLogger.error("RetentionService", "apply", "Could not write the export for " + policy, e);
+            return -1;
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    private long moveToArchiveTable(Connection connection, RetentionPolicy policy, String columns, Date cutoff)
+            throws SQLException {
+        String sql = "WITH moved AS (" + deleteBatch(policy, columns) + ") " +
+            "INSERT INTO " + PartitionMaintainer.ARCHIVE_SCHEMA + "." + policy.getTable() +
+            " (" + columns + ") SELECT " + columns + " FROM moved";
+        long total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindBatch(statement, policy, cutoff);
+            while (true) {
+                long start = System.nanoTime();
+                int moved = statement.executeUpdate();
+                total += recordBatch(moved);
+                if (moved < batchSize || !throttle(start)) {
+                    return total;
+                }
+            }
+        }
+    }
+
+    private long moveToFile(Connection connection, RetentionPolicy policy, String columns, Date cutoff)
+            throws SQLException, IOException {
+        Files.createDirectories(exportDirectory);
+        Path file = exportDirectory.resolve(policy.getTable() + "-" + LocalDateTime.now().format(EXPORT_STAMP) + ".csv.gz");
+        long total = 0;
+        connection.setAutoCommit(false);
+        // syncFlush: flush() pushes every row written so far through the compressor to the file
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                 new GZIPOutputStream(Files.newOutputStream(file), EXPORT_BUFFER_BYTES, true), StandardCharsets.UTF_8));
+             PreparedStatement statement = connection.prepareStatement(deleteBatch(policy, columns))) {
+            bindBatch(statement, policy, cutoff);
+            boolean headerWritten = false;
+            while (true) {
+                long start = System.nanoTime();
+                int moved = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    while (resultSet.next()) {
+                        if (!headerWritten) {
+                            writeHeader(out, metaData);
+                            headerWritten = true;
+                        }
+                        writeRow(out, resultSet, metaData.getColumnCount());
+                        moved++;
+                    }
+                }
+                out.flush();
+                connection.commit();
+                total += recordBatch(moved);
+                if (moved < batchSize || !throttle(start)) {
+                    break;
+                }
+            }
+        } catch (SQLException | IOException e) {
+            // The rows of the failed batch were not committed, so they are still in the table
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        if (total == 0) {
+            Files.deleteIfExists(file);
+        }
+        return total;
+    }
+
+    /**
+     * DELETE of the next batch of the policy's rows, oldest first, returning the moved columns
+     */
+    private String deleteBatch(RetentionPolicy policy, String columns) {
+        String table = policy.getTable();
+        String key = policy.getAgeColumn();
+        StringBuilder select = new StringBuilder("SELECT id, ").append(key)
+            .append(" FROM ").append(table).append(" WHERE ").append(key).append(" < ?");
+        if (policy.getFinishedColumn() != null) {
+            // Never earlier than the key, so the key bound above stays a safe pruning bound
+            select.append(" AND COALESCE(").append(policy.getFinishedColumn()).append(", ").append(key).append(") < ?");
+        }
+        if (!policy.getStatuses().isEmpty()) {
+            select.append(" AND status IN (").append(String.join(", ", Collections.nCopies(policy.getStatuses().size(), "?"))).append(")");
+        }
+        select.append(" ORDER BY ").append(key).append(" LIMIT ? FOR UPDATE SKIP LOCKED");
+        // The partition key is part of the match, so only the partitions old enough are touched
+        return "DELETE FROM " + table + " WHERE (id, " + key + ") IN (" + select + ") RETURNING " + columns;
+    }
+
+    private void bindBatch(PreparedStatement statement, RetentionPolicy policy, Date cutoff) throws SQLException {
+        int index = 1;
+        statement.setDate(index++, cutoff);
+        if (policy.getFinishedColumn() != null) {
+            statement.setDate(index++, cutoff);
+        }
+        for (String status : policy.getStatuses()) {
+            statement.setString(index++, status);
+        }
+        statement.setInt(index, batchSize);
+    }
+
+    /**
+     * Non-generated columns of a hot table, which are the ones copied to the archive
+     */
+    private String columnsOf(Connection connection, String table) throws SQLException {
+        String columns = columnLists.get(table);
+        if (columns != null) {
+            return columns;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getString(1) == null) {
+                    throw new SQLException("No columns found for " + table);
+                }
+                columns = resultSet.getString(1);
+            }
+        }
+        columnLists.put(table, columns);
+        return columns;
+    }
+
+    private long recordBatch(int moved) {
+        if (moved > 0) {
+            rowsMoved.add(moved);
+            batches.increment();
+        }
+        return moved;
+    }
+
+    /**
+     * Sleep as long as the batch took, and at least pauseMillis
+     * @return false if interrupted, which ends the run
+     */
+    private boolean throttle(long batchStartNanos) {
+        long pause = Math.max(pauseMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStartNanos));
+        try {
+            Thread.sleep(pause);
+            throttledMillis.add(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void writeHeader(Writer out, ResultSetMetaData metaData) throws SQLException, IOException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            out.write(csv(metaData.getColumnLabel(i)));
+        }
+        out.write('\n');
+    }
+
+    private static void writeRow(Writer out, ResultSet resultSet, int columnCount) throws SQLException, IOException {
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            out.write(csv(resultSet.getString(i)));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * RFC 4180 field: quoted when it contains a separator, quote or line break; NULL is empty
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public List<RetentionPolicy> getPolicies() {
+        return new ArrayList<>(policies);
+    }
+
+    public RetentionPolicy.Target getTarget() {
+        return target;
+    }
+
+    public long getRowsMovedCount() {
+        return rowsMoved.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /** Time spent pausing between batches */
+    public long getThrottledMillis() {
+        return throttledMillis.sum();
+    }
+
+    /**
+     * Apply every policy once and report the result
+     */
+    public static void main(String[] args) {
+        RetentionService retention = getInstance();
+        for (RetentionPolicy policy : retention.getPolicies()) {
+            System.out.println((policy.isEnabled() ? "  " : "  (off) ") + policy);
+        }
+        long moved = retention.runOnce();
+        System.out.println("Moved " + moved + " rows to " + retention.getTarget() + " in " + retention.getBatchCount() + " batches");
+        DAOLogger.flush();
+    }
+}
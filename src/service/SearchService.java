@@ -0,0 +1,69 @@
+package service;
+
+import dao.ComplaintDAO;
+import dao.FeedbackDAO;
+import dao.SoftwareRequestDAO;
+import model.SearchFilter;
+import model.SearchResult;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service class for full-text search across complaints, feedback and software requests.
+ * Ranking and highlighting happen in PostgreSQL against the GIN-indexed search_vector columns.
+ */
+public class SearchService {
+    /** Same order as each source's query: rank, then newest first */
+    private static final Comparator<SearchResult> BY_RANK = Comparator
+        .comparingDouble(SearchResult::getRank).reversed()
+        .thenComparing(SearchResult::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final ComplaintDAO complaintDAO;
+    private final FeedbackDAO feedbackDAO;
+    private final SoftwareRequestDAO softwareRequestDAO;
+
+    public SearchService() {
+        this.complaintDAO = new ComplaintDAO();
+        this.feedbackDAO = new FeedbackDAO();
+        this.softwareRequestDAO = new SoftwareRequestDAO();
+    }
+
+    public List<SearchResult> searchComplaints(String query, SearchFilter filters, int page) {
+        return complaintDAO.search(query, filters, page);
+    }
+
+    public List<SearchResult> searchFeedback(String query, SearchFilter filters, int page) {
+        return feedbackDAO.search(query, filters, page);
+    }
+
+    public List<SearchResult> searchSoftwareRequests(String query, SearchFilter filters, int page) {
+        return softwareRequestDAO.search(query, filters, page);
+    }
+
+    /**
+     * Search all three sources and return one page of the merged ranking.
+     * A global page can draw any number of its hits from any source, so each source is
+     * asked for its best (page + 1) * pageSize hits; merging those by rank and skipping
+     * the earlier pages leaves exactly the hits a single ranked query would return.
+     * @param query Search terms (web search syntax)
+     * @param filters Optional filters applied to every source
+     * @param page Zero-based page number
+     * @return At most one page of results from all sources, ordered by rank
+     */
+    public List<SearchResult> searchAll(String query, SearchFilter filters, int page) {
+        int pageSize = filters == null ? SearchFilter.DEFAULT_PAGE_SIZE : filters.getPageSize();
+        int offset = Math.max(0, page) * pageSize;
+        int limit = offset + pageSize;
+
+        List<SearchResult> results = new ArrayList<>();
+        results.addAll(complaintDAO.searchTop(query, filters, limit));
+        results.addAll(feedbackDAO.searchTop(query, filters, limit));
+        results.addAll(softwareRequestDAO.searchTop(query, filters, limit));
+        results.sort(BY_RANK);
+        if (offset >= results.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(results.subList(offset, Math.min(limit, results.size())));
+    }
+}
@@ -0,0 +1,252 @@
+package service;
+
+import dao.UserDAO;
+import database.ConnectionPool;
+import model.Permission;
+import model.User;
+import model.UserSession;
+import utils.DAOLogger;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sessions of logged-in users, each holding the user's permission set.
+ *
+ * A session is built from the user's user_access row once, at login, and kept for the
+ * rest of the session, so role and permission checks never query the database. When a
+ * user's row changes the session is rebuilt: changes made through UserService do so
+ * directly, and a listener thread receives the user_access_changed notifications that
+ * the trigger in database_setup.sql sends for changes made anywhere else. A session
+ * built from a row is closed once the row is gone; only sessions of accounts that never
+ * had a row (the built-in ones) outlive a missing row.
+ */
+public class SessionManager {
+    private static final String CHANNEL = "user_access_changed";
+    private static final int POLL_MILLIS = 1000;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+    private static final long RETRY_MILLIS = 10_000;
+
+    private static SessionManager instance;
+
+    private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+    // Users whose session was opened without a user_access row
+    private final Set<String> withoutRow = ConcurrentHashMap.newKeySet();
+    private final UserDAO userDAO = new UserDAO();
+    private final ConnectionPool listenPool = new ConnectionPool("session-notifications", 1);
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private Thread listener;
+
+    private SessionManager() {
+    }
+
+    public static synchronized SessionManager getInstance() {
+        if (instance == null) {
+            instance = new SessionManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Create the session of a user who has just logged in
+     * @param userId The user ID
+     * @param role The role the login was granted, used if the user has no user_access row
+     * @return The new session
+     */
+    public UserSession open(String userId, String role) {
+        String key = userId.trim();
+        User user = null;
+        boolean rowMissing = false;
+        try {
+            user = userDAO.lookup(key);
+            rowMissing = user == null;
+        } catch (SQLException e) {
+            // Built from the login role for now, but still closed if the row turns out to be gone
+            DAOLogger.warn("SessionManager", "open", "Could not read " + key + ", using the login role: " + e.getMessage());
+        }
+        UserSession session = user != null
+            ? new UserSession(user.getUserId(), user.getName(), user.getRole(), user.getAccessLevel())
+            : new UserSession(key, key, role, null);
+        if (rowMissing) {
+            withoutRow.add(key);
+        } else {
+            withoutRow.remove(key);
+        }
+        sessions.put(key, session);
+        startListener();
+        DAOLogger.info("SessionManager", "open", "Session opened: " + session);
+        return session;
+    }
+
+    /**
+     * The session of a logged-in user, or null
+     */
+    public UserSession get(String userId) {
+        return userId == null ? null : sessions.get(userId.trim());
+    }
+
+    /**
+     * Whether a logged-in user may do something; false if the user has no session
+     */
+    public boolean hasPermission(String userId, Permission permission) {
+        checks.increment();
+        UserSession session = get(userId);
+        return session != null && session.has(permission);
+    }
+
+    public void close(String userId) {
+        if (userId != null) {
+            withoutRow.remove(userId.trim());
+        }
+        if (userId != null && sessions.remove(userId.trim()) != null) {
+            DAOLogger.info("SessionManager", "close", "Session closed: " + userId);
+        }
+    }
+
+    /**
+     * Rebuild a user's session from their current row after it changed; a user who
+     * is no longer active, or whose row was deleted, loses the session. If the row cannot
+     * be read the session is kept as it is until the next change or reconnect.
+     */
+    public void refresh(String userId) {
+        if (userId == null || !sessions.containsKey(userId.trim())) {
+            return;
+        }
+        String key = userId.trim();
+        User user;
+        try {
+            user = userDAO.lookup(key);
+        } catch (SQLException e) {
+            DAOLogger.warn("SessionManager", "refresh", "Could not re-read " + key + ", keeping the session: " + e.getMessage());
+            return;
+        }
+        if (user == null) {
+            if (!withoutRow.contains(key)) {
+                DAOLogger.info("SessionManager", "refresh", "User row deleted, closing session: " + key);
+                close(key);
+            }
+            return;
+        }
+        rebuilds.increment();
+        if (!user.isActive()) {
+            close(key);
+            return;
+        }
+        withoutRow.remove(key);
+        sessions.computeIfPresent(key, (id, previous) ->
+            new UserSession(user.getUserId(), user.getName(), user.getRole(), user.getAccessLevel()));
+        DAOLogger.info("SessionManager", "refresh", "Session rebuilt: " + sessions.get(key));
+    }
+
+    private void refreshAll() {
+        for (String userId : new ArrayList<>(sessions.keySet())) {
+            refresh(userId);
+        }
+    }
+
+    public List<UserSession> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Permission checks answered, all from memory
+     */
+    public long getCheckCount() {
+        return checks.sum();
+    }
+
+    public long getRebuildCount() {
+        return rebuilds.sum();
+    }
+
+    public long getNotificationCount() {
+        return notifications.sum();
+    }
+
+    private synchronized void startListener() {
+        if (listener != null) {
+            return;
+        }
+        listener = new Thread(this::listen, "session-notification-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * LISTEN on the change channel and rebuild the sessions named in each notification.
+     * The driver's notification API is reached by reflection, as the PostgreSQL driver is
+     * only on the runtime classpath.
+     */
+    private void listen() {
+        Class<?> pgConnectionClass;
+        Method getNotifications;
+        Method getParameter;
+        try {
+            pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+            getNotifications = pgConnectionClass.getMethod("getNotifications", int.class);
+            getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            DAOLogger.warn("SessionManager", "listen",
+                "PostgreSQL notifications unavailable; sessions follow changes made in this application only");
+            return;
+        }
+
+        while (!Thread.currentThread().isInterrupted()) {
+            Connection connection = null;
+            try {
+                connection = listenPool.borrow(BORROW_TIMEOUT_MILLIS);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Changes made while not listening were missed
+                refreshAll();
+                Object pgConnection = connection.unwrap(pgConnectionClass);
+                while (!Thread.currentThread().isInterrupted()) {
+                    Object[] received = (Object[]) getNotifications.invoke(pgConnection, POLL_MILLIS);
+                    if (received == null) {
+                        continue;
+                    }
+                    for (Object notification : received) {
+                        notifications.increment();
+                        String userId = (String) getParameter.invoke(notification);
+                        if (userId == null || userId.isEmpty()) {
+                            refreshAll();
+                        } else {
+                            refresh(userId);
+                        }
+                    }
+                }
+            } catch (SQLException | InvocationTargetException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                DAOLogger.warn("SessionManager", "listen", "Lost " + CHANNEL + " listener, retrying: " + cause.getMessage());
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } catch (IllegalAccessException e) {
+                DAOLogger.error("SessionManager", "listen", "Cannot read PostgreSQL notifications", e);
+                return;
+            } finally {
+                if (connection != null) {
+                    // A connection still listening must not be handed out again
+                    try {
+                        connection.close();
+                    } catch (SQLException ignored) {
+                    }
+                    listenPool.release(connection);
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package service;
 
 import dao.SoftwareRequestDAO;
+import model.BatchApprovalResult;
+import model.SeatUtilization;
 import model.SoftwareRequest;
 import ui.TableRefreshManager;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -12,13 +15,28 @@ import java.util.List;
  */
 public class SoftwareRequestService {
     private SoftwareRequestDAO softwareRequestDAO;
+    // Null until an install agent is configured; approved requests then stay Approved
+    private volatile DeploymentPlanner deploymentPlanner;
 
     public SoftwareRequestService() {
         softwareRequestDAO = new SoftwareRequestDAO();
+        if (Boolean.getBoolean("lims.deploy.stub")) {
+            // Offline and load testing only: the stub reports every install done without touching a computer
+            System.out.println("⚠️ Deploying approved requests with the stub install executor (lims.deploy.stub)");
+            deploymentPlanner = new DeploymentPlanner(new StubInstallExecutor());
+        }
+    }
 
-        // Test database connection
-        if (!softwareRequestDAO.testConnection()) {
-            System.err.println("⚠️ Warning: Database connection failed. Some features may not work properly.");
+    /**
+     * Deploy approved requests from now on. Until this is called approvals only change the
+     * request status.
+     * @param executor Install agent that performs the installs
+     */
+    public synchronized void enableDeployment(InstallExecutor executor) {
+        if (deploymentPlanner == null) {
+            deploymentPlanner = new DeploymentPlanner(executor);
+        } else {
+            deploymentPlanner.setExecutor(executor);
         }
     }
 
@@ -26,6 +44,13 @@ public class SoftwareRequestService {
         return softwareRequestDAO.findAll();
     }
 
+    /**
+     * @param includeArchived Also return rows the RetentionService has moved to the archive
+     */
+    public List<SoftwareRequest> getAllRequests(boolean includeArchived) {
+        return softwareRequestDAO.findAll(includeArchived);
+    }
+
     public List<SoftwareRequest> getRequestsByStatus(String status) {
         return softwareRequestDAO.findByStatus(status);
     }
@@ -62,12 +87,15 @@ public class SoftwareRequestService {
         }
     }
 
-    public void approveRequest(String computerId, Date requestDate, String approvedBy) {
-        boolean success = softwareRequestDAO.approveRequest(computerId, approvedBy);
-
-        if (success) {
-            TableRefreshManager.getInstance().refreshTable("software_requests");
-        }
+    /**
+     * Approve one pending request. It goes through the same seat checks as a batch and
+     * only that request is approved and deployed.
+     * @param requestId ID of the request
+     * @param approvedBy Approver
+     * @return Whether it was approved, or why it was skipped
+     */
+    public BatchApprovalResult approveRequest(int requestId, String approvedBy) {
+        return approveRequests(Collections.singletonList(requestId), approvedBy);
     }
 
     public void rejectRequest(String computerId, Date requestDate) {
@@ -78,6 +106,53 @@ public class SoftwareRequestService {
         }
     }
 
+    /**
+     * Approve many requests at once, honouring license seat limits
+     * @param requestIds IDs of the selected requests
+     * @param approvedBy Approver
+     * @return Approved requests and the reasons others were skipped
+     */
+    public BatchApprovalResult approveRequests(List<Integer> requestIds, String approvedBy) {
+        BatchApprovalResult result = softwareRequestDAO.approveBatch(requestIds, approvedBy);
+
+        DeploymentPlanner planner = deploymentPlanner;
+        if (result.isCommitted() && planner != null) {
+            result.getUpdatedIds().forEach(planner::deploy);
+        }
+        if (result.getUpdatedCount() > 0) {
+            TableRefreshManager.getInstance().scheduleRefresh("software_requests");
+        }
+        return result;
+    }
+
+    /**
+     * Reject many requests at once
+     * @param requestIds IDs of the selected requests
+     * @return Rejected requests and the ones that were no longer pending
+     */
+    public BatchApprovalResult rejectRequests(List<Integer> requestIds) {
+        BatchApprovalResult result = softwareRequestDAO.rejectBatch(requestIds);
+
+        if (result.getUpdatedCount() > 0) {
+            TableRefreshManager.getInstance().scheduleRefresh("software_requests");
+        }
+        return result;
+    }
+
+    /**
+     * The deployment planner, or null while deployment is not enabled
+     */
+    public DeploymentPlanner getDeploymentPlanner() {
+        return deploymentPlanner;
+    }
+
+    /**
+     * License seat utilization from the seat cache, most utilized first
+     */
+    public List<SeatUtilization> getSeatUtilization() {
+        return LicenseSeatService.getInstance().getUtilization();
+    }
+
     public void updateRequestStatus(String computerId, Date requestDate, String status) {
         boolean success = softwareRequestDAO.updateStatus(computerId, status, null);
 
@@ -0,0 +1,60 @@
+package service;
+
+import model.InstallTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for a remote install agent.
+ * Sleeps for a random latency and fails a configurable fraction of attempts, so the
+ * deployment scheduler can be exercised offline. Peak concurrency is tracked to check
+ * the per-subnet bound under load.
+ */
+public class StubInstallExecutor implements InstallExecutor {
+    private final long minLatencyMillis;
+    private final long maxLatencyMillis;
+    private final double failureRate;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakRunning = new AtomicInteger();
+    private final LongAdder installs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Executor that completes every install immediately
+     */
+    public StubInstallExecutor() {
+        this(0, 0, 0.0);
+    }
+
+    public StubInstallExecutor(long minLatencyMillis, long maxLatencyMillis, double failureRate) {
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = Math.max(minLatencyMillis, maxLatencyMillis);
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void install(InstallTask task) throws Exception {
+        int now = running.incrementAndGet();
+        peakRunning.accumulateAndGet(now, Math::max);
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (maxLatencyMillis > 0) {
+                Thread.sleep(minLatencyMillis + random.nextLong(maxLatencyMillis - minLatencyMillis + 1));
+            }
+            if (random.nextDouble() < failureRate) {
+                failures.increment();
+                throw new IllegalStateException("Simulated install failure on " + task.getComputerId());
+            }
+            installs.increment();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    public int getPeakConcurrency() { return peakRunning.get(); }
+
+    public long getInstallCount() { return installs.sum(); }
+
+    public long getFailureCount() { return failures.sum(); }
+}
@@ -1,6 +1,7 @@
 package service;
 
 import dao.UserDAO;
+import model.Permission;
 import model.User;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -80,6 +81,7 @@ public class UserService {
             boolean success = userDAO.insert(user);
             
             if (success) {
+                AuthenticationService.getInstance().forgetUser(userId);
                 System.out.println("✅ User created successfully: " + userId + " (" + name + ")");
             } else {
                 System.out.println("❌ User creation failed: Database error for user: " + userId);
@@ -105,7 +107,17 @@ public class UserService {
             return false;
         }
         
-        return userDAO.update(user);
+        boolean success = userDAO.update(user);
+        if (success) {
+            // The user may have been reactivated, or their role or access level changed
+            AuthenticationService.getInstance().forgetUser(user.getUserId());
+            if (!user.isActive()) {
+                // A password verified before the change must not outlive the account
+                AuthenticationService.getInstance().forgetPassword(user.getUserId());
+            }
+            SessionManager.getInstance().refresh(user.getUserId());
+        }
+        return success;
     }
 
     /**
@@ -116,9 +128,8 @@ public class UserService {
      * @return true if update successful, false otherwise
      */
     public boolean updatePassword(String userId, String currentPassword, String newPassword) {
-        // Verify current password first
-        User user = userDAO.authenticateUser(userId, currentPassword);
-        if (user == null) {
+        // Verify current password first; one verified moments ago is not hashed again
+        if (!AuthenticationService.getInstance().verifyPassword(userId, currentPassword)) {
             System.out.println("❌ Password update failed: Current password is incorrect");
             return false;
         }
@@ -128,7 +139,27 @@ public class UserService {
             return false;
         }
         
-        return userDAO.updatePassword(userId, newPassword);
+        return storePassword(userId, newPassword);
+    }
+
+    /**
+     * Update the password of a user who holds a valid session, without asking for the current one again
+     * @param userId User ID
+     * @param sessionToken Token from AuthenticationService.openSession for this user
+     * @param newPassword New password
+     * @return true if update successful, false otherwise
+     */
+    public boolean updatePasswordInSession(String userId, String sessionToken, String newPassword) {
+        if (!AuthenticationService.getInstance().isSessionValid(userId, sessionToken)) {
+            System.out.println("❌ Password update failed: Session expired, log in again");
+            return false;
+        }
+        
+        if (!validatePassword(newPassword)) {
+            return false;
+        }
+        
+        return storePassword(userId, newPassword);
     }
 
     /**
@@ -142,7 +173,20 @@ public class UserService {
             return false;
         }
         
-        return userDAO.updatePassword(userId, newPassword);
+        boolean success = storePassword(userId, newPassword);
+        if (success) {
+            // Whoever was logged in with the old password has to log in again
+            AuthenticationService.getInstance().closeSessions(userId);
+        }
+        return success;
+    }
+
+    private boolean storePassword(String userId, String newPassword) {
+        boolean success = userDAO.updatePassword(userId, newPassword);
+        if (success) {
+            AuthenticationService.getInstance().forgetPassword(userId);
+        }
+        return success;
     }
 
     /**
@@ -168,7 +212,13 @@ public class UserService {
      * @return true if deactivation successful, false otherwise
      */
     public boolean deactivateUser(String userId) {
-        return userDAO.delete(userId);
+        boolean success = userDAO.delete(userId);
+        if (success) {
+            SessionManager.getInstance().close(userId);
+            AuthenticationService.getInstance().closeSessions(userId);
+            AuthenticationService.getInstance().forgetPassword(userId);
+        }
+        return success;
     }
 
     /**
@@ -260,17 +310,12 @@ public class UserService {
     }
 
     /**
-     * Check if role is valid
+     * Check if role is valid: one that Permission grants anything to
      * @param role Role to check
      * @return true if valid, false otherwise
      */
     private boolean isValidRole(String role) {
-        return role != null && (
-            role.equals("Admin") || 
-            role.equals("Teacher") || 
-            role.equals("Student") || 
-            role.equals("Lab Technician")
-        );
+        return Permission.forUser(role, null) != 0;
     }
 
     /**
@@ -1,12 +1,18 @@
 package ui;
 
+import database.PartitionMaintainer;
+import utils.Span;
+import utils.Tracer;
 import javax.swing.table.AbstractTableModel;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Database-connected table model that automatically refreshes data
+ * While suspended (its panel is cached but off screen) refresh requests are only
+ * remembered, and a single reload happens when it is resumed.
  */
 public class DatabaseTableModel extends AbstractTableModel {
     private static final String URL = "jdbc:postgresql://localhost:5434/lims_db";
@@ -17,6 +23,10 @@ public class DatabaseTableModel extends AbstractTableModel {
     private List<Object[]> data;
     private String tableName;
     private String selectQuery;
+    private volatile boolean suspended;
+    private volatile boolean refreshPending;
+
+    private static final LongAdder deferredRefreshes = new LongAdder();
     
     public DatabaseTableModel(String tableName, String[] columnNames, String selectQuery) {
         this.tableName = tableName;
@@ -70,6 +80,9 @@ public class DatabaseTableModel extends AbstractTableModel {
      * Refresh data from database
      */
     public void refreshData() {
+        if (deferIfSuspended()) {
+            return;
+        }
         System.out.println("🔄 DatabaseTableModel.refreshData() called for table: " + tableName);
         System.out.println("📊 Query: " + selectQuery);
 
@@ -77,7 +90,7 @@ public class DatabaseTableModel extends AbstractTableModel {
         if (javax.swing.SwingUtilities.isEventDispatchThread()) {
             refreshDataInternal();
         } else {
-            javax.swing.SwingUtilities.invokeLater(this::refreshDataInternal);
+            javax.swing.SwingUtilities.invokeLater(Tracer.wrap("Refresh " + tableName, this::refreshDataInternal));
         }
     }
 
@@ -91,7 +104,8 @@ public class DatabaseTableModel extends AbstractTableModel {
         int oldSize = data.size();
         data.clear();
 
-        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Span span = Tracer.startChildSpan("Load " + tableName, "table").tag("sql", selectQuery);
+             Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
              Statement statement = connection.createStatement();
              ResultSet resultSet = statement.executeQuery(selectQuery)) {
 
@@ -109,6 +123,7 @@ public class DatabaseTableModel extends AbstractTableModel {
                 rowCount++;
             }
 
+            span.tag("rows", rowCount);
             System.out.println("📈 Loaded " + rowCount + " rows for " + tableName + " (was " + oldSize + ")");
 
             // Ensure we're on EDT for UI updates
@@ -151,19 +166,25 @@ public class DatabaseTableModel extends AbstractTableModel {
      * Force refresh data and ensure UI update
      */
     public void forceRefresh() {
+        if (deferIfSuspended()) {
+            return;
+        }
         System.out.println("🔄 Force refresh requested for " + tableName);
-        javax.swing.SwingUtilities.invokeLater(() -> {
+        javax.swing.SwingUtilities.invokeLater(Tracer.wrap("Force refresh " + tableName, () -> {
             refreshDataInternal();
             // Additional UI update to ensure visibility
             fireTableStructureChanged();
             System.out.println("🔔 fireTableStructureChanged() called for " + tableName);
-        });
+        }));
     }
 
     /**
      * Ensure data is loaded and UI is updated
      */
     public void ensureDataLoaded() {
+        if (deferIfSuspended()) {
+            return;
+        }
         System.out.println("🔍 Ensuring data is loaded for " + tableName);
 
         if (data.isEmpty()) {
@@ -179,6 +200,57 @@ public class DatabaseTableModel extends AbstractTableModel {
         });
     }
 
+    /**
+     * Stop reloading from the database until {@link #resume} is called
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Start reloading again; if refreshes were requested while suspended, reload once now
+     */
+    public void resume() {
+        suspended = false;
+        if (refreshPending) {
+            refreshPending = false;
+            refreshData();
+        }
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    private boolean deferIfSuspended() {
+        if (suspended) {
+            refreshPending = true;
+            deferredRefreshes.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Refresh requests received by suspended models, across all models
+     */
+    public static long getDeferredRefreshCount() {
+        return deferredRefreshes.sum();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Copy of the current row references, for indexing off the EDT.
+     * Rows are replaced rather than mutated on refresh, so the copy stays consistent.
+     * Must be called on the EDT.
+     */
+    public List<Object[]> getRowsSnapshot() {
+        return new ArrayList<>(data);
+    }
+
     /**
      * Get data status for debugging
      */
@@ -220,7 +292,8 @@ public class DatabaseTableModel extends AbstractTableModel {
         String query = "SELECT id, computer_id, department, issue_type, " +
                       "CASE WHEN LENGTH(description) > 50 THEN SUBSTRING(description, 1, 50) || '...' ELSE description END, " +
                       "status, urgency, COALESCE(assigned_to, 'Unassigned') as assigned_to, " +
-                      "created_at::date FROM complaints ORDER BY created_at DESC";
+                      "created_at::date FROM complaints WHERE " + PartitionMaintainer.visibleWindow("created_at") +
+                      " ORDER BY created_at DESC";
         return new DatabaseTableModel("complaints", columns, query);
     }
     
@@ -231,7 +304,8 @@ public class DatabaseTableModel extends AbstractTableModel {
         String[] columns = {"ID", "Requester", "Lab", "Date", "Time Slot", "Purpose", "Status"};
         String query = "SELECT id, requester_name, lab_name, reservation_date, time_slot, " +
                       "COALESCE(purpose, '') as purpose, status " +
-                      "FROM lab_reservations ORDER BY reservation_date DESC, created_at DESC";
+                      "FROM lab_reservations WHERE " + PartitionMaintainer.visibleWindow("reservation_date") +
+                      " ORDER BY reservation_date DESC, created_at DESC";
         return new DatabaseTableModel("lab_reservations", columns, query);
     }
     
@@ -241,7 +315,8 @@ public class DatabaseTableModel extends AbstractTableModel {
     public static DatabaseTableModel getSoftwareRequestTableModel() {
         String[] columns = {"ID", "Computer ID", "Software", "Version", "Status", "Urgency", "Requested By", "Created Date"};
         String query = "SELECT id, computer_id, software_name, version, status, urgency, requested_by, created_at::date " +
-                      "FROM software_requests ORDER BY created_at DESC";
+                      "FROM software_requests WHERE " + PartitionMaintainer.visibleWindow("created_at") +
+                      " ORDER BY created_at DESC";
         return new DatabaseTableModel("software_requests", columns, query);
     }
 
@@ -252,7 +327,8 @@ public class DatabaseTableModel extends AbstractTableModel {
         String[] columns = {"ID", "Name", "Category", "Feedback", "Status", "Created Date"};
         String query = "SELECT id, name, category, " +
                       "CASE WHEN LENGTH(feedback) > 50 THEN SUBSTRING(feedback, 1, 50) || '...' ELSE feedback END, " +
-                      "status, created_at::date FROM feedback ORDER BY created_at DESC";
+                      "status, created_at::date FROM feedback WHERE " + PartitionMaintainer.visibleWindow("created_at") +
+                      " ORDER BY created_at DESC";
         return new DatabaseTableModel("feedback", columns, query);
     }
     
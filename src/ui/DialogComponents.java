@@ -3,6 +3,8 @@ package ui;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import utils.DAOLogger;
+import utils.Span;
+import utils.Tracer;
 import java.awt.*;
 import java.awt.event.*;
 import java.text.SimpleDateFormat;
@@ -10,8 +12,10 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import service.LIMSService;
+import database.SlowQueryDetector;
 import model.*;
 import controller.*;
+import utils.IdGenerator;
 import utils.InputValidator;
 import utils.DataRefreshUtil;
 import utils.DatabaseDropdownPopulator;
@@ -37,7 +41,7 @@ public class DialogComponents {
             }
 
             DAOLogger.debug("DialogComponents", "initialize", "Creating ComplaintController");
-            complaintController = new ComplaintController(limsService.getComplaintService());
+            complaintController = new ComplaintController(limsService.getComplaintService(), limsService.getComplaintTriageService());
 
             DAOLogger.debug("DialogComponents", "initialize", "Creating SoftwareRequestController");
             softwareRequestController = new SoftwareRequestController(limsService.getSoftwareRequestService());
@@ -128,6 +132,13 @@ public class DialogComponents {
         return field;
     }
 
+    private static JTextField createSearchField() {
+        JTextField field = createStyledTextField();
+        field.setColumns(20);
+        field.setToolTipText("Filter rows as you type");
+        return field;
+    }
+
     private static JTextArea createStyledTextArea() {
         JTextArea area = new JTextArea();
         area.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -220,39 +231,43 @@ public class DialogComponents {
                     computerId, department, issueType, description.length()));
 
             try {
-                DAOLogger.debug("DialogComponents", "showComplaintDialog", "Starting input validation");
-
-                // Enhanced validation
-                InputValidator.validateComputerId(computerId);
-                InputValidator.validateDepartment(department);
-                InputValidator.validateIssueType(issueType);
-                InputValidator.validateStringLength(description, "Description", 10, 500);
-
-                DAOLogger.success("DialogComponents", "showComplaintDialog", "UI validation passed, calling controller");
+                // Traced up to the success message, so the time spent reading it is not counted
+                try (Span span = Tracer.startSpan("Submit Complaint", "ui")) {
+                    span.tag("computerId", computerId);
+                    DAOLogger.debug("DialogComponents", "showComplaintDialog", "Starting input validation");
+
+                    // Enhanced validation
+                    InputValidator.validateComputerId(computerId);
+                    InputValidator.validateDepartment(department);
+                    InputValidator.validateIssueType(issueType);
+                    InputValidator.validateStringLength(description, "Description", 10, 500);
+
+                    DAOLogger.success("DialogComponents", "showComplaintDialog", "UI validation passed, calling controller");
+
+                    // Check if controller is initialized
+                    if (complaintController == null) {
+                        DAOLogger.error("DialogComponents", "showComplaintDialog", "🚨 CRITICAL ERROR: complaintController is null! DialogComponents.initialize() may not have been called.");
+                        throw new IllegalStateException("ComplaintController is not initialized. Please ensure DialogComponents.initialize() is called first.");
+                    }
 
-                // Check if controller is initialized
-                if (complaintController == null) {
-                    DAOLogger.error("DialogComponents", "showComplaintDialog", "🚨 CRITICAL ERROR: complaintController is null! DialogComponents.initialize() may not have been called.");
-                    throw new IllegalStateException("ComplaintController is not initialized. Please ensure DialogComponents.initialize() is called first.");
-                }
+                    complaintController.addComplaint(computerId, department, issueType, description);
 
-                complaintController.addComplaint(computerId, department, issueType, description);
+                    DAOLogger.success("DialogComponents", "showComplaintDialog", "Controller call completed successfully");
 
-                DAOLogger.success("DialogComponents", "showComplaintDialog", "Controller call completed successfully");
+                    // Immediate table refresh - force refresh all complaint tables
+                    SwingUtilities.invokeLater(Tracer.wrap("Refresh complaint tables", () -> {
+                        DAOLogger.info("DialogComponents", "showComplaintDialog", "🔄 Forcing immediate table refresh");
 
-                // Immediate table refresh - force refresh all complaint tables
-                SwingUtilities.invokeLater(() -> {
-                    DAOLogger.info("DialogComponents", "showComplaintDialog", "🔄 Forcing immediate table refresh");
+                        // Refresh all complaint-related tables
+                        TableRefreshManager.getInstance().refreshTable("complaints");
+                        TableRefreshManager.getInstance().refreshRelatedTables("complaint");
 
-                    // Refresh all complaint-related tables
-                    TableRefreshManager.getInstance().refreshTable("complaints");
-                    TableRefreshManager.getInstance().refreshRelatedTables("complaint");
+                        // Also refresh any complaint tracking panels that might be open
+                        DatabaseTableModel.getComplaintTableModel().refreshData();
 
-                    // Also refresh any complaint tracking panels that might be open
-                    DatabaseTableModel.getComplaintTableModel().refreshData();
-
-                    DAOLogger.success("DialogComponents", "showComplaintDialog", "✅ Table refresh completed");
-                });
+                        DAOLogger.success("DialogComponents", "showComplaintDialog", "✅ Table refresh completed");
+                    }));
+                }
 
                 // Show success message
                 JOptionPane.showMessageDialog(dialog,
@@ -326,7 +341,9 @@ public class DialogComponents {
         submitButton.setMaximumSize(new Dimension(180, 35));
         submitButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         submitButton.addActionListener(e -> {
-            try {
+            // The success message is shown later on the EDT, so the whole handler is traced
+            try (Span span = Tracer.startSpan("Submit Complaint", "ui")) {
+                span.tag("computerId", computerIdField.getText());
                 InputValidator.validateComputerId(computerIdField.getText());
                 InputValidator.validateSelection(departmentCombo.getSelectedItem(), "Department");
                 InputValidator.validateSelection(issueTypeCombo.getSelectedItem(), "Issue Type");
@@ -645,18 +662,16 @@ public class DialogComponents {
             });
         });
 
-        // Check if current user is admin to show approval buttons
-        boolean isAdmin = currentUsername != null && (currentUsername.equals("admin") || currentUsername.startsWith("admin"));
-
-        if (isAdmin) {
+        // Approval buttons only for users who may approve requests
+        if (LIMSService.getInstance().hasPermission(Permission.APPROVE_SOFTWARE_REQUESTS)) {
             JButton approveButton = createStyledButton("Approve");
             approveButton.setBackground(new Color(76, 175, 80));
             approveButton.addActionListener(e -> {
                 int selectedRow = softwareTable.getSelectedRow();
                 if (selectedRow >= 0) {
-                    String requestId = (String) softwareTable.getValueAt(selectedRow, 0);
-                    String computerId = (String) softwareTable.getValueAt(selectedRow, 0);
-                    String softwareName = (String) softwareTable.getValueAt(selectedRow, 1);
+                    String requestId = softwareTable.getValueAt(selectedRow, 0).toString();
+                    String computerId = String.valueOf(softwareTable.getValueAt(selectedRow, 1));
+                    String softwareName = String.valueOf(softwareTable.getValueAt(selectedRow, 2));
                     showApproveRequestDialog(SwingUtilities.getWindowAncestor(mainPanel), requestId, computerId, softwareName);
                 } else {
                     JOptionPane.showMessageDialog(mainPanel, "Please select a request to approve.");
@@ -668,9 +683,9 @@ public class DialogComponents {
             rejectButton.addActionListener(e -> {
                 int selectedRow = softwareTable.getSelectedRow();
                 if (selectedRow >= 0) {
-                    String requestId = (String) softwareTable.getValueAt(selectedRow, 0);
-                    String computerId = (String) softwareTable.getValueAt(selectedRow, 0);
-                    String softwareName = (String) softwareTable.getValueAt(selectedRow, 1);
+                    String requestId = softwareTable.getValueAt(selectedRow, 0).toString();
+                    String computerId = String.valueOf(softwareTable.getValueAt(selectedRow, 1));
+                    String softwareName = String.valueOf(softwareTable.getValueAt(selectedRow, 2));
                     showRejectRequestDialog(SwingUtilities.getWindowAncestor(mainPanel), requestId, computerId, softwareName);
                 } else {
                     JOptionPane.showMessageDialog(mainPanel, "Please select a request to reject.");
@@ -1428,7 +1443,7 @@ public class DialogComponents {
 
     private static void showNewReservationDialog(Frame parent) {
         JDialog dialog = new JDialog(parent, "New Lab Reservation", true);
-        dialog.setSize(450, 400);
+        dialog.setSize(450, 440);
         dialog.setLayout(new BorderLayout());
         
         JPanel formPanel = new JPanel();
@@ -1440,6 +1455,7 @@ public class DialogComponents {
         JComboBox<String> startTimeCombo = DatabaseDropdownPopulator.createTimeSlotCombo();
         JComboBox<String> durationCombo = new JComboBox<>(new String[]{"1", "2", "3", "4"});
         JTextField purposeField = new JTextField();
+        JSpinner weeksSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 16, 1));
         
         formPanel.add(createFieldPanel("Lab:", labCombo));
         formPanel.add(Box.createVerticalStrut(10));
@@ -1450,6 +1466,8 @@ public class DialogComponents {
         formPanel.add(createFieldPanel("Duration (hours):", durationCombo));
         formPanel.add(Box.createVerticalStrut(10));
         formPanel.add(createFieldPanel("Purpose:", purposeField));
+        formPanel.add(Box.createVerticalStrut(10));
+        formPanel.add(createFieldPanel("Repeat Weekly (weeks):", weeksSpinner));
         formPanel.add(Box.createVerticalStrut(15));
         
         JButton submitButton = new JButton("Submit Reservation");
@@ -1471,6 +1489,13 @@ public class DialogComponents {
                     "", // Course
                     ""  // Instructor
                 );
+                int weeks = (Integer) weeksSpinner.getValue();
+                if (weeks > 1) {
+                    if (submitRecurringReservation(dialog, formPanel, reservation, weeks)) {
+                        dialog.dispose();
+                    }
+                    return;
+                }
                 limsService.getLabReservationService().addReservation(reservation);
 
                 // Handle successful submission with automatic refresh
@@ -1587,9 +1612,30 @@ public class DialogComponents {
         dialog.setVisible(true);
     }
 
+    /**
+     * Book the same lab and time slot on the given number of consecutive weeks in one batch.
+     * Weeks whose slot is already taken are skipped and reported.
+     * @return true if at least one week was booked
+     */
+    private static boolean submitRecurringReservation(JDialog dialog, JPanel formPanel, LabReservation first, int weeks) {
+        List<LabReservation> booked = limsService.getLabReservationService().addRecurringReservation(first, weeks);
+        if (booked.isEmpty()) {
+            JOptionPane.showMessageDialog(dialog, "None of the " + weeks + " weeks could be booked; the slot is taken or the database is unavailable",
+                "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        String skipped = booked.size() < weeks ? " (" + (weeks - booked.size()) + " weeks skipped, slot already taken)" : "";
+        DataRefreshUtil.showSuccessWithRefresh(
+            formPanel,
+            "Reserved " + booked.size() + " of " + weeks + " weeks" + skipped + "!",
+            "reservation"
+        );
+        return true;
+    }
+
     private static void showAddComputerDialog(Frame parent) {
         JDialog dialog = new JDialog(parent, "Add New Computer", true);
-        dialog.setSize(400, 350);
+        dialog.setSize(400, 390);
         dialog.setLayout(new BorderLayout());
         
         JPanel formPanel = new JPanel();
@@ -1601,6 +1647,7 @@ public class DialogComponents {
         JTextField ipAddressField = new JTextField();
         JTextField specificationsField = new JTextField();
         JComboBox<String> statusCombo = new JComboBox<>(new String[]{"Available", "In Use", "Maintenance"});
+        JSpinner copiesSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 50, 1));
         
         formPanel.add(createFieldPanel("Lab:", labCombo));
         formPanel.add(Box.createVerticalStrut(10));
@@ -1611,6 +1658,8 @@ public class DialogComponents {
         formPanel.add(createFieldPanel("Specifications:", specificationsField));
         formPanel.add(Box.createVerticalStrut(10));
         formPanel.add(createFieldPanel("Initial Status:", statusCombo));
+        formPanel.add(Box.createVerticalStrut(10));
+        formPanel.add(createFieldPanel("Copies:", copiesSpinner));
         formPanel.add(Box.createVerticalStrut(15));
         
         JButton submitButton = new JButton("Add Computer");
@@ -1623,8 +1672,46 @@ public class DialogComponents {
                 InputValidator.validateText(specificationsField.getText(), "Specifications", 5, 200);
                 InputValidator.validateSelection(statusCombo.getSelectedItem(), "Status");
 
+                int copies = (Integer) copiesSpinner.getValue();
+                if (copies > 1) {
+                    // A whole row of identical machines: numbered names and consecutive addresses, one batch insert
+                    String[] octets = ipAddressField.getText().trim().split("\\.");
+                    int lastOctet = Integer.parseInt(octets[3]);
+                    if (lastOctet + copies - 1 > 254) {
+                        throw new IllegalArgumentException("Not enough addresses after " + ipAddressField.getText().trim() +
+                            " for " + copies + " computers");
+                    }
+                    String network = octets[0] + "." + octets[1] + "." + octets[2] + ".";
+                    List<Computer> computers = new java.util.ArrayList<>();
+                    for (int copy = 0; copy < copies; copy++) {
+                        computers.add(new Computer(
+                            IdGenerator.generateComputerId(),
+                            labCombo.getSelectedItem().toString(),
+                            String.format("%s-%02d", computerNameField.getText().trim(), copy + 1),
+                            network + (lastOctet + copy),
+                            specificationsField.getText(),
+                            statusCombo.getSelectedItem().toString(),
+                            new Date().toString(),
+                            ""
+                        ));
+                    }
+                    int imported = limsService.getComputerService().importComputers(computers);
+                    if (imported <= 0) {
+                        JOptionPane.showMessageDialog(dialog, "Could not add the computers, see the log for details",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    DataRefreshUtil.showSuccessWithRefresh(
+                        formPanel,
+                        imported + " computers added to inventory successfully!",
+                        "computer"
+                    );
+                    dialog.dispose();
+                    return;
+                }
+
                 Computer computer = new Computer(
-                    "PC-" + System.currentTimeMillis(), // Generate unique ID
+                    IdGenerator.generateComputerId(),
                     labCombo.getSelectedItem().toString(),
                     computerNameField.getText(),
                     ipAddressField.getText(),
@@ -2421,11 +2508,15 @@ public class DialogComponents {
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         titleLabel.setForeground(new Color(41, 128, 185));
         titlePanel.add(titleLabel);
+        JTextField searchField = createSearchField();
+        titlePanel.add(new JLabel("Search:"));
+        titlePanel.add(searchField);
         mainPanel.add(titlePanel, BorderLayout.NORTH);
 
         // Use database-connected table model
         DatabaseTableModel tableModel = DatabaseTableModel.getComplaintTableModel();
         JTable table = new JTable(tableModel);
+        TableSearchIndex.install(table, searchField);
 
         // Simple table configuration matching dashboard theme
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -2447,9 +2538,24 @@ public class DialogComponents {
         refreshButton.addActionListener(e -> {
             JPanelDataManager.getInstance().refreshPanel("complaint_tracking");
         });
+        JButton pullNextButton = createStyledButton("Pull Next");
+        pullNextButton.addActionListener(e -> pullNextComplaint(dialog));
+        JButton assignButton = createStyledButton("Assign");
+        assignButton.addActionListener(e -> showAssignComplaintDialog(dialog, table));
+        JButton releaseButton = createStyledButton("Release");
+        releaseButton.addActionListener(e -> finishHeldComplaint(dialog, table, false));
+        JButton resolveButton = createStyledButton("Resolve");
+        resolveButton.addActionListener(e -> finishHeldComplaint(dialog, table, true));
+        JButton dedupeButton = createStyledButton("Find Duplicates");
+        dedupeButton.addActionListener(e -> dedupeComplaintBacklog(dialog, dedupeButton));
         JButton closeButton = createStyledButton("Close");
         closeButton.addActionListener(e -> dialog.dispose());
         actionPanel.add(refreshButton);
+        actionPanel.add(pullNextButton);
+        actionPanel.add(assignButton);
+        actionPanel.add(releaseButton);
+        actionPanel.add(resolveButton);
+        actionPanel.add(dedupeButton);
         actionPanel.add(closeButton);
         mainPanel.add(actionPanel, BorderLayout.SOUTH);
 
@@ -2501,11 +2607,15 @@ public class DialogComponents {
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         titleLabel.setForeground(new Color(41, 128, 185));
         titlePanel.add(titleLabel);
+        JTextField searchField = createSearchField();
+        titlePanel.add(new JLabel("Search:"));
+        titlePanel.add(searchField);
         mainPanel.add(titlePanel, BorderLayout.NORTH);
 
         // Use database-connected table model
         DatabaseTableModel computerTableModel = DatabaseTableModel.getComputerTableModel();
         JTable inventoryTable = new JTable(computerTableModel);
+        TableSearchIndex.install(inventoryTable, searchField);
 
         // Simple table configuration matching dashboard theme
         inventoryTable.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -2612,10 +2722,13 @@ public class DialogComponents {
         });
         JButton addButton = createStyledButton("Add Software");
         addButton.addActionListener(e -> showAddSoftwareDialog(dialog));
+        JButton seatsButton = createStyledButton("License Seats");
+        seatsButton.addActionListener(e -> showSeatUtilizationDialog(dialog));
         JButton closeButton = createStyledButton("Close");
         closeButton.addActionListener(e -> dialog.dispose());
         actionPanel.add(refreshButton);
         actionPanel.add(addButton);
+        actionPanel.add(seatsButton);
         actionPanel.add(closeButton);
         mainPanel.add(actionPanel, BorderLayout.SOUTH);
 
@@ -2629,6 +2742,68 @@ public class DialogComponents {
         dialog.setVisible(true);
     }
 
+    /**
+     * Seat utilization per licensed title, read from the seat cache
+     */
+    public static void showSeatUtilizationDialog(Window parent) {
+        JDialog dialog = new JDialog(parent, "License Seat Utilization", Dialog.ModalityType.APPLICATION_MODAL);
+        dialog.setSize(700, 450);
+        dialog.setLayout(new BorderLayout());
+        styleDialog(dialog);
+
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        mainPanel.setBackground(Color.WHITE);
+
+        JLabel titleLabel = new JLabel("License Seat Utilization");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        titleLabel.setForeground(new Color(41, 128, 185));
+        mainPanel.add(titleLabel, BorderLayout.NORTH);
+
+        String[] columnNames = {"Software", "Version", "Seats In Use", "Seat Limit", "Free", "Utilization"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        table.setRowHeight(25);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        mainPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        Runnable load = () -> {
+            model.setRowCount(0);
+            for (SeatUtilization seats : softwareRequestController.getSeatUtilization()) {
+                model.addRow(new Object[] {
+                    seats.getSoftwareName(),
+                    seats.getVersion(),
+                    seats.getSeatsInUse(),
+                    seats.isLimited() ? seats.getSeatLimit() : "Unlimited",
+                    seats.isLimited() ? seats.getSeatsFree() : "-",
+                    seats.isLimited() ? String.format("%.0f%%", seats.getUtilization() * 100) : "-"
+                });
+            }
+        };
+        load.run();
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        actionPanel.setBackground(Color.WHITE);
+        JButton refreshButton = createStyledButton("Refresh");
+        refreshButton.addActionListener(e -> load.run());
+        JButton closeButton = createStyledButton("Close");
+        closeButton.addActionListener(e -> dialog.dispose());
+        actionPanel.add(refreshButton);
+        actionPanel.add(closeButton);
+        mainPanel.add(actionPanel, BorderLayout.SOUTH);
+
+        dialog.add(mainPanel);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setVisible(true);
+    }
+
     public static JPanel getReportStatusPanel() {
         return createDialogPanel("Open Report Status", () -> {
             Window parent = null;
@@ -3641,7 +3816,7 @@ public class DialogComponents {
 
     public static void showLabReservationDialog(Window parent) {
         JDialog dialog = new JDialog((Frame) parent, "New Lab Reservation", true);
-        dialog.setSize(500, 600);
+        dialog.setSize(500, 650);
         dialog.setLayout(new BorderLayout());
         styleDialog(dialog);
 
@@ -3663,6 +3838,7 @@ public class DialogComponents {
         dateField.setText("YYYY-MM-DD");
         JComboBox<String> timeSlotCombo = createStyledComboBox(new String[]{"08:00-10:00", "10:00-12:00", "12:00-14:00", "14:00-16:00", "16:00-18:00"});
         JComboBox<String> purposeCombo = createStyledComboBox(new String[]{"Class", "Research", "Workshop", "Training", "Meeting"});
+        JSpinner weeksSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 16, 1));
         JTextArea descriptionArea = createStyledTextArea();
         descriptionArea.setLineWrap(true);
         descriptionArea.setWrapStyleWord(true);
@@ -3679,6 +3855,8 @@ public class DialogComponents {
         formPanel.add(Box.createVerticalStrut(15));
         formPanel.add(createFieldPanel("Purpose:", purposeCombo));
         formPanel.add(Box.createVerticalStrut(15));
+        formPanel.add(createFieldPanel("Repeat Weekly (weeks):", weeksSpinner));
+        formPanel.add(Box.createVerticalStrut(15));
 
         JPanel descPanel = new JPanel(new BorderLayout(10, 5));
         descPanel.setBackground(Color.WHITE);
@@ -3713,6 +3891,14 @@ public class DialogComponents {
                     nameField.getText() // Use requester as instructor for now
                 );
 
+                int weeks = (Integer) weeksSpinner.getValue();
+                if (weeks > 1) {
+                    if (submitRecurringReservation(dialog, formPanel, newReservation, weeks)) {
+                        dialog.dispose();
+                    }
+                    return;
+                }
+
                 // Save to database through service
                 limsService.getLabReservationService().addReservation(newReservation);
 
@@ -3736,6 +3922,282 @@ public class DialogComponents {
         dialog.setVisible(true);
     }
 
+    public static JPanel getSearchPanel() {
+        return createDialogPanel("Open Record Search", () -> {
+            Window parent = null;
+            for (Window window : Window.getWindows()) {
+                if (window.isActive()) {
+                    parent = window;
+                    break;
+                }
+            }
+            showSearchDialog(parent);
+        });
+    }
+
+    /**
+     * Ranked full-text search over complaints, feedback and software requests, one page at a time
+     */
+    public static void showSearchDialog(Window parent) {
+        JDialog dialog = new JDialog(parent, "Search Records", Dialog.ModalityType.APPLICATION_MODAL);
+        dialog.setSize(1000, 600);
+        dialog.setLayout(new BorderLayout());
+        styleDialog(dialog);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        mainPanel.setBackground(Color.WHITE);
+
+        JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        queryPanel.setBackground(Color.WHITE);
+        JTextField queryField = createSearchField();
+        JComboBox<String> sourceCombo = createStyledComboBox(new String[]{"All", "Complaints", "Feedback", "Software Requests"});
+        JButton searchButton = createStyledButton("Search");
+        queryPanel.add(new JLabel("Search:"));
+        queryPanel.add(queryField);
+        queryPanel.add(sourceCombo);
+        queryPanel.add(searchButton);
+        mainPanel.add(queryPanel, BorderLayout.NORTH);
+
+        String[] columnNames = {"Type", "ID", "Title", "Status", "Created", "Rank", "Match"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(24);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(6).setPreferredWidth(400);
+        mainPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel pagePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        pagePanel.setBackground(Color.WHITE);
+        JLabel pageLabel = new JLabel(" ");
+        JButton previousButton = createStyledButton("Previous");
+        JButton nextButton = createStyledButton("Next");
+        JButton closeButton = createStyledButton("Close");
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        closeButton.addActionListener(e -> dialog.dispose());
+        pagePanel.add(pageLabel);
+        pagePanel.add(previousButton);
+        pagePanel.add(nextButton);
+        pagePanel.add(closeButton);
+        mainPanel.add(pagePanel, BorderLayout.SOUTH);
+
+        int[] currentPage = {0};
+        java.util.function.IntConsumer load = page -> {
+            String query = queryField.getText().trim();
+            if (query.isEmpty()) {
+                return;
+            }
+            String source = sourceCombo.getSelectedItem().toString();
+            searchButton.setEnabled(false);
+            new SwingWorker<List<SearchResult>, Void>() {
+                @Override
+                protected List<SearchResult> doInBackground() {
+                    SearchFilter filter = new SearchFilter();
+                    switch (source) {
+                        case "Complaints":
+                            return limsService.getSearchService().searchComplaints(query, filter, page);
+                        case "Feedback":
+                            return limsService.getSearchService().searchFeedback(query, filter, page);
+                        case "Software Requests":
+                            return limsService.getSearchService().searchSoftwareRequests(query, filter, page);
+                        default:
+                            return limsService.getSearchService().searchAll(query, filter, page);
+                    }
+                }
+
+                @Override
+                protected void done() {
+                    searchButton.setEnabled(true);
+                    try {
+                        List<SearchResult> results = get();
+                        currentPage[0] = page;
+                        model.setRowCount(0);
+                        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+                        for (SearchResult result : results) {
+                            model.addRow(new Object[] {
+                                result.getEntityType(),
+                                result.getId(),
+                                result.getTitle(),
+                                result.getStatus(),
+                                result.getCreatedAt() == null ? "" : dateFormat.format(result.getCreatedAt()),
+                                String.format("%.3f", result.getRank()),
+                                highlightHtml(result.getHighlight())
+                            });
+                        }
+                        pageLabel.setText(results.isEmpty() ? "No matches" : "Page " + (page + 1));
+                        previousButton.setEnabled(page > 0);
+                        nextButton.setEnabled(results.size() == SearchFilter.DEFAULT_PAGE_SIZE);
+                    } catch (Exception ex) {
+                        JOptionPane.showMessageDialog(dialog, "Error searching: " + ex.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        };
+        searchButton.addActionListener(e -> load.accept(0));
+        queryField.addActionListener(e -> load.accept(0));
+        previousButton.addActionListener(e -> load.accept(currentPage[0] - 1));
+        nextButton.addActionListener(e -> load.accept(currentPage[0] + 1));
+
+        dialog.add(mainPanel);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Render a ts_headline fragment as HTML: the stored text is escaped, only the &lt;b&gt;
+     * tags around matched terms are kept
+     */
+    private static String highlightHtml(String highlight) {
+        if (highlight == null) {
+            return "";
+        }
+        String escaped = highlight.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+            .replace("&lt;b&gt;", "<b>").replace("&lt;/b&gt;", "</b>");
+        return "<html>" + escaped.replace("\n", " ") + "</html>";
+    }
+
+    public static JPanel getSlowQueryReportPanel() {
+        return createDialogPanel("Open Slow Query Report", () -> {
+            Window parent = null;
+            for (Window window : Window.getWindows()) {
+                if (window.isActive()) {
+                    parent = window;
+                    break;
+                }
+            }
+            showSlowQueryReportDialog(parent);
+        });
+    }
+
+    /**
+     * Recent queries that crossed their slow-query threshold, with the captured plan of the selected one
+     */
+    public static void showSlowQueryReportDialog(Window parent) {
+        JDialog dialog = new JDialog(parent, "Slow Query Report", Dialog.ModalityType.APPLICATION_MODAL);
+        dialog.setSize(1000, 650);
+        dialog.setLayout(new BorderLayout());
+        styleDialog(dialog);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        mainPanel.setBackground(Color.WHITE);
+
+        SlowQueryDetector detector = SlowQueryDetector.getInstance();
+        JLabel titleLabel = new JLabel();
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        titleLabel.setForeground(new Color(41, 128, 185));
+        mainPanel.add(titleLabel, BorderLayout.NORTH);
+
+        String[] columnNames = {"Time", "Operation", "Duration (ms)", "Threshold (ms)", "Rows", "SQL"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(24);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setFillsViewportHeight(true);
+
+        JTextArea detailArea = new JTextArea();
+        detailArea.setEditable(false);
+        detailArea.setLineWrap(true);
+        detailArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        List<SlowQuery> shown = new java.util.ArrayList<>();
+        Runnable load = () -> {
+            shown.clear();
+            shown.addAll(detector.getRecent());
+            titleLabel.setText("Slow Queries (" + detector.getSlowQueryCount() + " since start, threshold " +
+                detector.getDefaultThresholdMillis() + " ms)");
+            model.setRowCount(0);
+            SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            for (SlowQuery slowQuery : shown) {
+                model.addRow(new Object[] {
+                    timeFormat.format(slowQuery.getExecutedAt()),
+                    slowQuery.getOperation(),
+                    slowQuery.getElapsedMillis(),
+                    slowQuery.getThresholdMillis(),
+                    slowQuery.getRowCount() < 0 ? "?" : slowQuery.getRowCount(),
+                    slowQuery.getSql()
+                });
+            }
+            detailArea.setText("");
+        };
+
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            if (e.getValueIsAdjusting() || row < 0 || row >= shown.size()) {
+                return;
+            }
+            SlowQuery slowQuery = shown.get(row);
+            detailArea.setText("SQL:\n" + slowQuery.getSql() +
+                "\n\nParameters: " + slowQuery.getParameters() +
+                "\nThread: " + slowQuery.getThreadName() +
+                "\n\nPlan:\n" + (slowQuery.getPlan() != null ? slowQuery.getPlan() : "(EXPLAIN pending - refresh to see it)"));
+            detailArea.setCaretPosition(0);
+        });
+        load.run();
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(table), new JScrollPane(detailArea));
+        splitPane.setResizeWeight(0.55);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        actionPanel.setBackground(Color.WHITE);
+        JButton refreshButton = createStyledButton("Refresh");
+        refreshButton.addActionListener(e -> load.run());
+        JButton clearButton = createStyledButton("Clear");
+        clearButton.addActionListener(e -> {
+            detector.clear();
+            load.run();
+        });
+        JButton traceButton = createStyledButton("Export Traces");
+        traceButton.addActionListener(e -> exportTraces(dialog));
+        JButton closeButton = createStyledButton("Close");
+        closeButton.addActionListener(e -> dialog.dispose());
+        actionPanel.add(refreshButton);
+        actionPanel.add(clearButton);
+        actionPanel.add(traceButton);
+        actionPanel.add(closeButton);
+        mainPanel.add(actionPanel, BorderLayout.SOUTH);
+
+        dialog.add(mainPanel);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Write the buffered request traces to logs/ for chrome://tracing or ui.perfetto.dev
+     */
+    private static void exportTraces(Window parent) {
+        java.io.File file = new java.io.File("logs/trace-" +
+            new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        try {
+            int spans = Tracer.exportChromeTrace(file);
+            List<Span> slowest = Tracer.getTraces(null);
+            String summary = slowest.isEmpty() ? "" : "\nSlowest: " + slowest.get(0).getName() + " (" +
+                slowest.get(0).getDurationNanos() / 1_000_000 + " ms)";
+            JOptionPane.showMessageDialog(parent, spans + " spans written to " + file.getAbsolutePath() + summary +
+                "\n\nOpen the file in chrome://tracing or https://ui.perfetto.dev", "Traces Exported",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(parent, "Error exporting traces: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     public static JPanel getInventoryReportPanel() {
         // Create a simple panel with a button to open the dialog
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -3861,8 +4323,13 @@ public class DialogComponents {
                     return;
                 }
 
-                // Use current date for approval
-                softwareRequestController.approveRequest(computerId, new Date(), approvedBy);
+                int id = Integer.parseInt(requestId.trim());
+                BatchApprovalResult result = softwareRequestController.approveRequest(id, approvedBy);
+                if (result.getUpdatedCount() == 0) {
+                    JOptionPane.showMessageDialog(dialog, "Request not approved: " + result.getSkipped().getOrDefault(id, "Not pending"),
+                        "Not Approved", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
 
                 // Handle successful approval with automatic refresh
                 DataRefreshUtil.showSuccessWithRefresh(
@@ -4227,7 +4694,7 @@ public class DialogComponents {
             return;
         }
 
-        JDialog dialog = new JDialog((Frame) parent, "Assign Complaint", true);
+        JDialog dialog = new JDialog(parent, "Assign Complaint", Dialog.ModalityType.APPLICATION_MODAL);
         dialog.setSize(400, 300);
         dialog.setLayout(new BorderLayout());
         styleDialog(dialog);
@@ -4269,16 +4736,18 @@ public class DialogComponents {
         assignButton.setMaximumSize(new Dimension(200, 40));
         assignButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         assignButton.addActionListener(e -> {
-            // Update table with assignment
-            table.setValueAt(assigneeCombo.getSelectedItem(), selectedRow, 7); // Assigned To column
-
-            JOptionPane.showMessageDialog(dialog,
-                "Complaint assigned to " + assigneeCombo.getSelectedItem() + " successfully!");
+            try {
+                int id = Integer.parseInt(complaintId);
+                complaintController.assignComplaint(id, (String) assigneeCombo.getSelectedItem());
 
-            // Auto-refresh the complaints table
-            TableRefreshManager.getInstance().refreshRelatedTables("complaint");
+                JOptionPane.showMessageDialog(dialog,
+                    "Complaint assigned to " + assigneeCombo.getSelectedItem() + " successfully!");
 
-            dialog.dispose();
+                dialog.dispose();
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(dialog, "Error assigning complaint: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
         });
 
         formPanel.add(assignButton);
@@ -4287,6 +4756,80 @@ public class DialogComponents {
         dialog.setVisible(true);
     }
 
+    /**
+     * Claim the next complaint from the triage queue for the current user
+     */
+    private static void pullNextComplaint(Window parent) {
+        try {
+            Complaint complaint = complaintController.pullNextComplaint(currentUsername);
+            if (complaint == null) {
+                JOptionPane.showMessageDialog(parent, "No unassigned complaints are waiting.",
+                    "Triage Queue Empty", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+
+            JOptionPane.showMessageDialog(parent,
+                "Assigned complaint #" + complaint.getComplaintId() + " (" + complaint.getUrgency() + ")\n" +
+                "Computer: " + complaint.getComputerId() + "\n" +
+                "Issue: " + complaint.getIssueType(),
+                "Next Complaint", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(parent, "Error pulling next complaint: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Put the selected complaint back on the triage queue, or resolve it, on behalf of the
+     * technician it is assigned to
+     */
+    private static void finishHeldComplaint(Window parent, JTable table, boolean resolve) {
+        int selectedRow = table.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(parent, "Please select a complaint to " + (resolve ? "resolve." : "release."),
+                "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int complaintId = Integer.parseInt(table.getValueAt(selectedRow, 0).toString());
+        String technician = table.getValueAt(selectedRow, 7).toString();
+        try {
+            if (resolve) {
+                complaintController.resolveComplaint(complaintId, technician);
+            } else {
+                complaintController.releaseComplaint(complaintId, technician);
+            }
+            JOptionPane.showMessageDialog(parent, "Complaint #" + complaintId + (resolve ? " resolved." : " returned to the queue."));
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(parent, "Error updating complaint: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static void dedupeComplaintBacklog(Window parent, JButton trigger) {
+        trigger.setEnabled(false);
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return complaintController.dedupeBacklog();
+            }
+
+            @Override
+            protected void done() {
+                trigger.setEnabled(true);
+                try {
+                    int linked = get();
+                    JOptionPane.showMessageDialog(parent,
+                        linked == 0 ? "No duplicate complaints found." : linked + " duplicate complaints linked to their originals.",
+                        "Duplicate Complaints", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(parent, "Error finding duplicates: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     public static void showViewComplaintDetailsDialog(Window parent, JTable table) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
@@ -4361,13 +4904,27 @@ public class DialogComponents {
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         titleLabel.setForeground(new Color(41, 128, 185));
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        mainPanel.add(titleLabel, BorderLayout.NORTH);
+
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        searchPanel.setBackground(Color.WHITE);
+        JTextField searchField = createSearchField();
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(Color.WHITE);
+        headerPanel.add(titleLabel, BorderLayout.NORTH);
+        headerPanel.add(searchPanel, BorderLayout.SOUTH);
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Create user table
         String[] columnNames = {"User ID", "Name", "Role", "Department", "Access Level", "Status"};
         Object[][] data = getUserTableData();
 
         JTable userTable = new JTable(data, columnNames);
+        // Auto-created sorters follow refreshUserTable's model swaps, keeping the search filter attached
+        userTable.setAutoCreateRowSorter(true);
+        TableSearchIndex.install(userTable, searchField);
         userTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         userTable.setRowHeight(25);
         userTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
@@ -4682,6 +5239,7 @@ public class DialogComponents {
         table.setRowHeight(25);
         table.setAutoCreateRowSorter(true);
         table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         // Register table for data management
         TableRefreshManager.getInstance().registerTable("software_requests", table, tableModel);
@@ -4697,9 +5255,15 @@ public class DialogComponents {
         refreshButton.addActionListener(e -> {
             JPanelDataManager.getInstance().refreshPanel("installation_requests");
         });
+        JButton approveButton = createStyledButton("Approve Selected");
+        approveButton.addActionListener(e -> batchUpdateSoftwareRequests(dialog, table, true));
+        JButton rejectButton = createStyledButton("Reject Selected");
+        rejectButton.addActionListener(e -> batchUpdateSoftwareRequests(dialog, table, false));
         JButton closeButton = createStyledButton("Close");
         closeButton.addActionListener(e -> dialog.dispose());
         actionPanel.add(refreshButton);
+        actionPanel.add(approveButton);
+        actionPanel.add(rejectButton);
         actionPanel.add(closeButton);
         mainPanel.add(actionPanel, BorderLayout.SOUTH);
 
@@ -4712,4 +5276,59 @@ public class DialogComponents {
         dialog.setLocationRelativeTo(parent);
         dialog.setVisible(true);
     }
+
+    /**
+     * Approve or reject every selected software request in one batch
+     */
+    private static void batchUpdateSoftwareRequests(Window parent, JTable table, boolean approve) {
+        int[] selectedRows = table.getSelectedRows();
+        if (selectedRows.length == 0) {
+            JOptionPane.showMessageDialog(parent, "Please select one or more requests.",
+                "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        java.util.List<Integer> requestIds = new java.util.ArrayList<>();
+        for (int row : selectedRows) {
+            requestIds.add(Integer.parseInt(table.getValueAt(row, 0).toString()));
+        }
+
+        String action = approve ? "Approve" : "Reject";
+        int confirm = JOptionPane.showConfirmDialog(parent,
+            action + " " + requestIds.size() + " selected request(s)?",
+            action + " Requests", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        new SwingWorker<BatchApprovalResult, Void>() {
+            @Override
+            protected BatchApprovalResult doInBackground() {
+                return approve
+                    ? softwareRequestController.approveRequests(requestIds, currentUsername)
+                    : softwareRequestController.rejectRequests(requestIds);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    BatchApprovalResult result = get();
+                    StringBuilder message = new StringBuilder(action + "d " + result.getUpdatedCount() + " request(s).");
+                    if (!result.getSkipped().isEmpty()) {
+                        message.append("\n\nSkipped:");
+                        result.getSkipped().entrySet().stream().limit(20).forEach(skipped ->
+                            message.append("\n  #").append(skipped.getKey()).append(": ").append(skipped.getValue()));
+                        if (result.getSkipped().size() > 20) {
+                            message.append("\n  ... and ").append(result.getSkipped().size() - 20).append(" more");
+                        }
+                    }
+                    JOptionPane.showMessageDialog(parent, message.toString(), action + " Requests",
+                        result.isCommitted() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(parent, "Error processing requests: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,305 @@
+package ui;
+
+import utils.DAOLogger;
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects UI freezes by sending a heartbeat through the Event Dispatch Thread.
+ *
+ * A watchdog thread posts a heartbeat with invokeLater every 100 ms. When one has not
+ * run after the stall threshold (200 ms, or -Dlims.edt.stallMillis), the EDT is stuck in
+ * a dispatch: its stack is sampled until the heartbeat gets through, and the stall is
+ * charged to the application frame seen most often in those samples, e.g. the DAO call
+ * made from a button handler. Stalls are aggregated by that call site and the report is
+ * written to logs/edt-stalls.txt, worst call site first.
+ */
+public class EdtWatchdog {
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 100;
+    private static final long SAMPLE_INTERVAL_MILLIS = 50;
+    private static final long REPORT_INTERVAL_MILLIS = 30_000;
+    private static final File REPORT_FILE = new File("logs/edt-stalls.txt");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] PLATFORM_PACKAGES = {
+        "java.", "javax.", "sun.", "jdk.", "com.sun.", "org.postgresql.", "ui.EdtWatchdog"
+    };
+
+    private static EdtWatchdog instance;
+
+    private final Map<String, StallSite> sites = new ConcurrentHashMap<>();
+    private final AtomicLong completedBeat = new AtomicLong();
+    private final LongAdder stalls = new LongAdder();
+    private volatile long thresholdMillis = Long.getLong("lims.edt.stallMillis", 200);
+    private volatile Thread edt;
+    private volatile Thread watchdog;
+    private volatile long worstStallMillis;
+    private volatile boolean reportDirty;
+
+    private EdtWatchdog() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeReport, "edt-watchdog-report"));
+    }
+
+    public static synchronized EdtWatchdog getInstance() {
+        if (instance == null) {
+            instance = new EdtWatchdog();
+        }
+        return instance;
+    }
+
+    /**
+     * Start watching the EDT; does nothing if already running
+     */
+    public synchronized void start() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = new Thread(this::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        DAOLogger.info("EdtWatchdog", "start", "Watching the EDT for stalls over " + thresholdMillis + " ms");
+    }
+
+    public synchronized void stop() {
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog = null;
+        }
+    }
+
+    private void watch() {
+        long beat = 0;
+        long lastReport = System.currentTimeMillis();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long sequence = ++beat;
+                long posted = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    edt = Thread.currentThread();
+                    completedBeat.set(sequence);
+                });
+
+                // One bad sample or report must not end stall detection for the rest of the process
+                try {
+                    if (!awaitBeat(sequence, posted, thresholdMillis)) {
+                        Thread stuck = edt;
+                        if (stuck != null) {
+                            watchStall(sequence, posted, stuck);
+                        } else {
+                            // The EDT has not run a single heartbeat yet, so there is no stack to take
+                            awaitBeat(sequence, posted, Long.MAX_VALUE);
+                        }
+                    }
+
+                    if (System.currentTimeMillis() - lastReport >= REPORT_INTERVAL_MILLIS) {
+                        writeReport();
+                        lastReport = System.currentTimeMillis();
+                    }
+                } catch (RuntimeException e) {
+                    DAOLogger.error("EdtWatchdog", "watch", "Stall check failed, still watching", e);
+                }
+                Thread.sleep(HEARTBEAT_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait until heartbeat number {@code sequence} has run or {@code limitMillis} have passed since it was posted
+     * @return true if it ran in time
+     */
+    private boolean awaitBeat(long sequence, long posted, long limitMillis) throws InterruptedException {
+        while (completedBeat.get() < sequence) {
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted) >= limitMillis) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Sample the stuck EDT until the heartbeat gets through, then record the stall.
+     * At least one sample is taken, since the heartbeat may run just after it was reported late.
+     */
+    private void watchStall(long sequence, long posted, Thread stuck) throws InterruptedException {
+        Map<String, Integer> samplesBySite = new HashMap<>();
+        Map<String, StackTraceElement[]> stackBySite = new HashMap<>();
+        do {
+            StackTraceElement[] stack = stuck.getStackTrace();
+            String site = callSite(stack);
+            samplesBySite.merge(site, 1, Integer::sum);
+            stackBySite.putIfAbsent(site, stack);
+            awaitBeat(sequence, System.nanoTime(), SAMPLE_INTERVAL_MILLIS);
+        } while (completedBeat.get() < sequence);
+        long stallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted);
+
+        String site = null;
+        int mostSamples = 0;
+        for (Map.Entry<String, Integer> entry : samplesBySite.entrySet()) {
+            if (entry.getValue() > mostSamples) {
+                site = entry.getKey();
+                mostSamples = entry.getValue();
+            }
+        }
+        record(site, stallMillis, stackBySite.get(site));
+    }
+
+    private void record(String site, long stallMillis, StackTraceElement[] stack) {
+        stalls.increment();
+        worstStallMillis = Math.max(worstStallMillis, stallMillis);
+        sites.computeIfAbsent(site, StallSite::new).add(stallMillis, stack);
+        reportDirty = true;
+        DAOLogger.warn("EdtWatchdog", "watch", "EDT stalled for " + stallMillis + " ms in " + site);
+    }
+
+    /**
+     * The innermost frame that belongs to the application rather than the JDK, Swing or the driver
+     */
+    static String callSite(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (!isPlatformFrame(frame.getClassName())) {
+                return frame.getClassName() + "." + frame.getMethodName() +
+                    "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")";
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "(no stack)";
+    }
+
+    private static boolean isPlatformFrame(String className) {
+        for (String prefix : PLATFORM_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Call sites that stalled the EDT, most total stall time first
+     */
+    public List<StallSite> getStallSites() {
+        List<StallSite> snapshot = new ArrayList<>(sites.values());
+        snapshot.sort(Comparator.comparingLong(StallSite::getTotalMillis).reversed());
+        return snapshot;
+    }
+
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    public long getWorstStallMillis() {
+        return worstStallMillis;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdMillis = Math.max(HEARTBEAT_INTERVAL_MILLIS, thresholdMillis);
+    }
+
+    public void clear() {
+        sites.clear();
+        stalls.reset();
+        worstStallMillis = 0;
+        reportDirty = true;
+    }
+
+    /**
+     * Render the stalls by call site as plain text, each with the EDT stack of its worst stall
+     */
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        String newline = System.lineSeparator();
+        report.append("LIMS EDT stalls - ").append(LocalDateTime.now().format(TIMESTAMP_FORMAT)).append(newline)
+            .append(getStallCount()).append(" stall(s) over ").append(thresholdMillis).append(" ms, worst ")
+            .append(worstStallMillis).append(" ms").append(newline).append(newline);
+        report.append(String.format("%7s %10s %8s  %s%n", "Stalls", "Total ms", "Max ms", "Call site"));
+        List<StallSite> sorted = getStallSites();
+        for (StallSite site : sorted) {
+            report.append(String.format("%7d %10d %8d  %s%n",
+                site.getCount(), site.getTotalMillis(), site.getMaxMillis(), site.getCallSite()));
+        }
+        for (StallSite site : sorted) {
+            report.append(newline).append(site.getCallSite()).append(" - worst ").append(site.getMaxMillis())
+                .append(" ms").append(newline);
+            for (StackTraceElement frame : site.getWorstStack()) {
+                report.append("    at ").append(frame).append(newline);
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Write the report to logs/edt-stalls.txt if anything changed since the last write
+     */
+    public void writeReport() {
+        if (!reportDirty) {
+            return;
+        }
+        reportDirty = false;
+        try {
+            File directory = REPORT_FILE.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            File temp = new File(REPORT_FILE.getPath() + ".tmp");
+            Files.write(temp.toPath(), formatReport().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), REPORT_FILE.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            DAOLogger.error("EdtWatchdog", "writeReport", "Error writing " + REPORT_FILE, e);
+        }
+    }
+
+    /**
+     * Stalls charged to one call site
+     */
+    public static final class StallSite {
+        private final String callSite;
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+        private StackTraceElement[] worstStack = new StackTraceElement[0];
+
+        StallSite(String callSite) {
+            this.callSite = callSite;
+        }
+
+        synchronized void add(long stallMillis, StackTraceElement[] stack) {
+            count++;
+            totalMillis += stallMillis;
+            if (stallMillis >= maxMillis) {
+                maxMillis = stallMillis;
+                worstStack = stack;
+            }
+        }
+
+        public String getCallSite() { return callSite; }
+
+        public synchronized long getCount() { return count; }
+
+        public synchronized long getTotalMillis() { return totalMillis; }
+
+        public synchronized long getMaxMillis() { return maxMillis; }
+
+        public synchronized StackTraceElement[] getWorstStack() { return worstStack.clone(); }
+    }
+}
@@ -47,6 +47,20 @@ public class JPanelDataManager {
         System.out.println("✅ Panel registered: " + panelKey + " with " + model.getRowCount() + " rows");
     }
     
+    /**
+     * Forget every panel whose table uses a model (cleanup when the panel is discarded)
+     */
+    public void unregisterModel(DatabaseTableModel model) {
+        panelModels.entrySet().removeIf(entry -> {
+            if (entry.getValue() != model) {
+                return false;
+            }
+            registeredPanels.remove(entry.getKey());
+            panelTables.remove(entry.getKey());
+            return true;
+        });
+    }
+
     /**
      * Ensure data is properly loaded for a panel
      */
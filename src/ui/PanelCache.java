@@ -0,0 +1,236 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the dashboard panels that have been built, keyed by navigation item, so a revisit
+ * shows the existing panel instead of rebuilding it and re-running its queries.
+ *
+ * The cache holds at most a fixed number of panels and drops the least recently shown one
+ * beyond that. A panel that leaves view has its table models suspended: refreshes aimed at
+ * it are only remembered, and it reloads once when it is shown again. When it comes back,
+ * its tables are re-registered with the TableRefreshManager under the keys they had, since
+ * another panel or dialog may have taken those keys over in the meantime. All methods must
+ * be called on the EDT.
+ */
+public class PanelCache {
+    private static final List<PanelCache> caches = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxPanels;
+    private final LinkedHashMap<String, JPanel> panels = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<DatabaseTableModel, List<String>> refreshKeys = new IdentityHashMap<>();
+    private JPanel showing;
+    // Written on the EDT only; volatile so the performance console can read them
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long evictions;
+
+    /**
+     * @param name Name shown in the performance console, e.g. "Admin dashboard panels"
+     * @param maxPanels Most panels kept at once
+     */
+    public PanelCache(String name, int maxPanels) {
+        this.name = name;
+        this.maxPanels = Math.max(1, maxPanels);
+        // A new dashboard (e.g. after logging in again) replaces the previous one's cache
+        for (PanelCache cache : caches) {
+            if (cache.name.equals(name)) {
+                cache.close();
+            }
+        }
+        caches.add(this);
+    }
+
+    /**
+     * Every panel cache created so far
+     */
+    public static List<PanelCache> getCaches() {
+        return Collections.unmodifiableList(caches);
+    }
+
+    /**
+     * The cached panel for a navigation item, or null if it has to be built
+     */
+    public JPanel get(String panelId) {
+        JPanel panel = panels.get(panelId);
+        if (panel != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return panel;
+    }
+
+    /**
+     * Cache a newly built panel, dropping the least recently used one if the cache is full
+     */
+    public void put(String panelId, JPanel panel) {
+        JPanel previous = panels.put(panelId, panel);
+        if (previous != null && previous != panel) {
+            discard(previous);
+        }
+        rememberRefreshKeys(panel);
+
+        Iterator<Map.Entry<String, JPanel>> eldest = panels.entrySet().iterator();
+        while (panels.size() > maxPanels && eldest.hasNext()) {
+            JPanel evicted = eldest.next().getValue();
+            if (evicted == showing || evicted == panel) {
+                continue;
+            }
+            eldest.remove();
+            discard(evicted);
+            evictions++;
+        }
+    }
+
+    /**
+     * Show a panel in a container in place of what it showed before.
+     * The panel leaving view is suspended and the one coming into view resumed.
+     */
+    public void show(Container container, JPanel panel) {
+        if (showing != null && showing != panel) {
+            suspend(showing);
+        }
+        container.removeAll();
+        container.add(panel, BorderLayout.CENTER);
+        showing = panel;
+        resume(panel);
+        container.revalidate();
+        container.repaint();
+    }
+
+    /**
+     * Suspend the panel on screen, e.g. while the next one is loading
+     */
+    public void hideCurrent() {
+        if (showing != null) {
+            suspend(showing);
+            showing = null;
+        }
+    }
+
+    /**
+     * Drop one panel, e.g. after its data changed in a way a refresh does not cover
+     */
+    public void invalidate(String panelId) {
+        JPanel panel = panels.remove(panelId);
+        if (panel != null && panel != showing) {
+            discard(panel);
+        }
+    }
+
+    public void clear() {
+        for (JPanel panel : new ArrayList<>(panels.values())) {
+            if (panel != showing) {
+                discard(panel);
+            }
+        }
+        panels.clear();
+    }
+
+    /**
+     * Drop every panel, including the one on screen, and stop reporting this cache
+     */
+    public void close() {
+        for (JPanel panel : new ArrayList<>(panels.values())) {
+            discard(panel);
+        }
+        if (showing != null && !panels.containsValue(showing)) {
+            discard(showing);
+        }
+        panels.clear();
+        showing = null;
+        caches.remove(this);
+    }
+
+    private void suspend(JPanel panel) {
+        for (JTable table : tablesIn(panel)) {
+            ((DatabaseTableModel) table.getModel()).suspend();
+        }
+    }
+
+    private void resume(JPanel panel) {
+        TableRefreshManager refreshManager = TableRefreshManager.getInstance();
+        for (JTable table : tablesIn(panel)) {
+            DatabaseTableModel model = (DatabaseTableModel) table.getModel();
+            boolean takenOver = false;
+            for (String key : refreshKeys.getOrDefault(model, Collections.emptyList())) {
+                if (refreshManager.getTableModel(key) != model) {
+                    refreshManager.registerTable(key, table, model);
+                    takenOver = true;
+                }
+            }
+            model.resume();
+            if (takenOver) {
+                // Refreshes for these keys went to another model while this one was away
+                model.refreshData();
+            }
+        }
+    }
+
+    private void rememberRefreshKeys(JPanel panel) {
+        for (JTable table : tablesIn(panel)) {
+            DatabaseTableModel model = (DatabaseTableModel) table.getModel();
+            refreshKeys.put(model, TableRefreshManager.getInstance().getKeysFor(model));
+        }
+    }
+
+    private void discard(JPanel panel) {
+        for (JTable table : tablesIn(panel)) {
+            DatabaseTableModel model = (DatabaseTableModel) table.getModel();
+            model.suspend();
+            TableRefreshManager.getInstance().unregisterModel(model);
+            JPanelDataManager.getInstance().unregisterModel(model);
+            refreshKeys.remove(model);
+        }
+    }
+
+    /**
+     * Tables backed by a DatabaseTableModel anywhere inside a panel
+     */
+    private static List<JTable> tablesIn(Container container) {
+        List<JTable> tables = new ArrayList<>();
+        for (Component component : container.getComponents()) {
+            if (component instanceof JTable && ((JTable) component).getModel() instanceof DatabaseTableModel) {
+                tables.add((JTable) component);
+            } else if (component instanceof Container) {
+                tables.addAll(tablesIn((Container) component));
+            }
+        }
+        return tables;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return panels.size();
+    }
+
+    public int getMaxPanels() {
+        return maxPanels;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    public long getEvictionCount() {
+        return evictions;
+    }
+}
@@ -0,0 +1,451 @@
+package ui;
+
+import dao.HiLoIdAllocator;
+import database.ConnectionPool;
+import database.Migrations;
+import database.PartitionMaintainer;
+import database.SchemaMigrator;
+import database.SlowQueryDetector;
+import model.TriageQueueMetrics;
+import service.LIMSService;
+import service.LicenseSeatService;
+import service.LoginRateLimiter;
+import service.RetentionService;
+import utils.DAOLogger;
+import utils.MetricsRegistry;
+import utils.OperationMetrics;
+import utils.Tracer;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admin console showing runtime health: connection pool utilization, cache hit ratios,
+ * query latency percentiles, refresh coalescing, EDT responsiveness and heap/GC.
+ *
+ * A daemon thread samples everything once a second into a snapshot and hands it to the
+ * EDT, which only copies the numbers into labels and tables. While one snapshot is still
+ * waiting for the EDT the next is skipped, so the panel repaints at most once a second and
+ * never piles work onto a busy EDT; how long the snapshot waited is the EDT lag shown.
+ * Stalls and their worst call site come from the {@link EdtWatchdog}. Sampling runs only
+ * while the panel is on screen.
+ */
+public class PerformanceConsolePanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+    private static final int TOP_OPERATIONS = 15;
+    private static final long TRIAGE_SAMPLE_INTERVAL_MILLIS = 15000;
+    private static final Color TITLE_COLOR = new Color(41, 128, 185);
+    private static final Color WARNING_COLOR = new Color(192, 57, 43);
+
+    private final JLabel heapLabel = valueLabel();
+    private final JLabel gcLabel = valueLabel();
+    private final JLabel threadsLabel = valueLabel();
+    private final JLabel edtLabel = valueLabel();
+    private final JLabel refreshLabel = valueLabel();
+    private final JLabel daoConnectionsLabel = valueLabel();
+    private final JLabel loginsLabel = valueLabel();
+    private final JLabel diagnosticsLabel = valueLabel();
+    private final JLabel schemaLabel = valueLabel();
+    private final JLabel partitionsLabel = valueLabel();
+    private final JLabel retentionLabel = valueLabel();
+    private final JLabel triageLabel = valueLabel();
+    private final JLabel sampledAtLabel = new JLabel(" ");
+
+    private final DefaultTableModel poolModel = readOnlyModel(
+        "Pool", "In Use", "Idle", "Max", "Utilization", "Waiting", "Borrows", "Timeouts", "Opened");
+    private final DefaultTableModel cacheModel = readOnlyModel("Cache", "Hits", "Misses", "Hit Ratio");
+    private final DefaultTableModel latencyModel = readOnlyModel(
+        "Operation", "Calls", "Errors", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)");
+
+    private final AtomicBoolean paintPending = new AtomicBoolean();
+    private ScheduledExecutorService sampler;
+
+    // EDT lag bookkeeping, shared with the EDT
+    private long pendingSinceNanos;
+    private volatile long maxEdtLagMillis;
+
+    // Sampler thread state
+    private long previousGcCount = -1;
+    private long previousGcMillis;
+    private long previousSampleNanos;
+    private TriageQueueMetrics triageMetrics;
+    private long triageSampledNanos;
+
+    public PerformanceConsolePanel() {
+        super(new BorderLayout(0, 10));
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        JLabel titleLabel = new JLabel("Performance Console");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setForeground(TITLE_COLOR);
+        header.add(titleLabel, BorderLayout.WEST);
+        sampledAtLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        sampledAtLabel.setForeground(Color.GRAY);
+        header.add(sampledAtLabel, BorderLayout.EAST);
+        add(header, BorderLayout.NORTH);
+
+        JPanel summary = new JPanel(new GridLayout(0, 2, 20, 6));
+        summary.setOpaque(false);
+        summary.setBorder(BorderFactory.createTitledBorder("Runtime"));
+        addRow(summary, "Heap:", heapLabel);
+        addRow(summary, "Garbage collection:", gcLabel);
+        addRow(summary, "Threads:", threadsLabel);
+        addRow(summary, "EDT responsiveness:", edtLabel);
+        addRow(summary, "Table refreshes:", refreshLabel);
+        addRow(summary, "DAO connections:", daoConnectionsLabel);
+        addRow(summary, "Logins:", loginsLabel);
+        addRow(summary, "Diagnostics:", diagnosticsLabel);
+        addRow(summary, "Schema:", schemaLabel);
+        addRow(summary, "Partitions:", partitionsLabel);
+        addRow(summary, "Retention:", retentionLabel);
+        addRow(summary, "Triage queue:", triageLabel);
+
+        JPanel tables = new JPanel(new GridBagLayout());
+        tables.setOpaque(false);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.gridx = 0;
+        gbc.fill = GridBagConstraints.BOTH;
+        gbc.weightx = 1;
+        gbc.insets = new Insets(0, 0, 10, 0);
+        gbc.weighty = 0;
+        tables.add(summary, gbc);
+        gbc.weighty = 0.25;
+        tables.add(titledTable("Connection Pools", poolModel), gbc);
+        tables.add(titledTable("Caches", cacheModel), gbc);
+        gbc.weighty = 0.5;
+        tables.add(titledTable("Query Latency (slowest p99 first)", latencyModel), gbc);
+        add(tables, BorderLayout.CENTER);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "performance-console-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Take one sample on the sampler thread and queue it for painting
+     */
+    private void sample() {
+        try {
+            long now = System.nanoTime();
+            if (paintPending.get()) {
+                // The EDT has not got to the previous snapshot yet
+                long lagMillis = TimeUnit.NANOSECONDS.toMillis(now - pendingSinceNanos);
+                maxEdtLagMillis = Math.max(maxEdtLagMillis, lagMillis);
+                return;
+            }
+
+            Snapshot snapshot = collect(now);
+            pendingSinceNanos = System.nanoTime();
+            paintPending.set(true);
+            SwingUtilities.invokeLater(() -> {
+                long lagMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingSinceNanos);
+                paintPending.set(false);
+                paint(snapshot, lagMillis);
+            });
+        } catch (RuntimeException e) {
+            DAOLogger.warn("PerformanceConsolePanel", "sample", "Sampling failed: " + e.getMessage());
+        }
+    }
+
+    private Snapshot collect(long now) {
+        Snapshot snapshot = new Snapshot();
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        snapshot.heapUsed = heap.getUsed();
+        snapshot.heapCommitted = heap.getCommitted();
+        snapshot.heapMax = heap.getMax();
+
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        snapshot.gcCount = gcCount;
+        snapshot.gcMillis = gcMillis;
+        if (previousGcCount >= 0 && now > previousSampleNanos) {
+            long intervalMillis = TimeUnit.NANOSECONDS.toMillis(now - previousSampleNanos);
+            snapshot.gcPercent = intervalMillis == 0 ? 0 : 100.0 * (gcMillis - previousGcMillis) / intervalMillis;
+        }
+        previousGcCount = gcCount;
+        previousGcMillis = gcMillis;
+        previousSampleNanos = now;
+        snapshot.threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        for (ConnectionPool pool : ConnectionPool.getPools()) {
+            snapshot.pools.add(new Object[] {
+                pool.getName(), pool.getInUseCount(), pool.getIdleCount(), pool.getMaxSize(),
+                percent(pool.getInUseCount(), pool.getMaxSize()), pool.getWaitingCount(),
+                pool.getBorrowCount(), pool.getTimeoutCount(), pool.getOpenedCount()
+            });
+        }
+
+        LicenseSeatService seats = LicenseSeatService.getInstance();
+        snapshot.caches.add(cacheRow("License seat pools", seats.getCacheHitCount(), seats.getCacheMissCount()));
+        SlowQueryDetector detector = SlowQueryDetector.getInstance();
+        snapshot.caches.add(cacheRow("EXPLAIN plans", detector.getPlanCacheHitCount(), detector.getPlanCacheMissCount()));
+        for (PanelCache panels : PanelCache.getCaches()) {
+            snapshot.caches.add(cacheRow(panels.getName() + " (" + panels.getSize() + "/" + panels.getMaxPanels() + ")",
+                panels.getHitCount(), panels.getMissCount()));
+        }
+        for (HiLoIdAllocator ids : HiLoIdAllocator.getAllocators()) {
+            // A hit is an ID taken from memory, a miss a block reserved from the sequence
+            long reserved = ids.getBlocksReservedCount();
+            snapshot.caches.add(cacheRow("IDs " + ids.getName() + " (" + ids.getRemaining() + " left)",
+                Math.max(0, ids.getHandedOutCount() - reserved), reserved));
+        }
+
+        List<OperationMetrics> operations = MetricsRegistry.getInstance().getOperations();
+        long connectionsOpened = 0;
+        long connectionP99Micros = 0;
+        for (OperationMetrics operation : operations) {
+            if ("getConnection".equals(operation.getMethodName())) {
+                connectionsOpened += operation.getCount();
+                connectionP99Micros = Math.max(connectionP99Micros, operation.getP99Micros());
+            }
+        }
+        snapshot.daoConnectionsOpened = connectionsOpened;
+        snapshot.daoConnectionP99Micros = connectionP99Micros;
+
+        operations.sort(Comparator.comparingLong(OperationMetrics::getP99Micros).reversed());
+        for (OperationMetrics operation : operations) {
+            if (operation.getCount() == 0) {
+                continue;
+            }
+            snapshot.latencies.add(new Object[] {
+                operation.getOperation(), operation.getCount(), operation.getErrorCount(),
+                millis(operation.getP50Micros()), millis(operation.getP95Micros()),
+                millis(operation.getP99Micros()), millis(operation.getMaxMicros())
+            });
+            if (snapshot.latencies.size() == TOP_OPERATIONS) {
+                break;
+            }
+        }
+
+        TableRefreshManager refreshManager = TableRefreshManager.getInstance();
+        snapshot.refreshesRequested = refreshManager.getRefreshesRequested();
+        snapshot.refreshesExecuted = refreshManager.getRefreshesExecuted();
+        snapshot.refreshesDeferred = DatabaseTableModel.getDeferredRefreshCount();
+
+        LoginRateLimiter loginLimiter = LoginRateLimiter.getInstance();
+        snapshot.loginsAllowed = loginLimiter.getAllowedCount();
+        snapshot.loginsThrottledPerUser = loginLimiter.getThrottledPerUserCount();
+        snapshot.loginsThrottledGlobally = loginLimiter.getThrottledGloballyCount();
+        SchemaMigrator migrator = SchemaMigrator.getInstance();
+        snapshot.schemaVersion = migrator.getSchemaVersion();
+        snapshot.schemaProblem = migrator.getProblem();
+        PartitionMaintainer partitions = PartitionMaintainer.getInstance();
+        snapshot.partitionsCreated = partitions.getPartitionsCreatedCount();
+        snapshot.partitionsArchived = partitions.getPartitionsArchivedCount();
+        RetentionService retention = RetentionService.getInstance();
+        snapshot.retentionRowsMoved = retention.getRowsMovedCount();
+        snapshot.retentionBatches = retention.getBatchCount();
+        snapshot.retentionThrottledMillis = retention.getThrottledMillis();
+        // The queue metrics cost a query, so they are refreshed less often than the rest
+        if (triageMetrics == null || TimeUnit.NANOSECONDS.toMillis(now - triageSampledNanos) >= TRIAGE_SAMPLE_INTERVAL_MILLIS) {
+            triageMetrics = LIMSService.getInstance().getComplaintTriageService().getQueueMetrics();
+            triageSampledNanos = now;
+        }
+        snapshot.triage = triageMetrics;
+
+        EdtWatchdog watchdog = EdtWatchdog.getInstance();
+        snapshot.edtStalls = watchdog.getStallCount();
+        snapshot.edtStallThresholdMillis = watchdog.getThresholdMillis();
+        snapshot.worstEdtStallMillis = watchdog.getWorstStallMillis();
+        List<EdtWatchdog.StallSite> stallSites = watchdog.getStallSites();
+        snapshot.worstStallSite = stallSites.isEmpty() ? null : stallSites.get(0).getCallSite();
+
+        snapshot.slowQueries = detector.getSlowQueryCount();
+        snapshot.droppedLogEvents = DAOLogger.getDroppedCount();
+        snapshot.bufferedSpans = Tracer.getBufferedSpanCount();
+        return snapshot;
+    }
+
+    /**
+     * Copy a snapshot into the components; runs on the EDT
+     */
+    private void paint(Snapshot snapshot, long edtLagMillis) {
+        maxEdtLagMillis = Math.max(maxEdtLagMillis, edtLagMillis);
+
+        heapLabel.setText(String.format("%s used of %s committed (max %s)", megabytes(snapshot.heapUsed),
+            megabytes(snapshot.heapCommitted), snapshot.heapMax < 0 ? "unbounded" : megabytes(snapshot.heapMax)));
+        gcLabel.setText(String.format("%d collections, %d ms total, %.1f%% of the last second",
+            snapshot.gcCount, snapshot.gcMillis, snapshot.gcPercent));
+        threadsLabel.setText(String.valueOf(snapshot.threads));
+        edtLabel.setText(String.format("lag %d ms (worst %d ms), %d stall(s) over %d ms (worst %d ms)%s",
+            edtLagMillis, maxEdtLagMillis, snapshot.edtStalls, snapshot.edtStallThresholdMillis,
+            snapshot.worstEdtStallMillis, snapshot.worstStallSite == null ? "" : ", mostly in " + snapshot.worstStallSite));
+        edtLabel.setToolTipText(snapshot.worstStallSite);
+        edtLabel.setForeground(edtLagMillis >= snapshot.edtStallThresholdMillis ? WARNING_COLOR : Color.BLACK);
+
+        long coalesced = snapshot.refreshesRequested - snapshot.refreshesExecuted;
+        refreshLabel.setText(String.format("%d requested, %d executed, %d coalesced away (%s), %d deferred while hidden",
+            snapshot.refreshesRequested, snapshot.refreshesExecuted, coalesced,
+            percent(coalesced, snapshot.refreshesRequested), snapshot.refreshesDeferred));
+        daoConnectionsLabel.setText(String.format("%d opened, p99 %s ms",
+            snapshot.daoConnectionsOpened, millis(snapshot.daoConnectionP99Micros)));
+        long throttled = snapshot.loginsThrottledPerUser + snapshot.loginsThrottledGlobally;
+        loginsLabel.setText(String.format("%d let through, %d throttled (%d per user, %d over the global rate)",
+            snapshot.loginsAllowed, throttled, snapshot.loginsThrottledPerUser, snapshot.loginsThrottledGlobally));
+        loginsLabel.setForeground(snapshot.loginsThrottledGlobally > 0 ? WARNING_COLOR : Color.BLACK);
+        diagnosticsLabel.setText(String.format("%d slow queries, %d dropped log events, %d trace spans buffered",
+            snapshot.slowQueries, snapshot.droppedLogEvents, snapshot.bufferedSpans));
+        diagnosticsLabel.setForeground(snapshot.droppedLogEvents > 0 ? WARNING_COLOR : Color.BLACK);
+        int latestVersion = Migrations.latestVersion();
+        schemaLabel.setText(snapshot.schemaProblem != null ? snapshot.schemaProblem
+            : snapshot.schemaVersion < 0 ? "not checked yet"
+            : String.format("version %d of %d", snapshot.schemaVersion, latestVersion));
+        schemaLabel.setForeground(snapshot.schemaProblem != null ? WARNING_COLOR : Color.BLACK);
+        partitionsLabel.setText(String.format("%d created, %d archived",
+            snapshot.partitionsCreated, snapshot.partitionsArchived));
+        retentionLabel.setText(String.format("%d rows moved in %d batches, %d ms paused",
+            snapshot.retentionRowsMoved, snapshot.retentionBatches, snapshot.retentionThrottledMillis));
+        triageLabel.setText(snapshot.triage == null ? "not sampled yet"
+            : String.format("%d waiting %s, oldest %d s, average wait %d s", snapshot.triage.getTotalDepth(),
+                snapshot.triage.getDepthByUrgency(), snapshot.triage.getMaxWaitSeconds(), snapshot.triage.getAverageWaitSeconds()));
+
+        setRows(poolModel, snapshot.pools);
+        setRows(cacheModel, snapshot.caches);
+        setRows(latencyModel, snapshot.latencies);
+        sampledAtLabel.setText("Sampled " + new java.text.SimpleDateFormat("HH:mm:ss").format(new java.util.Date()));
+    }
+
+    /**
+     * Update a table in place so the selection and scroll position survive a repaint
+     */
+    private static void setRows(DefaultTableModel model, List<Object[]> rows) {
+        if (model.getRowCount() != rows.size()) {
+            model.setRowCount(rows.size());
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            Object[] values = rows.get(row);
+            for (int column = 0; column < values.length; column++) {
+                Object current = model.getValueAt(row, column);
+                if (current == null || !current.equals(values[column])) {
+                    model.setValueAt(values[column], row, column);
+                }
+            }
+        }
+    }
+
+    private static Object[] cacheRow(String name, long hits, long misses) {
+        return new Object[] {name, hits, misses, percent(hits, hits + misses)};
+    }
+
+    private static String percent(long part, long total) {
+        return total == 0 ? "-" : String.format("%.1f%%", 100.0 * part / total);
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    private static String megabytes(long bytes) {
+        return (bytes / (1024 * 1024)) + " MB";
+    }
+
+    private static JLabel valueLabel() {
+        JLabel label = new JLabel("-");
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        return label;
+    }
+
+    private static void addRow(JPanel panel, String name, JLabel value) {
+        JLabel label = new JLabel(name);
+        label.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        panel.add(label);
+        panel.add(value);
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columnNames) {
+        return new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private static JComponent titledTable(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(22);
+        table.setFillsViewportHeight(true);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        scrollPane.setPreferredSize(new Dimension(600, 120));
+        return scrollPane;
+    }
+
+    /**
+     * Numbers gathered by one sample
+     */
+    private static final class Snapshot {
+        long heapUsed;
+        long heapCommitted;
+        long heapMax;
+        long gcCount;
+        long gcMillis;
+        double gcPercent;
+        int threads;
+        long refreshesRequested;
+        long refreshesExecuted;
+        long refreshesDeferred;
+        long daoConnectionsOpened;
+        long daoConnectionP99Micros;
+        long loginsAllowed;
+        long loginsThrottledPerUser;
+        long loginsThrottledGlobally;
+        long edtStalls;
+        long edtStallThresholdMillis;
+        long worstEdtStallMillis;
+        String worstStallSite;
+        long slowQueries;
+        long droppedLogEvents;
+        int bufferedSpans;
+        int schemaVersion;
+        String schemaProblem;
+        long partitionsCreated;
+        long partitionsArchived;
+        long retentionRowsMoved;
+        long retentionBatches;
+        long retentionThrottledMillis;
+        TriageQueueMetrics triage;
+        final List<Object[]> pools = new ArrayList<>();
+        final List<Object[]> caches = new ArrayList<>();
+        final List<Object[]> latencies = new ArrayList<>();
+    }
+}
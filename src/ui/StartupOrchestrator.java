@@ -0,0 +1,203 @@
+package ui;
+
+import utils.DAOLogger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent steps of a dashboard start-up concurrently and records a timeline.
+ *
+ * A dashboard submits its loading steps (statistics, reference data, ...) while the
+ * loading screen is showing; they run side by side on a few daemon threads instead of one
+ * after another. The dashboard waits for them once with {@link #awaitAll}, builds its
+ * frame on the EDT with {@link #measure}, and calls {@link #finish}, which logs the
+ * timeline and writes it to logs/startup-timeline.txt.
+ */
+public class StartupOrchestrator {
+    private static final int THREADS = 4;
+    private static final File TIMELINE_FILE = new File("logs/startup-timeline.txt");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService executor;
+    private final List<Step> steps = new ArrayList<>();
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    /**
+     * @param name What is starting, e.g. "Admin dashboard"
+     */
+    public StartupOrchestrator(String name) {
+        this.name = name;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "startup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start a step in the background
+     * @param stepName Name shown on the timeline
+     * @param task Work to do; a failure is logged and completes the future exceptionally
+     */
+    public <T> CompletableFuture<T> submit(String stepName, Supplier<T> task) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> measure(stepName, task), executor);
+        synchronized (pending) {
+            pending.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Start a step that produces no result in the background
+     */
+    public CompletableFuture<Void> submit(String stepName, Runnable task) {
+        return submit(stepName, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a step on the calling thread (e.g. building the frame on the EDT) and put it on the timeline
+     */
+    public <T> T measure(String stepName, Supplier<T> task) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = task.get();
+            success = true;
+            return result;
+        } catch (RuntimeException e) {
+            DAOLogger.error("StartupOrchestrator", "measure", name + ": step '" + stepName + "' failed", e);
+            throw e;
+        } finally {
+            record(new Step(stepName, Thread.currentThread().getName(), start, System.nanoTime(), success));
+        }
+    }
+
+    /**
+     * Put a point in time on the timeline, e.g. "Dashboard visible"
+     */
+    public void mark(String event) {
+        long now = System.nanoTime();
+        record(new Step(event, Thread.currentThread().getName(), now, now, true));
+    }
+
+    /**
+     * Wait for every submitted step; failed steps are already logged and are not rethrown
+     */
+    public void awaitAll() {
+        List<CompletableFuture<?>> futures;
+        synchronized (pending) {
+            futures = new ArrayList<>(pending);
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (RuntimeException e) {
+            // Reported by measure()
+        }
+    }
+
+    /**
+     * Value of a submitted step, or a fallback if it failed
+     */
+    public static <T> T resultOf(CompletableFuture<T> future, T fallback) {
+        try {
+            T result = future.join();
+            return result != null ? result : fallback;
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Stop the worker threads, log the timeline and write it to logs/startup-timeline.txt
+     */
+    public void finish() {
+        executor.shutdown();
+        String timeline = formatTimeline();
+        DAOLogger.info("StartupOrchestrator", "finish", name + " started in " + elapsedMillis(System.nanoTime()) + " ms");
+        DAOLogger.debug("StartupOrchestrator", "finish", () -> timeline);
+        try {
+            File directory = TIMELINE_FILE.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            File temp = new File(TIMELINE_FILE.getPath() + ".tmp");
+            Files.write(temp.toPath(), timeline.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), TIMELINE_FILE.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            DAOLogger.error("StartupOrchestrator", "finish", "Error writing " + TIMELINE_FILE, e);
+        }
+    }
+
+    /**
+     * Steps in start order with their offset from the start, duration and thread
+     */
+    public String formatTimeline() {
+        List<Step> sorted;
+        synchronized (steps) {
+            sorted = new ArrayList<>(steps);
+        }
+        sorted.sort(Comparator.comparingLong(step -> step.startNanos));
+
+        StringBuilder timeline = new StringBuilder();
+        timeline.append(name).append(" startup - ").append(LocalDateTime.now().format(TIMESTAMP_FORMAT))
+            .append(", ").append(elapsedMillis(System.nanoTime())).append(" ms so far").append(System.lineSeparator())
+            .append(System.lineSeparator());
+        timeline.append(String.format("%9s %9s  %-22s %s%n", "Start ms", "Took ms", "Thread", "Step"));
+        for (Step step : sorted) {
+            timeline.append(String.format("%9d %9d  %-22s %s%s%n",
+                elapsedMillis(step.startNanos), TimeUnit.NANOSECONDS.toMillis(step.endNanos - step.startNanos),
+                step.threadName, step.name, step.success ? "" : " (failed)"));
+        }
+        return timeline.toString();
+    }
+
+    private void record(Step step) {
+        synchronized (steps) {
+            steps.add(step);
+        }
+    }
+
+    private long elapsedMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos - startNanos);
+    }
+
+    /**
+     * One entry on the timeline
+     */
+    private static final class Step {
+        final String name;
+        final String threadName;
+        final long startNanos;
+        final long endNanos;
+        final boolean success;
+
+        Step(String name, String threadName, long startNanos, long endNanos, boolean success) {
+            this.name = name;
+            this.threadName = threadName;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.success = success;
+        }
+    }
+}
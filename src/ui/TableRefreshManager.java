@@ -1,8 +1,14 @@
 package ui;
 
+import utils.Tracer;
 import javax.swing.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages table refresh operations across the application
@@ -11,6 +17,12 @@ public class TableRefreshManager {
     private static TableRefreshManager instance;
     private Map<String, DatabaseTableModel> activeTableModels;
     private Map<String, JTable> activeTables;
+
+    // Coalesced refreshes: keys requested before the next EDT turn are refreshed once
+    private final Set<String> pendingRefreshes = new LinkedHashSet<>();
+    private boolean flushScheduled;
+    private final LongAdder refreshesRequested = new LongAdder();
+    private final LongAdder refreshesExecuted = new LongAdder();
     
     private TableRefreshManager() {
         activeTableModels = new HashMap<>();
@@ -39,10 +51,16 @@ public class TableRefreshManager {
         DatabaseTableModel model = activeTableModels.get(tableKey);
         JTable table = activeTables.get(tableKey);
 
+        if (model != null && model.isSuspended()) {
+            // Off screen in a cached panel; the model reloads once when shown again
+            model.refreshData();
+            return;
+        }
+
         if (model != null && table != null) {
             System.out.println("🔄 Refreshing table: " + tableKey);
 
-            SwingUtilities.invokeLater(() -> {
+            SwingUtilities.invokeLater(Tracer.wrap("Refresh table " + tableKey, () -> {
                 try {
                     // Ensure data is loaded first
                     model.ensureDataLoaded();
@@ -67,12 +85,57 @@ public class TableRefreshManager {
                     System.err.println("❌ Error refreshing table " + tableKey + ": " + e.getMessage());
                     e.printStackTrace();
                 }
-            });
+            }));
         } else {
             System.out.println("⚠️ Table " + tableKey + " not found in registry");
         }
     }
     
+    /**
+     * Request a refresh that is coalesced with other requests made before the EDT runs it.
+     * Bulk operations call this per affected table and the table is reloaded only once.
+     */
+    public void scheduleRefresh(String... tableKeys) {
+        synchronized (pendingRefreshes) {
+            for (String tableKey : tableKeys) {
+                refreshesRequested.increment();
+                pendingRefreshes.add(tableKey);
+            }
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        SwingUtilities.invokeLater(Tracer.wrap("Scheduled table refresh", this::flushScheduledRefreshes));
+    }
+
+    private void flushScheduledRefreshes() {
+        String[] tableKeys;
+        synchronized (pendingRefreshes) {
+            tableKeys = pendingRefreshes.toArray(new String[0]);
+            pendingRefreshes.clear();
+            flushScheduled = false;
+        }
+        for (String tableKey : tableKeys) {
+            refreshesExecuted.increment();
+            refreshTable(tableKey);
+        }
+    }
+
+    /**
+     * Number of coalesced refreshes requested through scheduleRefresh
+     */
+    public long getRefreshesRequested() {
+        return refreshesRequested.sum();
+    }
+
+    /**
+     * Number of table reloads actually performed for scheduled refreshes
+     */
+    public long getRefreshesExecuted() {
+        return refreshesExecuted.sum();
+    }
+
     /**
      * Refresh all registered tables
      */
@@ -123,6 +186,28 @@ public class TableRefreshManager {
         activeTables.remove(tableKey);
     }
     
+    /**
+     * Keys under which a model is currently registered
+     */
+    public List<String> getKeysFor(DatabaseTableModel model) {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, DatabaseTableModel> entry : activeTableModels.entrySet()) {
+            if (entry.getValue() == model) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Unregister every key that still points at a model (cleanup when its panel is discarded)
+     */
+    public void unregisterModel(DatabaseTableModel model) {
+        for (String tableKey : getKeysFor(model)) {
+            unregisterTable(tableKey);
+        }
+    }
+
     /**
      * Get registered table model
      */
@@ -0,0 +1,457 @@
+package ui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import utils.DAOLogger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the rows of a table model, used for search-as-you-type.
+ *
+ * Rows live in stable slots keyed by their first column, so a model refresh only
+ * re-indexes rows that were added, removed or changed. Indexing runs on a background
+ * thread; the EDT only copies row references and answers queries. A query walks the
+ * shortest posting list for its trigrams and confirms each candidate with a substring
+ * check, so a keystroke costs time proportional to the rarest trigram, not the table.
+ *
+ * Between a model change and the end of its re-index the filter shows every row rather
+ * than match new rows against the old index; the filter is re-applied once the index
+ * has caught up.
+ */
+public class TableSearchIndex implements TableModelListener {
+    private static final int GRAM = 3;
+    private static final char CELL_SEPARATOR = '\n';
+
+    private static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "table-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long indexedGeneration = -1;
+    private final Runnable onIndexed;
+    private TableModel model;
+
+    // Index state, written by the indexer thread under the write lock
+    private Map<Long, IntList> postings = new HashMap<>();
+    private Map<String, Integer> slotByKey = new HashMap<>();
+    private String[] slotText = new String[0];
+    private BitSet liveSlots = new BitSet();
+    private IntList freeSlots = new IntList();
+    private int[] slotByModelRow = new int[0];
+    private long stalePostings;
+    private long totalPostings;
+
+    /**
+     * Create an index for a table model
+     * @param model Model to index
+     * @param onIndexed Called on the EDT after each index update (may be null)
+     */
+    public TableSearchIndex(TableModel model, Runnable onIndexed) {
+        this.onIndexed = onIndexed;
+        setModel(model);
+    }
+
+    /**
+     * Point the index at a different model and rebuild it
+     */
+    public void setModel(TableModel newModel) {
+        if (model != null) {
+            model.removeTableModelListener(this);
+        }
+        model = newModel;
+        model.addTableModelListener(this);
+        scheduleSync(true);
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        scheduleSync(e.getFirstRow() == TableModelEvent.HEADER_ROW);
+    }
+
+    /**
+     * Copy the row references on the calling (EDT) thread and index them in the background
+     */
+    private void scheduleSync(boolean rebuild) {
+        List<Object[]> rows = snapshotRows(model);
+        long version = generation.incrementAndGet();
+        INDEXER.execute(() -> {
+            // A newer snapshot is already queued; skip the stale one
+            if (version != generation.get()) {
+                return;
+            }
+            sync(rows, rebuild);
+            indexedGeneration = version;
+            if (onIndexed != null) {
+                SwingUtilities.invokeLater(onIndexed);
+            }
+        });
+    }
+
+    private static List<Object[]> snapshotRows(TableModel model) {
+        if (model instanceof DatabaseTableModel) {
+            return ((DatabaseTableModel) model).getRowsSnapshot();
+        }
+        int rowCount = model.getRowCount();
+        int columnCount = model.getColumnCount();
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] values = new Object[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                values[column] = model.getValueAt(row, column);
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    /**
+     * Bring the index in line with a row snapshot. Runs on the indexer thread only.
+     */
+    private void sync(List<Object[]> rows, boolean rebuild) {
+        long start = System.nanoTime();
+        String[] keys = new String[rows.size()];
+        String[] texts = new String[rows.size()];
+        Map<String, Integer> occurrences = new HashMap<>();
+        int changed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            String baseKey = row.length > 0 ? String.valueOf(row[0]) : "";
+            int occurrence = occurrences.merge(baseKey, 1, Integer::sum);
+            keys[i] = occurrence == 1 ? baseKey : baseKey + '\u0000' + occurrence;
+            texts[i] = rowText(row);
+
+            Integer slot = slotByKey.get(keys[i]);
+            if (slot == null || !texts[i].equals(slotText[slot])) {
+                changed++;
+            }
+        }
+
+        boolean full = rebuild || slotByKey.isEmpty()
+                || changed * 2 > rows.size()
+                || stalePostings > totalPostings / 2;
+        if (full) {
+            rebuild(keys, texts);
+        } else {
+            applyDiff(keys, texts);
+        }
+
+        int changedRows = changed;
+        DAOLogger.debug("TableSearchIndex", "sync", () -> "Search index " + (full ? "rebuilt" : "updated") + ": "
+                + rows.size() + " rows, " + changedRows + " changed in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Build fresh index structures without holding the lock, then swap them in
+     */
+    private void rebuild(String[] keys, String[] texts) {
+        Map<Long, IntList> newPostings = new HashMap<>();
+        Map<String, Integer> newSlotByKey = new HashMap<>(keys.length * 2);
+        String[] newSlotText = new String[Math.max(16, keys.length)];
+        BitSet newLiveSlots = new BitSet(keys.length);
+        int[] newSlotByModelRow = new int[keys.length];
+        long postingCount = 0;
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            newSlotByKey.put(keys[slot], slot);
+            newSlotText[slot] = texts[slot];
+            newLiveSlots.set(slot);
+            newSlotByModelRow[slot] = slot;
+            postingCount += addGrams(newPostings, texts[slot], slot);
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            slotByKey = newSlotByKey;
+            slotText = newSlotText;
+            liveSlots = newLiveSlots;
+            freeSlots = new IntList();
+            slotByModelRow = newSlotByModelRow;
+            totalPostings = postingCount;
+            stalePostings = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index only the rows whose key or text changed.
+     * Postings of removed rows are left in place and filtered out at query time;
+     * they are dropped on the next full rebuild.
+     */
+    private void applyDiff(String[] keys, String[] texts) {
+        lock.writeLock().lock();
+        try {
+            Set<String> seen = new HashSet<>(keys.length * 2);
+            int[] newSlotByModelRow = new int[keys.length];
+
+            for (int i = 0; i < keys.length; i++) {
+                seen.add(keys[i]);
+                Integer slot = slotByKey.get(keys[i]);
+                if (slot != null && texts[i].equals(slotText[slot])) {
+                    newSlotByModelRow[i] = slot;
+                    continue;
+                }
+                if (slot == null) {
+                    slot = allocateSlot();
+                    slotByKey.put(keys[i], slot);
+                } else {
+                    stalePostings += distinctGramCount(slotText[slot]);
+                }
+                slotText[slot] = texts[i];
+                liveSlots.set(slot);
+                totalPostings += addGrams(postings, texts[i], slot);
+                newSlotByModelRow[i] = slot;
+            }
+
+            slotByKey.entrySet().removeIf(entry -> {
+                if (seen.contains(entry.getKey())) {
+                    return false;
+                }
+                int slot = entry.getValue();
+                stalePostings += distinctGramCount(slotText[slot]);
+                slotText[slot] = null;
+                liveSlots.clear(slot);
+                freeSlots.add(slot);
+                return true;
+            });
+            slotByModelRow = newSlotByModelRow;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeSlots.size > 0) {
+            return freeSlots.values[--freeSlots.size];
+        }
+        int slot = slotByKey.size();
+        while (slot < slotText.length && (slotText[slot] != null || liveSlots.get(slot))) {
+            slot++;
+        }
+        if (slot >= slotText.length) {
+            String[] grown = new String[Math.max(16, slotText.length * 2)];
+            System.arraycopy(slotText, 0, grown, 0, slotText.length);
+            slotText = grown;
+        }
+        return slot;
+    }
+
+    /**
+     * Find the model rows whose text contains the query (case-insensitive)
+     * @param query Text typed by the user
+     * @return Matching model rows, or null when the query is blank (no filtering)
+     */
+    public BitSet findMatchingRows(String query) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet matchingSlots = new BitSet(slotText.length);
+            if (needle.length() < GRAM) {
+                for (int slot = liveSlots.nextSetBit(0); slot >= 0; slot = liveSlots.nextSetBit(slot + 1)) {
+                    if (slotText[slot].contains(needle)) {
+                        matchingSlots.set(slot);
+                    }
+                }
+            } else {
+                IntList candidates = shortestPostingList(needle);
+                if (candidates == null) {
+                    return new BitSet();
+                }
+                for (int i = 0; i < candidates.size; i++) {
+                    int slot = candidates.values[i];
+                    if (liveSlots.get(slot) && slotText[slot].contains(needle)) {
+                        matchingSlots.set(slot);
+                    }
+                }
+            }
+
+            BitSet matchingRows = new BitSet(slotByModelRow.length);
+            for (int row = 0; row < slotByModelRow.length; row++) {
+                if (matchingSlots.get(slotByModelRow[row])) {
+                    matchingRows.set(row);
+                }
+            }
+            return matchingRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntList shortestPostingList(String needle) {
+        IntList shortest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            IntList list = postings.get(gramKey(needle, i));
+            if (list == null) {
+                return null;
+            }
+            if (shortest == null || list.size < shortest.size) {
+                shortest = list;
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * Build a row filter for the query. While the model has changed since the last index
+     * update no filter is returned, and a filter built earlier lets every row through,
+     * because the index's row numbers belong to the old rows.
+     */
+    public RowFilter<TableModel, Integer> createRowFilter(String query) {
+        long builtFor = generation.get();
+        if (indexedGeneration != builtFor) {
+            return null;
+        }
+        BitSet matchingRows = findMatchingRows(query);
+        if (matchingRows == null) {
+            return null;
+        }
+        return new RowFilter<TableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                return generation.get() != builtFor || matchingRows.get(entry.getIdentifier());
+            }
+        };
+    }
+
+    /**
+     * Wire a search field to a table: each keystroke re-filters through the index,
+     * and the filter survives model refreshes and row sorter re-creation.
+     * @param table Table to filter
+     * @param searchField Field the user types into
+     * @return The index backing the filter
+     */
+    public static TableSearchIndex install(JTable table, JTextField searchField) {
+        TableSearchIndex[] holder = new TableSearchIndex[1];
+        Runnable applyFilter = () -> holder[0].applyFilter(table, searchField.getText());
+        TableSearchIndex index = new TableSearchIndex(table.getModel(), applyFilter);
+        holder[0] = index;
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { applyFilter.run(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { applyFilter.run(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { applyFilter.run(); }
+        });
+
+        table.addPropertyChangeListener(event -> {
+            if ("model".equals(event.getPropertyName()) && event.getNewValue() != index.model) {
+                index.setModel((TableModel) event.getNewValue());
+            } else if ("rowSorter".equals(event.getPropertyName()) && event.getNewValue() != null
+                    && !searchField.getText().trim().isEmpty()) {
+                // TableRefreshManager recreates the sorter on refresh; carry the filter over
+                SwingUtilities.invokeLater(applyFilter);
+            }
+        });
+        return index;
+    }
+
+    private void applyFilter(JTable table, String query) {
+        if (!(table.getRowSorter() instanceof TableRowSorter)
+                || table.getRowSorter().getModel() != table.getModel()) {
+            table.setRowSorter(new TableRowSorter<>(table.getModel()));
+        }
+        @SuppressWarnings("unchecked")
+        TableRowSorter<TableModel> sorter = (TableRowSorter<TableModel>) table.getRowSorter();
+        sorter.setRowFilter(createRowFilter(query));
+    }
+
+    private static String rowText(Object[] row) {
+        StringBuilder text = new StringBuilder();
+        for (Object value : row) {
+            if (value != null) {
+                text.append(value.toString().toLowerCase(Locale.ROOT));
+            }
+            text.append(CELL_SEPARATOR);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Add one posting per distinct trigram of the text
+     * @return Number of postings added
+     */
+    private static int addGrams(Map<Long, IntList> target, String text, int slot) {
+        int added = 0;
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            long key = gramKey(text, i);
+            if (key >= 0 && grams.add(key)) {
+                target.computeIfAbsent(key, k -> new IntList()).add(slot);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static int distinctGramCount(String text) {
+        if (text == null) {
+            return 0;
+        }
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            long key = gramKey(text, i);
+            if (key >= 0) {
+                grams.add(key);
+            }
+        }
+        return grams.size();
+    }
+
+    /**
+     * Pack three chars into a long; grams spanning a cell boundary return -1
+     */
+    private static long gramKey(String text, int offset) {
+        char a = text.charAt(offset);
+        char b = text.charAt(offset + 1);
+        char c = text.charAt(offset + 2);
+        if (a == CELL_SEPARATOR || b == CELL_SEPARATOR || c == CELL_SEPARATOR) {
+            return -1;
+        }
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Growable int array used for posting lists
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+    }
+}
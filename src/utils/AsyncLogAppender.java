@@ -0,0 +1,322 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer behind {@link DAOLogger}.
+ *
+ * Callers copy the raw parts of a log line into a preallocated slot of a ring buffer
+ * and return; a single writer thread formats the line and writes it to the console and
+ * to a log file that is rotated by size. When the buffer is full, DEBUG/INFO/SUCCESS
+ * events are dropped (and counted) while WARN and ERROR wait for a free slot. When the
+ * buffer runs empty the writer flushes the file once and parks until the next append
+ * wakes it, so an idle logger costs no CPU.
+ */
+class AsyncLogAppender {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String ANSI_RESET = "\u001B[0m";
+    private static final long FULL_PARK_NANOS = 100_000;
+    private static final long FLUSH_WAIT_NANOS = 1_000_000;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean writerParked;
+
+    private final File logFile;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private Writer fileWriter;
+    private long fileBytes;
+    private boolean unflushed;
+
+    // Writer-thread state
+    private final StringBuilder line = new StringBuilder(256);
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    /**
+     * @param capacity Ring buffer size (rounded up to a power of two)
+     * @param logFile File to append to, or null for console output only
+     * @param maxFileBytes Size at which the log file is rotated
+     * @param maxBackups Number of rotated files kept (lims.log.1 is the newest)
+     */
+    AsyncLogAppender(int capacity, File logFile, long maxFileBytes, int maxBackups) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.logFile = logFile;
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = Math.max(1, maxBackups);
+
+        writerThread = new Thread(this::drainLoop, "dao-logger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "dao-logger-shutdown"));
+    }
+
+    /**
+     * Hand an event to the writer thread.
+     * Formatting arguments are rendered on the writer thread, so they should not be
+     * mutated after the call.
+     */
+    void append(DAOLogger.LogLevel level, String className, String methodName,
+                String message, Object[] args, Exception exception) {
+        long sequence = claim(level);
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.level = level;
+        slot.timestamp = System.currentTimeMillis();
+        slot.className = className;
+        slot.methodName = methodName;
+        slot.message = message;
+        slot.args = args;
+        slot.exception = exception;
+        slot.published = sequence; // volatile write publishes the fields above
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private long claim(DAOLogger.LogLevel level) {
+        boolean mustDeliver = level == DAOLogger.LogLevel.WARN || level == DAOLogger.LogLevel.ERROR;
+        while (true) {
+            long next = claimed.get();
+            if (next - consumed >= slots.length) {
+                if (!mustDeliver) {
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(next, next + 1)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Wait until every event appended so far has been written and the file flushed
+     */
+    void flush() {
+        long target = claimed.get();
+        while (consumed < target && writerThread.isAlive()) {
+            LockSupport.parkNanos(FLUSH_WAIT_NANOS);
+        }
+        synchronized (this) {
+            flushFile();
+        }
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void drainLoop() {
+        long next = 0;
+        while (true) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.published != next) {
+                synchronized (this) {
+                    flushFile();
+                }
+                // Announce the park before checking again, so an append that lands in
+                // between either is seen here or sees the flag and unparks this thread
+                writerParked = true;
+                if (slot.published != next) {
+                    LockSupport.park(this);
+                }
+                writerParked = false;
+                continue;
+            }
+
+            try {
+                write(slot);
+            } catch (RuntimeException e) {
+                System.err.println("DAOLogger: failed to write log event - " + e);
+            }
+            slot.clear();
+            consumed = ++next;
+        }
+    }
+
+    private void write(Slot slot) {
+        String message = slot.args == null ? slot.message : String.format(slot.message, slot.args);
+        if (slot.exception != null) {
+            StringWriter trace = new StringWriter();
+            slot.exception.printStackTrace(new PrintWriter(trace));
+            message = message + System.lineSeparator() + "Stack trace: " + trace;
+        }
+        String timestamp = timestamp(slot.timestamp);
+
+        line.setLength(0);
+        line.append('[').append(timestamp).append("] ").append(emojiFor(slot.level)).append(' ')
+            .append(slot.className).append('.').append(slot.methodName).append(": ")
+            .append(colorFor(slot.level)).append(message).append(ANSI_RESET);
+        PrintStream console = slot.level == DAOLogger.LogLevel.ERROR ? System.err : System.out;
+        console.println(line);
+
+        if (logFile != null) {
+            line.setLength(0);
+            line.append('[').append(timestamp).append("] ").append(slot.level.name());
+            for (int pad = slot.level.name().length(); pad < 8; pad++) {
+                line.append(' ');
+            }
+            line.append(slot.className).append('.').append(slot.methodName).append(": ")
+                .append(message).append(System.lineSeparator());
+            synchronized (this) {
+                writeToFile(line);
+            }
+        }
+    }
+
+    private void writeToFile(CharSequence text) {
+        try {
+            if (fileWriter == null) {
+                openFile();
+            }
+            fileWriter.append(text);
+            unflushed = true;
+            // Characters approximate bytes closely enough for rotation
+            fileBytes += text.length();
+            if (fileBytes >= maxFileBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            System.err.println("DAOLogger: failed to write " + logFile + " - " + e.getMessage());
+            closeFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        File parent = logFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        fileWriter = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(logFile, true), StandardCharsets.UTF_8), 64 * 1024);
+        fileBytes = logFile.length();
+    }
+
+    /**
+     * lims.log becomes lims.log.1, lims.log.1 becomes lims.log.2, and so on;
+     * the oldest backup is deleted
+     */
+    private void rotate() throws IOException {
+        closeFile();
+        new File(logFile.getPath() + "." + maxBackups).delete();
+        for (int i = maxBackups - 1; i >= 1; i--) {
+            File backup = new File(logFile.getPath() + "." + i);
+            if (backup.exists()) {
+                backup.renameTo(new File(logFile.getPath() + "." + (i + 1)));
+            }
+        }
+        logFile.renameTo(new File(logFile.getPath() + ".1"));
+        openFile();
+    }
+
+    private void flushFile() {
+        if (fileWriter != null && unflushed) {
+            try {
+                unflushed = false;
+                fileWriter.flush();
+            } catch (IOException e) {
+                System.err.println("DAOLogger: failed to flush " + logFile + " - " + e.getMessage());
+                closeFile();
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } catch (IOException ignored) {
+                // Nothing more can be done with a broken log file
+            }
+            fileWriter = null;
+        }
+    }
+
+    /**
+     * Timestamps only change once a second, so the formatted text is reused within it
+     */
+    private String timestamp(long millis) {
+        long second = millis / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(second));
+        }
+        return cachedTimestamp;
+    }
+
+    private static String emojiFor(DAOLogger.LogLevel level) {
+        switch (level) {
+            case DEBUG: return "🔍";
+            case INFO: return "ℹ️";
+            case WARN: return "⚠️";
+            case ERROR: return "❌";
+            case SUCCESS: return "✅";
+            default: return "📝";
+        }
+    }
+
+    private static String colorFor(DAOLogger.LogLevel level) {
+        switch (level) {
+            case DEBUG: return "\u001B[36m"; // Cyan
+            case INFO: return "\u001B[34m";  // Blue
+            case WARN: return "\u001B[33m";  // Yellow
+            case ERROR: return "\u001B[31m"; // Red
+            case SUCCESS: return "\u001B[32m"; // Green
+            default: return ANSI_RESET;
+        }
+    }
+
+    /**
+     * One preallocated event; reused every time the ring wraps
+     */
+    private static final class Slot {
+        volatile long published = -1;
+        DAOLogger.LogLevel level;
+        long timestamp;
+        String className;
+        String methodName;
+        String message;
+        Object[] args;
+        Exception exception;
+
+        void clear() {
+            className = null;
+            methodName = null;
+            message = null;
+            args = null;
+            exception = null;
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package utils;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.File;
+import java.util.function.Supplier;
 
 /**
  * Comprehensive logging utility for DAO operations
+ *
+ * Logging is asynchronous: a call checks the level, hands the raw message to a ring
+ * buffer and returns; formatting and I/O happen on a single writer thread (see
+ * {@link AsyncLogAppender}). Output goes to the console and to logs/lims.log, rotated
+ * at 10 MB with 5 backups. Use the pattern or Supplier overloads for messages that are
+ * costly to build, so nothing is built when the level is disabled.
+ *
+ * Settings can be overridden with the system properties lims.log.level
+ * (DEBUG, INFO, WARN, ERROR) and lims.log.file ("none" for console only).
  */
 public class DAOLogger {
-    
-    private static final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    private static boolean debugMode = true;
-    
+
+    private static final String DEFAULT_LOG_FILE = "logs/lims.log";
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_BACKUP_FILES = 5;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final AsyncLogAppender appender = createAppender();
+    private static volatile int minimumSeverity = severityOf(levelFromProperty());
+
     public enum LogLevel {
         DEBUG, INFO, WARN, ERROR, SUCCESS
     }
-    
+
     /**
      * Log a message with specified level
      * @param level Log level
@@ -25,94 +37,112 @@ public class DAOLogger {
      * @param message Log message
      */
     public static void log(LogLevel level, String className, String methodName, String message) {
-        String timestamp = timestampFormat.format(new Date());
-        String emoji = getEmojiForLevel(level);
-        String colorCode = getColorCodeForLevel(level);
-        
-        String logMessage = String.format("[%s] %s %s.%s: %s%s%s", 
-            timestamp, emoji, className, methodName, colorCode, message, "\u001B[0m");
-        
-        if (level == LogLevel.ERROR) {
-            System.err.println(logMessage);
-        } else {
-            System.out.println(logMessage);
+        if (isEnabled(level)) {
+            appender.append(level, className, methodName, message, null, null);
         }
     }
-    
+
+    /**
+     * Log a message built from a String.format pattern. The pattern is only formatted,
+     * on the writer thread, if the level is enabled.
+     */
+    public static void log(LogLevel level, String className, String methodName, String pattern, Object... args) {
+        if (isEnabled(level)) {
+            appender.append(level, className, methodName, pattern, args, null);
+        }
+    }
+
+    /**
+     * Check whether messages at a level are written
+     */
+    public static boolean isEnabled(LogLevel level) {
+        return severityOf(level) >= minimumSeverity;
+    }
+
     /**
      * Log debug message
      */
     public static void debug(String className, String methodName, String message) {
-        if (debugMode) {
-            log(LogLevel.DEBUG, className, methodName, message);
+        log(LogLevel.DEBUG, className, methodName, message);
+    }
+
+    /**
+     * Log debug message from a String.format pattern
+     */
+    public static void debug(String className, String methodName, String pattern, Object... args) {
+        log(LogLevel.DEBUG, className, methodName, pattern, args);
+    }
+
+    /**
+     * Log debug message built only if debug logging is enabled
+     */
+    public static void debug(String className, String methodName, Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, className, methodName, message.get());
         }
     }
-    
+
     /**
      * Log info message
      */
     public static void info(String className, String methodName, String message) {
         log(LogLevel.INFO, className, methodName, message);
     }
-    
+
     /**
      * Log warning message
      */
     public static void warn(String className, String methodName, String message) {
         log(LogLevel.WARN, className, methodName, message);
     }
-    
+
     /**
      * Log error message
      */
     public static void error(String className, String methodName, String message) {
         log(LogLevel.ERROR, className, methodName, message);
     }
-    
+
     /**
      * Log success message
      */
     public static void success(String className, String methodName, String message) {
         log(LogLevel.SUCCESS, className, methodName, message);
     }
-    
+
     /**
-     * Log error with exception details
+     * Log error with exception details, including the stack trace
      */
     public static void error(String className, String methodName, String message, Exception e) {
-        String fullMessage = message + " - " + e.getMessage();
-        log(LogLevel.ERROR, className, methodName, fullMessage);
-        
-        if (debugMode) {
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-            e.printStackTrace(pw);
-            log(LogLevel.DEBUG, className, methodName, "Stack trace: " + sw.toString());
+        if (!isEnabled(LogLevel.ERROR)) {
+            return;
         }
+        appender.append(LogLevel.ERROR, className, methodName, message + " - " + e.getMessage(),
+            null, e);
     }
-    
+
     /**
      * Log database operation start
      */
     public static void logDatabaseOperation(String className, String operation, String entity, String details) {
-        info(className, operation, String.format("Starting %s operation for %s: %s", operation, entity, details));
+        log(LogLevel.INFO, className, operation, "Starting %s operation for %s: %s", operation, entity, details);
     }
-    
+
     /**
      * Log database operation success
      */
     public static void logDatabaseSuccess(String className, String operation, String entity, int rowsAffected) {
-        success(className, operation, String.format("%s operation completed for %s. Rows affected: %d", 
-            operation, entity, rowsAffected));
+        log(LogLevel.SUCCESS, className, operation, "%s operation completed for %s. Rows affected: %d",
+            operation, entity, rowsAffected);
     }
-    
+
     /**
      * Log database operation failure
      */
     public static void logDatabaseFailure(String className, String operation, String entity, String reason) {
-        error(className, operation, String.format("%s operation failed for %s: %s", operation, entity, reason));
+        log(LogLevel.ERROR, className, operation, "%s operation failed for %s: %s", operation, entity, reason);
     }
-    
+
     /**
      * Log connection status
      */
@@ -123,73 +153,66 @@ public class DAOLogger {
             error(className, "testConnection", "Database connection failed");
         }
     }
-    
+
     /**
      * Log validation error
      */
     public static void logValidationError(String className, String methodName, String field, String value, String reason) {
-        error(className, methodName, String.format("Validation failed for field '%s' with value '%s': %s", 
-            field, value, reason));
+        log(LogLevel.ERROR, className, methodName, "Validation failed for field '%s' with value '%s': %s",
+            field, value, reason);
     }
-    
+
     /**
      * Log performance metrics
      */
     public static void logPerformance(String className, String methodName, long executionTimeMs) {
         if (executionTimeMs > 1000) {
-            warn(className, methodName, String.format("Slow operation detected: %d ms", executionTimeMs));
-        } else {
-            debug(className, methodName, String.format("Operation completed in %d ms", executionTimeMs));
+            log(LogLevel.WARN, className, methodName, "Slow operation detected: %d ms", executionTimeMs);
+        } else if (isDebugMode()) {
+            log(LogLevel.DEBUG, className, methodName, "Operation completed in %d ms", executionTimeMs);
         }
     }
-    
+
     /**
-     * Get emoji for log level
+     * Enable or disable debug mode
      */
-    private static String getEmojiForLevel(LogLevel level) {
-        switch (level) {
-            case DEBUG: return "🔍";
-            case INFO: return "ℹ️";
-            case WARN: return "⚠️";
-            case ERROR: return "❌";
-            case SUCCESS: return "✅";
-            default: return "📝";
-        }
+    public static void setDebugMode(boolean enabled) {
+        setLevel(enabled ? LogLevel.DEBUG : LogLevel.INFO);
     }
-    
+
     /**
-     * Get ANSI color code for log level
+     * Check if debug mode is enabled
      */
-    private static String getColorCodeForLevel(LogLevel level) {
-        switch (level) {
-            case DEBUG: return "\u001B[36m"; // Cyan
-            case INFO: return "\u001B[34m";  // Blue
-            case WARN: return "\u001B[33m";  // Yellow
-            case ERROR: return "\u001B[31m"; // Red
-            case SUCCESS: return "\u001B[32m"; // Green
-            default: return "\u001B[0m";    // Reset
-        }
+    public static boolean isDebugMode() {
+        return isEnabled(LogLevel.DEBUG);
     }
-    
+
     /**
-     * Enable or disable debug mode
+     * Set the lowest level that is written (SUCCESS counts as INFO)
      */
-    public static void setDebugMode(boolean enabled) {
-        debugMode = enabled;
+    public static void setLevel(LogLevel level) {
+        minimumSeverity = severityOf(level);
     }
-    
+
     /**
-     * Check if debug mode is enabled
+     * Wait until everything logged so far has been written out
      */
-    public static boolean isDebugMode() {
-        return debugMode;
+    public static void flush() {
+        appender.flush();
+    }
+
+    /**
+     * Number of events discarded because the buffer was full
+     */
+    public static long getDroppedCount() {
+        return appender.getDroppedCount();
     }
-    
+
     /**
      * Log method entry (for debugging)
      */
     public static void logMethodEntry(String className, String methodName, Object... params) {
-        if (debugMode) {
+        if (isDebugMode()) {
             StringBuilder sb = new StringBuilder();
             sb.append("Method entry");
             if (params.length > 0) {
@@ -202,13 +225,38 @@ public class DAOLogger {
             debug(className, methodName, sb.toString());
         }
     }
-    
+
     /**
      * Log method exit (for debugging)
      */
     public static void logMethodExit(String className, String methodName, Object result) {
-        if (debugMode) {
+        if (isDebugMode()) {
             debug(className, methodName, "Method exit with result: " + result);
         }
     }
+
+    private static AsyncLogAppender createAppender() {
+        String path = System.getProperty("lims.log.file", DEFAULT_LOG_FILE);
+        File logFile = path.isEmpty() || "none".equalsIgnoreCase(path) ? null : new File(path);
+        return new AsyncLogAppender(BUFFER_SIZE, logFile, MAX_FILE_BYTES, MAX_BACKUP_FILES);
+    }
+
+    private static LogLevel levelFromProperty() {
+        String level = System.getProperty("lims.log.level", "INFO");
+        try {
+            return LogLevel.valueOf(level.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("DAOLogger: unknown log level '" + level + "', using INFO");
+            return LogLevel.INFO;
+        }
+    }
+
+    private static int severityOf(LogLevel level) {
+        switch (level) {
+            case DEBUG: return 0;
+            case WARN: return 2;
+            case ERROR: return 3;
+            default: return 1; // INFO and SUCCESS
+        }
+    }
 }
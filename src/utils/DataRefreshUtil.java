@@ -14,91 +14,91 @@ public class DataRefreshUtil {
      * Refresh all tables related to complaints
      */
     public static void refreshComplaintData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh complaint data", () -> {
             TableRefreshManager.getInstance().refreshTable("complaints");
             TableRefreshManager.getInstance().refreshRelatedTables("complaint");
             System.out.println("✓ Complaint data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to software requests
      */
     public static void refreshSoftwareRequestData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh software request data", () -> {
             TableRefreshManager.getInstance().refreshTable("software_requests");
             TableRefreshManager.getInstance().refreshRelatedTables("software");
             JPanelDataManager.getInstance().refreshPanel("software_management");
             System.out.println("✓ Software request data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to feedback
      */
     public static void refreshFeedbackData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh feedback data", () -> {
             TableRefreshManager.getInstance().refreshTable("feedback");
             TableRefreshManager.getInstance().refreshAllTables(); // Feedback might affect multiple areas
             System.out.println("✓ Feedback data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to lab reservations
      */
     public static void refreshLabReservationData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh lab reservation data", () -> {
             TableRefreshManager.getInstance().refreshTable("lab_reservations");
             TableRefreshManager.getInstance().refreshRelatedTables("reservation");
             JPanelDataManager.getInstance().refreshPanel("lab_schedule");
             System.out.println("✓ Lab reservation data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to computers
      */
     public static void refreshComputerData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh computer data", () -> {
             TableRefreshManager.getInstance().refreshTable("computers");
             TableRefreshManager.getInstance().refreshRelatedTables("computer");
             JPanelDataManager.getInstance().refreshPanel("computer_inventory");
             System.out.println("✓ Computer data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to labs
      */
     public static void refreshLabData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh lab data", () -> {
             TableRefreshManager.getInstance().refreshTable("labs");
             TableRefreshManager.getInstance().refreshRelatedTables("lab");
             System.out.println("✓ Lab data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables related to users
      */
     public static void refreshUserData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh user data", () -> {
             TableRefreshManager.getInstance().refreshTable("user_access");
             TableRefreshManager.getInstance().refreshRelatedTables("user");
             System.out.println("✓ User data refreshed");
-        });
+        }));
     }
     
     /**
      * Refresh all tables in the application
      */
     public static void refreshAllData() {
-        SwingUtilities.invokeLater(() -> {
+        SwingUtilities.invokeLater(Tracer.wrap("Refresh all data", () -> {
             TableRefreshManager.getInstance().refreshAllTables();
             JPanelDataManager.getInstance().refreshAllPanels();
             System.out.println("✓ All data refreshed");
-        });
+        }));
     }
     
     /**
@@ -7,11 +7,70 @@ import java.util.List;
 
 /**
  * Utility class to populate dropdown menus from database data
+ * The lab, computer and software lists are reference data: they are loaded once (normally
+ * during dashboard start-up) and reused for a few minutes, so opening a dialog does not
+ * query the database on the EDT.
  */
 public class DatabaseDropdownPopulator {
     private static final String URL = "jdbc:postgresql://localhost:5434/lims_db";
     private static final String USER = "postgres";
     private static final String PASSWORD = "superadmin";
+    private static final long REFERENCE_DATA_MAX_AGE_MILLIS = 5 * 60 * 1000;
+
+    private static final String LAB_QUERY = "SELECT DISTINCT lab_name FROM labs WHERE status = 'Active' ORDER BY lab_name";
+    private static final String COMPUTER_QUERY = "SELECT computer_id FROM computers WHERE status = 'Available' ORDER BY computer_id";
+    private static final String SOFTWARE_QUERY = "SELECT DISTINCT software_name FROM software WHERE status = 'Active' ORDER BY software_name";
+
+    // Reference data and when it was loaded; null until loaded or after refreshAllDropdowns
+    private static volatile List<String> labNames;
+    private static volatile List<String> computerIds;
+    private static volatile List<String> softwareNames;
+    private static volatile long referenceDataLoadedAt;
+
+    /**
+     * Load the lab, computer and software lists over one connection
+     * @return true if they were loaded
+     */
+    public static boolean preloadReferenceData() {
+        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            List<String> labs = loadNames(conn, LAB_QUERY);
+            List<String> computers = loadNames(conn, COMPUTER_QUERY);
+            List<String> software = loadNames(conn, SOFTWARE_QUERY);
+            labNames = labs;
+            computerIds = computers;
+            softwareNames = software;
+            referenceDataLoadedAt = System.currentTimeMillis();
+            return true;
+        } catch (SQLException e) {
+            DAOLogger.warn("DatabaseDropdownPopulator", "preloadReferenceData", "Could not load reference data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static List<String> loadNames(Connection conn, String query) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * A preloaded list if it is still fresh, otherwise the result of its query, or null if the database is unavailable
+     */
+    private static List<String> referenceList(List<String> preloaded, String query) {
+        if (preloaded != null && System.currentTimeMillis() - referenceDataLoadedAt < REFERENCE_DATA_MAX_AGE_MILLIS) {
+            return preloaded;
+        }
+        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            return loadNames(conn, query);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
     
     /**
      * Populate department dropdown from database
@@ -36,15 +95,10 @@ public class DatabaseDropdownPopulator {
         JComboBox<String> combo = new JComboBox<>();
         combo.addItem("All Labs");
         
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT DISTINCT lab_name FROM labs WHERE status = 'Active' ORDER BY lab_name")) {
-            
-            while (rs.next()) {
-                combo.addItem(rs.getString("lab_name"));
-            }
-            
-        } catch (SQLException e) {
+        List<String> labs = referenceList(labNames, LAB_QUERY);
+        if (labs != null) {
+            labs.forEach(combo::addItem);
+        } else {
             // Fallback to hardcoded values if database is not available
             combo.addItem("CS Lab 1");
             combo.addItem("CS Lab 2");
@@ -62,15 +116,10 @@ public class DatabaseDropdownPopulator {
     public static JComboBox<String> createComputerCombo() {
         JComboBox<String> combo = new JComboBox<>();
         
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT computer_id FROM computers WHERE status = 'Available' ORDER BY computer_id")) {
-            
-            while (rs.next()) {
-                combo.addItem(rs.getString("computer_id"));
-            }
-            
-        } catch (SQLException e) {
+        List<String> computers = referenceList(computerIds, COMPUTER_QUERY);
+        if (computers != null) {
+            computers.forEach(combo::addItem);
+        } else {
             // Fallback to sample values if database is not available
             combo.addItem("PC-CS1001");
             combo.addItem("PC-CS1002");
@@ -86,15 +135,10 @@ public class DatabaseDropdownPopulator {
     public static JComboBox<String> createSoftwareCombo() {
         JComboBox<String> combo = new JComboBox<>();
         
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT DISTINCT software_name FROM software WHERE status = 'Active' ORDER BY software_name")) {
-            
-            while (rs.next()) {
-                combo.addItem(rs.getString("software_name"));
-            }
-            
-        } catch (SQLException e) {
+        List<String> software = referenceList(softwareNames, SOFTWARE_QUERY);
+        if (software != null) {
+            software.forEach(combo::addItem);
+        } else {
             // Fallback to common software if database is not available
             combo.addItem("Microsoft Office");
             combo.addItem("Visual Studio");
@@ -257,7 +301,10 @@ public class DatabaseDropdownPopulator {
      * Refresh all database-connected dropdowns
      */
     public static void refreshAllDropdowns() {
-        // This method can be called to refresh all dropdowns when database data changes
+        // Drop the cached reference data so the next dropdown reads the database again
+        labNames = null;
+        computerIds = null;
+        softwareNames = null;
         DAOLogger.info("DatabaseDropdownPopulator", "refreshAllDropdowns", "Refreshing all dropdown data from database");
     }
 }
@@ -1,67 +1,66 @@
 package utils;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class for generating unique IDs for various entities
+ * Entity IDs are a prefix plus a 13-character base32 Snowflake ID (see SnowflakeIdGenerator),
+ * e.g. PC-0CKD3T1Y9G01A: unique across clients with distinct node IDs and across restarts,
+ * and sorted by creation time.
  */
 public class IdGenerator {
     
+    private static final SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(SnowflakeIdGenerator.defaultNodeId());
     private static final AtomicInteger counter = new AtomicInteger(1);
     private static final Random random = new Random();
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
+    
+    /**
+     * Next 64-bit ID
+     * @return Unique, time-ordered ID
+     */
+    public static long nextId() {
+        return snowflake.nextId();
+    }
     
     /**
      * Generate unique computer ID
-     * @return Unique computer ID in format PC-YYYYMMDD-XXX
+     * @return Unique computer ID in format PC-XXXXXXXXXXXXX
      */
     public static String generateComputerId() {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("PC-%s-%03d", date, sequence % 1000);
+        return generateCustomId("PC");
     }
     
     /**
      * Generate unique complaint ID
-     * @return Unique complaint ID in format COMP-YYYYMMDD-XXX
+     * @return Unique complaint ID in format COMP-XXXXXXXXXXXXX
      */
     public static String generateComplaintId() {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("COMP-%s-%03d", date, sequence % 1000);
+        return generateCustomId("COMP");
     }
     
     /**
      * Generate unique software request ID
-     * @return Unique software request ID in format SW-YYYYMMDD-XXX
+     * @return Unique software request ID in format SW-XXXXXXXXXXXXX
      */
     public static String generateSoftwareRequestId() {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("SW-%s-%03d", date, sequence % 1000);
+        return generateCustomId("SW");
     }
     
     /**
      * Generate unique feedback ID
-     * @return Unique feedback ID in format FB-YYYYMMDD-XXX
+     * @return Unique feedback ID in format FB-XXXXXXXXXXXXX
      */
     public static String generateFeedbackId() {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("FB-%s-%03d", date, sequence % 1000);
+        return generateCustomId("FB");
     }
     
     /**
      * Generate unique lab reservation ID
-     * @return Unique lab reservation ID in format LAB-YYYYMMDD-XXX
+     * @return Unique lab reservation ID in format LAB-XXXXXXXXXXXXX
      */
     public static String generateLabReservationId() {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("LAB-%s-%03d", date, sequence % 1000);
+        return generateCustomId("LAB");
     }
     
     /**
@@ -80,14 +79,20 @@ public class IdGenerator {
      * @return Unique ID with custom prefix
      */
     public static String generateCustomId(String prefix) {
-        String date = dateFormat.format(new Date());
-        int sequence = counter.getAndIncrement();
-        return String.format("%s-%s-%03d", prefix, date, sequence % 1000);
+        return prefix + "-" + SnowflakeIdGenerator.toBase32(snowflake.nextId());
+    }
+    
+    /**
+     * Node ID this process generates IDs under
+     * @return Node ID (0-1023)
+     */
+    public static int getNodeId() {
+        return snowflake.getNodeId();
     }
     
     /**
      * Generate simple sequential ID
-     * @return Sequential integer ID
+     * @return Sequential integer ID, unique within this process only
      */
     public static int generateSequentialId() {
         return counter.getAndIncrement();
@@ -0,0 +1,78 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SnowflakeIdGenerator throughput and checks the IDs for duplicates and ordering.
+ * Run with: java utils.IdGeneratorBenchmark [threads] [idsPerThread]
+ *
+ * One node can hand out at most 4096 IDs per millisecond (the 12-bit sequence), so about
+ * 4 million per second is the ceiling whatever the thread count.
+ */
+public class IdGeneratorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.defaultNodeId());
+
+        // Warm-up so the timed run measures compiled code
+        for (int i = 0; i < 500_000; i++) {
+            generator.nextId();
+        }
+
+        long[][] ids = new long[threads][idsPerThread];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long[] out = ids[t];
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < out.length; i++) {
+                        out[i] = generator.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "id-benchmark-" + t);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - begin;
+
+        long total = (long) threads * idsPerThread;
+        double perSecond = total / (elapsedNanos / 1e9);
+        System.out.printf("%d threads, %d IDs in %d ms: %.2f million IDs/s%n",
+            threads, total, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond / 1e6);
+
+        // Each thread's IDs must increase; all IDs together must be distinct
+        long[] all = new long[(int) total];
+        int index = 0;
+        for (long[] perThread : ids) {
+            for (int i = 1; i < perThread.length; i++) {
+                if (perThread[i] <= perThread[i - 1]) {
+                    throw new IllegalStateException("IDs not increasing in one thread at " + i);
+                }
+            }
+            System.arraycopy(perThread, 0, all, index, perThread.length);
+            index += perThread.length;
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                throw new IllegalStateException("Duplicate ID " + all[i]);
+            }
+        }
+        System.out.println("No duplicates; per-thread order strictly increasing; sample "
+            + SnowflakeIdGenerator.toBase32(all[all.length - 1]) + ", node " + generator.getNodeId()
+            + ", clock regressions " + generator.getClockRegressionCount());
+    }
+}
@@ -8,7 +8,8 @@ import java.util.List;
 
 public class InputValidator {
     // Regular expressions for validation
-    private static final Pattern COMPUTER_ID_PATTERN = Pattern.compile("^PC-[A-Z0-9]{6}$");
+    // PC- plus six characters (hand-entered) or a 13-character generated ID (IdGenerator)
+    private static final Pattern COMPUTER_ID_PATTERN = Pattern.compile("^PC-(?:[A-Z0-9]{6}|[A-Z0-9]{13})$");
     private static final Pattern LAB_ID_PATTERN = Pattern.compile("^LAB[0-9]{3}$");
     private static final Pattern USER_ID_PATTERN = Pattern.compile("^U[0-9]{3}$");
     private static final Pattern IP_ADDRESS_PATTERN = Pattern.compile("^\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}$");
@@ -40,7 +41,7 @@ public class InputValidator {
             throw new IllegalArgumentException("Computer ID cannot be empty");
         }
         if (!COMPUTER_ID_PATTERN.matcher(computerId).matches()) {
-            throw new IllegalArgumentException("Invalid Computer ID format. Expected format: PC-XXXXXX (where X is alphanumeric)");
+            throw new IllegalArgumentException("Invalid Computer ID format. Expected format: PC-XXXXXX or PC-XXXXXXXXXXXXX (where X is alphanumeric)");
         }
     }
 
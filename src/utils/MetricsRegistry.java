@@ -0,0 +1,161 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms and error counts per operation (class + method).
+ *
+ * Every DAO query is recorded automatically by the connection returned from
+ * AbstractDAO.getConnection; other code can call {@link #record} directly. Each
+ * operation is registered as an MBean under lims:type=Operation so it can be read
+ * from JConsole or VisualVM, and a summary table is written to
+ * logs/metrics-summary.txt once a minute.
+ */
+public class MetricsRegistry {
+    private static final String JMX_DOMAIN = "lims";
+    private static final File SUMMARY_FILE = new File("logs/metrics-summary.txt");
+    private static final long SUMMARY_INTERVAL_SECONDS = 60;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final ScheduledExecutorService summaryWriter;
+
+    private MetricsRegistry() {
+        summaryWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        summaryWriter.scheduleWithFixedDelay(this::writeSummary,
+            SUMMARY_INTERVAL_SECONDS, SUMMARY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Record one call of an operation
+     * @param className Class the operation belongs to, e.g. ComplaintDAO
+     * @param methodName Method name, e.g. findAll
+     * @param elapsedNanos Time taken
+     * @param success false if the call failed
+     */
+    public void record(String className, String methodName, long elapsedNanos, boolean success) {
+        operation(className, methodName).record(elapsedNanos, success);
+    }
+
+    /**
+     * Get (creating and registering on first use) the metrics of an operation
+     */
+    public OperationMetrics operation(String className, String methodName) {
+        String key = className + "." + methodName;
+        OperationMetrics metrics = operations.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        OperationMetrics created = new OperationMetrics(className, methodName);
+        metrics = operations.putIfAbsent(key, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        registerMBean(created);
+        return created;
+    }
+
+    /**
+     * All operations recorded so far, the ones with the most total time first
+     */
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> snapshot = new ArrayList<>(operations.values());
+        snapshot.sort(Comparator.comparingDouble(OperationMetrics::getTotalMicros).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Clear the counts of every operation
+     */
+    public void reset() {
+        operations.values().forEach(OperationMetrics::reset);
+    }
+
+    /**
+     * Render the current metrics as a plain-text table
+     */
+    public String formatSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("LIMS operation metrics - ").append(LocalDateTime.now().format(TIMESTAMP_FORMAT))
+            .append(System.lineSeparator()).append(System.lineSeparator());
+        summary.append(String.format("%-50s %9s %7s %10s %10s %10s %10s %10s%n",
+            "Operation", "Calls", "Errors", "Mean µs", "p50 µs", "p95 µs", "p99 µs", "Max µs"));
+        for (OperationMetrics metrics : getOperations()) {
+            if (metrics.getCount() == 0) {
+                continue;
+            }
+            summary.append(String.format("%-50s %9d %7d %10.0f %10d %10d %10d %10d%n",
+                metrics.getOperation(), metrics.getCount(), metrics.getErrorCount(), metrics.getMeanMicros(),
+                metrics.getP50Micros(), metrics.getP95Micros(), metrics.getP99Micros(), metrics.getMaxMicros()));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Write the summary table to logs/metrics-summary.txt, replacing the previous one
+     */
+    public void writeSummary() {
+        if (operations.isEmpty()) {
+            return;
+        }
+        try {
+            File directory = SUMMARY_FILE.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            File temp = new File(SUMMARY_FILE.getPath() + ".tmp");
+            Files.write(temp.toPath(), formatSummary().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), SUMMARY_FILE.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            DAOLogger.error("MetricsRegistry", "writeSummary", "Error writing " + SUMMARY_FILE, e);
+        }
+    }
+
+    private void registerMBean(OperationMetrics metrics) {
+        try {
+            // Class and method names are Java identifiers, so they need no quoting
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Operation,class=" +
+                metrics.getClassName() + ",name=" + metrics.getMethodName());
+            if (!mBeanServer.isRegistered(name)) {
+                mBeanServer.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            DAOLogger.warn("MetricsRegistry", "registerMBean",
+                "Could not register " + metrics.getOperation() + " with JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * MinHash signatures over character shingles of free text.
+ * Two signatures agree in a fraction of positions that estimates the Jaccard
+ * similarity of the underlying shingle sets.
+ */
+public class MinHash {
+    private final int shingleSize;
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    /**
+     * @param numHashes Signature length
+     * @param shingleSize Characters per shingle
+     * @param seed Seed for the hash family; signatures are only comparable for equal seeds
+     */
+    public MinHash(int numHashes, int shingleSize, long seed) {
+        this.shingleSize = shingleSize;
+        this.multipliers = new long[numHashes];
+        this.offsets = new long[numHashes];
+
+        Random random = new Random(seed);
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1L; // odd multiplier for multiply-shift hashing
+            offsets[i] = random.nextLong();
+        }
+    }
+
+    public int getSignatureLength() {
+        return multipliers.length;
+    }
+
+    /**
+     * Number of distinct positions a text is shingled at. Texts with very few shingles,
+     * e.g. "broken" or only punctuation, give signatures that say little about similarity.
+     * @param text Free text
+     * @return Shingle count, 0 for text that normalizes to nothing
+     */
+    public int shingleCount(String text) {
+        String normalized = normalize(text);
+        return normalized.isEmpty() ? 0 : Math.max(1, normalized.length() - shingleSize + 1);
+    }
+
+    /**
+     * Compute the signature of a text
+     * @param text Free text (case, punctuation and spacing are ignored)
+     * @return Signature of length {@link #getSignatureLength()}
+     */
+    public int[] signature(String text) {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return signature;
+        }
+
+        int shingles = Math.max(1, normalized.length() - shingleSize + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 1125899906842597L;
+            int end = Math.min(normalized.length(), start + shingleSize);
+            for (int i = start; i < end; i++) {
+                shingle = 31 * shingle + normalized.charAt(i);
+            }
+            for (int h = 0; h < multipliers.length; h++) {
+                int value = (int) ((multipliers[h] * shingle + offsets[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of two signatures
+     */
+    public static double similarity(int[] a, int[] b) {
+        int agree = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                agree++;
+            }
+        }
+        return (double) agree / a.length;
+    }
+
+    /**
+     * Lower-case letters and digits separated by single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else if (c != '\'') {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (in microseconds) and error count for one operation,
+ * e.g. ComplaintDAO.findAll
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String className;
+    private final String methodName;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String className, String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    void record(long elapsedNanos, boolean success) {
+        latency.record(elapsedNanos / 1000);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public String getClassName() { return className; }
+
+    public String getMethodName() { return methodName; }
+
+    @Override
+    public String getOperation() { return className + "." + methodName; }
+
+    @Override
+    public long getCount() { return latency.getCount(); }
+
+    @Override
+    public long getErrorCount() { return errors.sum(); }
+
+    @Override
+    public double getMeanMicros() { return latency.getMean(); }
+
+    @Override
+    public long getP50Micros() { return latency.getPercentile(50); }
+
+    @Override
+    public long getP95Micros() { return latency.getPercentile(95); }
+
+    @Override
+    public long getP99Micros() { return latency.getPercentile(99); }
+
+    @Override
+    public long getMaxMicros() { return latency.getMax(); }
+
+    /**
+     * Total time spent in the operation, in microseconds
+     */
+    public double getTotalMicros() { return latency.getMean() * latency.getCount(); }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,24 @@
+package utils;
+
+/**
+ * JMX view of the latency and call counts of one operation
+ */
+public interface OperationMetricsMXBean {
+    String getOperation();
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
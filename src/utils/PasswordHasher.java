@@ -0,0 +1,34 @@
+package utils;
+
+/**
+ * One password hashing scheme.
+ * Each scheme recognises its own stored format, so hashes written by an older
+ * scheme keep verifying after the PasswordManager switches to a newer one.
+ */
+public interface PasswordHasher {
+
+    /**
+     * Hash a password with a fresh salt
+     * @param password Plain text password
+     * @return Stored form of the hash, including the salt and any cost parameters
+     */
+    String hash(String password);
+
+    /**
+     * Check a password against a stored hash of this scheme
+     * @param password Plain text password
+     * @param storedHash Stored form written by {@link #hash}
+     * @return true if the password matches
+     */
+    boolean verify(String password, String storedHash);
+
+    /**
+     * Whether a stored hash is in this scheme's format
+     */
+    boolean canVerify(String storedHash);
+
+    /**
+     * Whether a stored hash of this scheme was made with weaker settings than the current ones
+     */
+    boolean needsRehash(String storedHash);
+}
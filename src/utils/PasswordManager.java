@@ -0,0 +1,154 @@
+package utils;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashes and verifies passwords on a small dedicated thread pool.
+ *
+ * New hashes use PBKDF2 with lims.password.iterations rounds (120000 by default);
+ * hashes in an older format still verify through the scheme that wrote them and are
+ * reported by {@link #needsRehash}. Hashing is deliberately slow, so it runs on
+ * lims.password.threads threads (half the cores by default) with a short queue: a burst
+ * of logins when a lab session starts waits its turn instead of occupying every CPU.
+ * When the queue is full the calling thread hashes, which slows the caller rather
+ * than dropping the request.
+ */
+public class PasswordManager {
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static PasswordManager instance;
+
+    private final List<PasswordHasher> hashers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor executor;
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private volatile PasswordHasher currentHasher;
+
+    private PasswordManager() {
+        int threads = Integer.getInteger("lims.password.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        currentHasher = new Pbkdf2PasswordHasher(Integer.getInteger("lims.password.iterations", 120_000));
+        hashers.add(currentHasher);
+        hashers.add(new Sha256PasswordHasher());
+    }
+
+    public static synchronized PasswordManager getInstance() {
+        if (instance == null) {
+            instance = new PasswordManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Hash a password with the current scheme
+     * @param password Plain text password
+     * @return Stored form of the hash, or null if hashing failed
+     */
+    public String hash(String password) {
+        if (password == null) {
+            return null;
+        }
+        PasswordHasher hasher = currentHasher;
+        String hash = run("hash", () -> hasher.hash(password));
+        hashes.increment();
+        return hash;
+    }
+
+    /**
+     * Check a password against a stored hash of any known scheme
+     * @param password Plain text password
+     * @param storedHash Stored hash
+     * @return true if the password matches
+     */
+    public boolean verify(String password, String storedHash) {
+        if (password == null || storedHash == null) {
+            return false;
+        }
+        PasswordHasher hasher = hasherFor(storedHash);
+        if (hasher == null) {
+            DAOLogger.warn("PasswordManager", "verify", "Stored password hash is in an unknown format");
+            return false;
+        }
+        Boolean matches = run("verify", () -> hasher.verify(password, storedHash));
+        verifications.increment();
+        return Boolean.TRUE.equals(matches);
+    }
+
+    /**
+     * Whether a stored hash should be replaced by one of the current scheme and cost
+     */
+    public boolean needsRehash(String storedHash) {
+        PasswordHasher hasher = currentHasher;
+        return !hasher.canVerify(storedHash) || hasher.needsRehash(storedHash);
+    }
+
+    /**
+     * Use another scheme for new hashes; hashes of the previous schemes keep verifying
+     */
+    public void setHasher(PasswordHasher hasher) {
+        hashers.remove(hasher);
+        hashers.add(0, hasher);
+        currentHasher = hasher;
+    }
+
+    private PasswordHasher hasherFor(String storedHash) {
+        for (PasswordHasher hasher : hashers) {
+            if (hasher.canVerify(storedHash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    private <T> T run(String operation, Callable<T> task) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Future<T> future = executor.submit(task);
+            T result = future.get();
+            success = true;
+            return result;
+        } catch (ExecutionException e) {
+            DAOLogger.error("PasswordManager", operation, "Password " + operation + " failed", e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            MetricsRegistry.getInstance().record("PasswordManager", operation, System.nanoTime() - start, success);
+        }
+    }
+
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    public long getVerificationCount() {
+        return verifications.sum();
+    }
+
+    /**
+     * Hashes and verifications waiting for a hashing thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+}
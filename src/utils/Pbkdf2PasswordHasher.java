@@ -0,0 +1,94 @@
+package utils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * PBKDF2-HMAC-SHA256 password hashes, stored as pbkdf2-sha256$iterations$salt$hash with hex salt and hash.
+ * The iteration count is stored with each hash, so raising it only affects new hashes
+ * and {@link #needsRehash} reports the old ones.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param iterations PBKDF2 iteration count; each doubling doubles the time a hash takes
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations);
+        return PREFIX + iterations + "$" + HEX.formatHex(salt) + "$" + HEX.formatHex(hash);
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        String[] parts = split(storedHash);
+        if (parts == null) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = HEX.parseHex(parts[1]);
+            byte[] expected = HEX.parseHex(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean canVerify(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        String[] parts = split(storedHash);
+        try {
+            return parts == null || Integer.parseInt(parts[0]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // iterations, salt, hash
+    private static String[] split(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = storedHash.substring(PREFIX.length()).split("\\$");
+        return parts.length == 3 ? parts : null;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
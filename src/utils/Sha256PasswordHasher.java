@@ -0,0 +1,62 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * The original single-round salted SHA-256 hashes, stored as salt:hash in hex.
+ * Kept so existing users can still log in; the PasswordManager rehashes them with
+ * the current scheme after a successful login.
+ */
+public class Sha256PasswordHasher implements PasswordHasher {
+    private static final int SALT_BYTES = 16;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return HEX.formatHex(salt) + ":" + HEX.formatHex(digest(salt, password));
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        if (!canVerify(storedHash)) {
+            return false;
+        }
+        String[] parts = storedHash.split(":");
+        try {
+            byte[] salt = HEX.parseHex(parts[0]);
+            byte[] expected = HEX.parseHex(parts[1]);
+            return salt.length == SALT_BYTES && MessageDigest.isEqual(expected, digest(salt, password));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean canVerify(String storedHash) {
+        return storedHash != null && storedHash.indexOf(':') > 0 && storedHash.split(":").length == 2;
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return false;
+    }
+
+    private static byte[] digest(byte[] salt, String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            // The original hashes used the platform charset; UTF-8 matches it for ASCII passwords
+            return md.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
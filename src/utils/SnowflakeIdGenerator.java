@@ -0,0 +1,174 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snowflake-style 64-bit IDs: 41 bits of milliseconds since 2024-01-01 UTC, a 10-bit node
+ * ID and a 12-bit per-millisecond sequence.
+ *
+ * IDs from one generator strictly increase, and IDs from generators with different node
+ * IDs never collide, so clients can create IDs without asking the database. The last
+ * timestamp and sequence are kept in one AtomicLong and advanced by compare-and-set.
+ * When a millisecond's 4096 sequence numbers run out, or the clock steps backwards, the
+ * generator carries on from the last timestamp it used. If that runs more than
+ * {@link #MAX_DRIFT_MILLIS} ahead of the clock, it waits for the clock to catch up.
+ */
+public class SnowflakeIdGenerator {
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    static final long MAX_DRIFT_MILLIS = 50;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int BASE32_LENGTH = 13;
+
+    private final long nodeBits;
+    private final int nodeId;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence, of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+    private final LongAdder clockRegressions = new LongAdder();
+
+    /**
+     * @param nodeId 0 to 1023; every client generating IDs at the same time needs its own
+     */
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Next ID; never blocks unless the generator is more than MAX_DRIFT_MILLIS ahead of the clock
+     */
+    public long nextId() {
+        boolean clockRechecked = false;
+        boolean regressionSeen = false;
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long previous = last.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, or the clock went back: carry on from the last timestamp.
+                // A full sequence overflows into the timestamp bits, i.e. borrows the next millisecond.
+                next = previous + 1;
+                if ((next >>> SEQUENCE_BITS) - now > MAX_DRIFT_MILLIS) {
+                    if (!clockRechecked) {
+                        // 'now' may be stale if this thread was descheduled; read the clock again first
+                        clockRechecked = true;
+                        continue;
+                    }
+                    // Sequence overflow stays within MAX_DRIFT_MILLIS, so further behind is the clock going back
+                    if (previousMillis - now > MAX_DRIFT_MILLIS && !regressionSeen) {
+                        regressionSeen = true;
+                        clockRegressions.increment();
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
+                }
+            }
+            if (last.compareAndSet(previous, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Calls that found the clock behind the IDs already handed out by more than MAX_DRIFT_MILLIS and had to wait
+     */
+    public long getClockRegressionCount() {
+        return clockRegressions.sum();
+    }
+
+    /**
+     * Creation time of an ID, in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Fixed-width, 13-character Crockford base32 rendering of an ID. The strings sort in the
+     * same order as the IDs, so prefixed string keys stay time-ordered.
+     */
+    public static String toBase32(long id) {
+        char[] chars = new char[BASE32_LENGTH];
+        for (int i = BASE32_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parse {@link #toBase32} output; lower case and the Crockford look-alikes I, L and O are accepted
+     */
+    public static long fromBase32(String text) {
+        if (text == null || text.length() != BASE32_LENGTH) {
+            throw new IllegalArgumentException("Not a base32 ID: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            id = (id << 5) | base32Value(Character.toUpperCase(text.charAt(i)));
+        }
+        return id;
+    }
+
+    private static int base32Value(char c) {
+        switch (c) {
+            case 'O':
+                return 0;
+            case 'I':
+            case 'L':
+                return 1;
+            default:
+                for (int value = 0; value < BASE32.length; value++) {
+                    if (BASE32[value] == c) {
+                        return value;
+                    }
+                }
+                throw new IllegalArgumentException("Not a base32 digit: " + c);
+        }
+    }
+
+    /**
+     * Node ID for this process: -Dlims.node.id if set, otherwise derived from the host name
+     * and process ID. Derived IDs can collide between hosts (1 in 1024 for a pair), so
+     * clients running side by side should be given distinct lims.node.id values.
+     */
+    public static int defaultNodeId() {
+        Integer configured = Integer.getInteger("lims.node.id");
+        if (configured != null) {
+            return configured & MAX_NODE_ID;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        int hash = (host + "/" + ManagementFactory.getRuntimeMXBean().getName()).hashCode();
+        return (hash ^ (hash >>> 10) ^ (hash >>> 20)) & MAX_NODE_ID;
+    }
+}
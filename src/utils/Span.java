@@ -0,0 +1,117 @@
+package utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed step of a traced request, e.g. a button click, a service call or a query.
+ * Spans form a tree through their parent IDs; all spans of one request share a trace ID.
+ * Close a span on the thread that started it, normally with try-with-resources.
+ */
+public final class Span implements AutoCloseable {
+    /** Returned when there is no trace to attach to; closing it does nothing */
+    static final Span NOOP = new Span(0, 0, 0, "", "", null, 0, 0);
+
+    private final long traceId;
+    private final long spanId;
+    private final long parentId;
+    private final String name;
+    private final String category;
+    private final Span previous;
+    private final long startNanos;
+    private final String threadName;
+    private final long threadId;
+    private final long handoffNanos;
+    private final long handoffThreadId;
+    private volatile long endNanos;
+    private Map<String, Object> tags;
+
+    Span(long traceId, long spanId, long parentId, String name, String category, Span previous,
+         long handoffNanos, long handoffThreadId) {
+        Thread thread = Thread.currentThread();
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.category = category;
+        this.previous = previous;
+        this.handoffNanos = handoffNanos;
+        this.handoffThreadId = handoffThreadId;
+        this.threadName = thread.getName();
+        this.threadId = thread.getId();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Attach a detail shown with the span, e.g. the SQL of a query
+     * @return This span, for chaining
+     */
+    public Span tag(String key, Object value) {
+        if (this != NOOP) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (this != NOOP && endNanos == 0) {
+            endNanos = System.nanoTime();
+            Tracer.finish(this);
+        }
+    }
+
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    // Getters
+    public long getTraceId() { return traceId; }
+
+    public long getSpanId() { return spanId; }
+
+    public long getParentId() { return parentId; }
+
+    public boolean isRoot() { return parentId == 0; }
+
+    public String getName() { return name; }
+
+    public String getCategory() { return category; }
+
+    public String getThreadName() { return threadName; }
+
+    public long getThreadId() { return threadId; }
+
+    public long getStartNanos() { return startNanos; }
+
+    public long getEndNanos() { return endNanos; }
+
+    public long getDurationNanos() { return endNanos == 0 ? 0 : endNanos - startNanos; }
+
+    /** When the work was handed over from another thread, or 0 if it was not */
+    public long getHandoffNanos() { return handoffNanos; }
+
+    public long getHandoffThreadId() { return handoffThreadId; }
+
+    public Map<String, Object> getTags() {
+        return tags == null ? Collections.emptyMap() : Collections.unmodifiableMap(tags);
+    }
+
+    Span getPrevious() { return previous; }
+
+    @Override
+    public String toString() {
+        return "Span{" +
+                "name='" + name + '\'' +
+                ", traceId=" + traceId +
+                ", spanId=" + spanId +
+                ", parentId=" + parentId +
+                ", thread='" + threadName + '\'' +
+                ", durationMicros=" + getDurationNanos() / 1000 +
+                '}';
+    }
+}
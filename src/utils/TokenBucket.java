@@ -0,0 +1,77 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * The bucket holds up to {@code capacity} tokens and gains {@code refillPerSecond} of them
+ * per second. Its whole state is one long, the time at which it will be full again, so
+ * taking a token is a single compare-and-set and contended callers never block: a bucket
+ * that will be full at time T has (capacity - (T - now) / interval) tokens now.
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    // System.nanoTime() at which the bucket is full again; in the past while it is full
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity Tokens available in a burst
+     * @param refillPerSecond Tokens regained per second
+     */
+    public TokenBucket(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.capacityNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take a token if one is available
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire() {
+        return tryAcquireOrWait() == 0;
+    }
+
+    /**
+     * Take a token if one is available
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquireOrWait() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long start = current - now < 0 ? now : current;
+            long next = start + intervalNanos;
+            long overdraft = next - now - capacityNanos;
+            if (overdraft > 0) {
+                return overdraft;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until a token will be available, without taking one
+     */
+    public long getWaitNanos() {
+        long now = System.nanoTime();
+        long current = fullAt.get();
+        long start = current - now < 0 ? now : current;
+        return Math.max(0, start + intervalNanos - now - capacityNanos);
+    }
+
+    /**
+     * Whether the bucket has refilled completely, i.e. has not been used recently
+     */
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+}
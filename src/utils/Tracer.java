@@ -0,0 +1,282 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight in-process tracing from a UI action down to the SQL it runs.
+ *
+ * A UI action opens a root span with {@link #startSpan}; code below it opens child spans
+ * the same way, and DAO queries and table reloads add theirs automatically while a trace
+ * is active. The current span lives in a ThreadLocal, so work handed to the EDT or an
+ * executor must be wrapped with {@link #wrap} to stay in the trace. Finished spans are kept
+ * in a bounded buffer and can be exported as Chrome trace JSON (chrome://tracing or
+ * https://ui.perfetto.dev).
+ */
+public final class Tracer {
+    private static final int MAX_SPANS = 20000;
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong ids = new AtomicLong();
+    private static final Deque<Span> finished = new ArrayDeque<>();
+    private static final long originNanos = System.nanoTime();
+    private static volatile boolean enabled = true;
+
+    private Tracer() {
+    }
+
+    /**
+     * Start a span as a child of the current one, or as the root of a new trace
+     * @param name What is being done, e.g. "Submit Complaint" or "ComplaintService.addComplaint"
+     * @param category Layer, e.g. ui, controller, service, sql
+     */
+    public static Span startSpan(String name, String category) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        return begin(name, category, CURRENT.get(), 0, 0);
+    }
+
+    /**
+     * Start a span only if a trace is already active on this thread.
+     * Used for low-level work (queries, table loads) that is only interesting as part of a request.
+     */
+    public static Span startChildSpan(String name, String category) {
+        Span parent = CURRENT.get();
+        if (!enabled || parent == null) {
+            return Span.NOOP;
+        }
+        return begin(name, category, parent, 0, 0);
+    }
+
+    /**
+     * Carry the current trace into a task run on another thread (EDT, executor, SwingWorker).
+     * The task runs inside a child span with the given name. Without an active trace the
+     * task is returned unchanged.
+     */
+    public static Runnable wrap(String name, Runnable task) {
+        Span parent = CURRENT.get();
+        if (!enabled || parent == null) {
+            return task;
+        }
+        long handoffNanos = System.nanoTime();
+        long handoffThreadId = Thread.currentThread().getId();
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(parent);
+            Span span = begin(name, "async", parent, handoffNanos, handoffThreadId);
+            try {
+                task.run();
+            } finally {
+                span.close();
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Callable version of {@link #wrap(String, Runnable)}
+     */
+    public static <T> Callable<T> wrap(String name, Callable<T> task) {
+        Span parent = CURRENT.get();
+        if (!enabled || parent == null) {
+            return task;
+        }
+        long handoffNanos = System.nanoTime();
+        long handoffThreadId = Thread.currentThread().getId();
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(parent);
+            Span span = begin(name, "async", parent, handoffNanos, handoffThreadId);
+            try {
+                return task.call();
+            } finally {
+                span.close();
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * The innermost open span on this thread, or null
+     */
+    public static Span currentSpan() {
+        return CURRENT.get();
+    }
+
+    private static Span begin(String name, String category, Span parent, long handoffNanos, long handoffThreadId) {
+        long spanId = ids.incrementAndGet();
+        long traceId = parent != null ? parent.getTraceId() : spanId;
+        long parentId = parent != null ? parent.getSpanId() : 0;
+        Span span = new Span(traceId, spanId, parentId, name, category, CURRENT.get(), handoffNanos, handoffThreadId);
+        CURRENT.set(span);
+        return span;
+    }
+
+    static void finish(Span span) {
+        if (CURRENT.get() == span) {
+            CURRENT.set(span.getPrevious());
+        }
+        synchronized (finished) {
+            finished.addLast(span);
+            if (finished.size() > MAX_SPANS) {
+                finished.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Finished spans still in the buffer, oldest first
+     */
+    public static List<Span> getSpans() {
+        synchronized (finished) {
+            return new ArrayList<>(finished);
+        }
+    }
+
+    /**
+     * Number of finished spans in the buffer
+     */
+    public static int getBufferedSpanCount() {
+        synchronized (finished) {
+            return finished.size();
+        }
+    }
+
+    /**
+     * Finished root spans (one per traced request), slowest first
+     * @param name Only roots with this name, or null for all
+     */
+    public static List<Span> getTraces(String name) {
+        List<Span> roots = new ArrayList<>();
+        for (Span span : getSpans()) {
+            if (span.isRoot() && (name == null || name.equals(span.getName()))) {
+                roots.add(span);
+            }
+        }
+        roots.sort(Comparator.comparingLong(Span::getDurationNanos).reversed());
+        return roots;
+    }
+
+    /**
+     * Write every buffered span as Chrome trace JSON
+     * @return Number of spans written
+     */
+    public static int exportChromeTrace(File file) throws IOException {
+        return writeChromeTrace(file, getSpans());
+    }
+
+    /**
+     * Write the spans of one trace as Chrome trace JSON
+     * @param traceId Trace ID (the root span's ID)
+     * @return Number of spans written
+     */
+    public static int exportChromeTrace(File file, long traceId) throws IOException {
+        List<Span> spans = new ArrayList<>();
+        for (Span span : getSpans()) {
+            if (span.getTraceId() == traceId) {
+                spans.add(span);
+            }
+        }
+        return writeChromeTrace(file, spans);
+    }
+
+    private static int writeChromeTrace(File file, List<Span> spans) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        Map<Long, String> threadNames = new HashMap<>();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+            boolean first = true;
+            for (Span span : spans) {
+                threadNames.putIfAbsent(span.getThreadId(), span.getThreadName());
+
+                StringBuilder event = new StringBuilder(256);
+                event.append(first ? "\n" : ",\n");
+                first = false;
+                event.append("{\"ph\":\"X\",\"pid\":1,\"tid\":").append(span.getThreadId())
+                    .append(",\"ts\":").append(micros(span.getStartNanos()))
+                    .append(",\"dur\":").append(Math.max(1, span.getDurationNanos() / 1000))
+                    .append(",\"name\":").append(quote(span.getName()))
+                    .append(",\"cat\":").append(quote(span.getCategory()))
+                    .append(",\"args\":{\"traceId\":").append(span.getTraceId())
+                    .append(",\"spanId\":").append(span.getSpanId())
+                    .append(",\"parentId\":").append(span.getParentId());
+                for (Map.Entry<String, Object> tag : span.getTags().entrySet()) {
+                    event.append(',').append(quote(tag.getKey())).append(':').append(quote(String.valueOf(tag.getValue())));
+                }
+                event.append("}}");
+
+                // Arrow from where the work was handed over to where it ran
+                if (span.getHandoffNanos() != 0) {
+                    event.append(",\n{\"ph\":\"s\",\"pid\":1,\"tid\":").append(span.getHandoffThreadId())
+                        .append(",\"ts\":").append(micros(span.getHandoffNanos()))
+                        .append(",\"id\":").append(span.getSpanId()).append(",\"name\":\"handoff\",\"cat\":\"flow\"}");
+                    event.append(",\n{\"ph\":\"f\",\"bp\":\"e\",\"pid\":1,\"tid\":").append(span.getThreadId())
+                        .append(",\"ts\":").append(micros(span.getStartNanos()))
+                        .append(",\"id\":").append(span.getSpanId()).append(",\"name\":\"handoff\",\"cat\":\"flow\"}");
+                }
+                writer.write(event.toString());
+            }
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                writer.write(",\n{\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey() +
+                    ",\"name\":\"thread_name\",\"args\":{\"name\":" + quote(thread.getValue()) + "}}");
+            }
+            writer.write("\n]}\n");
+        }
+        return spans.size();
+    }
+
+    private static long micros(long nanos) {
+        return (nanos - originNanos) / 1000;
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Tracer.enabled = enabled;
+    }
+
+    public static void clear() {
+        synchronized (finished) {
+            finished.clear();
+        }
+    }
+}